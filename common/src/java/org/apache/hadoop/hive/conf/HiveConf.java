@@ -4366,6 +4366,33 @@ public static enum ConfVars {
          "This flag should be set to true to enable use of native fast vector map join hash tables in\n" +
          "queries using MapJoin.\n" +
          "The default value is false."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BATCH_PROBE_ENABLED(
+        "hive.vectorized.execution.mapjoin.native.fast.batch.probe.enabled", true,
+         "This flag should be set to true to let native vector map joins on a single long key probe\n" +
+         "the fast hash table with all the keys of a batch in one call instead of one lookup per row.\n" +
+         "The default value is true."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BLOOM_FILTER_ENABLED(
+        "hive.vectorized.execution.mapjoin.native.fast.bloom.filter.enabled", true,
+         "This flag should be set to true to build a Bloom filter over the keys of the fast hash table\n" +
+         "for native vector inner, left semi and anti joins, and reject big table keys that miss it\n" +
+         "before the hash table lookup. Operators stop consulting the filter when it rejects few keys.\n" +
+         "The default value is true."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BLOOM_FILTER_BITS_PER_KEY(
+        "hive.vectorized.execution.mapjoin.native.fast.bloom.filter.bits.per.key", 8,
+         "Number of bits per hash table key of the Bloom filter built for\n" +
+         "hive.vectorized.execution.mapjoin.native.fast.bloom.filter.enabled."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_LOAD_THREADS(
+        "hive.vectorized.execution.mapjoin.native.fast.hashtable.load.threads", 1,
+         "Number of threads that build a native fast vector map join hash table. When above 1, the\n" +
+         "small table keys are radix partitioned on their hash code into that many hash tables\n" +
+         "(rounded down to a power of 2), built concurrently while the broadcast input is read. The\n" +
+         "loads of all the tasks of the process share one pool with a thread per processor. Not used\n" +
+         "for full outer joins. The default value 1 builds a single hash table."),
+    HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_LOAD_THREADS_MIN_KEYS(
+        "hive.vectorized.execution.mapjoin.native.fast.hashtable.load.threads.min.keys", 1000000L,
+         "Minimum estimated number of small table keys per load thread for\n" +
+         "hive.vectorized.execution.mapjoin.native.fast.hashtable.load.threads. Smaller hash tables\n" +
+         "are built with fewer threads."),
     HIVE_VECTORIZATION_GROUPBY_CHECKINTERVAL("hive.vectorized.groupby.checkinterval", 100000,
         "Number of entries added to the group by aggregation hash before a recomputation of average entry size is performed."),
     HIVE_VECTORIZATION_GROUPBY_MAXENTRIES("hive.vectorized.groupby.maxentries", 1000000,
@@ -4373,10 +4400,27 @@ public static enum ConfVars {
         "Exceeding this will trigger a flush irrelevant of memory pressure condition."),
     HIVE_VECTORIZATION_GROUPBY_FLUSH_PERCENT("hive.vectorized.groupby.flush.percent", (float) 0.1,
         "Percent of entries in the group by aggregation hash flushed when the memory threshold is exceeded."),
+    HIVE_VECTORIZATION_GROUPBY_BYPASS_SAMPLE_BATCHES("hive.vectorized.groupby.bypass.sample.batches", 0,
+        "Number of full input batches the map side vector group by hashes before checking how much\n" +
+        "the hash table actually reduces its input. If the ratio of hash table entries to input rows\n" +
+        "is above hive.map.aggr.hash.min.reduction, hashing is abandoned and rows are streamed to the\n" +
+        "ReduceSink. Unlike the check every hive.groupby.mapaggr.checkinterval rows, this one does not\n" +
+        "wait for hive.vectorized.groupby.maxentries rows, so input whose first rows have more distinct\n" +
+        "keys than the rest may stop hashing too early. 0 (the default) disables this early check."),
+    HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED("hive.vectorized.groupby.long.key.hash.enabled", false,
+        "When true, the map side vector group by on a single long family key, with only COUNT,\n" +
+        "SUM, MIN and MAX aggregates over long family columns, aggregates into an open addressing\n" +
+        "hash table of primitive arrays instead of a hash map of key and aggregation buffer objects."),
     HIVE_VECTORIZATION_REDUCESINK_NEW_ENABLED("hive.vectorized.execution.reducesink.new.enabled", true,
         "This flag should be set to true to enable the new vectorization\n" +
         "of queries using ReduceSink.\ni" +
         "The default value is true."),
+    HIVE_VECTORIZATION_REDUCESINK_COLUMNAR_BATCH_ENABLED(
+        "hive.vectorized.execution.reducesink.columnar.batch.enabled", false,
+        "When true, a native vectorized ReduceSink without keys (e.g. the input of a global\n" +
+        "aggregation) and without top N that feeds a vectorized Tez reducer sends each\n" +
+        "vectorized row batch as a single shuffle value in a columnar format, and the reducer reads\n" +
+        "it back directly into its batch, instead of one LazyBinary encoded value per row."),
     HIVE_VECTORIZATION_USE_VECTORIZED_INPUT_FILE_FORMAT("hive.vectorized.use.vectorized.input.format", true,
         "This flag should be set to true to enable vectorizing with vectorized input file format capable SerDe.\n" +
         "The default value is true."),
@@ -4407,9 +4451,18 @@ public static enum ConfVars {
         "This flag should be set to true to enable vectorized mode of the PTF of query execution.\n" +
         "The default value is true."),
 
+    HIVE_VECTORIZATION_PTF_SLIDING_WINDOW_ENABLED("hive.vectorized.ptf.sliding.window.enabled", false,
+        "This flag should be set to true to vectorize PTFs with sliding window frames, e.g.\n" +
+        "ROWS BETWEEN n PRECEDING AND m FOLLOWING or RANGE BETWEEN n PRECEDING AND m FOLLOWING\n" +
+        "for sum, avg, min, max and count, and lead/lag over a long or double column.\n" +
+        "The default value is false."),
     HIVE_VECTORIZATION_PTF_MAX_MEMORY_BUFFERING_BATCH_COUNT("hive.vectorized.ptf.max.memory.buffering.batch.count", 25,
         "Maximum number of vectorized row batches to buffer in memory for PTF\n" +
         "The default value is 25"),
+    HIVE_VECTORIZATION_PTF_COLUMNAR_SPILL_ENABLED("hive.vectorized.ptf.columnar.spill.enabled", true,
+        "Whether the vectorized PTF operator spills the batches of partitions that do not fit in\n" +
+        "memory (see hive.vectorized.ptf.max.memory.buffering.batch.count) column by column instead\n" +
+        "of row by row. Column types that cannot be spilled column by column are spilled row by row."),
     HIVE_VECTORIZATION_TESTING_REDUCER_BATCH_SIZE("hive.vectorized.testing.reducer.batch.size", -1,
         "internal use only, used for creating small group key vectorized row batches to exercise more logic\n" +
         "The default value is -1 which means don't restrict for testing",
@@ -4730,6 +4783,32 @@ public static enum ConfVars {
     LLAP_LRFU_BP_WRAPPER_SIZE("hive.llap.io.lrfu.bp.wrapper.size", 64, "thread local queue "
         + "used to amortize the lock contention, the idea hear is to try locking as soon we reach max size / 2 "
         + "and block when max queue size reached"),
+    LLAP_IO_CACHE_ADMISSION_FILTER("hive.llap.io.cache.admission.filter", "none",
+        new StringSet("none", "tinylfu"),
+        "Which filter decides whether the data read from a file is put into the ORC low-level cache:\n" +
+        "none - cache everything that is read; tinylfu - only cache the blocks that were read\n" +
+        "at least hive.llap.io.cache.admission.tinylfu.min.frequency times recently, as counted\n" +
+        "by a frequency sketch, so that large one-off scans do not evict the hot data. The\n" +
+        "data that is not admitted is only used by the query that read it."),
+    LLAP_IO_CACHE_ADMISSION_TINYLFU_MIN_FREQUENCY("hive.llap.io.cache.admission.tinylfu.min.frequency", 2,
+        new RangeValidator(1, 15),
+        "The number of recent reads of a block after which the tinylfu admission filter lets\n" +
+        "it into the cache."),
+    LLAP_IO_CACHE_ADMISSION_TINYLFU_SKETCH_SIZE("hive.llap.io.cache.admission.tinylfu.sketch.size", 1048576,
+        "The number of counters in each of the 4 rows of the tinylfu frequency sketch; one byte\n" +
+        "each. The counts are halved after every 10 times this many reads, so it should be a\n" +
+        "few times the number of blocks that fit in the cache."),
+    LLAP_IO_CACHE_ADMISSION_WARMUP_FRACTION("hive.llap.io.cache.admission.warmup.fraction", 0.9f,
+        new RangeValidator(0.0f, 1.0f),
+        "The admission filter lets every block into the cache until this fraction of the cache\n" +
+        "is in use, so that an empty cache fills up on the first reads."),
+    LLAP_IO_CACHE_QUOTAS("hive.llap.io.cache.quotas", "",
+        "Per database quotas of the ORC low-level cache, as a comma separated list of\n" +
+        "database:min:max entries, e.g. bi:20Gb:0,etl:0:10Gb (0 means no limit). When memory\n" +
+        "is needed, the data of the databases above their max is evicted first, and while a\n" +
+        "database is below its min, the data of the other databases above their own min is\n" +
+        "evicted before the cache policy picks the victims. Only supported with the LRFU\n" +
+        "policy. Empty disables the quotas."),
     LLAP_CACHE_ALLOW_SYNTHETIC_FILEID("hive.llap.cache.allow.synthetic.fileid", true,
         "Whether LLAP cache should use synthetic file ID if real one is not available. Systems\n" +
         "like HDFS, Isilon, etc. provide a unique file/inode ID. On other FSes (e.g. local\n" +
@@ -4751,7 +4830,9 @@ public static enum ConfVars {
         + "load the contens of the llap cache. If left empty the feature is disabled.\n" +
         "The class should implement org.apache.hadoop.hive.llap.LlapCacheHydration interface."),
     LLAP_CACHE_HYDRATION_SAVE_DIR("hive.llap.cache.hydration.save.dir", "/tmp/hive", "Directory to save the llap cache content\n"
-        + "info on shutdown, if BasicLlapCacheHydration is used as the hive.llap.cache.hydration.strategy.class."),
+        + "info on shutdown, if BasicLlapCacheHydration is used as the hive.llap.cache.hydration.strategy.class.\n"
+        + "PersistentLlapCacheHydration saves the hot cached data itself here, up to the size of the cache (see\n"
+        + "hive.llap.io.lrfu.hotbuffers.percentage), so it should be on a fast local disk in that case."),
     LLAP_IO_USE_FILEID_PATH("hive.llap.io.use.fileid.path", true,
         "Whether LLAP should use fileId (inode)-based path to ensure better consistency for the\n" +
         "cases of file overwrites. This is supported on HDFS. Disabling this also turns off any\n" +
@@ -4779,6 +4860,22 @@ public static enum ConfVars {
     LLAP_IO_ENCODE_SLICE_LRR("hive.llap.io.encode.slice.lrr", true,
         "Whether to separate cache slices when reading encoded data from text inputs via MR\n" +
         "MR LineRecordRedader into LLAP cache, if this feature is enabled. Safety flag."),
+    LLAP_IO_PARQUET_ELEVATOR_ENABLED("hive.llap.io.parquet.elevator.enabled", false,
+        "Whether vectorized Parquet reads should go through the LLAP IO elevator, decoding on the\n" +
+        "LLAP IO threads from column chunks cached in the LLAP low-level cache. When disabled,\n" +
+        "Parquet reads still cache column chunks, but read and decode on the executor thread."),
+    LLAP_IO_CACHE_DIGEST_INTERVAL("hive.llap.io.cache.digest.publish.interval", "0s",
+        new TimeValidator(TimeUnit.SECONDS),
+        "How often an llap daemon publishes a digest of the file ranges in its cache to the\n" +
+        "registry, for cache-aware split locations (hive.llap.client.cache.aware.splits). The\n" +
+        "digest is only republished when it changes. 0 disables publishing."),
+    LLAP_IO_CACHE_DIGEST_BLOCK_SIZE("hive.llap.io.cache.digest.block.size", "16Mb",
+        new SizeValidator(),
+        "The granularity of the file ranges in the llap cache digest."),
+    LLAP_IO_CACHE_DIGEST_MAX_BLOCKS("hive.llap.io.cache.digest.max.blocks", 200000,
+        "The maximum number of cached blocks in the llap cache digest; this bounds the size of\n" +
+        "the digest in the registry (about one byte per block). Blocks beyond the limit are left\n" +
+        "out of the digest."),
     LLAP_ORC_ENABLE_TIME_COUNTERS("hive.llap.io.orc.time.counters", true,
         "Whether to enable time counters for LLAP IO layer (time spent in HDFS, etc.)"),
     LLAP_IO_VRB_QUEUE_LIMIT_MAX("hive.llap.io.vrb.queue.limit.max", 50000,
@@ -4840,6 +4937,15 @@ public static enum ConfVars {
         " formats. 'none' will not disable LLAP IO for any formats."),
     LLAP_OBJECT_CACHE_ENABLED("hive.llap.object.cache.enabled", true,
         "Cache objects (plans, hashtables, etc) in llap"),
+    LLAP_MAPJOIN_SHARED_HASHTABLE_CACHE_ENABLED("hive.llap.mapjoin.shared.hashtable.cache.enabled", false,
+        "Whether LLAP daemons keep the native vector map join fast hash tables built from plain scans\n" +
+        "of transactional tables and reuse them across queries, as long as the small table snapshot\n" +
+        "(valid write id list) and the key/value schema are unchanged."),
+    LLAP_MAPJOIN_SHARED_HASHTABLE_CACHE_MAX_SIZE("hive.llap.mapjoin.shared.hashtable.cache.max.size", "1Gb",
+        new SizeValidator(),
+        "Maximum estimated memory of the hash tables kept by an LLAP daemon for\n" +
+        "hive.llap.mapjoin.shared.hashtable.cache.enabled. Unreferenced hash tables are evicted in\n" +
+        "least recently used order when it is exceeded."),
     LLAP_IO_DECODING_METRICS_PERCENTILE_INTERVALS("hive.llap.io.decoding.metrics.percentiles.intervals", "30",
         "Comma-delimited set of integers denoting the desired rollover intervals (in seconds)\n" +
         "for percentile latency metrics on the LLAP daemon IO decoding time.\n" +
@@ -4850,6 +4956,27 @@ public static enum ConfVars {
         "Used to determine the size of IO encode threadpool by multiplying hive.llap.io.threadpool.size" +
         "with this value. During text table reads a thread from the 'regular' IO thread pool may place a number of" +
         "encode tasks to the threads in the encode pool."),
+    LLAP_IO_ORC_READ_COALESCE_GAP("hive.llap.io.orc.read.coalesce.gap", "0b", new SizeValidator(),
+        "When the ORC data that is not in the LLAP cache is read, the missing ranges that are at\n" +
+        "most this many bytes apart are read with a single request, together with the bytes in\n" +
+        "between. Useful on object stores, where each request has a high latency. 0 disables\n" +
+        "coalescing; ranges that are directly adjacent are always read together."),
+    LLAP_IO_ORC_READ_THREADPOOL_SIZE("hive.llap.io.orc.read.threadpool.size", 0,
+        "The number of threads of the daemon wide pool that issues the coalesced ORC reads of a\n" +
+        "stripe concurrently, with a separate stream per read. 0 reads them one after another on\n" +
+        "the IO thread. Only used when hive.llap.io.orc.read.coalesce.gap is set."),
+    LLAP_IO_ORC_LAZY_DECODE("hive.llap.io.orc.lazy.decode", false,
+        "Whether LLAP decodes the ORC columns of the search argument first, and the other columns\n" +
+        "only for the batches that have rows matching it. The matching rows are marked as selected\n" +
+        "in the batch. Only used for vectorized reads of non-ACID tables."),
+    LLAP_IO_DECODE_THREADPOOL_SIZE("hive.llap.io.decode.threadpool.size", 0,
+        "The number of threads of the daemon wide pool that decodes the columns of an ORC split in\n" +
+        "parallel with its IO thread. The batches are still returned in order. When the pool is busy,\n" +
+        "the IO thread decodes the columns itself. 0 decodes all the columns on the IO thread."),
+    LLAP_IO_ORC_CACHE_INDEXES("hive.llap.io.orc.cache.indexes", false,
+        "Whether LLAP keeps the parsed ORC row group indexes and bloom filters in the metadata cache,\n" +
+        "so that the row groups can be picked from the search argument without reading the index\n" +
+        "streams again. The indexes are stored uncompressed in the cache memory, per stripe and column."),
     LLAP_USE_KERBEROS("hive.llap.kerberos.enabled", true,
         "If LLAP is configured for Kerberos authentication. This could be useful when cluster\n" +
         "is kerberized, but LLAP is not."),
@@ -5160,6 +5287,16 @@ public static enum ConfVars {
         "instead of using the locations provided by the split itself. If there is no llap daemon " +
         "running, fall back to locations provided by the split. This is effective only if " +
         "hive.execution.mode is llap"),
+    LLAP_CLIENT_CACHE_AWARE_SPLITS("hive.llap.client.cache.aware.splits", false,
+        "Whether consistent split locations should prefer the llap daemon that has the largest\n" +
+        "fraction of the split in its cache, according to the cache digests the daemons publish\n" +
+        "(see hive.llap.io.cache.digest.publish.interval). Splits that no daemon has cached go to\n" +
+        "the consistent hash location. This is effective only if hive.llap.client.consistent.splits\n" +
+        "is enabled."),
+    LLAP_CLIENT_CACHE_AWARE_SPLITS_MIN_FRACTION("hive.llap.client.cache.aware.splits.min.fraction",
+        0.5f,
+        "The minimum fraction of a split that must be cached on a daemon for the split to be placed\n" +
+        "on that daemon rather than on the consistent hash location."),
     LLAP_SPLIT_LOCATION_PROVIDER_CLASS("hive.llap.split.location.provider.class",
       "org.apache.hadoop.hive.ql.exec.tez.HostAffinitySplitLocationProvider",
       "Split location provider class to use during split generation for LLAP. This class should implement\n" +
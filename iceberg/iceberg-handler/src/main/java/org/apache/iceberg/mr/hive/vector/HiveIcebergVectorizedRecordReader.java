@@ -0,0 +1,492 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.mr.hive.vector;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAssignRow;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.hadoop.hive.ql.io.orc.VectorizedOrcInputFormat;
+import org.apache.hadoop.hive.ql.io.parquet.vector.VectorizedParquetRecordReader;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.IdentityPartitionConverters;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.hadoop.HadoopFileIO;
+import org.apache.iceberg.mr.InputFormatConfig;
+import org.apache.iceberg.mr.hive.serde.objectinspector.IcebergObjectInspector;
+import org.apache.iceberg.mr.mapred.Container;
+import org.apache.iceberg.mr.mapred.MapredIcebergInputFormat;
+import org.apache.iceberg.mr.mapreduce.IcebergSplit;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PartitionUtil;
+import org.apache.orc.TypeDescription;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the files of an Iceberg split into the VectorizedRowBatch of Hive's vectorized execution.
+ *
+ * ORC and Parquet data files are read with Hive's vectorized ORC and Parquet readers, which fill the column vectors
+ * of the batch straight from the file. The Hive readers resolve columns by name, so a file is only read this way when
+ * the names of the projected columns in the file match the table columns by Iceberg field id. The other files are
+ * read with the Iceberg generic readers, and their records are assigned to the batch row by row:
+ * <ul>
+ *   <li>Avro files, encrypted files, files with delete files and files of a table with a non Hadoop FileIO,</li>
+ *   <li>files read for projected columns of types that the Hive readers do not read as Iceberg writes them,</li>
+ *   <li>files whose columns were renamed since they were written.</li>
+ * </ul>
+ * The projected identity partition columns are filled with the partition value of the file as repeating columns.
+ */
+public class HiveIcebergVectorizedRecordReader implements RecordReader<NullWritable, VectorizedRowBatch> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HiveIcebergVectorizedRecordReader.class);
+
+  // The ORC type attribute holding the Iceberg field id of a column, as written by the Iceberg ORC writers.
+  private static final String ICEBERG_ID_ATTRIBUTE = "iceberg.id";
+
+  /**
+   * Reads the batches of one file of the split.
+   */
+  private interface FileReader {
+
+    boolean next(VectorizedRowBatch batch) throws IOException;
+
+    float getProgress() throws IOException;
+
+    void close() throws IOException;
+  }
+
+  private final JobConf job;
+  private final Reporter reporter;
+  private final IcebergSplit split;
+  private final Iterator<FileScanTask> tasks;
+  private final boolean isHadoopFileIO;
+
+  private final VectorizedRowBatchCtx rbCtx;
+  private final String[] columnNames;
+  // The table field of each data column of the batch, null when the column is not projected.
+  private final Types.NestedField[] projectedFields;
+  private final boolean isProjectionNativeReadable;
+
+  private final MapredIcebergInputFormat<Record> rowInputFormat = new MapredIcebergInputFormat<>();
+
+  private FileReader currentReader;
+  private long currentTaskLength;
+  private long finishedLength;
+
+  // The constant columns of the current file, with their assigner and value.
+  private final List<Integer> constantColumns = Lists.newArrayList();
+  private final List<VectorAssignRow> constantAssigners = Lists.newArrayList();
+  private final List<Object> constantValues = Lists.newArrayList();
+
+  public HiveIcebergVectorizedRecordReader(IcebergSplit split, JobConf job, Reporter reporter) {
+    this.job = job;
+    this.reporter = reporter;
+    this.split = split;
+    this.tasks = split.task().files().iterator();
+    this.isHadoopFileIO = split.io() instanceof HadoopFileIO;
+
+    rbCtx = Utilities.getVectorizedRowBatchCtx(job);
+    int dataColumnCount = rbCtx.getDataColumnCount();
+    columnNames = rbCtx.getRowColumnNames();
+
+    Schema tableSchema = InputFormatConfig.tableSchema(job);
+    projectedFields = new Types.NestedField[dataColumnCount];
+    boolean nativeReadable = true;
+    if (ColumnProjectionUtils.isReadAllColumns(job)) {
+      for (int c = 0; c < dataColumnCount; c++) {
+        projectedFields[c] = tableSchema.caseInsensitiveFindField(columnNames[c]);
+      }
+    } else {
+      for (int c : ColumnProjectionUtils.getReadColumnIDs(job)) {
+        if (c < dataColumnCount) {
+          projectedFields[c] = tableSchema.caseInsensitiveFindField(columnNames[c]);
+        }
+      }
+    }
+    for (Types.NestedField field : projectedFields) {
+      if (field != null && !isNativeReadable(field.type())) {
+        nativeReadable = false;
+      }
+    }
+    isProjectionNativeReadable = nativeReadable;
+  }
+
+  /**
+   * Whether the Hive ORC and Parquet readers read the values of the type as Iceberg writes them. Time, UUID and fixed
+   * values are written in a representation the Hive readers do not convert to the Hive type of the column.
+   */
+  private static boolean isNativeReadable(Type type) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case DATE:
+      case STRING:
+      case BINARY:
+      case DECIMAL:
+        return true;
+      case TIMESTAMP:
+        return !((Types.TimestampType) type).shouldAdjustToUTC();
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public boolean next(NullWritable key, VectorizedRowBatch batch) throws IOException {
+    while (true) {
+      if (currentReader == null) {
+        if (!tasks.hasNext()) {
+          return false;
+        }
+        openNext(tasks.next());
+      }
+      for (int c : constantColumns) {
+        batch.cols[c].reset();
+      }
+      if (currentReader.next(batch)) {
+        if (batch.size == 0) {
+          continue;
+        }
+        fillConstants(batch);
+        return true;
+      }
+      currentReader.close();
+      currentReader = null;
+      finishedLength += currentTaskLength;
+    }
+  }
+
+  private void openNext(FileScanTask task) throws IOException {
+    currentTaskLength = task.length();
+    setupConstants(task);
+
+    FileReader reader = null;
+    if (isNativeReadable(task)) {
+      switch (task.file().format()) {
+        case ORC:
+          reader = openOrc(task);
+          break;
+        case PARQUET:
+          reader = openParquet(task);
+          break;
+        default:
+          break;
+      }
+    }
+    if (reader == null) {
+      reader = openRows(task);
+    }
+    currentReader = reader;
+  }
+
+  private boolean isNativeReadable(FileScanTask task) {
+    DataFile file = task.file();
+    return isProjectionNativeReadable && isHadoopFileIO && task.deletes().isEmpty() && file.keyMetadata() == null;
+  }
+
+  private FileSplit fileSplit(FileScanTask task) {
+    return new FileSplit(new Path(task.file().path().toString()), task.start(), task.length(), (String[]) null);
+  }
+
+  private FileReader openOrc(FileScanTask task) throws IOException {
+    FileSplit fileSplit = fileSplit(task);
+    Reader file = OrcFile.createReader(fileSplit.getPath(), OrcFile.readerOptions(job));
+    if (!matchesOrcSchema(file.getSchema())) {
+      LOG.info("Reading {} row by row, its columns do not match the table columns", fileSplit.getPath());
+      file.close();
+      return null;
+    }
+    return new NativeFileReader(VectorizedOrcInputFormat.createRecordReader(file, job, fileSplit));
+  }
+
+  private FileReader openParquet(FileScanTask task) throws IOException {
+    FileSplit fileSplit = fileSplit(task);
+    VectorizedParquetRecordReader parquetReader = new VectorizedParquetRecordReader(fileSplit, job);
+    MessageType fileSchema = parquetReader.getFileSchema();
+    if (fileSchema != null && !matchesParquetSchema(fileSchema)) {
+      LOG.info("Reading {} row by row, its columns do not match the table columns", fileSplit.getPath());
+      parquetReader.close();
+      return null;
+    }
+    return new NativeFileReader(parquetReader);
+  }
+
+  private FileReader openRows(FileScanTask task) throws IOException {
+    return new RowFileReader(rowInputFormat.getRecordReader(split.fileSplit(task), job, reporter));
+  }
+
+  /**
+   * A projected column matches when the file has a column of the same name with the same Iceberg field id, or when
+   * the file has no column with the field id at all (it was added to the table after the file was written).
+   */
+  private boolean matchesOrcSchema(TypeDescription fileSchema) {
+    List<String> names = fileSchema.getFieldNames();
+    List<TypeDescription> children = fileSchema.getChildren();
+    for (int c = 0; c < projectedFields.length; c++) {
+      Types.NestedField field = projectedFields[c];
+      if (field == null) {
+        continue;
+      }
+      int index = names.indexOf(columnNames[c]);
+      if (index >= 0) {
+        String id = children.get(index).getAttributeValue(ICEBERG_ID_ATTRIBUTE);
+        if (id != null && Integer.parseInt(id) != field.fieldId()) {
+          return false;
+        }
+      } else {
+        for (TypeDescription child : children) {
+          String id = child.getAttributeValue(ICEBERG_ID_ATTRIBUTE);
+          if (id != null && Integer.parseInt(id) == field.fieldId()) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean matchesParquetSchema(GroupType fileSchema) {
+    for (int c = 0; c < projectedFields.length; c++) {
+      Types.NestedField field = projectedFields[c];
+      if (field == null) {
+        continue;
+      }
+      if (fileSchema.containsField(columnNames[c])) {
+        org.apache.parquet.schema.Type.ID id = fileSchema.getType(columnNames[c]).getId();
+        if (id != null && id.intValue() != field.fieldId()) {
+          return false;
+        }
+      } else {
+        for (org.apache.parquet.schema.Type fileField : fileSchema.getFields()) {
+          if (fileField.getId() != null && fileField.getId().intValue() == field.fieldId()) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private void setupConstants(FileScanTask task) throws IOException {
+    constantColumns.clear();
+    constantAssigners.clear();
+    constantValues.clear();
+    if (task.spec().identitySourceIds().isEmpty()) {
+      return;
+    }
+    Map<Integer, ?> idToConstant = PartitionUtil.constantsMap(task, IdentityPartitionConverters::convertConstant);
+    for (int c = 0; c < projectedFields.length; c++) {
+      Types.NestedField field = projectedFields[c];
+      if (field == null || !idToConstant.containsKey(field.fieldId())) {
+        continue;
+      }
+      StructObjectInspector inspector = (StructObjectInspector) IcebergObjectInspector.create(field);
+      StructField inspectorField = inspector.getAllStructFieldRefs().get(0);
+      VectorAssignRow assignRow = new VectorAssignRow();
+      try {
+        assignRow.init(inspector, Lists.newArrayList(c));
+      } catch (HiveException e) {
+        throw new IOException(e);
+      }
+      constantColumns.add(c);
+      constantAssigners.add(assignRow);
+      constantValues.add(ObjectInspectorUtils.copyToStandardObject(idToConstant.get(field.fieldId()),
+          inspectorField.getFieldObjectInspector(), ObjectInspectorCopyOption.WRITABLE));
+    }
+  }
+
+  private void fillConstants(VectorizedRowBatch batch) {
+    for (int i = 0; i < constantColumns.size(); i++) {
+      constantAssigners.get(i).assignRowColumn(batch, 0, 0, constantValues.get(i));
+      batch.cols[constantColumns.get(i)].isRepeating = true;
+    }
+  }
+
+  /**
+   * Reads a file with a Hive vectorized reader into the batch.
+   */
+  private static final class NativeFileReader implements FileReader {
+
+    private final RecordReader<NullWritable, VectorizedRowBatch> reader;
+
+    NativeFileReader(RecordReader<NullWritable, VectorizedRowBatch> reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean next(VectorizedRowBatch batch) throws IOException {
+      return reader.next(NullWritable.get(), batch);
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+      return reader.getProgress();
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Reads a file with the Iceberg generic readers, and assigns the records to the batch.
+   */
+  private final class RowFileReader implements FileReader {
+
+    private final RecordReader<Void, Container<Record>> reader;
+    private final Container<Record> container;
+
+    // Set up from the struct of the first record: the position of each field that is a column of the batch.
+    private int[] recordPositions;
+    private ObjectInspector[] fieldInspectors;
+    private VectorAssignRow assignRow;
+
+    RowFileReader(RecordReader<Void, Container<Record>> reader) {
+      this.reader = reader;
+      this.container = reader.createValue();
+    }
+
+    @Override
+    public boolean next(VectorizedRowBatch batch) throws IOException {
+      batch.reset();
+      final int maxSize = batch.getMaxSize();
+      while (batch.size < maxSize && reader.next(null, container)) {
+        Record record = container.get();
+        if (assignRow == null) {
+          init(record.struct());
+        }
+        for (int i = 0; i < recordPositions.length; i++) {
+          Object value = ObjectInspectorUtils.copyToStandardObject(record.get(recordPositions[i]),
+              fieldInspectors[i], ObjectInspectorCopyOption.WRITABLE);
+          assignRow.assignRowColumn(batch, batch.size, i, value);
+        }
+        batch.size++;
+      }
+      return batch.size > 0;
+    }
+
+    private void init(Types.StructType struct) throws IOException {
+      List<Types.NestedField> recordFields = struct.fields();
+      List<Types.NestedField> fields = Lists.newArrayList();
+      List<Integer> positions = Lists.newArrayList();
+      List<Integer> batchColumns = Lists.newArrayList();
+      for (int p = 0; p < recordFields.size(); p++) {
+        Types.NestedField recordField = recordFields.get(p);
+        for (int c = 0; c < projectedFields.length; c++) {
+          if (projectedFields[c] != null && projectedFields[c].fieldId() == recordField.fieldId()) {
+            fields.add(recordField);
+            positions.add(p);
+            batchColumns.add(c);
+            break;
+          }
+        }
+      }
+      recordPositions = positions.stream().mapToInt(Integer::intValue).toArray();
+
+      StructObjectInspector inspector =
+          (StructObjectInspector) IcebergObjectInspector.create(fields.toArray(new Types.NestedField[0]));
+      List<? extends StructField> inspectorFields = inspector.getAllStructFieldRefs();
+      fieldInspectors = new ObjectInspector[inspectorFields.size()];
+      for (int i = 0; i < fieldInspectors.length; i++) {
+        fieldInspectors[i] = inspectorFields.get(i).getFieldObjectInspector();
+      }
+      VectorAssignRow newAssignRow = new VectorAssignRow();
+      try {
+        newAssignRow.init(inspector, batchColumns);
+      } catch (HiveException e) {
+        throw new IOException(e);
+      }
+      assignRow = newAssignRow;
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+      return reader.getProgress();
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  @Override
+  public NullWritable createKey() {
+    return NullWritable.get();
+  }
+
+  @Override
+  public VectorizedRowBatch createValue() {
+    return rbCtx.createVectorizedRowBatch();
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    return (long) (split.getLength() * getProgress());
+  }
+
+  @Override
+  public float getProgress() throws IOException {
+    long length = split.getLength();
+    if (length <= 0) {
+      return 0.0f;
+    }
+    float current = (currentReader == null) ? 0.0f : currentReader.getProgress() * currentTaskLength;
+    return Math.min(1.0f, (finishedLength + current) / length);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (currentReader != null) {
+      currentReader.close();
+      currentReader = null;
+    }
+  }
+}
@@ -24,6 +24,7 @@
 import java.io.IOException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.iceberg.BaseCombinedScanTask;
 import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.encryption.EncryptionManager;
@@ -58,6 +59,13 @@ public IcebergSplit() {
     this.encryptionManager = encryptionManager;
   }
 
+  /**
+   * Returns a split that only reads one of the files of this split.
+   */
+  public IcebergSplit fileSplit(FileScanTask fileTask) {
+    return new IcebergSplit(conf, new BaseCombinedScanTask(fileTask), io, encryptionManager);
+  }
+
   public CombinedScanTask task() {
     return task;
   }
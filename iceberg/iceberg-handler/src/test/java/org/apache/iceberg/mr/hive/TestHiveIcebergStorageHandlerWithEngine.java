@@ -215,6 +215,25 @@ public void testScanTable() throws IOException {
     Assert.assertArrayEquals(new Object[] {"Alice", 0L}, descRows.get(2));
   }
 
+  @Test
+  public void testVectorizedScanPartitionedTable() throws IOException {
+    // vectorized execution on Tez is still disabled for Iceberg tables until TEZ-4248 is available
+    Assume.assumeTrue(executionEngine.equals("mr"));
+    PartitionSpec spec = PartitionSpec.builderFor(HiveIcebergStorageHandlerTestUtils.CUSTOMER_SCHEMA)
+        .identity("last_name").build();
+    testTables.createTable(shell, "customers", HiveIcebergStorageHandlerTestUtils.CUSTOMER_SCHEMA, spec,
+        fileFormat, HiveIcebergStorageHandlerTestUtils.CUSTOMER_RECORDS);
+    shell.setHiveSessionValue("hive.vectorized.execution.enabled", true);
+
+    List<Object[]> rows = shell.executeStatement(
+        "SELECT customer_id, first_name, last_name FROM default.customers WHERE customer_id > 0 " +
+        "ORDER BY customer_id");
+
+    Assert.assertEquals(2, rows.size());
+    Assert.assertArrayEquals(new Object[] {1L, "Bob", "Green"}, rows.get(0));
+    Assert.assertArrayEquals(new Object[] {2L, "Trudy", "Pink"}, rows.get(1));
+  }
+
   @Test
   public void testMigrateHiveTableToIceberg() throws TException, InterruptedException {
     Assume.assumeTrue(fileFormat == FileFormat.AVRO || fileFormat == FileFormat.PARQUET);
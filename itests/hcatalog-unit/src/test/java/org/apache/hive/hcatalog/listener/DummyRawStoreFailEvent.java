@@ -370,6 +370,12 @@ public List<Partition> getPartitions(String catName, String dbName, String table
     return objectStore.getPartitions(catName, dbName, tableName, max);
   }
 
+  @Override
+  public List<Partition> getPartitionsPage(String catName, String dbName, String tableName,
+      String lastPartName, int max) throws MetaException, NoSuchObjectException {
+    return objectStore.getPartitionsPage(catName, dbName, tableName, lastPartName, max);
+  }
+
   @Override
   public Map<String, String> getPartitionLocations(String catName, String dbName, String tblName,
       String baseLocationToNotShow, int max) {
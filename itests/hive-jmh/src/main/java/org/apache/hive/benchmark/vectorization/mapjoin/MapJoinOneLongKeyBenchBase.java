@@ -30,8 +30,15 @@ public abstract class MapJoinOneLongKeyBenchBase extends AbstractMapJoin {
   
   public void doSetup(VectorMapJoinVariation vectorMapJoinVariation,
       MapJoinTestImplementation mapJoinImplementation) throws Exception {
+    doSetup(vectorMapJoinVariation, mapJoinImplementation, false);
+  }
+
+  public void doSetup(VectorMapJoinVariation vectorMapJoinVariation,
+      MapJoinTestImplementation mapJoinImplementation, boolean isBatchProbe) throws Exception {
     
     HiveConf hiveConf = new HiveConf();
+    HiveConf.setBoolVar(hiveConf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BATCH_PROBE_ENABLED, isBatchProbe);
 
     long seed = 2543;
 
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.benchmark.vectorization.operators;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.CompilationOpContext;
+import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.OperatorFactory;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorGroupByOperator;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.optimizer.physical.Vectorizer;
+import org.apache.hadoop.hive.ql.parse.SemanticException;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.VectorGroupByDesc;
+import org.apache.hadoop.hive.ql.plan.VectorGroupByDesc.ProcessingMode;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hive.benchmark.vectorization.ColumnVectorGenUtil;
+import org.apache.orc.TypeDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Map side hash GROUP BY on a single bigint key, comparing the key wrapper hash map against the
+ * open addressing long key hash table (hive.vectorized.groupby.long.key.hash.enabled).
+ */
+@State(Scope.Benchmark)
+public class VectorGroupByLongKeyOperatorBench extends AbstractOperatorBench {
+
+  @Param({
+    "true",
+    "false"
+  })
+  private boolean longKeyHash;
+
+  @Param({
+    "true",
+    "false"
+  })
+  private boolean hasNulls;
+
+  @Param({
+    "100",
+    "100000"
+  })
+  private int keyCardinality;
+
+  @Param({
+    "count",
+    "min",
+    "max",
+    "sum"
+  })
+  private String aggregation;
+
+  private Random rand = new Random(1234);
+  private VectorGroupByOperator vgo;
+  private VectorizedRowBatch[] vrbs;
+  private int size = VectorizedRowBatch.DEFAULT_SIZE;
+
+  // Enough batches to cover the key range a few times.
+  private int batchCount = 64;
+
+  @Setup
+  public void setup() {
+    try {
+      TypeDescription typeDescription = TypeDescription.fromString("struct<k:bigint,v:bigint>");
+      vrbs = new VectorizedRowBatch[batchCount];
+      for (int i = 0; i < batchCount; i++) {
+        VectorizedRowBatch vrb = typeDescription.createRowBatch(size);
+        vrb.size = size;
+        LongColumnVector keyColVector = (LongColumnVector) vrb.cols[0];
+        for (int j = 0; j < size; j++) {
+          keyColVector.vector[j] = rand.nextInt(keyCardinality);
+        }
+        vrb.cols[1] = ColumnVectorGenUtil.generateColumnVector(TypeInfoFactory.longTypeInfo,
+            hasNulls, false, size, rand);
+        vrbs[i] = vrb;
+      }
+      VectorizationContext ctx = new VectorizationContext("name", ImmutableList.of("k", "v"));
+      GroupByDesc desc = buildGroupByDesc(aggregation);
+      Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(new CompilationOpContext(), desc);
+      VectorGroupByDesc vectorGroupByDesc = new VectorGroupByDesc();
+      vectorGroupByDesc.setProcessingMode(ProcessingMode.HASH);
+      vgo = (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorGroupByDesc);
+      Configuration conf = new Configuration();
+      conf.setBoolean(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED.varname,
+          longKeyHash);
+      vgo.initialize(conf, null);
+    } catch (Exception e) {
+      // likely unsupported combination of params
+      // https://bugs.openjdk.java.net/browse/CODETOOLS-7901296 is not available yet to skip benchmark cleanly
+      System.out.println("Skipping.. Exception: " + e.getMessage());
+      System.exit(0);
+    }
+  }
+
+  private GroupByDesc buildGroupByDesc(String aggregate) throws SemanticException {
+
+    ExprNodeDesc valueColumn =
+        new ExprNodeColumnDesc(TypeInfoFactory.longTypeInfo, "v", "table", false);
+    ArrayList<ExprNodeDesc> params = new ArrayList<ExprNodeDesc>();
+    params.add(valueColumn);
+
+    AggregationDesc agg = new AggregationDesc();
+    ObjectInspector oi =
+        TypeInfoUtils.getStandardJavaObjectInspectorFromTypeInfo(TypeInfoFactory.longTypeInfo);
+    agg.setGenericUDAFEvaluator(FunctionRegistry.getGenericUDAFEvaluator(aggregate,
+        ImmutableList.of(oi).asList(), false, false));
+    agg.setGenericUDAFName(aggregate);
+    agg.setMode(GenericUDAFEvaluator.Mode.PARTIAL1);
+    agg.setParameters(params);
+    ArrayList<AggregationDesc> aggs = new ArrayList<AggregationDesc>();
+    aggs.add(agg);
+
+    ArrayList<ExprNodeDesc> keys = new ArrayList<ExprNodeDesc>();
+    keys.add(new ExprNodeColumnDesc(TypeInfoFactory.longTypeInfo, "k", "table", false));
+
+    ArrayList<String> outputColumnNames = new ArrayList<String>();
+    outputColumnNames.add("_col0");
+    outputColumnNames.add("_col1");
+
+    GroupByDesc desc = new GroupByDesc();
+    desc.setVectorDesc(new VectorGroupByDesc());
+    desc.setOutputColumnNames(outputColumnNames);
+    desc.setAggregators(aggs);
+    desc.setKeys(keys);
+    desc.setMode(GroupByDesc.Mode.HASH);
+    // Keep aggregating in the hash table, even at high key cardinality.
+    desc.setMinReductionHashAggr(1.0f);
+    ((VectorGroupByDesc) desc.getVectorDesc()).setProcessingMode(ProcessingMode.HASH);
+
+    return desc;
+  }
+
+  @TearDown
+  public void tearDown() throws HiveException {
+    vgo.close(false);
+  }
+
+  @Benchmark
+  public void testAggLongKey() throws HiveException {
+    for (VectorizedRowBatch vrb : vrbs) {
+      vgo.process(vrb, 0);
+    }
+  }
+
+  /*
+   * ============================== HOW TO RUN THIS TEST: ====================================
+   *
+   * You can run this test:
+   *
+   * a) Via the command line:
+   *    $ mvn clean install
+   *    $ java -jar target/benchmarks.jar VectorGroupByLongKeyOperatorBench -prof gc -f 1
+   *    $ java -jar target/benchmarks.jar VectorGroupByLongKeyOperatorBench -p keyCardinality=100000 -p aggregation=sum
+   */
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(VectorGroupByLongKeyOperatorBench.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
@@ -219,6 +219,63 @@ public void testDatabaseOpsForUpdateUsingEvents() throws Exception {
     sharedCache.getSdCache().clear();
   }
 
+  @Test
+  public void testUpdateUsingEventsInBatches() throws Exception {
+    RawStore rawStore = hmsHandler.getMS();
+    long batchSize = MetastoreConf.getLongVar(rawStore.getConf(), ConfVars.METASTORE_CACHE_EVENT_BATCH_SIZE);
+    MetastoreConf.setLongVar(rawStore.getConf(), ConfVars.METASTORE_CACHE_EVENT_BATCH_SIZE, 1);
+    String dbOwner = "user1";
+    String[] dbNames = new String[] {"testBatchOps", "testBatchOps1", "testBatchOps2"};
+    String gapDbName = "testBatchOpsAfterGap";
+    try {
+      // Prewarm CachedStore
+      CachedStore.setCachePrewarmedState(false);
+      CachedStore.prewarm(rawStore);
+      long startEventId = rawStore.getCurrentNotificationEventId().getEventId();
+
+      for (String dbName : dbNames) {
+        hmsHandler.create_database(createTestDb(dbName, dbOwner));
+      }
+
+      // Drop the dbs from the cache, and add them back by applying the events one at a time
+      sharedCache.getDatabaseCache().clear();
+      Assert.assertFalse(CachedStore.hasMissedNotificationEvents(rawStore, startEventId));
+      long lastEventId = CachedStore.updateUsingNotificationEvents(rawStore, startEventId);
+      Assert.assertEquals(rawStore.getCurrentNotificationEventId().getEventId(), lastEventId);
+      for (String dbName : dbNames) {
+        Assert.assertEquals(rawStore.getDatabase(DEFAULT_CATALOG_NAME, dbName),
+            sharedCache.getDatabaseFromCache(DEFAULT_CATALOG_NAME, dbName));
+      }
+
+      // Remove the events from the notification log before the cache applies them, and add a later
+      // one. All the cached objects are reloaded then, including the ones of the removed events.
+      sharedCache.getDatabaseCache().clear();
+      Thread.sleep(1000);
+      rawStore.cleanNotificationEvents(0);
+      hmsHandler.create_database(createTestDb(gapDbName, dbOwner));
+      Assert.assertTrue(CachedStore.hasMissedNotificationEvents(rawStore, startEventId));
+      long reloadEventId = CachedStore.recoverFromMissedNotificationEvents(rawStore, startEventId);
+      Assert.assertEquals(rawStore.getCurrentNotificationEventId().getEventId(), reloadEventId);
+      for (String dbName : dbNames) {
+        Assert.assertEquals(rawStore.getDatabase(DEFAULT_CATALOG_NAME, dbName),
+            sharedCache.getDatabaseFromCache(DEFAULT_CATALOG_NAME, dbName));
+      }
+      Assert.assertEquals(rawStore.getDatabase(DEFAULT_CATALOG_NAME, gapDbName),
+          sharedCache.getDatabaseFromCache(DEFAULT_CATALOG_NAME, gapDbName));
+      Assert.assertEquals(reloadEventId, CachedStore.updateUsingNotificationEvents(rawStore, reloadEventId));
+    } finally {
+      MetastoreConf.setLongVar(rawStore.getConf(), ConfVars.METASTORE_CACHE_EVENT_BATCH_SIZE, batchSize);
+      // Clean up
+      for (String dbName : dbNames) {
+        hmsHandler.drop_database(dbName, true, true);
+      }
+      hmsHandler.drop_database(gapDbName, true, true);
+      sharedCache.getDatabaseCache().clear();
+      sharedCache.clearTableCache();
+      sharedCache.getSdCache().clear();
+    }
+  }
+
   @Test
   public void testTableOpsForUpdateUsingEvents() throws Exception {
     long lastEventId = -1;
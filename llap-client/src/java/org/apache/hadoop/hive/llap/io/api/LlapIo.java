@@ -19,12 +19,15 @@
 package org.apache.hadoop.hive.llap.io.api;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.io.CacheTag;
 import org.apache.hadoop.hive.llap.daemon.rpc.LlapDaemonProtocolProtos;
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.serde2.Deserializer;
 import org.apache.hadoop.io.NullWritable;
@@ -98,4 +101,24 @@ RecordReader<NullWritable, VectorizedRowBatch> llapVectorizedOrcReaderForPath(Ob
    */
   void loadDataIntoCache(LlapDaemonProtocolProtos.CacheEntryList metadata);
 
+  /**
+   * Write the hot cached data, with the file footers and the cache content metadata, so that it
+   * can be put back into the cache by {@link #loadCacheData(InputStream)} after a restart.
+   */
+  void saveCacheData(OutputStream out) throws IOException;
+
+  /**
+   * Put the data written by {@link #saveCacheData(OutputStream)} back into the cache. The data of
+   * the files that changed since it was written is skipped.
+   */
+  void loadCacheData(InputStream in) throws IOException;
+
+  /**
+   * Returns a digest of the file ranges in the cache, for cache-aware split locations, or null if
+   * the cache is not in use.
+   * @param blockSize - the granularity of the file ranges in the digest
+   * @param maxBlocks - the maximum number of cached blocks to put in the digest
+   */
+  LlapCacheDigest getCacheDigest(long blockSize, int maxBlocks);
+
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.registry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.apache.hive.common.util.BloomKFilter;
+
+/**
+ * A compact summary of the file ranges in the cache of an llap daemon, published in the registry
+ * so that split generation can place splits on the daemons that have them cached.
+ *
+ * Files are divided into fixed size blocks, and the digest is a bloom filter of the cached
+ * blocks, keyed by file path and block index. A block is considered cached when any cached
+ * buffer starts in it. Lookups may have false positives, but no false negatives for the blocks
+ * that were added.
+ */
+public final class LlapCacheDigest {
+
+  /** The registry attribute with the serialized digest of a daemon. */
+  public static final String REGISTRY_ATTRIBUTE = "hive.llap.daemon.cache.digest";
+
+  private final long blockSize;
+  private final BloomKFilter filter;
+
+  private LlapCacheDigest(long blockSize, BloomKFilter filter) {
+    this.blockSize = blockSize;
+    this.filter = filter;
+  }
+
+  public static LlapCacheDigest create(long blockSize, long expectedBlocks) {
+    return new LlapCacheDigest(blockSize, new BloomKFilter(Math.max(1, expectedBlocks)));
+  }
+
+  public long getBlockSize() {
+    return blockSize;
+  }
+
+  public void addBlock(String path, long block) {
+    filter.addBytes(blockKey(path, block));
+  }
+
+  public boolean isBlockCached(String path, long block) {
+    return filter.testBytes(blockKey(path, block));
+  }
+
+  /**
+   * @return the fraction of the blocks of the file range that are cached.
+   */
+  public double getCachedFraction(String path, long start, long length) {
+    long firstBlock = start / blockSize;
+    long lastBlock = (start + Math.max(length, 1) - 1) / blockSize;
+    long cached = 0;
+    for (long block = firstBlock; block <= lastBlock; ++block) {
+      if (isBlockCached(path, block)) {
+        ++cached;
+      }
+    }
+    return (double) cached / (lastBlock - firstBlock + 1);
+  }
+
+  private static byte[] blockKey(String path, long block) {
+    byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(pathBytes.length + 8).put(pathBytes).putLong(block).array();
+  }
+
+  /**
+   * Serializes the digest into a registry attribute value.
+   */
+  public String serialize() {
+    long[] bits = filter.getBitSet();
+    ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + bits.length * 8);
+    buffer.putLong(blockSize).putInt(filter.getNumHashFunctions());
+    for (long word : bits) {
+      buffer.putLong(word);
+    }
+    return Base64.getEncoder().encodeToString(buffer.array());
+  }
+
+  /**
+   * @return the digest serialized into the value, or null if the value is not a valid digest.
+   */
+  public static LlapCacheDigest deserialize(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(value));
+      long blockSize = buffer.getLong();
+      int numHashFunctions = buffer.getInt();
+      if (blockSize <= 0 || buffer.remaining() == 0 || buffer.remaining() % 8 != 0) {
+        return null;
+      }
+      long[] bits = new long[buffer.remaining() / 8];
+      for (int i = 0; i < bits.length; ++i) {
+        bits[i] = buffer.getLong();
+      }
+      return new LlapCacheDigest(blockSize, new BloomKFilter(bits, numHashFunctions));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
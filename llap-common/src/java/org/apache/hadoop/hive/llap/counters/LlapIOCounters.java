@@ -29,8 +29,11 @@ public enum LlapIOCounters {
   ROWS_EMITTED(true),
   METADATA_CACHE_HIT(true),
   METADATA_CACHE_MISS(true),
+  INDEX_CACHE_HIT(true),
+  INDEX_CACHE_MISS(true),
   CACHE_HIT_BYTES(true),
   CACHE_MISS_BYTES(true),
+  CACHE_ADMISSION_REJECTED_BYTES(true),
   ALLOCATED_BYTES(true),
   ALLOCATED_USED_BYTES(true),
   TOTAL_IO_TIME_NS(false),
@@ -1656,6 +1656,21 @@ public long getMaxCacheSize() {
     return maxSize;
   }
 
+  @Override
+  public long getCacheRequestedBytes() {
+    return metrics.getCacheRequestedBytes();
+  }
+
+  @Override
+  public long getCacheHitBytes() {
+    return metrics.getCacheHitBytes();
+  }
+
+  @Override
+  public long getCacheAdmissionRejectedBytes() {
+    return metrics.getCacheAdmissionRejectedBytes();
+  }
+
   // Various helper methods.
   private static int getBuddyHeaderIx(int freeListIx, int headerIx) {
     return headerIx ^ (1 << freeListIx);
@@ -59,4 +59,25 @@
    */
   long getMaxCacheSize();
 
+  /**
+   * Gets the number of bytes requested from the cache.
+   *
+   * @return requested bytes
+   */
+  long getCacheRequestedBytes();
+
+  /**
+   * Gets the number of requested bytes that were found in the cache.
+   *
+   * @return cache hit bytes
+   */
+  long getCacheHitBytes();
+
+  /**
+   * Gets the number of bytes that were read, but not admitted into the cache.
+   *
+   * @return admission rejected bytes
+   */
+  long getCacheAdmissionRejectedBytes();
+
 }
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.hive.common.io.CacheTag;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.cache.LowLevelCache.Priority;
+
+/**
+ * A wrapper around cache eviction policy that enforces per database quotas on the cache.
+ * Each database may have a min, which protects its data from eviction on behalf of the other
+ * databases, and a max, above which its own data is evicted first. When memory is needed, the
+ * oldest cached buffers of the databases that are over their quota are evicted, and the rest,
+ * if any, is left to the real policy. The real policy drops the buffers evicted here when it
+ * comes across them, as it does for the proactively evicted ones.
+ */
+public class DatabaseQuotaCachePolicy
+    implements LowLevelCachePolicy, ProactiveEvictingCachePolicy, EvictionListener {
+
+  private static final class Quota {
+    final long min, max;
+
+    Quota(long min, long max) {
+      this.min = min;
+      this.max = max;
+    }
+  }
+
+  private static final class DatabaseState {
+    final String database;
+    final Quota quota;
+    /** The cached buffers of the database, oldest first. */
+    final LinkedHashSet<LlapCacheableBuffer> buffers = new LinkedHashSet<>();
+    long usedBytes;
+
+    DatabaseState(String database, Quota quota) {
+      this.database = database;
+      this.quota = quota;
+    }
+
+    /**
+     * @return the bytes above the quota, or 0; the min is only enforced when another database
+     *         is below its own min.
+     */
+    long getExcess(boolean isMinEnforced) {
+      long excess = 0;
+      if (quota.max > 0 && usedBytes > quota.max) {
+        excess = usedBytes - quota.max;
+      }
+      if (isMinEnforced && usedBytes > quota.min) {
+        excess = Math.max(excess, usedBytes - quota.min);
+      }
+      return excess;
+    }
+  }
+
+  private static final Quota NO_QUOTA = new Quota(0, 0);
+
+  private final LowLevelCachePolicy realPolicy;
+  private final ConcurrentHashMap<String, DatabaseState> databases = new ConcurrentHashMap<>();
+  private EvictionListener evictionListener;
+
+  public DatabaseQuotaCachePolicy(LowLevelCachePolicy realPolicy, String quotaSpec) {
+    this.realPolicy = realPolicy;
+    for (Map.Entry<String, Quota> e : parseQuotas(quotaSpec).entrySet()) {
+      databases.put(e.getKey(), new DatabaseState(e.getKey(), e.getValue()));
+    }
+    realPolicy.setEvictionListener(this);
+  }
+
+  private static Map<String, Quota> parseQuotas(String quotaSpec) {
+    Map<String, Quota> result = new TreeMap<>();
+    for (String entry : quotaSpec.split(",")) {
+      entry = entry.trim();
+      if (entry.isEmpty()) {
+        continue;
+      }
+      String[] parts = entry.split(":");
+      if (parts.length != 3 || parts[0].trim().isEmpty()) {
+        throw new IllegalArgumentException("Invalid cache quota " + entry
+            + "; expected database:min:max");
+      }
+      long min = HiveConf.toSizeBytes(parts[1].trim()), max = HiveConf.toSizeBytes(parts[2].trim());
+      if (min < 0 || max < 0 || (max > 0 && min > max)) {
+        throw new IllegalArgumentException("Invalid cache quota " + entry);
+      }
+      result.put(parts[0].trim().toLowerCase(), new Quota(min, max));
+    }
+    return result;
+  }
+
+  static String getDatabase(CacheTag tag) {
+    if (tag == null) {
+      return "";
+    }
+    String tableName = tag.getTableName();
+    int ix = tableName.indexOf('.');
+    return (ix < 0 ? tableName : tableName.substring(0, ix)).toLowerCase();
+  }
+
+  private DatabaseState getState(LlapCacheableBuffer buffer) {
+    String database = getDatabase(buffer.getTag());
+    DatabaseState state = databases.get(database);
+    if (state == null) {
+      state = new DatabaseState(database, NO_QUOTA);
+      DatabaseState old = databases.putIfAbsent(database, state);
+      state = (old == null) ? state : old;
+    }
+    return state;
+  }
+
+  private void reportRemoved(LlapCacheableBuffer buffer) {
+    DatabaseState state = getState(buffer);
+    synchronized (state) {
+      if (state.buffers.remove(buffer)) {
+        state.usedBytes -= buffer.getMemoryUsage();
+      }
+    }
+  }
+
+  @Override
+  public void cache(LlapCacheableBuffer buffer, Priority priority) {
+    realPolicy.cache(buffer, priority);
+    DatabaseState state = getState(buffer);
+    synchronized (state) {
+      if (state.buffers.add(buffer)) {
+        state.usedBytes += buffer.getMemoryUsage();
+      }
+    }
+  }
+
+  @Override
+  public void notifyLock(LlapCacheableBuffer buffer) {
+    realPolicy.notifyLock(buffer);
+  }
+
+  @Override
+  public void notifyUnlock(LlapCacheableBuffer buffer) {
+    realPolicy.notifyUnlock(buffer);
+  }
+
+  @Override
+  public void setEvictionListener(EvictionListener listener) {
+    evictionListener = listener;
+  }
+
+  @Override
+  public long purge() {
+    return realPolicy.purge();
+  }
+
+  @Override
+  public long evictSomeBlocks(long memoryToReserve) {
+    long evicted = evictOverQuota(memoryToReserve);
+    if (evicted < memoryToReserve) {
+      evicted += realPolicy.evictSomeBlocks(memoryToReserve - evicted);
+    }
+    return evicted;
+  }
+
+  private long evictOverQuota(long memoryToReserve) {
+    long evicted = 0;
+    while (evicted < memoryToReserve) {
+      boolean isMinEnforced = isAnyBelowMin();
+      DatabaseState victim = findMostOverQuota(isMinEnforced);
+      if (victim == null) {
+        break;
+      }
+      long evictedNow = evictFrom(victim, memoryToReserve - evicted, isMinEnforced);
+      if (evictedNow == 0) {
+        break; // Everything over the quota is locked; leave it to the real policy.
+      }
+      evicted += evictedNow;
+    }
+    return evicted;
+  }
+
+  private boolean isAnyBelowMin() {
+    for (DatabaseState state : databases.values()) {
+      synchronized (state) {
+        if (state.usedBytes < state.quota.min) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private DatabaseState findMostOverQuota(boolean isMinEnforced) {
+    DatabaseState result = null;
+    long maxExcess = 0;
+    for (DatabaseState state : databases.values()) {
+      long excess;
+      synchronized (state) {
+        excess = state.getExcess(isMinEnforced);
+      }
+      if (excess > maxExcess) {
+        maxExcess = excess;
+        result = state;
+      }
+    }
+    return result;
+  }
+
+  private long evictFrom(DatabaseState state, long memoryToReserve, boolean isMinEnforced) {
+    long evicted = 0;
+    List<LlapCacheableBuffer> victims = new ArrayList<>();
+    synchronized (state) {
+      long toEvict = Math.min(memoryToReserve, state.getExcess(isMinEnforced));
+      Iterator<LlapCacheableBuffer> iter = state.buffers.iterator();
+      while (evicted < toEvict && iter.hasNext()) {
+        LlapCacheableBuffer buffer = iter.next();
+        // Locked buffers and the ones marked for proactive eviction are skipped.
+        if (buffer.isMarkedForEviction()
+            || buffer.invalidate() != LlapCacheableBuffer.INVALIDATE_OK) {
+          continue;
+        }
+        iter.remove();
+        state.usedBytes -= buffer.getMemoryUsage();
+        evicted += buffer.getMemoryUsage();
+        victims.add(buffer);
+      }
+    }
+    for (LlapCacheableBuffer buffer : victims) {
+      evictionListener.notifyEvicted(buffer);
+    }
+    return evicted;
+  }
+
+  @Override
+  public List<LlapCacheableBuffer> getHotBuffers() {
+    return realPolicy.getHotBuffers();
+  }
+
+  /**
+   * @return the bytes cached for each database.
+   */
+  public Map<String, Long> getDatabaseUsage() {
+    Map<String, Long> result = new TreeMap<>();
+    for (DatabaseState state : databases.values()) {
+      synchronized (state) {
+        result.put(state.database, state.usedBytes);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void debugDumpShort(StringBuilder sb) {
+    sb.append("\nCache quotas: ");
+    for (DatabaseState state : databases.values()) {
+      synchronized (state) {
+        sb.append("\n").append(state.database.isEmpty() ? "<no database>" : state.database)
+            .append(" : ").append(state.usedBytes).append(" bytes in ").append(state.buffers.size())
+            .append(" buffers, min ").append(state.quota.min).append(", max ").append(state.quota.max);
+      }
+    }
+  }
+
+  @Override
+  public void notifyEvicted(LlapCacheableBuffer buffer) {
+    evictionListener.notifyEvicted(buffer);
+    reportRemoved(buffer);
+  }
+
+  @Override
+  public void notifyProactivelyEvicted(LlapCacheableBuffer buffer) {
+    evictionListener.notifyProactivelyEvicted(buffer);
+    reportRemoved(buffer);
+  }
+
+  @Override
+  public void notifyProactiveEvictionMark() {
+    if (realPolicy instanceof ProactiveEvictingCachePolicy) {
+      ((ProactiveEvictingCachePolicy) realPolicy).notifyProactiveEvictionMark();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import org.apache.hadoop.hive.common.io.CacheTag;
+
+/**
+ * Decides whether the data read from a file is put into the low-level cache. The data that is
+ * not admitted is only used by the reader that read it, and is deallocated when it is released,
+ * so that it does not evict the data that is already cached.
+ */
+public interface LowLevelCacheAdmissionFilter {
+
+  /**
+   * Called for every buffer that is about to be cached.
+   * @param fileKey the file the buffer was read from
+   * @param offset the offset of the buffer in the file
+   * @param tag the cache tag of the file
+   * @return whether the buffer should be cached
+   */
+  boolean admit(Object fileKey, long offset, CacheTag tag);
+}
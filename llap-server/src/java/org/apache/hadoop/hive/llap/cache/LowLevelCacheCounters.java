@@ -20,6 +20,7 @@
 public interface LowLevelCacheCounters {
   void recordCacheHit(long bytesHit);
   void recordCacheMiss(long bytesMissed);
+  void recordAdmissionReject(long bytesRejected);
   void recordAllocBytes(long bytesWasted, long bytesAllocated);
   void recordHdfsTime(long timeNs);
   void recordThreadTimes(long cpuNs, long userNs);
@@ -26,6 +26,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
 import org.apache.hadoop.hive.common.io.Allocator;
@@ -59,6 +60,7 @@ public class LowLevelCacheImpl implements LowLevelCache, BufferUsageManager, Lla
   private final long cleanupInterval;
   private final LlapDaemonCacheMetrics metrics;
   private final boolean doAssumeGranularBlocks;
+  private LowLevelCacheAdmissionFilter admissionFilter;
 
   private static final Function<Void, ConcurrentSkipListMap<Long, LlapDataBuffer>> CACHE_CTOR =
       new Function<Void, ConcurrentSkipListMap<Long, LlapDataBuffer>>() {
@@ -84,6 +86,13 @@ public LowLevelCacheImpl(LlapDaemonCacheMetrics metrics, LowLevelCachePolicy cac
     this.doAssumeGranularBlocks = doAssumeGranularBlocks;
   }
 
+  /**
+   * Sets the filter that decides which of the buffers put into the cache are kept in it.
+   */
+  public void setAdmissionFilter(LowLevelCacheAdmissionFilter admissionFilter) {
+    this.admissionFilter = admissionFilter;
+  }
+
   public void startThreads() {
     if (cleanupInterval < 0) return;
     cleanupThread = new CleanupThread(cache, newEvictions, cleanupInterval);
@@ -331,6 +340,15 @@ public long[] putFileData(Object fileKey, DiskRange[] ranges, MemoryBuffer[] buf
         assert canLock;
         long offset = ranges[i].getOffset() + baseOffset;
         assert buffer.declaredCachedLength == LlapDataBuffer.UNKNOWN_CACHED_LENGTH;
+        if (admissionFilter != null && !admissionFilter.admit(fileKey, offset, tag)) {
+          // The buffer stays locked for the caller; it is deallocated when released, since it
+          // has no declared cached length.
+          metrics.incrCacheAdmissionRejectedBytes(ranges[i].getLength());
+          if (qfCounters != null) {
+            qfCounters.recordAdmissionReject(ranges[i].getLength());
+          }
+          continue;
+        }
         buffer.declaredCachedLength = ranges[i].getLength();
         while (true) { // Overwhelmingly executes once, or maybe twice (replacing stale value).
           LlapDataBuffer oldVal = subCache.getCache().putIfAbsent(offset, buffer);
@@ -428,6 +446,21 @@ public static LlapDataBuffer allocateFake() {
     return fake;
   }
 
+  /**
+   * Calls the visitor with the file key and the start offset of every valid cached buffer. The
+   * buffers are not locked, so this is only a best-effort view, e.g. for cache summaries.
+   */
+  public void forEachCachedBuffer(BiConsumer<Object, Long> visitor) {
+    for (Map.Entry<Object, FileCache<ConcurrentSkipListMap<Long, LlapDataBuffer>>> e :
+        cache.entrySet()) {
+      for (Map.Entry<Long, LlapDataBuffer> e2 : e.getValue().getCache().entrySet()) {
+        if (!e2.getValue().isInvalid()) {
+          visitor.accept(e.getKey(), e2.getKey());
+        }
+      }
+    }
+  }
+
   @Override
   public final void notifyEvicted(MemoryBuffer buffer) {
     newEvictions.incrementAndGet();
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.io.api.LlapIo;
+import org.apache.hadoop.hive.llap.io.api.LlapProxy;
+import org.apache.hadoop.hive.registry.RegistryUtilities;
+import org.apache.hive.common.util.ShutdownHookManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+
+/**
+ * Cache hydration strategy which saves the hot cached data itself, along with the file footers and the content
+ * info, to a file on the local filesystem on shutdown, and puts it back into the cache when the daemon starts.
+ * Unlike {@link BasicLlapCacheHydration}, nothing is re-read from the remote storage, except for validating that
+ * the files are unchanged. The save directory should be on a fast local disk, e.g. next to the mmap cache arenas.
+ */
+public class PersistentLlapCacheHydration implements LlapCacheHydration {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PersistentLlapCacheHydration.class);
+
+  private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+  private Configuration conf;
+  private String savePath;
+  @VisibleForTesting
+  LlapIo llapIo;
+
+  @Override
+  public void load() {
+    loadCacheData();
+  }
+
+  @Override
+  public void save() {
+    saveCacheData();
+  }
+
+  @Override
+  public void init() {
+    ShutdownHookManager.addShutdownHook(() -> save());
+    initSavePath();
+    if (llapIo == null) {
+      llapIo = LlapProxy.getIo();
+    }
+  }
+
+  @VisibleForTesting
+  void initSavePath() {
+    if (savePath == null) {
+      String dir = HiveConf.getVar(conf, ConfVars.LLAP_CACHE_HYDRATION_SAVE_DIR);
+      String name = RegistryUtilities.getCanonicalHostName();
+      if (dir != null && name != null) {
+        File directory = new File(dir);
+        if (!directory.exists()) {
+          directory.mkdirs();
+        }
+        savePath = dir + Path.SEPARATOR + name.hashCode() + ".data";
+      }
+    }
+  }
+
+  private void saveCacheData() {
+    if (llapIo != null && savePath != null) {
+      // Write to a temporary file first, so that an interrupted save does not leave a truncated file behind.
+      File tmpFile = new File(savePath + ".tmp");
+      try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile), STREAM_BUFFER_SIZE)) {
+        llapIo.saveCacheData(out);
+      } catch (IOException ex) {
+        LOG.warn("Couldn't save llap cache data.", ex);
+        tmpFile.delete();
+        return;
+      }
+      try {
+        Files.move(tmpFile.toPath(), new File(savePath).toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("Llap cache data saved: " + savePath);
+      } catch (IOException ex) {
+        LOG.warn("Couldn't save llap cache data.", ex);
+        tmpFile.delete();
+      }
+    }
+  }
+
+  private void loadCacheData() {
+    if (llapIo != null && savePath != null) {
+      File file = new File(savePath);
+      if (file.exists()) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), STREAM_BUFFER_SIZE)) {
+          llapIo.loadCacheData(in);
+          LOG.info("Llap cache data loaded: " + savePath);
+        } catch (IOException ex) {
+          LOG.warn("Couldn't load llap cache data.", ex);
+        }
+        // The data is saved again on the next shutdown.
+        file.delete();
+      }
+    }
+  }
+
+  @Override
+  public void setConf(Configuration conf) {
+    this.conf = conf;
+  }
+
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+}
@@ -111,4 +111,19 @@ public int getArenaSize() {
   public long getMaxCacheSize() {
     return Integer.MAX_VALUE;
   }
+
+  @Override
+  public long getCacheRequestedBytes() {
+    return 0;
+  }
+
+  @Override
+  public long getCacheHitBytes() {
+    return 0;
+  }
+
+  @Override
+  public long getCacheAdmissionRejectedBytes() {
+    return 0;
+  }
 }
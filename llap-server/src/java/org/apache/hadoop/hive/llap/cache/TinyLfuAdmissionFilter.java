@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import java.util.function.LongSupplier;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.io.CacheTag;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * TinyLFU style admission: a count-min sketch of 4-bit counters estimates how often each block
+ * was read recently, and a block is only admitted after it has been read a few times. All the
+ * counters are halved periodically, so the estimates follow the recent reads. Until the cache
+ * fills up, everything is admitted.
+ */
+public class TinyLfuAdmissionFilter implements LowLevelCacheAdmissionFilter {
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int SAMPLE_FACTOR = 10;
+  private static final long[] SEEDS = new long[] {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+  private final byte[][] counters;
+  private final int mask;
+  private final int sampleSize;
+  private final int minFrequency;
+  private final long warmupSize;
+  private final LongSupplier usedSize;
+  private int additions = 0;
+
+  public static TinyLfuAdmissionFilter create(
+      Configuration conf, long maxSize, LongSupplier usedSize) {
+    int width = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_CACHE_ADMISSION_TINYLFU_SKETCH_SIZE);
+    int minFrequency = HiveConf.getIntVar(
+        conf, ConfVars.LLAP_IO_CACHE_ADMISSION_TINYLFU_MIN_FREQUENCY);
+    float warmupFraction = HiveConf.getFloatVar(
+        conf, ConfVars.LLAP_IO_CACHE_ADMISSION_WARMUP_FRACTION);
+    return new TinyLfuAdmissionFilter(
+        width, minFrequency, (long) (maxSize * warmupFraction), usedSize);
+  }
+
+  @VisibleForTesting
+  TinyLfuAdmissionFilter(int width, int minFrequency, long warmupSize, LongSupplier usedSize) {
+    int tableSize = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(width, 2) - 1));
+    tableSize = Math.min(tableSize, 1 << 30);
+    this.counters = new byte[DEPTH][tableSize];
+    this.mask = tableSize - 1;
+    this.sampleSize = (int) Math.min((long) tableSize * SAMPLE_FACTOR, Integer.MAX_VALUE);
+    this.minFrequency = minFrequency;
+    this.warmupSize = warmupSize;
+    this.usedSize = usedSize;
+  }
+
+  @Override
+  public boolean admit(Object fileKey, long offset, CacheTag tag) {
+    int frequency = increment(hash(fileKey, offset));
+    return frequency >= minFrequency || usedSize.getAsLong() < warmupSize;
+  }
+
+  /**
+   * Counts a read of the block, and returns the estimated number of recent reads including it.
+   * Only the smallest counters are incremented (conservative update), which reduces the
+   * overestimation for the blocks whose counters collide with frequently read ones.
+   */
+  @VisibleForTesting
+  synchronized int increment(long hash) {
+    int min = MAX_COUNT;
+    for (int i = 0; i < DEPTH; ++i) {
+      min = Math.min(min, counters[i][index(hash, i)]);
+    }
+    if (min < MAX_COUNT) {
+      for (int i = 0; i < DEPTH; ++i) {
+        int ix = index(hash, i);
+        if (counters[i][ix] == min) {
+          counters[i][ix] = (byte) (min + 1);
+        }
+      }
+      ++min;
+    }
+    if (++additions >= sampleSize) {
+      reset();
+    }
+    return min;
+  }
+
+  private void reset() {
+    for (byte[] row : counters) {
+      for (int i = 0; i < row.length; ++i) {
+        row[i] = (byte) (row[i] >>> 1);
+      }
+    }
+    additions >>>= 1;
+  }
+
+  private int index(long hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h ^= h >>> 32;
+    return (int) h & mask;
+  }
+
+  @VisibleForTesting
+  static long hash(Object fileKey, long offset) {
+    long h = fileKey.hashCode() * 0x9e3779b97f4a7c15L + offset;
+    return h ^ (h >>> 29);
+  }
+}
@@ -101,6 +101,11 @@ public void recordCacheMiss(long bytesMissed) {
     incrCounter(LlapIOCounters.CACHE_MISS_BYTES, bytesMissed);
   }
 
+  @Override
+  public void recordAdmissionReject(long bytesRejected) {
+    incrCounter(LlapIOCounters.CACHE_ADMISSION_REJECTED_BYTES, bytesRejected);
+  }
+
   @Override
   public void recordAllocBytes(long bytesUsed, long bytesAllocated) {
     incrCounter(LlapIOCounters.ALLOCATED_USED_BYTES, bytesUsed);
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.daemon.impl;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.llap.io.api.LlapIo;
+import org.apache.hadoop.hive.llap.io.api.LlapProxy;
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
+import org.apache.hadoop.hive.llap.registry.impl.LlapRegistryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Periodically publishes the digest of the cached file ranges of the daemon to the registry,
+ * for cache-aware split locations. The digest is only republished when it changes.
+ */
+class LlapCacheDigestPublisher {
+  private static final Logger LOG = LoggerFactory.getLogger(LlapCacheDigestPublisher.class);
+
+  private final LlapRegistryService registry;
+  private final long intervalSec;
+  private final long blockSize;
+  private final int maxBlocks;
+  private ScheduledExecutorService executor;
+  private String lastDigest;
+
+  LlapCacheDigestPublisher(LlapRegistryService registry, Configuration conf) {
+    this.registry = registry;
+    this.intervalSec = HiveConf.getTimeVar(conf, ConfVars.LLAP_IO_CACHE_DIGEST_INTERVAL,
+        TimeUnit.SECONDS);
+    this.blockSize = HiveConf.getSizeVar(conf, ConfVars.LLAP_IO_CACHE_DIGEST_BLOCK_SIZE);
+    this.maxBlocks = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_CACHE_DIGEST_MAX_BLOCKS);
+  }
+
+  boolean isEnabled() {
+    return intervalSec > 0 && blockSize > 0;
+  }
+
+  void start() {
+    executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true).setNameFormat("LlapCacheDigestPublisher").build());
+    executor.scheduleWithFixedDelay(this::publish, intervalSec, intervalSec, TimeUnit.SECONDS);
+    LOG.info("Publishing the cache digest every {} seconds", intervalSec);
+  }
+
+  void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void publish() {
+    try {
+      LlapIo<?> io = LlapProxy.getIo();
+      LlapCacheDigest digest = (io == null) ? null : io.getCacheDigest(blockSize, maxBlocks);
+      if (digest == null) {
+        return;
+      }
+      String value = digest.serialize();
+      if (value.equals(lastDigest)) {
+        return;
+      }
+      registry.updateRegistration(
+          Collections.singletonMap(LlapCacheDigest.REGISTRY_ATTRIBUTE, value).entrySet());
+      lastDigest = value;
+      LOG.debug("Published a cache digest of {} characters", value.length());
+    } catch (Throwable t) {
+      // Keep publishing; split locations fall back to consistent hashing meanwhile.
+      LOG.warn("Failed to publish the cache digest", t);
+    }
+  }
+}
@@ -105,6 +105,7 @@ public class LlapDaemon extends CompositeService implements ContainerRunner, Lla
   private final ContainerRunnerImpl containerRunner;
   private final AMReporter amReporter;
   private final LlapRegistryService registry;
+  private final LlapCacheDigestPublisher cacheDigestPublisher;
   private final LlapWebServices webServices;
   private final LlapLoadGeneratorService llapLoadGeneratorService;
   private final AtomicLong numSubmissions = new AtomicLong(0);
@@ -353,6 +354,7 @@ public LlapDaemon(Configuration daemonConf, int numExecutors, long executorMemor
 
     // Not adding the registry as a service, since we need to control when it is initialized - conf used to pickup properties.
     this.registry = new LlapRegistryService(true);
+    this.cacheDigestPublisher = ioEnabled ? new LlapCacheDigestPublisher(registry, daemonConf) : null;
 
     // disable web UI in test mode until a specific port was configured
     if (HiveConf.getBoolVar(daemonConf, HiveConf.ConfVars.HIVE_IN_TEST)
@@ -509,6 +511,9 @@ public void serviceStart() throws Exception {
 
     this.registry.init(getConfig());
     this.registry.start();
+    if (cacheDigestPublisher != null && cacheDigestPublisher.isEnabled()) {
+      cacheDigestPublisher.start();
+    }
     LOG.info(
         "LlapDaemon serviceStart complete. RPC Port={}, ManagementPort={}, ShuflePort={}, WebPort={}",
         server.getBindAddress().getPort(), server.getManagementBindAddress().getPort(),
@@ -516,6 +521,9 @@ public void serviceStart() throws Exception {
   }
 
   public void serviceStop() throws Exception {
+    if (cacheDigestPublisher != null) {
+      cacheDigestPublisher.stop();
+    }
     if (registry != null) {
       this.registry.stop();
     }
@@ -21,18 +21,24 @@
 import com.google.protobuf.ByteString;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.Allocator;
 import org.apache.hadoop.hive.common.io.CacheTag;
 import org.apache.hadoop.hive.common.io.DataCache;
+import org.apache.hadoop.hive.common.io.DiskRange;
 import org.apache.hadoop.hive.common.io.DiskRangeList;
 import org.apache.hadoop.hive.common.io.FileMetadataCache;
+import org.apache.hadoop.hive.common.io.encoded.MemoryBuffer;
+import org.apache.hadoop.hive.common.io.encoded.MemoryBufferOrBuffers;
 import org.apache.hadoop.hive.llap.cache.LlapCacheableBuffer;
 import org.apache.hadoop.hive.llap.cache.LlapDataBuffer;
 import org.apache.hadoop.hive.llap.cache.LowLevelCachePolicy;
 import org.apache.hadoop.hive.llap.cache.PathCache;
 import org.apache.hadoop.hive.llap.daemon.rpc.LlapDaemonProtocolProtos;
 import org.apache.hadoop.hive.llap.io.encoded.LlapOrcCacheLoader;
+import org.apache.hadoop.hive.llap.io.encoded.OrcEncodedDataReader;
 import org.apache.hadoop.hive.ql.io.SyntheticFileId;
 import org.apache.hadoop.hive.ql.io.orc.encoded.IoTrace;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hive.common.util.FixedSizedObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,9 +49,17 @@
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -58,6 +72,8 @@ final class LlapCacheMetadataSerializer {
 
   public static final Logger LOG = LoggerFactory.getLogger(LlapCacheMetadataSerializer.class);
 
+  private static final int DATA_FORMAT_VERSION = 1;
+
   private final FileMetadataCache metadataCache;
   private final DataCache cache;
   private final Configuration conf;
@@ -160,6 +176,206 @@ private void loadData(LlapDaemonProtocolProtos.CacheEntry ce) throws IOException
     }
   }
 
+  /**
+   * Writes the hot data buffers, grouped by file. For each file there is a cache entry with one range per buffer,
+   * followed by the length and the content of the cached file footer (-1 if it is not cached), and the content of
+   * the ranges.
+   */
+  public void saveData(OutputStream out) throws IOException {
+    Map<Object, List<LlapDataBuffer>> buffersByFile = new LinkedHashMap<>();
+    for (LlapCacheableBuffer b : cachePolicy.getHotBuffers()) {
+      if (b instanceof LlapDataBuffer) {
+        LlapDataBuffer db = (LlapDataBuffer) b;
+        Object fileKey = db.getFileKey();
+        if (fileKey != null) {
+          buffersByFile.computeIfAbsent(fileKey, k -> new ArrayList<>()).add(db);
+        }
+      }
+    }
+    DataOutputStream dos = new DataOutputStream(out);
+    WritableByteChannel channel = Channels.newChannel(dos);
+    dos.writeInt(DATA_FORMAT_VERSION);
+    int savedFiles = 0;
+    for (Map.Entry<Object, List<LlapDataBuffer>> e : buffersByFile.entrySet()) {
+      String path = pathCache.resolve(e.getKey());
+      if (path == null) {
+        continue;
+      }
+      // The buffers are locked while they are written, so that they can't be evicted and reused.
+      List<LlapDataBuffer> locked = new ArrayList<>(e.getValue().size());
+      try {
+        for (LlapDataBuffer db : e.getValue()) {
+          if (db.incRef() > 0) {
+            locked.add(db);
+          }
+        }
+        if (locked.isEmpty()) {
+          continue;
+        }
+        LlapDaemonProtocolProtos.CacheEntry.Builder builder = LlapDaemonProtocolProtos.CacheEntry.newBuilder()
+            .setFileKey(encodeFileKey(e.getKey())).setCacheTag(encodeCacheTag(locked.get(0).getTag()))
+            .setFilePath(path);
+        for (LlapDataBuffer db : locked) {
+          builder.addRanges(LlapDaemonProtocolProtos.CacheEntryRange.newBuilder().setStart(db.getStart())
+              .setEnd(db.getStart() + db.declaredCachedLength));
+        }
+        builder.build().writeDelimitedTo(dos);
+        saveFileMetadata(e.getKey(), dos, channel);
+        for (LlapDataBuffer db : locked) {
+          writeBuffer(db.getByteBufferDup(), db.declaredCachedLength, channel);
+        }
+        ++savedFiles;
+      } finally {
+        for (LlapDataBuffer db : locked) {
+          db.decRef();
+        }
+      }
+    }
+    dos.flush();
+    LOG.info("Saved the cached data of {} files", savedFiles);
+  }
+
+  private void saveFileMetadata(Object fileKey, DataOutputStream dos, WritableByteChannel channel)
+      throws IOException {
+    MemoryBufferOrBuffers tail = metadataCache.getFileMetadata(fileKey);
+    if (tail == null) {
+      dos.writeInt(-1);
+      return;
+    }
+    try {
+      MemoryBuffer[] buffers = (tail.getSingleBuffer() != null)
+          ? new MemoryBuffer[] { tail.getSingleBuffer() } : tail.getMultipleBuffers();
+      int length = 0;
+      for (MemoryBuffer buffer : buffers) {
+        length += buffer.getByteBufferRaw().remaining();
+      }
+      dos.writeInt(length);
+      for (MemoryBuffer buffer : buffers) {
+        ByteBuffer bb = buffer.getByteBufferDup();
+        writeBuffer(bb, bb.remaining(), channel);
+      }
+    } finally {
+      metadataCache.decRefBuffer(tail);
+    }
+  }
+
+  private static void writeBuffer(ByteBuffer bb, int length, WritableByteChannel channel) throws IOException {
+    bb.limit(bb.position() + length);
+    while (bb.hasRemaining()) {
+      channel.write(bb);
+    }
+  }
+
+  /**
+   * Puts the data written by {@link #saveData(OutputStream)} into the cache. The files are validated by their
+   * current file key, which covers the file ID and the modification time; the data of the changed files is skipped.
+   */
+  public void loadSavedData(InputStream in) throws IOException {
+    DataInputStream dis = new DataInputStream(in);
+    int version = dis.readInt();
+    if (version != DATA_FORMAT_VERSION) {
+      LOG.warn("Skipping saved cache data with unknown version {}", version);
+      return;
+    }
+    ReadableByteChannel channel = Channels.newChannel(dis);
+    int loadedFiles = 0, skippedFiles = 0;
+    LlapDaemonProtocolProtos.CacheEntry ce;
+    while ((ce = LlapDaemonProtocolProtos.CacheEntry.parseDelimitedFrom(dis)) != null) {
+      Object fileKey = decodeFileKey(ce.getFileKey());
+      int tailLength = dis.readInt();
+      long dataLength = 0;
+      for (LlapDaemonProtocolProtos.CacheEntryRange r : ce.getRangesList()) {
+        dataLength += r.getEnd() - r.getStart();
+      }
+      if (!isFileUnchanged(ce.getFilePath(), fileKey)) {
+        IOUtils.skipFully(dis, Math.max(tailLength, 0) + dataLength);
+        ++skippedFiles;
+        continue;
+      }
+      CacheTag cacheTag = decodeCacheTag(ce.getCacheTag());
+      if (tailLength >= 0) {
+        byte[] tail = new byte[tailLength];
+        dis.readFully(tail);
+        MemoryBufferOrBuffers tailBuffers =
+            metadataCache.putFileMetadata(fileKey, ByteBuffer.wrap(tail), cacheTag, null);
+        if (tailBuffers != null) {
+          metadataCache.decRefBuffer(tailBuffers);
+        }
+      }
+      if (!loadRanges(fileKey, cacheTag, ce.getRangesList(), channel)) {
+        LOG.info("The cache is full; stopped loading the saved cache data");
+        return;
+      }
+      ++loadedFiles;
+    }
+    LOG.info("Loaded the saved cache data of {} files, skipped {} changed files", loadedFiles, skippedFiles);
+  }
+
+  private boolean isFileUnchanged(String path, Object fileKey) {
+    Path filePath = new Path(path);
+    try {
+      Object currentFileKey = OrcEncodedDataReader.determineFileId(
+          OrcEncodedDataReader.getFsSupplier(filePath, conf), filePath, conf);
+      return fileKey.equals(currentFileKey);
+    } catch (IOException | RuntimeException ex) {
+      LOG.info("Cannot validate saved cache data for {}", path, ex);
+      return false;
+    }
+  }
+
+  /**
+   * @return false if the ranges could not be allocated in the cache.
+   */
+  private boolean loadRanges(Object fileKey, CacheTag cacheTag,
+      List<LlapDaemonProtocolProtos.CacheEntryRange> ranges, ReadableByteChannel channel) throws IOException {
+    Allocator allocator = cache.getAllocator();
+    DiskRange[] cacheRanges = new DiskRange[ranges.size()];
+    MemoryBuffer[] buffers = new MemoryBuffer[ranges.size()];
+    boolean isAllocated = false;
+    try {
+      MemoryBuffer[] dest = new MemoryBuffer[1];
+      for (int i = 0; i < ranges.size(); ++i) {
+        LlapDaemonProtocolProtos.CacheEntryRange r = ranges.get(i);
+        int length = (int) (r.getEnd() - r.getStart());
+        if (length > allocator.getMaxAllocation()) {
+          throw new IOException("Saved buffer of " + length + " bytes is larger than the maximum allocation");
+        }
+        allocator.allocateMultiple(dest, length, cache.getDataBufferFactory());
+        buffers[i] = dest[0];
+        ByteBuffer bb = buffers[i].getByteBufferRaw().duplicate();
+        // The allocation may be larger than the saved range; only read the bytes that were written.
+        bb.limit(bb.position() + length);
+        while (bb.hasRemaining()) {
+          if (channel.read(bb) < 0) {
+            throw new IOException("Unexpected end of the saved cache data");
+          }
+        }
+        cacheRanges[i] = new DiskRange(r.getStart(), r.getEnd());
+      }
+      isAllocated = true;
+    } catch (Allocator.AllocatorOutOfMemoryException ex) {
+      return false;
+    } finally {
+      if (!isAllocated) {
+        for (MemoryBuffer buffer : buffers) {
+          if (buffer != null) {
+            allocator.deallocate(buffer);
+          }
+        }
+      }
+    }
+    MemoryBuffer[] cached = Arrays.copyOf(buffers, buffers.length);
+    long[] replaced = cache.putFileData(fileKey, cacheRanges, cached, 0, cacheTag);
+    for (int i = 0; i < cached.length; ++i) {
+      // The cache locks the buffers it keeps, or the ones it already had for the same ranges.
+      cache.releaseBuffer(cached[i]);
+      if (replaced != null && (replaced[i >>> 6] & (1L << (i & 63))) != 0) {
+        allocator.deallocate(buffers[i]);
+      }
+    }
+    return true;
+  }
+
   private static DiskRangeList decodeRanges(List<LlapDaemonProtocolProtos.CacheEntryRange> ranges) {
     DiskRangeList.CreateHelper helper = new DiskRangeList.CreateHelper();
     ranges.stream().sorted(Comparator.comparing(LlapDaemonProtocolProtos.CacheEntryRange::getStart))
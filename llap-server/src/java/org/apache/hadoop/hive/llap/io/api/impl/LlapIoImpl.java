@@ -19,9 +19,15 @@
 package org.apache.hadoop.hive.llap.io.api.impl;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +42,7 @@
 import org.apache.hadoop.hive.llap.cache.MemoryLimitedPathCache;
 import org.apache.hadoop.hive.llap.cache.PathCache;
 import org.apache.hadoop.hive.llap.cache.ProactiveEvictingCachePolicy;
+import org.apache.hadoop.hive.llap.cache.TinyLfuAdmissionFilter;
 import org.apache.hadoop.hive.llap.daemon.impl.StatsRecordingThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +59,7 @@
 import org.apache.hadoop.hive.llap.cache.BuddyAllocator;
 import org.apache.hadoop.hive.llap.cache.BufferUsageManager;
 import org.apache.hadoop.hive.llap.cache.CacheContentsTracker;
+import org.apache.hadoop.hive.llap.cache.DatabaseQuotaCachePolicy;
 import org.apache.hadoop.hive.llap.cache.EvictionDispatcher;
 import org.apache.hadoop.hive.llap.cache.LlapDataBuffer;
 import org.apache.hadoop.hive.llap.cache.LlapIoDebugDump;
@@ -65,11 +73,13 @@
 import org.apache.hadoop.hive.llap.cache.SimpleAllocator;
 import org.apache.hadoop.hive.llap.cache.SimpleBufferManager;
 import org.apache.hadoop.hive.llap.cache.LowLevelCache.Priority;
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
 import org.apache.hadoop.hive.llap.daemon.rpc.LlapDaemonProtocolProtos;
 import org.apache.hadoop.hive.llap.io.api.LlapIo;
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.decode.GenericColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.decode.OrcColumnVectorProducer;
+import org.apache.hadoop.hive.llap.io.decode.ParquetColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.encoded.OrcEncodedDataReader;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
@@ -80,6 +90,8 @@
 import org.apache.hadoop.hive.ql.io.orc.OrcSplit;
 import org.apache.hadoop.hive.ql.io.orc.encoded.IoTrace;
 import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
+import org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat;
+import org.apache.hadoop.hive.ql.io.parquet.VectorizedParquetInputFormat;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.Deserializer;
 import org.apache.hadoop.io.NullWritable;
@@ -103,9 +115,11 @@ public class LlapIoImpl implements LlapIo<VectorizedRowBatch>, LlapIoDebugDump {
   private static final String MODE_CACHE = "cache";
 
   // TODO: later, we may have a map
-  private final ColumnVectorProducer orcCvp, genericCvp;
+  private final ColumnVectorProducer orcCvp, genericCvp, parquetCvp;
   private final ExecutorService executor;
   private final ExecutorService encodeExecutor;
+  private final ExecutorService orcReadExecutor;
+  private final ExecutorService decodeExecutor;
   private final LlapDaemonCacheMetrics cacheMetrics;
   private final LlapDaemonIOMetrics ioMetrics;
   private final boolean useLowLevelCache;
@@ -167,12 +181,24 @@ private LlapIoImpl(Configuration conf) throws IOException {
         HiveConf.setBoolVar(this.daemonConf, ConfVars.LLAP_IO_PROACTIVE_EVICTION_ENABLED, false);
         LOG.info("Turning off proactive cache eviction, as selected cache policy does not support it.");
       }
+      LowLevelCachePolicy quotaPolicy = realCachePolicy;
+      String quotas = HiveConf.getVar(conf, ConfVars.LLAP_IO_CACHE_QUOTAS);
+      if (quotas != null && !quotas.trim().isEmpty()) {
+        if (realCachePolicy instanceof ProactiveEvictingCachePolicy.Impl) {
+          DatabaseQuotaCachePolicy databaseQuotas = new DatabaseQuotaCachePolicy(realCachePolicy, quotas);
+          cacheMetrics.setDatabaseUsage(databaseQuotas::getDatabaseUsage);
+          debugDumpComponents.add(databaseQuotas);
+          quotaPolicy = databaseQuotas;
+        } else {
+          LOG.info("Ignoring the cache quotas, as selected cache policy does not support them.");
+        }
+      }
       boolean trackUsage = HiveConf.getBoolVar(conf, HiveConf.ConfVars.LLAP_TRACK_CACHE_USAGE);
       LowLevelCachePolicy cachePolicyWrapper;
       if (trackUsage) {
-        cachePolicyWrapper = new CacheContentsTracker(realCachePolicy);
+        cachePolicyWrapper = new CacheContentsTracker(quotaPolicy);
       } else {
-        cachePolicyWrapper = realCachePolicy;
+        cachePolicyWrapper = quotaPolicy;
       }
       // Allocator uses memory manager to request memory, so create the manager next.
       this.memoryManager = new LowLevelCacheMemoryManager(
@@ -183,6 +209,10 @@ private LlapIoImpl(Configuration conf) throws IOException {
       this.allocator = allocator;
       LowLevelCacheImpl cacheImpl = new LowLevelCacheImpl(
           cacheMetrics, cachePolicyWrapper, allocator, true);
+      if ("tinylfu".equalsIgnoreCase(HiveConf.getVar(conf, ConfVars.LLAP_IO_CACHE_ADMISSION_FILTER))) {
+        cacheImpl.setAdmissionFilter(
+            TinyLfuAdmissionFilter.create(conf, totalMemorySize, memoryManager::getCurrentUsedSize));
+      }
       dataCache = cacheImpl;
       if (isEncodeEnabled) {
         SerDeLowLevelCacheImpl serdeCacheImpl = new SerDeLowLevelCacheImpl(
@@ -246,12 +276,33 @@ public void debugDumpShort(StringBuilder sb) {
     } else {
       encodeExecutor = null;
     }
+    int orcReadThreads = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_ORC_READ_THREADPOOL_SIZE);
+    if (orcReadThreads > 0 && HiveConf.getSizeVar(conf, ConfVars.LLAP_IO_ORC_READ_COALESCE_GAP) > 0) {
+      orcReadExecutor = new StatsRecordingThreadPool(orcReadThreads, orcReadThreads, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder().setNameFormat("IO-Elevator-Thread-OrcRead-%d").setDaemon(true).build());
+    } else {
+      orcReadExecutor = null;
+    }
+    int decodeThreads = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_DECODE_THREADPOOL_SIZE);
+    if (decodeThreads > 0) {
+      // The queue is bounded; the IO threads decode the rejected columns themselves.
+      decodeExecutor = new StatsRecordingThreadPool(decodeThreads, decodeThreads, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<Runnable>(decodeThreads * 2),
+          new ThreadFactoryBuilder().setNameFormat("IO-Elevator-Thread-OrcDecode-%d").setDaemon(true).build());
+      ioMetrics.setDecodeThreadPoolSize(decodeThreads);
+    } else {
+      decodeExecutor = null;
+    }
 
     // TODO: this should depends on input format and be in a map, or something.
     this.orcCvp = new OrcColumnVectorProducer(
-        metadataCache, dataCache, pathCache, bufferManagerOrc, conf, cacheMetrics, ioMetrics, tracePool);
+        metadataCache, dataCache, pathCache, bufferManagerOrc, conf, cacheMetrics, ioMetrics, tracePool,
+        orcReadExecutor, decodeExecutor);
     this.genericCvp = isEncodeEnabled ? new GenericColumnVectorProducer(
         serdeCache, bufferManagerGeneric, conf, cacheMetrics, ioMetrics, tracePool, encodeExecutor) : null;
+    this.parquetCvp = useLowLevelCache ? new ParquetColumnVectorProducer(
+        fileMetadataCache, new GenericDataCache(dataCache, bufferManager), conf, cacheMetrics) : null;
     LOG.info("LLAP IO initialized");
 
     registerMXBeans();
@@ -318,6 +369,9 @@ public InputFormat<NullWritable, VectorizedRowBatch> getInputFormat(
     ColumnVectorProducer cvp = genericCvp;
     if (sourceInputFormat instanceof OrcInputFormat) {
       cvp = orcCvp; // Special-case for ORC.
+    } else if (parquetCvp != null && (sourceInputFormat instanceof MapredParquetInputFormat
+        || sourceInputFormat instanceof VectorizedParquetInputFormat)) {
+      cvp = parquetCvp;
     } else if (cvp == null) {
       LOG.warn("LLAP encode is disabled; cannot use for " + sourceInputFormat.getClass());
       return null;
@@ -336,6 +390,12 @@ public void close() {
     if (encodeExecutor != null) {
       encodeExecutor.shutdownNow();
     }
+    if (orcReadExecutor != null) {
+      orcReadExecutor.shutdownNow();
+    }
+    if (decodeExecutor != null) {
+      decodeExecutor.shutdownNow();
+    }
   }
 
 
@@ -456,6 +516,33 @@ public LlapDaemonProtocolProtos.CacheEntryList fetchCachedContentInfo() {
     }
   }
 
+  @Override
+  public LlapCacheDigest getCacheDigest(long blockSize, int maxBlocks) {
+    if (!(dataCache instanceof LowLevelCacheImpl) || pathCache == null) {
+      return null;
+    }
+    // Only the files with a known path can be matched to splits.
+    Map<Object, String> paths = new HashMap<>();
+    Map<String, Set<Long>> blocks = new HashMap<>();
+    int[] blockCount = new int[1];
+    ((LowLevelCacheImpl) dataCache).forEachCachedBuffer((fileKey, offset) -> {
+      if (blockCount[0] >= maxBlocks) {
+        return;
+      }
+      String path = paths.computeIfAbsent(fileKey, pathCache::resolve);
+      if (path != null && blocks.computeIfAbsent(path, p -> new HashSet<>()).add(offset / blockSize)) {
+        ++blockCount[0];
+      }
+    });
+    LlapCacheDigest digest = LlapCacheDigest.create(blockSize, blockCount[0]);
+    for (Map.Entry<String, Set<Long>> e : blocks.entrySet()) {
+      for (long block : e.getValue()) {
+        digest.addBlock(e.getKey(), block);
+      }
+    }
+    return digest;
+  }
+
   @Override
   public void loadDataIntoCache(LlapDaemonProtocolProtos.CacheEntryList metadata) {
     if (useLowLevelCache) {
@@ -467,4 +554,28 @@ public void loadDataIntoCache(LlapDaemonProtocolProtos.CacheEntryList metadata)
       LOG.warn("Cannot load data into the cache. Low level cache is disabled.");
     }
   }
+
+  @Override
+  public void saveCacheData(OutputStream out) throws IOException {
+    if (useLowLevelCache) {
+      GenericDataCache cache = new GenericDataCache(dataCache, bufferManager);
+      LlapCacheMetadataSerializer serializer = new LlapCacheMetadataSerializer(fileMetadataCache, cache, daemonConf,
+          pathCache, tracePool, realCachePolicy);
+      serializer.saveData(out);
+    } else {
+      LOG.warn("Low level cache is disabled.");
+    }
+  }
+
+  @Override
+  public void loadCacheData(InputStream in) throws IOException {
+    if (useLowLevelCache) {
+      GenericDataCache cache = new GenericDataCache(dataCache, bufferManager);
+      LlapCacheMetadataSerializer serializer = new LlapCacheMetadataSerializer(fileMetadataCache, cache, daemonConf,
+          pathCache, tracePool, realCachePolicy);
+      serializer.loadSavedData(in);
+    } else {
+      LOG.warn("Cannot load data into the cache. Low level cache is disabled.");
+    }
+  }
 }
@@ -206,6 +206,9 @@ private LlapRecordReader(MapWork mapWork, JobConf job, FileSplit split,
       includes.setProbeDecodeContext(mapWork.getProbeDecodeContext());
       LOG.info("LlapRecordReader ProbeDecode is enabled");
     }
+    // The selected rows are only honored by the vectorized operators.
+    includes.setLazyDecodeEnabled(sarg != null && !isAcidScan && mapWork.getVectorMode()
+        && HiveConf.getBoolVar(jobConf, ConfVars.LLAP_IO_ORC_LAZY_DECODE));
 
     // Create the consumer of encoded data; it will coordinate decoding to CVBs.
     feedback = rp = cvp.createReadPipeline(this, split, includes, sarg, counters, includes,
@@ -422,8 +425,14 @@ public boolean next(NullWritable key, VectorizedRowBatch vrb) throws IOException
         int ixInVrb = includes.getPhysicalColumnIds().get(ixInReadSet);
         cvb.swapColumnVector(ixInReadSet, vrb.cols, ixInVrb);
       }
-      vrb.selectedInUse = false;//why?
-      vrb.size = cvb.size;
+      if (cvb.filterContext.isSelectedInUse()) {
+        vrb.selectedInUse = true;
+        vrb.size = cvb.filterContext.getSelectedSize();
+        System.arraycopy(cvb.filterContext.getSelected(), 0, vrb.selected, 0, vrb.size);
+      } else {
+        vrb.selectedInUse = false;//why?
+        vrb.size = cvb.size;
+      }
     }
 
     if (wasFirst) {
@@ -649,6 +658,7 @@ private static class IncludesImpl implements SchemaEvolutionFactory, Includes {
 
     // ProbeDecode Context for row-level filtering
     private TableScanOperator.ProbeDecodeContext probeDecodeContext = null;
+    private boolean isLazyDecodeEnabled = false;
 
     public IncludesImpl(List<Integer> tableIncludedCols, boolean isAcidScan,
         VectorizedRowBatchCtx rbCtx, TypeDescription readerSchema,
@@ -788,5 +798,14 @@ public String getProbeCacheKey() {
       return this.probeDecodeContext.getMjSmallTableCacheKey();
     }
 
+    public void setLazyDecodeEnabled(boolean isLazyDecodeEnabled) {
+      this.isLazyDecodeEnabled = isLazyDecodeEnabled;
+    }
+
+    @Override
+    public boolean isLazyDecodeEnabled() {
+      return isLazyDecodeEnabled;
+    }
+
   }
 } 
@@ -56,6 +56,7 @@ public interface Includes {
     String getProbeCacheKey();
     String getProbeColName();
     int getProbeColIdx();
+    boolean isLazyDecodeEnabled();
   }
 
   ReadPipeline createReadPipeline(Consumer<ColumnVectorBatch> consumer, FileSplit split,
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -63,11 +64,15 @@ public class OrcColumnVectorProducer implements ColumnVectorProducer {
   // TODO: if using in multiple places, e.g. SerDe cache, pass this in.
   // TODO: should this rather use a threadlocal for NUMA affinity?
   private final FixedSizedObjectPool<IoTrace> tracePool;
+  private final ExecutorService readExecutor;
+  private final ExecutorService decodeExecutor;
+  private final int decodeParallelism;
 
   public OrcColumnVectorProducer(MetadataCache metadataCache,
       LowLevelCache lowLevelCache, PathCache pathCache, BufferUsageManager bufferManager,
       Configuration conf, LlapDaemonCacheMetrics cacheMetrics, LlapDaemonIOMetrics ioMetrics,
-      FixedSizedObjectPool<IoTrace> tracePool) {
+      FixedSizedObjectPool<IoTrace> tracePool, ExecutorService readExecutor,
+      ExecutorService decodeExecutor) {
     LlapIoImpl.LOG.info("Initializing ORC column vector producer");
 
     this.metadataCache = metadataCache;
@@ -78,6 +83,9 @@ public OrcColumnVectorProducer(MetadataCache metadataCache,
     this.cacheMetrics = cacheMetrics;
     this.ioMetrics = ioMetrics;
     this.tracePool = tracePool;
+    this.readExecutor = readExecutor;
+    this.decodeExecutor = decodeExecutor;
+    this.decodeParallelism = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_DECODE_THREADPOOL_SIZE);
   }
 
   public Configuration getConf() {
@@ -93,7 +101,14 @@ public ReadPipeline createReadPipeline(
     cacheMetrics.incrCacheReadRequests();
     OrcEncodedDataConsumer edc = new OrcEncodedDataConsumer(consumer, includes, counters, ioMetrics);
     OrcEncodedDataReader reader = new OrcEncodedDataReader(lowLevelCache, bufferManager,
-        metadataCache, conf, job, split, includes, sarg, edc, counters, sef, tracePool, parts, pathCache);
+        metadataCache, conf, job, split, includes, sarg, edc, counters, sef, tracePool, parts, pathCache,
+        readExecutor);
+    if (decodeExecutor != null) {
+      edc.setDecodeExecutor(decodeExecutor, decodeParallelism);
+    }
+    if (includes.isLazyDecodeEnabled() && sarg != null) {
+      edc.setLazyDecodeSarg(sarg);
+    }
     edc.init(reader, reader, reader.getTrace());
     return edc;
   }
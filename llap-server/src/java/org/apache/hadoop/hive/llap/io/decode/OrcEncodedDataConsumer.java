@@ -20,6 +20,10 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.hadoop.hive.common.io.encoded.EncodedColumnBatch;
 import org.apache.hadoop.hive.llap.ConsumerFeedback;
@@ -54,6 +58,7 @@
 import org.apache.hadoop.hive.ql.io.orc.encoded.OrcBatchKey;
 import org.apache.hadoop.hive.ql.io.orc.encoded.Reader.OrcEncodedColumnBatch;
 import org.apache.hadoop.hive.ql.io.orc.RecordReaderImpl;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.impl.SchemaEvolution;
 import org.apache.orc.impl.TreeReaderFactory;
@@ -75,6 +80,14 @@
   private final Includes includes;
   private TypeDescription[] batchSchemas;
   private boolean useDecimal64ColumnVectors;
+  /** The search argument to filter the rows with before decoding the other columns, if any. */
+  private SearchArgument lazyDecodeSarg;
+  private SargRowFilter rowFilter;
+  private ColumnVectorBatch skipCvb;
+  /** The number of batches decoded at once, so that a decode task has a column of all of them. */
+  private static final int PARALLEL_DECODE_BATCHES = 8;
+  private ExecutorService decodeExecutor;
+  private int decodeParallelism;
 
   public OrcEncodedDataConsumer(Consumer<ColumnVectorBatch> consumer, Includes includes,
                                 QueryFragmentCounters counters, LlapDaemonIOMetrics ioMetrics) {
@@ -90,6 +103,24 @@ public void setUseDecimal64ColumnVectors(final boolean useDecimal64ColumnVectors
     this.useDecimal64ColumnVectors = useDecimal64ColumnVectors;
   }
 
+  /**
+   * Enables the lazy decoding; the columns of the search argument are decoded first, and the
+   * other columns only for the batches with rows that pass it. The rows that pass are marked
+   * as selected in the batch.
+   */
+  public void setLazyDecodeSarg(SearchArgument sarg) {
+    this.lazyDecodeSarg = sarg;
+  }
+
+  /**
+   * Enables decoding the columns of the split in parallel, on the IO thread and up to the given
+   * number of tasks of the executor.
+   */
+  public void setDecodeExecutor(ExecutorService decodeExecutor, int decodeParallelism) {
+    this.decodeExecutor = decodeExecutor;
+    this.decodeParallelism = decodeParallelism;
+  }
+
   public void setFileMetadata(ConsumerFileMetadata f) {
     assert fileMetadata == null;
     fileMetadata = f;
@@ -144,6 +175,14 @@ protected void decodeBatch(OrcEncodedColumnBatch batch,
       }
       previousStripeIndex = currentStripeIndex;
 
+      if (rowFilter != null) {
+        decodeBatchLazily(nonNullRowCount, maxBatchesRG, downstreamConsumer, startTime);
+        return;
+      }
+      if (decodeExecutor != null && columnReaders.length > 1) {
+        decodeBatchInParallel(nonNullRowCount, maxBatchesRG, downstreamConsumer, startTime);
+        return;
+      }
       for (int i = 0; i < maxBatchesRG; i++) {
         // for last batch in row group, adjust the batch size
         if (i == maxBatchesRG - 1) {
@@ -210,6 +249,203 @@ protected void decodeBatch(OrcEncodedColumnBatch batch,
     }
   }
 
+  /**
+   * Decodes the row group with the filter columns first. The other columns are only decoded up
+   * to the last batch with selected rows; the batches without any are dropped. The rest of the
+   * row group is never read, as the readers are repositioned for the next one.
+   */
+  private void decodeBatchLazily(long rowCount, int maxBatchesRG,
+      Consumer<ColumnVectorBatch> downstreamConsumer, long startTime)
+      throws IOException, InterruptedException {
+    long skippedRows = 0, emittedBatches = 0;
+    for (int i = 0; i < maxBatchesRG; i++) {
+      int batchSize = VectorizedRowBatch.DEFAULT_SIZE;
+      if (i == maxBatchesRG - 1) {
+        batchSize = (int) (rowCount % VectorizedRowBatch.DEFAULT_SIZE);
+        if (batchSize == 0) break;
+      }
+      ColumnVectorBatch cvb = cvbPool.take();
+      cvb.filterContext.reset();
+      cvb.size = batchSize;
+      for (int idx = 0; idx < columnReaders.length; ++idx) {
+        if (rowFilter.isFilterColumn(idx)) {
+          columnReaders[idx].nextVector(prepareColumnVector(cvb, idx, batchSize), null, batchSize);
+        }
+      }
+      int[] selected = cvb.filterContext.updateSelected(batchSize);
+      int selectedSize = rowFilter.filter(cvb.cols, batchSize, selected);
+      if (selectedSize == 0) {
+        skippedRows += batchSize;
+        cvbPool.offer(cvb);
+        continue;
+      }
+      if (skippedRows > 0) {
+        skipLazyColumns(skippedRows);
+        skippedRows = 0;
+      }
+      for (int idx = 0; idx < columnReaders.length; ++idx) {
+        if (!rowFilter.isFilterColumn(idx)) {
+          columnReaders[idx].nextVector(prepareColumnVector(cvb, idx, batchSize), null, batchSize);
+        }
+      }
+      if (selectedSize < batchSize) {
+        cvb.filterContext.setFilterContext(true, selected, selectedSize);
+      }
+      downstreamConsumer.consumeData(cvb);
+      counters.incrCounter(LlapIOCounters.ROWS_EMITTED, selectedSize);
+      ++emittedBatches;
+    }
+    LlapIoImpl.ORC_LOGGER.debug("Done with lazy decode");
+    counters.incrWallClockCounter(LlapIOCounters.DECODE_TIME_NS, startTime);
+    counters.incrCounter(LlapIOCounters.NUM_VECTOR_BATCHES, emittedBatches);
+    counters.incrCounter(LlapIOCounters.NUM_DECODED_BATCHES);
+  }
+
+  /**
+   * Moves the readers of the columns that are not filtered on past the rows of dropped batches.
+   * The tree readers cannot skip rows from here, so they are decoded into a scratch batch.
+   */
+  private void skipLazyColumns(long rows) throws IOException {
+    if (skipCvb == null) {
+      skipCvb = new ColumnVectorBatch(columnReaders.length);
+    }
+    while (rows > 0) {
+      int batchSize = (int) Math.min(rows, VectorizedRowBatch.DEFAULT_SIZE);
+      for (int idx = 0; idx < columnReaders.length; ++idx) {
+        if (!rowFilter.isFilterColumn(idx)) {
+          columnReaders[idx].nextVector(prepareColumnVector(skipCvb, idx, batchSize), null, batchSize);
+        }
+      }
+      rows -= batchSize;
+    }
+  }
+
+  /**
+   * Decodes the row group a few batches at a time, with the columns split between the IO thread
+   * and the decode tasks; the IO thread decodes the columns of a task itself when the pool
+   * rejects it. The batches are only passed on once all of their columns are decoded, in order.
+   */
+  private void decodeBatchInParallel(long rowCount, int maxBatchesRG,
+      Consumer<ColumnVectorBatch> downstreamConsumer, long startTime)
+      throws IOException, InterruptedException {
+    int taskCount = Math.min(columnReaders.length, decodeParallelism + 1);
+    ColumnVectorBatch[] cvbs = new ColumnVectorBatch[PARALLEL_DECODE_BATCHES];
+    List<Future<Void>> futures = new ArrayList<>(taskCount - 1);
+    long emittedBatches = 0;
+    for (int firstBatch = 0; firstBatch < maxBatchesRG; firstBatch += PARALLEL_DECODE_BATCHES) {
+      int cvbCount = 0;
+      for (int i = firstBatch; i < Math.min(maxBatchesRG, firstBatch + PARALLEL_DECODE_BATCHES); i++) {
+        int batchSize = VectorizedRowBatch.DEFAULT_SIZE;
+        if (i == maxBatchesRG - 1) {
+          batchSize = (int) (rowCount % VectorizedRowBatch.DEFAULT_SIZE);
+          if (batchSize == 0) break;
+        }
+        ColumnVectorBatch cvb = cvbPool.take();
+        cvb.filterContext.reset();
+        cvb.size = batchSize;
+        // The vectors are prepared here, as the trace is not thread safe.
+        for (int idx = 0; idx < columnReaders.length; ++idx) {
+          prepareColumnVector(cvb, idx, batchSize);
+        }
+        cvbs[cvbCount++] = cvb;
+      }
+      if (cvbCount == 0) break;
+
+      futures.clear();
+      Throwable error = null;
+      for (int task = 1; task < taskCount; ++task) {
+        ColumnDecodeTask decodeTask = new ColumnDecodeTask(task, taskCount, cvbs, cvbCount);
+        try {
+          futures.add(decodeExecutor.submit(decodeTask));
+        } catch (RejectedExecutionException ex) {
+          ioMetrics.incrInlineDecodeTasks();
+          error = decodeColumnsInline(task, taskCount, cvbs, cvbCount, error);
+        }
+      }
+      error = decodeColumnsInline(0, taskCount, cvbs, cvbCount, error);
+      // Wait for all the tasks even after an error, so that none of them is still decoding.
+      try {
+        for (Future<Void> future : futures) {
+          try {
+            future.get();
+          } catch (ExecutionException ex) {
+            error = (error == null) ? ex.getCause() : error;
+          }
+        }
+      } catch (InterruptedException ex) {
+        for (Future<Void> future : futures) {
+          future.cancel(true);
+        }
+        throw ex;
+      }
+      if (error instanceof IOException) {
+        throw (IOException) error;
+      } else if (error != null) {
+        throw new IOException(error);
+      }
+
+      for (int i = 0; i < cvbCount; ++i) {
+        downstreamConsumer.consumeData(cvbs[i]);
+        counters.incrCounter(LlapIOCounters.ROWS_EMITTED, cvbs[i].size);
+        cvbs[i] = null;
+      }
+      emittedBatches += cvbCount;
+    }
+    LlapIoImpl.ORC_LOGGER.debug("Done with parallel decode");
+    counters.incrWallClockCounter(LlapIOCounters.DECODE_TIME_NS, startTime);
+    counters.incrCounter(LlapIOCounters.NUM_VECTOR_BATCHES, emittedBatches);
+    counters.incrCounter(LlapIOCounters.NUM_DECODED_BATCHES);
+  }
+
+  private Throwable decodeColumnsInline(int firstColumn, int step, ColumnVectorBatch[] cvbs,
+      int cvbCount, Throwable error) {
+    if (error != null) {
+      return error;
+    }
+    try {
+      decodeColumns(firstColumn, step, cvbs, cvbCount);
+      return null;
+    } catch (IOException | RuntimeException ex) {
+      return ex;
+    }
+  }
+
+  /**
+   * Decodes every step-th column of the batches, starting with the given one. The column
+   * vectors must already be prepared.
+   */
+  private void decodeColumns(int firstColumn, int step, ColumnVectorBatch[] cvbs, int cvbCount)
+      throws IOException {
+    for (int idx = firstColumn; idx < columnReaders.length; idx += step) {
+      for (int i = 0; i < cvbCount; ++i) {
+        columnReaders[idx].nextVector(cvbs[i].cols[idx], null, cvbs[i].size);
+      }
+    }
+  }
+
+  private final class ColumnDecodeTask implements Callable<Void> {
+    private final int firstColumn, step, cvbCount;
+    private final ColumnVectorBatch[] cvbs;
+
+    ColumnDecodeTask(int firstColumn, int step, ColumnVectorBatch[] cvbs, int cvbCount) {
+      this.firstColumn = firstColumn;
+      this.step = step;
+      this.cvbs = cvbs;
+      this.cvbCount = cvbCount;
+    }
+
+    @Override
+    public Void call() throws IOException {
+      long startTime = System.nanoTime();
+      try {
+        decodeColumns(firstColumn, step, cvbs, cvbCount);
+      } finally {
+        ioMetrics.addParallelDecodeTask(System.nanoTime() - startTime);
+      }
+      return null;
+    }
+  }
+
   private ColumnVector prepareColumnVector(ColumnVectorBatch cvb, int idx, int batchSize) {
     if (cvb.cols[idx] == null) {
       // Orc store rows inside a root struct (hive writes it this way).
@@ -235,6 +471,13 @@ private void createColumnReaders(OrcEncodedColumnBatch batch,
     StructTreeReader treeReader = EncodedTreeReaderFactory.createRootTreeReader(
         batchSchemas, stripeMetadata.getEncodings(), batch, codec, context, useDecimal64ColumnVectors);
     this.columnReaders = treeReader.getChildReaders();
+    if (lazyDecodeSarg != null && rowFilter == null) {
+      rowFilter = SargRowFilter.create(lazyDecodeSarg, evolution, batchSchemas);
+      if (rowFilter == null) {
+        LlapIoImpl.LOG.info("No columns to decode first for {}", lazyDecodeSarg);
+      }
+      lazyDecodeSarg = null;
+    }
 
     if (LlapIoImpl.LOG.isDebugEnabled()) {
       for (int i = 0; i < columnReaders.length; ++i) {
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DataCache;
+import org.apache.hadoop.hive.common.io.FileMetadataCache;
+import org.apache.hadoop.hive.llap.counters.QueryFragmentCounters;
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+import org.apache.hadoop.hive.llap.io.encoded.ParquetEncodedDataReader;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
+import org.apache.hadoop.hive.ql.io.orc.encoded.Consumer;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.plan.PartitionDesc;
+import org.apache.hadoop.hive.serde2.Deserializer;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Column vector producer for Parquet. Parquet column chunks are cached in the same low-level
+ * cache as ORC data, with the footers in the file metadata cache; the reads and the decoding run
+ * on the LLAP IO threads.
+ */
+public class ParquetColumnVectorProducer implements ColumnVectorProducer {
+
+  private final FileMetadataCache metadataCache;
+  private final DataCache dataCache;
+  private final Configuration conf;
+  private final LlapDaemonCacheMetrics cacheMetrics;
+
+  public ParquetColumnVectorProducer(FileMetadataCache metadataCache, DataCache dataCache,
+      Configuration conf, LlapDaemonCacheMetrics cacheMetrics) {
+    LlapIoImpl.LOG.info("Initializing Parquet column vector producer");
+    this.metadataCache = metadataCache;
+    this.dataCache = dataCache;
+    this.conf = conf;
+    this.cacheMetrics = cacheMetrics;
+  }
+
+  @Override
+  public ReadPipeline createReadPipeline(Consumer<ColumnVectorBatch> consumer, FileSplit split,
+      Includes includes, SearchArgument sarg, QueryFragmentCounters counters,
+      SchemaEvolutionFactory sef, InputFormat<?, ?> unused0, Deserializer unused1,
+      Reporter reporter, JobConf job, Map<Path, PartitionDesc> parts) throws IOException {
+    cacheMetrics.incrCacheReadRequests();
+    return new ParquetEncodedDataReader(metadataCache, dataCache, conf, job, split, includes,
+        sarg, sef, consumer, counters);
+  }
+}
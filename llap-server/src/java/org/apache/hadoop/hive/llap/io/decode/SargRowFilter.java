@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.Decimal64ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.StringExpr;
+import org.apache.hadoop.hive.ql.io.orc.RecordReaderImpl;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument.TruthValue;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.SchemaEvolution;
+
+/**
+ * Evaluates a search argument on the individual rows of a column vector batch, to find the rows
+ * that may pass the filter the search argument was created from. Like for the row group
+ * elimination, a row is only dropped when the search argument is known to be false or null
+ * for it; the leaves on columns or types that are not supported here are treated as unknown.
+ */
+final class SargRowFilter {
+  private static final int UNKNOWN = Integer.MIN_VALUE;
+
+  private final SearchArgument sarg;
+  private final PredicateLeaf[] leaves;
+  /** The column in the batch for each leaf; -1 for the leaves that are not evaluated. */
+  private final int[] leafColumns;
+  /** The literals of each leaf, as long, double, UTF-8 bytes or decimal. */
+  private final Object[][] leafLiterals;
+  private final boolean[] isFilterColumn;
+  private final TruthValue[] leafValues;
+  private final HiveDecimalWritable decimalScratch = new HiveDecimalWritable();
+
+  private SargRowFilter(SearchArgument sarg, int[] leafColumns, Object[][] leafLiterals,
+      int columnCount) {
+    this.sarg = sarg;
+    this.leaves = sarg.getLeaves().toArray(new PredicateLeaf[0]);
+    this.leafColumns = leafColumns;
+    this.leafLiterals = leafLiterals;
+    this.isFilterColumn = new boolean[columnCount];
+    this.leafValues = new TruthValue[leaves.length];
+    for (int i = 0; i < leaves.length; ++i) {
+      if (leafColumns[i] >= 0) {
+        isFilterColumn[leafColumns[i]] = true;
+      } else {
+        leafValues[i] = TruthValue.YES_NO_NULL;
+      }
+    }
+  }
+
+  /**
+   * @param batchSchemas the file types of the columns in the batch.
+   * @return the filter, or null if none of the leaves can be evaluated on the batch.
+   */
+  static SargRowFilter create(SearchArgument sarg, SchemaEvolution evolution,
+      TypeDescription[] batchSchemas) {
+    List<PredicateLeaf> leaves = sarg.getLeaves();
+    int[] fileColumns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(leaves, evolution);
+    int[] leafColumns = new int[leaves.size()];
+    Object[][] leafLiterals = new Object[leaves.size()][];
+    boolean hasAny = false;
+    for (int i = 0; i < leaves.size(); ++i) {
+      leafColumns[i] = -1;
+      int batchIx = findBatchColumn(batchSchemas, fileColumns[i]);
+      if (batchIx < 0) {
+        continue;
+      }
+      PredicateLeaf leaf = leaves.get(i);
+      Object[] literals = (leaf.getOperator() == PredicateLeaf.Operator.IS_NULL)
+          ? new Object[0] : convertLiterals(leaf, batchSchemas[batchIx].getCategory());
+      if (literals != null) {
+        leafColumns[i] = batchIx;
+        leafLiterals[i] = literals;
+        hasAny = true;
+      }
+    }
+    return hasAny ? new SargRowFilter(sarg, leafColumns, leafLiterals, batchSchemas.length) : null;
+  }
+
+  private static int findBatchColumn(TypeDescription[] batchSchemas, int fileColumn) {
+    if (fileColumn < 0) {
+      return -1;
+    }
+    for (int i = 0; i < batchSchemas.length; ++i) {
+      if (batchSchemas[i] != null && batchSchemas[i].getId() == fileColumn) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the literals of the leaf in the form they are compared in, or null if the leaf is
+   *         not supported for the column type.
+   */
+  private static Object[] convertLiterals(PredicateLeaf leaf, TypeDescription.Category category) {
+    List<Object> literals;
+    switch (leaf.getOperator()) {
+    case IN:
+    case BETWEEN:
+      literals = leaf.getLiteralList();
+      break;
+    default:
+      literals = Collections.singletonList(leaf.getLiteral());
+    }
+    if (literals == null || literals.isEmpty()) {
+      return null;
+    }
+    Object[] result = new Object[literals.size()];
+    for (int i = 0; i < result.length; ++i) {
+      Object literal = literals.get(i);
+      if (literal == null) {
+        continue; // Never equal to anything.
+      }
+      switch (leaf.getType()) {
+      case LONG:
+        if (!isIntegerCategory(category) || !(literal instanceof Number)) {
+          return null;
+        }
+        result[i] = ((Number) literal).longValue();
+        break;
+      case FLOAT:
+        if ((category != TypeDescription.Category.FLOAT
+            && category != TypeDescription.Category.DOUBLE) || !(literal instanceof Number)) {
+          return null;
+        }
+        result[i] = ((Number) literal).doubleValue();
+        break;
+      case STRING:
+        // Char and varchar are left out, as their values may be padded or truncated.
+        if (category != TypeDescription.Category.STRING || !(literal instanceof String)) {
+          return null;
+        }
+        result[i] = ((String) literal).getBytes(StandardCharsets.UTF_8);
+        break;
+      case DECIMAL:
+        if (category != TypeDescription.Category.DECIMAL) {
+          return null;
+        }
+        if (literal instanceof HiveDecimalWritable) {
+          result[i] = literal;
+        } else if (literal instanceof HiveDecimal) {
+          result[i] = new HiveDecimalWritable((HiveDecimal) literal);
+        } else {
+          return null;
+        }
+        break;
+      default:
+        return null;
+      }
+    }
+    return result;
+  }
+
+  private static boolean isIntegerCategory(TypeDescription.Category category) {
+    switch (category) {
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  boolean isFilterColumn(int columnIx) {
+    return isFilterColumn[columnIx];
+  }
+
+  /**
+   * Finds the rows of the batch that may pass the filter.
+   * @param cols the batch columns; the filter columns must be decoded.
+   * @param selected the output array for the indexes of the selected rows.
+   * @return the number of selected rows.
+   */
+  int filter(ColumnVector[] cols, int batchSize, int[] selected) {
+    int selectedSize = 0;
+    for (int row = 0; row < batchSize; ++row) {
+      for (int i = 0; i < leaves.length; ++i) {
+        if (leafColumns[i] >= 0) {
+          leafValues[i] = evaluateLeaf(i, cols[leafColumns[i]], row);
+        }
+      }
+      if (sarg.evaluate(leafValues).isNeeded()) {
+        selected[selectedSize++] = row;
+      }
+    }
+    return selectedSize;
+  }
+
+  private TruthValue evaluateLeaf(int leafIx, ColumnVector cv, int row) {
+    int ix = cv.isRepeating ? 0 : row;
+    PredicateLeaf.Operator operator = leaves[leafIx].getOperator();
+    if (!cv.noNulls && cv.isNull[ix]) {
+      switch (operator) {
+      case IS_NULL:
+        return TruthValue.YES;
+      case NULL_SAFE_EQUALS:
+        return TruthValue.NO;
+      default:
+        return TruthValue.NULL;
+      }
+    }
+    Object[] literals = leafLiterals[leafIx];
+    switch (operator) {
+    case IS_NULL:
+      return TruthValue.NO;
+    case EQUALS:
+    case NULL_SAFE_EQUALS:
+    case IN:
+      boolean isUnknown = false, hasNullLiteral = false;
+      for (Object literal : literals) {
+        if (literal == null) {
+          hasNullLiteral = true;
+          continue;
+        }
+        int cmp = compare(cv, ix, literal);
+        if (cmp == 0) {
+          return TruthValue.YES;
+        }
+        isUnknown |= (cmp == UNKNOWN);
+      }
+      if (isUnknown) {
+        return TruthValue.YES_NO_NULL;
+      }
+      return (hasNullLiteral && operator != PredicateLeaf.Operator.NULL_SAFE_EQUALS)
+          ? TruthValue.NULL : TruthValue.NO;
+    case LESS_THAN:
+    case LESS_THAN_EQUALS:
+      if (literals[0] == null) {
+        return TruthValue.NULL;
+      }
+      int cmp = compare(cv, ix, literals[0]);
+      if (cmp == UNKNOWN) {
+        return TruthValue.YES_NO_NULL;
+      }
+      boolean isLess = (operator == PredicateLeaf.Operator.LESS_THAN) ? cmp < 0 : cmp <= 0;
+      return isLess ? TruthValue.YES : TruthValue.NO;
+    case BETWEEN:
+      if (literals.length < 2 || literals[0] == null || literals[1] == null) {
+        return TruthValue.YES_NO_NULL;
+      }
+      int cmpLow = compare(cv, ix, literals[0]), cmpHigh = compare(cv, ix, literals[1]);
+      if (cmpLow == UNKNOWN || cmpHigh == UNKNOWN) {
+        return TruthValue.YES_NO_NULL;
+      }
+      return (cmpLow >= 0 && cmpHigh <= 0) ? TruthValue.YES : TruthValue.NO;
+    default:
+      return TruthValue.YES_NO_NULL;
+    }
+  }
+
+  /**
+   * @return the sign of the comparison of the value with the literal, or UNKNOWN.
+   */
+  private int compare(ColumnVector cv, int ix, Object literal) {
+    if (literal instanceof HiveDecimalWritable) {
+      return compareDecimal(cv, ix, (HiveDecimalWritable) literal);
+    } else if (cv instanceof LongColumnVector && literal instanceof Long) {
+      return Long.compare(((LongColumnVector) cv).vector[ix], (Long) literal);
+    } else if (cv instanceof DoubleColumnVector && literal instanceof Double) {
+      double value = ((DoubleColumnVector) cv).vector[ix], other = (Double) literal;
+      return value < other ? -1 : value > other ? 1 : value == other ? 0 : UNKNOWN;
+    } else if (cv instanceof BytesColumnVector && literal instanceof byte[]) {
+      BytesColumnVector bcv = (BytesColumnVector) cv;
+      byte[] other = (byte[]) literal;
+      return Integer.signum(StringExpr.compare(
+          bcv.vector[ix], bcv.start[ix], bcv.length[ix], other, 0, other.length));
+    }
+    return UNKNOWN;
+  }
+
+  private int compareDecimal(ColumnVector cv, int ix, HiveDecimalWritable literal) {
+    if (cv instanceof Decimal64ColumnVector) {
+      Decimal64ColumnVector dcv = (Decimal64ColumnVector) cv;
+      decimalScratch.deserialize64(dcv.vector[ix], dcv.scale);
+      return Integer.signum(decimalScratch.compareTo(literal));
+    } else if (cv instanceof DecimalColumnVector) {
+      return Integer.signum(((DecimalColumnVector) cv).vector[ix].compareTo(literal));
+    }
+    return UNKNOWN;
+  }
+}
@@ -23,6 +23,7 @@
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.io.DiskRangeList;
 import org.apache.hadoop.hive.ql.io.orc.encoded.LlapDataReader;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.orc.CompressionCodec;
 import org.apache.orc.CompressionKind;
 import org.apache.orc.OrcFile;
@@ -42,8 +43,16 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 public class LlapRecordReaderUtils {
@@ -58,7 +67,16 @@ static HadoopShims.ZeroCopyReaderShim createZeroCopyShim(FSDataInputStream file,
   }
 
   public static LlapDataReader createDefaultLlapDataReader(DataReaderProperties properties) {
-    return new LlapRecordReaderUtils.DefaultLLapDataReader(properties);
+    return createDefaultLlapDataReader(properties, 0, null);
+  }
+
+  /**
+   * Creates a data reader that coalesces the missing ranges of a read that are at most
+   * maxCoalesceGap bytes apart, and issues the coalesced reads on readExecutor, if not null.
+   */
+  public static LlapDataReader createDefaultLlapDataReader(DataReaderProperties properties,
+      long maxCoalesceGap, ExecutorService readExecutor) {
+    return new LlapRecordReaderUtils.DefaultLLapDataReader(properties, maxCoalesceGap, readExecutor);
   }
 
   /**
@@ -133,6 +151,129 @@ static DiskRangeList readDiskRanges(FSDataInputStream file,
     return prev.next;
   }
 
+  /** A single read request covering several missing ranges, and the gaps between them. */
+  static final class CoalescedRead {
+    final long offset;
+    long end;
+    final List<DiskRangeList> ranges = new ArrayList<>();
+    ByteBuffer data;
+
+    CoalescedRead(DiskRangeList range) {
+      this.offset = range.getOffset();
+      this.end = range.getEnd();
+      this.ranges.add(range);
+    }
+
+    void read(FSDataInputStream file, long base, boolean doForceDirect) throws IOException {
+      byte[] buffer = new byte[(int) (end - offset)];
+      file.readFully(base + offset, buffer, 0, buffer.length);
+      if (doForceDirect) {
+        data = ByteBuffer.allocateDirect(buffer.length);
+        data.put(buffer);
+        data.flip();
+      } else {
+        data = ByteBuffer.wrap(buffer);
+      }
+    }
+
+    /** Replaces each range with its part of the data; they share the buffer. */
+    void replaceRanges() {
+      for (DiskRangeList range : ranges) {
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) (range.getOffset() - offset));
+        slice.limit((int) (range.getEnd() - offset));
+        range.replaceSelfWith(new BufferChunk(slice.slice(), range.getOffset()));
+      }
+    }
+  }
+
+  /**
+   * Groups the ranges without data into reads, merging ranges that are at most maxGap bytes
+   * apart, as long as the read stays under maxChunkLimit. Ranges above the limit are left out,
+   * to be read in chunks by {@link #readDiskRanges}.
+   */
+  static List<CoalescedRead> planCoalescedReads(DiskRangeList range, long maxGap,
+      int maxChunkLimit) {
+    List<CoalescedRead> result = new ArrayList<>();
+    CoalescedRead current = null;
+    for (; range != null; range = range.next) {
+      if (range.hasData() || range.getLength() >= maxChunkLimit) {
+        continue;
+      }
+      if (current != null && range.getOffset() - current.end <= maxGap
+          && range.getEnd() - current.offset < maxChunkLimit) {
+        current.end = Math.max(current.end, range.getEnd());
+        current.ranges.add(range);
+      } else {
+        current = new CoalescedRead(range);
+        result.add(current);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the ranges without data like {@link #readDiskRanges}, but with one request per group
+   * of nearby ranges. With an executor, all the groups but the first one are read
+   * asynchronously, each from a stream taken from the spare streams, while the calling thread
+   * reads the first one from the main stream.
+   */
+  static DiskRangeList readCoalescedDiskRanges(FSDataInputStream file,
+      Callable<FSDataInputStream> spareStreams, ConcurrentLinkedQueue<FSDataInputStream> idleStreams,
+      ExecutorService readExecutor, long base, DiskRangeList range, boolean doForceDirect,
+      int maxChunkLimit, long maxGap) throws IOException {
+    if (range == null) {
+      return null;
+    }
+    DiskRangeList prev = range.prev;
+    if (prev == null) {
+      prev = new DiskRangeList.MutateHelper(range);
+    }
+    List<CoalescedRead> reads = planCoalescedReads(range, maxGap, maxChunkLimit);
+    List<Future<?>> pending = new ArrayList<>();
+    boolean isDone = false;
+    try {
+      int asyncFrom = (readExecutor == null) ? reads.size() : Math.min(1, reads.size());
+      for (CoalescedRead read : reads.subList(asyncFrom, reads.size())) {
+        pending.add(readExecutor.submit(() -> {
+          FSDataInputStream stream = idleStreams.poll();
+          if (stream == null) {
+            stream = spareStreams.call();
+          }
+          try {
+            read.read(stream, base, doForceDirect);
+          } finally {
+            idleStreams.offer(stream);
+          }
+          return null;
+        }));
+      }
+      for (CoalescedRead read : reads.subList(0, asyncFrom)) {
+        read.read(file, base, doForceDirect);
+      }
+      for (Future<?> future : pending) {
+        future.get();
+      }
+      isDone = true;
+    } catch (InterruptedException e) {
+      throw (IOException) new InterruptedIOException("Interrupted while reading").initCause(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+    } finally {
+      if (!isDone) {
+        for (Future<?> future : pending) {
+          future.cancel(true);
+        }
+      }
+    }
+    for (CoalescedRead read : reads) {
+      read.replaceRanges();
+    }
+    // Read whatever is left, i.e. the ranges too large to coalesce.
+    return readDiskRanges(file, null, base, prev.next, doForceDirect, maxChunkLimit);
+  }
+
   /**
    * Plans the list of disk ranges that the given stripe needs to read the
    * indexes. All of the positions are relative to the start of the stripe.
@@ -240,9 +381,15 @@ private static class DefaultLLapDataReader implements LlapDataReader {
     private final int bufferSize;
     private CompressionKind compressionKind;
     private final int maxDiskRangeChunkLimit;
+    private final long maxCoalesceGap;
+    private final ExecutorService readExecutor;
+    private final UserGroupInformation ugi;
+    /** The streams used by the asynchronous reads, when not in use. */
+    private ConcurrentLinkedQueue<FSDataInputStream> idleStreams = new ConcurrentLinkedQueue<>();
     private boolean isOpen = false;
 
-    private DefaultLLapDataReader(DataReaderProperties properties) {
+    private DefaultLLapDataReader(DataReaderProperties properties, long maxCoalesceGap,
+        ExecutorService readExecutor) {
       this.fileSystemSupplier = properties.getFileSystemSupplier();
       this.path = properties.getPath();
       this.file = properties.getFile();
@@ -251,6 +398,26 @@ private DefaultLLapDataReader(DataReaderProperties properties) {
       this.compressionKind = codec == null ? CompressionKind.NONE : codec.getKind();
       this.bufferSize = codec == null ? 0 : properties.getCompression().getBufferSize();
       this.maxDiskRangeChunkLimit = properties.getMaxDiskRangeChunkLimit();
+      this.maxCoalesceGap = maxCoalesceGap;
+      this.readExecutor = readExecutor;
+      try {
+        this.ugi = UserGroupInformation.getCurrentUser();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    /**
+     * Opens a stream for the asynchronous reads. It is called on the read executor threads, so the
+     * file system is obtained as the user that created the data reader, not as the daemon user.
+     */
+    private FSDataInputStream openSpareStream() throws IOException, InterruptedException {
+      return ugi.doAs(new PrivilegedExceptionAction<FSDataInputStream>() {
+        @Override
+        public FSDataInputStream run() throws IOException {
+          return fileSystemSupplier.get().open(path);
+        }
+      });
     }
 
     @Override
@@ -382,6 +549,10 @@ public OrcProto.StripeFooter readStripeFooter(StripeInformation stripe) throws I
     @Override
     public DiskRangeList readFileData(
         DiskRangeList range, long baseOffset, boolean doForceDirect) throws IOException {
+      if (maxCoalesceGap > 0 && zcr == null) {
+        return readCoalescedDiskRanges(file, this::openSpareStream, idleStreams, readExecutor,
+            baseOffset, range, doForceDirect, maxDiskRangeChunkLimit, maxCoalesceGap);
+      }
       return readDiskRanges(file, zcr, baseOffset, range, doForceDirect, maxDiskRangeChunkLimit);
     }
 
@@ -394,6 +565,10 @@ public void close() throws IOException {
       if (pool != null) {
         pool.clear();
       }
+      FSDataInputStream idleStream;
+      while ((idleStream = idleStreams.poll()) != null) {
+        idleStream.close();
+      }
       // close both zcr and file
       try (HadoopShims.ZeroCopyReaderShim myZcr = zcr) {
         if (file != null) {
@@ -422,6 +597,7 @@ public LlapDataReader clone() {
       }
       try {
         DefaultLLapDataReader clone = (DefaultLLapDataReader) super.clone();
+        clone.idleStreams = new ConcurrentLinkedQueue<>();
         if (codec != null) {
           // Make sure we don't share the same codec between two readers.
           clone.codec = OrcCodecPool.getCodec(clone.compressionKind);
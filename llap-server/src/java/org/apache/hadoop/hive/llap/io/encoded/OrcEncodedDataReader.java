@@ -24,6 +24,7 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -163,7 +164,9 @@ public Pool<OrcEncodedColumnBatch> createEncodedColumnBatchPool() {
   private final UserGroupInformation ugi;
   private final SchemaEvolution evolution;
   private final PathCache pathCache;
-  private final boolean useCodecPool, useObjectPools;
+  /** Issues the coalesced reads of a stripe concurrently; null to read them on the IO thread. */
+  private final ExecutorService readExecutor;
+  private final boolean useCodecPool, useObjectPools, useIndexCache;
   private static final String STRIPE_STATS_STREAM = "stripe stats";
 
   // Read state.
@@ -199,7 +202,7 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
       MetadataCache metadataCache, Configuration daemonConf, Configuration jobConf,
       FileSplit split, Includes includes, SearchArgument sarg, OrcEncodedDataConsumer consumer,
       QueryFragmentCounters counters, SchemaEvolutionFactory sef, Pool<IoTrace> tracePool,
-      Map<Path, PartitionDesc> parts, PathCache pathCache)
+      Map<Path, PartitionDesc> parts, PathCache pathCache, ExecutorService readExecutor)
           throws IOException {
     this.lowLevelCache = lowLevelCache;
     this.metadataCache = metadataCache;
@@ -213,6 +216,7 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
     this.tracePool = tracePool;
     this.parts = parts;
     this.pathCache = pathCache;
+    this.readExecutor = readExecutor;
     try {
       this.ugi = UserGroupInformation.getCurrentUser();
     } catch (IOException e) {
@@ -220,6 +224,7 @@ public OrcEncodedDataReader(LowLevelCache lowLevelCache, BufferUsageManager buff
     }
     this.useCodecPool = HiveConf.getBoolVar(daemonConf, ConfVars.HIVE_ORC_CODEC_POOL);
     this.useObjectPools = HiveConf.getBoolVar(daemonConf, ConfVars.LLAP_IO_SHARE_OBJECT_POOLS);
+    this.useIndexCache = HiveConf.getBoolVar(daemonConf, ConfVars.LLAP_IO_ORC_CACHE_INDEXES);
 
     // LlapInputFormat needs to know the file schema to decide if schema evolution is supported.
     orcReader = null;
@@ -282,7 +287,7 @@ public Void run() throws Exception {
     });
   }
 
-  static Supplier<FileSystem> getFsSupplier(final Path path,
+  public static Supplier<FileSystem> getFsSupplier(final Path path,
       final Configuration conf) {
     return () -> {
       try {
@@ -408,9 +413,8 @@ protected Void performDataRead() throws IOException, InterruptedException {
           OrcProto.StripeFooter footer = getStripeFooterFromCacheOrDisk(si, stripeKey);
           stripeMetadata = createOrcStripeMetadataObject(
               stripeIx, si, footer, fileIncludes, sargColumns);
-          ensureDataReader();
-          stripeReader.readIndexStreams(stripeMetadata.getIndex(),
-              si, footer.getStreamsList(), fileIncludes, sargColumns);
+          readIndexStreams(stripeMetadata.getIndex(), si, footer, stripeKey, fileIncludes,
+              sargColumns);
           consumer.setStripeMetadata(stripeMetadata);
         }
       } catch (Throwable t) {
@@ -510,7 +514,7 @@ private static Object determineFileId(Supplier<FileSystem> fsSupplier,
     return determineFileId(fsSupplier, split.getPath(), daemonConf);
   }
 
-  static Object determineFileId(Supplier<FileSystem> fsSupplier, Path path, Configuration daemonConf)
+  public static Object determineFileId(Supplier<FileSystem> fsSupplier, Path path, Configuration daemonConf)
       throws IOException {
 
     boolean allowSynthetic = HiveConf.getBoolVar(daemonConf, ConfVars.LLAP_CACHE_ALLOW_SYNTHETIC_FILEID);
@@ -746,16 +750,64 @@ private ArrayList<OrcStripeMetadata> readStripesMetadata(
       OrcProto.StripeFooter footer = getStripeFooterFromCacheOrDisk(si, stripeKey);
       OrcStripeMetadata osm = createOrcStripeMetadataObject(
           stripeIx, si, footer, includes, sargColumns);
-
-      ensureDataReader();
-      OrcIndex index = osm.getIndex();
-      stripeReader.readIndexStreams(index, si, footer.getStreamsList(), includes, sargColumns);
+      readIndexStreams(osm.getIndex(), si, footer, stripeKey, includes, sargColumns);
       result.add(osm);
       consumer.setStripeMetadata(osm);
     }
     return result;
   }
 
+  /**
+   * Reads the row indexes of the included columns, and the bloom filters of the SARG columns,
+   * from the metadata cache when all of them are cached, or from the file otherwise.
+   */
+  private void readIndexStreams(OrcIndex index, StripeInformation si,
+      OrcProto.StripeFooter footer, OrcBatchKey stripeKey, boolean[] includes,
+      boolean[] sargColumns) throws IOException {
+    boolean hasCache = useIndexCache && fileKey != null && metadataCache != null;
+    if (hasCache) {
+      if (getIndexFromCache(index, stripeKey, includes, sargColumns)) {
+        counters.incrCounter(LlapIOCounters.INDEX_CACHE_HIT);
+        return;
+      }
+      counters.incrCounter(LlapIOCounters.INDEX_CACHE_MISS);
+    }
+    ensureDataReader();
+    stripeReader.readIndexStreams(index, si, footer.getStreamsList(), includes, sargColumns);
+    if (!hasCache) {
+      return;
+    }
+    for (int colIx = 0; colIx < includes.length; ++colIx) {
+      boolean isSargColumn = sargColumns != null && sargColumns[colIx];
+      if (!includes[colIx] && !isSargColumn) continue;
+      LlapBufferOrBuffers cacheBuf = metadataCache.putStripeIndex(stripeKey, colIx, isSargColumn,
+          OrcStripeMetadata.serializeColumnIndex(index, colIx), cacheTag, isStopped);
+      if (cacheBuf != null) {
+        metadataCache.decRefBuffer(cacheBuf); // We don't use this one.
+      }
+    }
+  }
+
+  private boolean getIndexFromCache(OrcIndex index, OrcBatchKey stripeKey, boolean[] includes,
+      boolean[] sargColumns) throws IOException {
+    for (int colIx = 0; colIx < includes.length; ++colIx) {
+      boolean isSargColumn = sargColumns != null && sargColumns[colIx];
+      if (!includes[colIx] && !isSargColumn) continue;
+      LlapBufferOrBuffers indexBuffers =
+          metadataCache.getStripeIndex(stripeKey, colIx, isSargColumn);
+      if (indexBuffers == null) {
+        return false; // The columns found so far are read again with the rest.
+      }
+      try {
+        OrcStripeMetadata.deserializeColumnIndex(
+            indexBuffers.getSingleBuffer().getByteBufferDup(), index, colIx);
+      } finally {
+        metadataCache.decRefBuffer(indexBuffers);
+      }
+    }
+    return true;
+  }
+
   private OrcStripeMetadata createOrcStripeMetadataObject(int stripeIx, StripeInformation si,
       OrcProto.StripeFooter footer, boolean[] includes, boolean[] sargColumns) throws IOException {
     Stream.Kind[] bks = sargColumns == null ? null : new Stream.Kind[includes.length];
@@ -858,12 +910,13 @@ private void ensureRawDataReader(boolean isOpen) throws IOException {
           .withCodec(OrcCodecPool.getCodec(orcReader.getCompressionKind())).withBufferSize(orcReader.getCompressionSize());
     }
 
+    long maxCoalesceGap = HiveConf.getSizeVar(daemonConf, ConfVars.LLAP_IO_ORC_READ_COALESCE_GAP);
     rawDataReader = LlapRecordReaderUtils.createDefaultLlapDataReader(
         DataReaderProperties.builder()
         .withFileSystemSupplier(fsSupplier).withPath(path)
         .withCompression(options)
         .withZeroCopy(useZeroCopy)
-        .build());
+        .build(), maxCoalesceGap, readExecutor);
 
     if (isOpen) {
       rawDataReader.open();
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.encoded;
+
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.io.DataCache;
+import org.apache.hadoop.hive.common.io.FileMetadataCache;
+import org.apache.hadoop.hive.llap.counters.LlapIOCounters;
+import org.apache.hadoop.hive.llap.counters.QueryFragmentCounters;
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.llap.io.api.impl.LlapIoImpl;
+import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.Includes;
+import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.SchemaEvolutionFactory;
+import org.apache.hadoop.hive.llap.io.decode.ReadPipeline;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
+import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
+import org.apache.hadoop.hive.ql.io.orc.encoded.Consumer;
+import org.apache.hadoop.hive.ql.io.parquet.vector.VectorizedParquetRecordReader;
+import org.apache.hadoop.hive.ql.io.sarg.ConvertAstToSearchArg;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.SchemaEvolution;
+import org.apache.tez.common.counters.TezCounters;
+
+/**
+ * Reads a Parquet split on an LLAP IO thread. The column chunks come from the LLAP low-level
+ * cache, or are read from the file and put into the cache, via the cache-aware file system of
+ * the vectorized Parquet reader; the footer comes from the file metadata cache. The row groups
+ * are filtered with the search argument. The decoded columns are passed to the consumer in column
+ * vector batches, which the consumer returns for reuse.
+ */
+public class ParquetEncodedDataReader implements ReadPipeline, Callable<Void>, TezCounterSource {
+
+  private final FileMetadataCache metadataCache;
+  private final DataCache dataCache;
+  private final Configuration daemonConf;
+  private final JobConf jobConf;
+  private final FileSplit split;
+  private final Includes includes;
+  private final SchemaEvolutionFactory sef;
+  private final Consumer<ColumnVectorBatch> consumer;
+  private final QueryFragmentCounters counters;
+  private final UserGroupInformation ugi;
+
+  private final ConcurrentLinkedQueue<ColumnVectorBatch> freeBatches =
+      new ConcurrentLinkedQueue<>();
+  private SchemaEvolution evolution;
+  private volatile boolean isStopped = false;
+
+  public ParquetEncodedDataReader(FileMetadataCache metadataCache, DataCache dataCache,
+      Configuration daemonConf, JobConf jobConf, FileSplit split, Includes includes,
+      SearchArgument sarg, SchemaEvolutionFactory sef, Consumer<ColumnVectorBatch> consumer,
+      QueryFragmentCounters counters) {
+    this.metadataCache = metadataCache;
+    this.dataCache = dataCache;
+    this.daemonConf = daemonConf;
+    this.jobConf = new JobConf(jobConf);
+    this.split = split;
+    this.includes = includes;
+    this.sef = sef;
+    this.consumer = consumer;
+    this.counters = counters;
+    try {
+      this.ugi = UserGroupInformation.getCurrentUser();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    // Disable buffer splitting, as for the cache-only Parquet reads (see HiveInputFormat).
+    this.jobConf.setInt("parquet.read.allocation.size", 1024 * 1024 * 1024);
+    if (sarg != null) {
+      // The Parquet reader drops the row groups that the search argument of the conf eliminates;
+      // a filter expression pushed to the conf takes precedence, and converts to the same one.
+      this.jobConf.set(ConvertAstToSearchArg.SARG_PUSHDOWN, ConvertAstToSearchArg.sargToKryo(sarg));
+    }
+  }
+
+  @Override
+  public Callable<Void> getReadCallable() {
+    return this;
+  }
+
+  /**
+   * The Parquet reader resolves the table columns in the file itself, so the schema evolution
+   * seen by LLAP is always from the table schema to the table schema.
+   */
+  @Override
+  public SchemaEvolution getSchemaEvolution() {
+    if (evolution == null) {
+      TypeDescription schema = OrcInputFormat.getDesiredRowTypeDescr(
+          jobConf, false, Integer.MAX_VALUE);
+      if (schema == null) {
+        throw new IllegalStateException("No table schema to read " + split.getPath());
+      }
+      evolution = sef.createSchemaEvolution(schema);
+    }
+    return evolution;
+  }
+
+  @Override
+  public Void call() throws IOException, InterruptedException {
+    return ugi.doAs(new PrivilegedExceptionAction<Void>() {
+      @Override
+      public Void run() throws Exception {
+        return performDataRead();
+      }
+    });
+  }
+
+  private Void performDataRead() throws IOException, InterruptedException {
+    long startTime = counters.startTimeCounter();
+    LlapIoImpl.LOG.info("Processing data for {}", split.getPath());
+    VectorizedParquetRecordReader reader = null;
+    try {
+      reader = new VectorizedParquetRecordReader(split, jobConf, metadataCache, dataCache,
+          daemonConf);
+      List<Integer> columnIds = includes.getPhysicalColumnIds();
+      VectorizedRowBatchCtx rbCtx = Utilities.getVectorizedRowBatchCtx(jobConf);
+      VectorizedRowBatch vrb = reader.createValue();
+      while (!isStopped && reader.next(NullWritable.get(), vrb)) {
+        if (vrb.size == 0) {
+          continue;
+        }
+        ColumnVectorBatch cvb = freeBatches.poll();
+        if (cvb == null) {
+          cvb = new ColumnVectorBatch(columnIds.size());
+        }
+        // Hand the decoded vectors to the consumer, and keep the returned ones for the next batch.
+        for (int ixInReadSet = 0; ixInReadSet < columnIds.size(); ++ixInReadSet) {
+          int ixInVrb = columnIds.get(ixInReadSet);
+          cvb.swapColumnVector(ixInReadSet, vrb.cols, ixInVrb);
+          if (vrb.cols[ixInVrb] == null) {
+            // Only a batch that was not used yet has no vector to give back.
+            vrb.cols[ixInVrb] = rbCtx.createColumnVector(ixInVrb);
+          }
+        }
+        cvb.size = vrb.size;
+        counters.incrCounter(LlapIOCounters.ROWS_EMITTED, vrb.size);
+        counters.incrCounter(LlapIOCounters.NUM_VECTOR_BATCHES);
+        consumer.consumeData(cvb);
+      }
+    } catch (Throwable e) {
+      LlapIoImpl.LOG.error("Exception while processing", e);
+      consumer.setError(e);
+      throw e;
+    } finally {
+      if (reader != null) {
+        reader.close();
+      }
+      counters.incrWallClockCounter(LlapIOCounters.TOTAL_IO_TIME_NS, startTime);
+    }
+    consumer.setDone();
+    return null;
+  }
+
+  @Override
+  public void returnData(ColumnVectorBatch data) {
+    // In case a writer has a lock on any of the vectors we don't reuse the batch.
+    for (ColumnVector cv : data.cols) {
+      if (cv != null && cv.getRef() > 0) {
+        return;
+      }
+    }
+    freeBatches.offer(data);
+  }
+
+  @Override
+  public void pause() {
+    // The consumer blocks the reader when its queue is full.
+  }
+
+  @Override
+  public void unpause() {
+  }
+
+  @Override
+  public void stop() {
+    isStopped = true;
+  }
+
+  @Override
+  public TezCounters getTezCounters() {
+    return counters.getTezCounters();
+  }
+}
@@ -30,6 +30,7 @@
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import org.apache.hadoop.hive.common.io.DiskRange;
@@ -57,6 +58,8 @@ public class MetadataCache implements LlapIoDebugDump, FileMetadataCache {
   private final LowLevelCachePolicy policy;
   private final BuddyAllocator allocator;
   private final LlapDaemonCacheMetrics metrics;
+  /** The memory used by the cached ORC indexes. */
+  private final AtomicLong indexBytes = new AtomicLong();
 
   public MetadataCache(BuddyAllocator allocator, MemoryManager memoryManager,
       LowLevelCachePolicy policy, boolean useEstimateCache, LlapDaemonCacheMetrics metrics) {
@@ -112,6 +115,9 @@ public DiskRangeList getIncompleteCbs(
   }
 
   public void notifyEvicted(LlapMetadataBuffer<?> buffer) {
+    if (buffer.getKey() instanceof IndexKey) {
+      updateIndexBytes(-buffer.allocSize);
+    }
     LlapBufferOrBuffers removed = metadata.remove(buffer.getKey());
     if (removed == null) return;
     if (removed.getSingleBuffer() != null) {
@@ -171,6 +177,8 @@ public void debugDumpShort(StringBuilder sb) {
           return sum;
         }).sum())
         .append(" total used bytes, ")
+        .append(indexBytes.get())
+        .append(" bytes used by indexes, ")
         .append(estimateErrors.size())
         .append(" files w/ORC estimate");
   }
@@ -184,6 +192,35 @@ public LlapBufferOrBuffers getStripeTail(OrcBatchKey stripeKey) {
     return getInternal(new StripeKey(stripeKey.fileKey, stripeKey.stripeIx));
   }
 
+  /**
+   * @param hasBloomFilter whether the cached index has to have the bloom filter too, if the
+   *                       file has one for the column.
+   */
+  public LlapBufferOrBuffers getStripeIndex(OrcBatchKey stripeKey, int colIx,
+      boolean hasBloomFilter) {
+    return getInternal(new IndexKey(stripeKey.fileKey, stripeKey.stripeIx, colIx, hasBloomFilter));
+  }
+
+  /**
+   * Caches the serialized index of a column of a stripe.
+   * @return the cached buffer, or null if the index is too large to fit in a single buffer.
+   */
+  public LlapBufferOrBuffers putStripeIndex(OrcBatchKey stripeKey, int colIx,
+      boolean hasBloomFilter, ByteBuffer indexBuffer, CacheTag tag, AtomicBoolean isStopped) {
+    if (indexBuffer.remaining() > allocator.getMaxAllocation()) {
+      return null;
+    }
+    return putInternal(new IndexKey(stripeKey.fileKey, stripeKey.stripeIx, colIx, hasBloomFilter),
+        indexBuffer, tag, isStopped);
+  }
+
+  private void updateIndexBytes(long delta) {
+    indexBytes.addAndGet(delta);
+    if (metrics != null) {
+      metrics.incrCacheIndexUsedBytes(delta);
+    }
+  }
+
   private LlapBufferOrBuffers getInternal(Object key) {
     LlapBufferOrBuffers result = metadata.get(key);
     if (result == null) return null;
@@ -312,6 +349,9 @@ private <T> LlapBufferOrBuffers putInternal(T key, ByteBuffer tailBuffer, CacheT
         result = wrapBb(result, key, tailBuffer, tag, isStopped);
         oldVal = metadata.putIfAbsent(key, result);
         if (oldVal == null) {
+          if (key instanceof IndexKey) {
+            updateIndexBytes(result.getSingleLlapBuffer().allocSize);
+          }
           cacheInPolicy(result); // Cached successfully, add to policy.
           return result;
         }
@@ -528,6 +568,36 @@ public boolean equals(Object obj) {
     }
   }
 
+  private final static class IndexKey {
+    private final Object fileKey;
+    private final int stripeIx, colIx;
+    private final boolean hasBloomFilter;
+
+    public IndexKey(Object fileKey, int stripeIx, int colIx, boolean hasBloomFilter) {
+      this.fileKey = fileKey;
+      this.stripeIx = stripeIx;
+      this.colIx = colIx;
+      this.hasBloomFilter = hasBloomFilter;
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = (prime + ((fileKey == null) ? 0 : fileKey.hashCode())) * prime + stripeIx;
+      return (result * prime + colIx) * prime + (hasBloomFilter ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof IndexKey)) return false;
+      IndexKey other = (IndexKey)obj;
+      return ((fileKey == null) == (other.fileKey == null))
+          && (fileKey == null || fileKey.equals(other.fileKey)) && (stripeIx == other.stripeIx)
+          && (colIx == other.colIx) && (hasBloomFilter == other.hasBloomFilter);
+    }
+  }
+
   public interface LlapBufferOrBuffers extends MemoryBufferOrBuffers {
     LlapAllocatorBuffer getSingleLlapBuffer();
     LlapAllocatorBuffer[] getMultipleLlapBuffers();
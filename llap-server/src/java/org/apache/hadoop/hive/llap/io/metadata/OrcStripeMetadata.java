@@ -19,12 +19,16 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
+import com.google.protobuf.CodedInputStream;
+
 import org.apache.hadoop.hive.ql.io.orc.encoded.OrcBatchKey;
 import org.apache.orc.OrcProto;
 import org.apache.orc.OrcProto.RowIndexEntry;
 import org.apache.orc.StripeInformation;
+import org.apache.orc.impl.InStream;
 import org.apache.orc.impl.OrcIndex;
 
 public class OrcStripeMetadata implements ConsumerStripeMetadata {
@@ -117,6 +121,61 @@ public OrcIndex getIndex() {
     return rowIndex;
   }
 
+  /**
+   * Serializes the row index and the bloom filter of a column, as they are kept in the metadata
+   * cache: the bloom filter stream kind (-1 if none), the row index length (-1 if none), and the
+   * uncompressed row index and bloom filter.
+   */
+  public static ByteBuffer serializeColumnIndex(OrcIndex index, int colIx) {
+    OrcProto.RowIndex rowIndex = index.getRowGroupIndex()[colIx];
+    OrcProto.BloomFilterIndex bloomFilter = index.getBloomFilterIndex() == null
+        ? null : index.getBloomFilterIndex()[colIx];
+    byte[] rowIndexBytes = rowIndex == null ? null : rowIndex.toByteArray();
+    byte[] bloomFilterBytes = bloomFilter == null ? null : bloomFilter.toByteArray();
+    ByteBuffer result = ByteBuffer.allocate(5 + (rowIndexBytes == null ? 0 : rowIndexBytes.length)
+        + (bloomFilterBytes == null ? 0 : bloomFilterBytes.length));
+    result.put(bloomFilterBytes == null
+        ? -1 : (byte) index.getBloomFilterKinds()[colIx].getNumber());
+    result.putInt(rowIndexBytes == null ? -1 : rowIndexBytes.length);
+    if (rowIndexBytes != null) {
+      result.put(rowIndexBytes);
+    }
+    if (bloomFilterBytes != null) {
+      result.put(bloomFilterBytes);
+    }
+    result.flip();
+    return result;
+  }
+
+  /**
+   * Sets the row index and the bloom filter of a column from the cached form.
+   * @see #serializeColumnIndex(OrcIndex, int)
+   */
+  public static void deserializeColumnIndex(ByteBuffer data, OrcIndex index, int colIx)
+      throws IOException {
+    byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    int bloomFilterKind = bytes[0];
+    int rowIndexLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+    int offset = 5;
+    if (rowIndexLength >= 0) {
+      index.getRowGroupIndex()[colIx] = OrcProto.RowIndex.parseFrom(
+          createCodedInputStream(bytes, offset, rowIndexLength));
+      offset += rowIndexLength;
+    }
+    if (bloomFilterKind >= 0 && index.getBloomFilterIndex() != null) {
+      index.getBloomFilterKinds()[colIx] = OrcProto.Stream.Kind.valueOf(bloomFilterKind);
+      index.getBloomFilterIndex()[colIx] = OrcProto.BloomFilterIndex.parseFrom(
+          createCodedInputStream(bytes, offset, bytes.length - offset));
+    }
+  }
+
+  private static CodedInputStream createCodedInputStream(byte[] bytes, int offset, int length) {
+    CodedInputStream cis = CodedInputStream.newInstance(bytes, offset, length);
+    cis.setSizeLimit(InStream.PROTOBUF_MESSAGE_MAX_LIMIT);
+    return cis;
+  }
+
   @Override
   public String toString() {
     return "OrcStripeMetadata [stripeKey=" + stripeKey + ", rowCount="
@@ -34,6 +34,8 @@ public enum LlapDaemonCacheInfo implements MetricsInfo {
   CacheRequestedBytes("Disk ranges that are requested in bytes"),
   CacheHitBytes("Disk ranges that are cached in bytes"),
   CacheHitRatio("Ratio of disk ranges cached vs requested"),
+  CacheAdmissionRejectedBytes("Disk ranges that were read but not admitted into cache in bytes"),
+  CacheIndexUsedBytes("Amount of the metadata cache used by ORC row group indexes and bloom filters"),
   CacheReadRequests("Number of disk range requests to cache"),
   CacheAllocatedArena("Number of arenas allocated"),
   CacheNumLockedBuffers("Number of locked buffers in cache");
@@ -17,6 +17,7 @@
  */
 package org.apache.hadoop.hive.llap.metrics;
 
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheAdmissionRejectedBytes;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheAllocatedArena;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheCapacityRemaining;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheCapacityRemainingPercentage;
@@ -24,6 +25,7 @@
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheCapacityUsed;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheHitBytes;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheHitRatio;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheIndexUsedBytes;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheMetrics;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheNumLockedBuffers;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheInfo.CacheReadRequests;
@@ -31,18 +33,20 @@
 import static org.apache.hadoop.metrics2.impl.MsInfo.ProcessName;
 import static org.apache.hadoop.metrics2.impl.MsInfo.SessionId;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
 import org.apache.hadoop.metrics2.MetricsCollector;
 import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.metrics2.MetricsSource;
 import org.apache.hadoop.metrics2.MetricsSystem;
 import org.apache.hadoop.metrics2.annotation.Metric;
 import org.apache.hadoop.metrics2.annotation.Metrics;
+import org.apache.hadoop.metrics2.lib.Interns;
 import org.apache.hadoop.metrics2.lib.MetricsRegistry;
 import org.apache.hadoop.metrics2.lib.MutableCounterLong;
 import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
 
-import com.google.common.annotations.VisibleForTesting;
-
 /**
  * Llap daemon cache metrics source.
  */
@@ -63,10 +67,16 @@ public class LlapDaemonCacheMetrics implements MetricsSource {
   @Metric
   MutableCounterLong cacheHitBytes;
   @Metric
+  MutableCounterLong cacheAdmissionRejectedBytes;
+  @Metric
+  MutableGaugeLong cacheIndexUsedBytes; // Decreases when the indexes are evicted.
+  @Metric
   MutableCounterLong cacheAllocatedArena;
   @Metric
   MutableCounterLong cacheNumLockedBuffers;
 
+  private volatile Supplier<Map<String, Long>> databaseUsage;
+
   private LlapDaemonCacheMetrics(String name, String sessionId) {
     this.name = name;
     this.sessionId = sessionId;
@@ -95,6 +105,14 @@ public void incrCacheHitBytes(long delta) {
     cacheHitBytes.incr(delta);
   }
 
+  public void incrCacheAdmissionRejectedBytes(long delta) {
+    cacheAdmissionRejectedBytes.incr(delta);
+  }
+
+  public void incrCacheIndexUsedBytes(long delta) {
+    cacheIndexUsedBytes.incr(delta);
+  }
+
   public void incrCacheReadRequests() {
     cacheReadRequests.incr();
   }
@@ -115,16 +133,29 @@ public String getName() {
     return name;
   }
 
-  @VisibleForTesting
   public long getCacheRequestedBytes() {
     return cacheRequestedBytes.value();
   }
 
-  @VisibleForTesting
   public long getCacheHitBytes() {
     return cacheHitBytes.value();
   }
 
+  public long getCacheAdmissionRejectedBytes() {
+    return cacheAdmissionRejectedBytes.value();
+  }
+
+  public long getCacheIndexUsedBytes() {
+    return cacheIndexUsedBytes.value();
+  }
+
+  /**
+   * Sets the source of the cached bytes per database, reported when the cache has quotas.
+   */
+  public void setDatabaseUsage(Supplier<Map<String, Long>> databaseUsage) {
+    this.databaseUsage = databaseUsage;
+  }
+
   @Override
   public void getMetrics(MetricsCollector collector, boolean b) {
     MetricsRecordBuilder rb = collector.addRecord(CacheMetrics)
@@ -148,9 +179,19 @@ private void getCacheStats(MetricsRecordBuilder rb) {
         .addCounter(CacheReadRequests, cacheReadRequests.value())
         .addCounter(CacheRequestedBytes, cacheRequestedBytes.value())
         .addCounter(CacheHitBytes, cacheHitBytes.value())
+        .addCounter(CacheAdmissionRejectedBytes, cacheAdmissionRejectedBytes.value())
+        .addGauge(CacheIndexUsedBytes, cacheIndexUsedBytes.value())
         .addCounter(CacheAllocatedArena, cacheAllocatedArena.value())
         .addCounter(CacheNumLockedBuffers, cacheNumLockedBuffers.value())
         .addGauge(CacheHitRatio, cacheHitRatio);
+    Supplier<Map<String, Long>> usage = databaseUsage;
+    if (usage != null) {
+      for (Map.Entry<String, Long> e : usage.get().entrySet()) {
+        String database = e.getKey().isEmpty() ? "_nodb" : e.getKey();
+        rb.addGauge(Interns.info("CacheUsedBytes." + database,
+            "Bytes cached for the database " + database), e.getValue());
+      }
+    }
   }
 
 }
@@ -28,7 +28,11 @@
 public enum LlapDaemonIOInfo implements MetricsInfo {
   IOMetrics("Llap daemon I/O elevator metrics"),
   PercentileDecodingTime("Percentile decoding time for encoded column batch"),
-  MaxDecodingTime("Max time for decoding an encoded column batch");
+  MaxDecodingTime("Max time for decoding an encoded column batch"),
+  DecodeThreadPoolSize("Number of threads decoding the columns in parallel with the IO threads"),
+  DecodeThreadUtilization("Percentage of the time the decode threads were busy since the last snapshot"),
+  ParallelDecodeTasks("Number of column decode tasks run on the decode threads"),
+  InlineDecodeTasks("Number of column decode tasks run on the IO threads, as the decode threads were busy");
 
   private final String desc;
 
@@ -17,11 +17,17 @@
  */
 package org.apache.hadoop.hive.llap.metrics;
 
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.DecodeThreadPoolSize;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.DecodeThreadUtilization;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.IOMetrics;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.InlineDecodeTasks;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.MaxDecodingTime;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.ParallelDecodeTasks;
 import static org.apache.hadoop.metrics2.impl.MsInfo.ProcessName;
 import static org.apache.hadoop.metrics2.impl.MsInfo.SessionId;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.hadoop.metrics2.MetricsCollector;
 import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.metrics2.MetricsSource;
@@ -51,6 +57,10 @@ public class LlapDaemonIOMetrics implements MetricsSource {
   final MutableQuantiles[] decodingTimes;
   @Metric
   MutableGaugeLong maxDecodingTime;
+  private volatile int decodeThreadPoolSize;
+  private final AtomicLong decodeThreadBusyNs = new AtomicLong(),
+      parallelDecodeTasks = new AtomicLong(), inlineDecodeTasks = new AtomicLong();
+  private long lastUtilizationTimeNs = System.nanoTime(), lastDecodeThreadBusyNs;
 
   private LlapDaemonIOMetrics(String displayName, String sessionId, int[] intervals) {
     this.name = displayName;
@@ -99,9 +109,44 @@ public void addDecodeBatchTime(long latency) {
     }
   }
 
+  public void setDecodeThreadPoolSize(int size) {
+    this.decodeThreadPoolSize = size;
+  }
+
+  /**
+   * Records a column decode task that ran on a decode thread.
+   * @param busyNs the time the task kept the decode thread busy.
+   */
+  public void addParallelDecodeTask(long busyNs) {
+    parallelDecodeTasks.incrementAndGet();
+    decodeThreadBusyNs.addAndGet(busyNs);
+  }
+
+  /**
+   * Records a column decode task that the IO thread ran itself, as the decode threads were busy.
+   */
+  public void incrInlineDecodeTasks() {
+    inlineDecodeTasks.incrementAndGet();
+  }
+
+  private synchronized float getDecodeThreadUtilization() {
+    long now = System.nanoTime(), busyNs = decodeThreadBusyNs.get();
+    long elapsedNs = (now - lastUtilizationTimeNs) * decodeThreadPoolSize;
+    float result = elapsedNs <= 0 ? 0 : Math.min(100f, 100f * (busyNs - lastDecodeThreadBusyNs) / elapsedNs);
+    lastUtilizationTimeNs = now;
+    lastDecodeThreadBusyNs = busyNs;
+    return result;
+  }
+
   private void getIoStats(MetricsRecordBuilder rb) {
     rb.addGauge(MaxDecodingTime, maxDecodingTime.value());
     rateOfDecoding.snapshot(rb, true);
+    if (decodeThreadPoolSize > 0) {
+      rb.addGauge(DecodeThreadPoolSize, decodeThreadPoolSize)
+          .addGauge(DecodeThreadUtilization, getDecodeThreadUtilization())
+          .addCounter(ParallelDecodeTasks, parallelDecodeTasks.get())
+          .addCounter(InlineDecodeTasks, inlineDecodeTasks.get());
+    }
 
     for (MutableQuantiles q : decodingTimes) {
       q.snapshot(rb, true);
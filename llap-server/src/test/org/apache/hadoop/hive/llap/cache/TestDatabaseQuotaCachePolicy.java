@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import org.apache.hadoop.hive.common.io.CacheTag;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DatabaseQuotaCachePolicy.
+ */
+public class TestDatabaseQuotaCachePolicy {
+
+  private LowLevelCachePolicy realPolicy;
+  private EvictionListener listener;
+
+  @Before
+  public void setup() {
+    realPolicy = mock(LowLevelCachePolicy.class);
+    listener = mock(EvictionListener.class);
+  }
+
+  private DatabaseQuotaCachePolicy createPolicy(String quotas) {
+    DatabaseQuotaCachePolicy policy = new DatabaseQuotaCachePolicy(realPolicy, quotas);
+    policy.setEvictionListener(listener);
+    return policy;
+  }
+
+  private static LlapCacheableBuffer createBuffer(long size, String table, int invalidateResult) {
+    LlapCacheableBuffer buffer = mock(LlapCacheableBuffer.class);
+    when(buffer.getMemoryUsage()).thenReturn(size);
+    when(buffer.getTag()).thenReturn(table == null ? null : CacheTag.build(table));
+    when(buffer.invalidate()).thenReturn(invalidateResult);
+    return buffer;
+  }
+
+  @Test
+  public void testUsageTracking() {
+    DatabaseQuotaCachePolicy policy = createPolicy("bi:1kb:0");
+    LlapCacheableBuffer b1 = createBuffer(100, "bi.t1", LlapCacheableBuffer.INVALIDATE_OK);
+    LlapCacheableBuffer b2 = createBuffer(200, "Etl.t2", LlapCacheableBuffer.INVALIDATE_OK);
+    LlapCacheableBuffer b3 = createBuffer(300, null, LlapCacheableBuffer.INVALIDATE_OK);
+    policy.cache(b1, null);
+    policy.cache(b2, null);
+    policy.cache(b3, null);
+    assertEquals(100L, (long) policy.getDatabaseUsage().get("bi"));
+    assertEquals(200L, (long) policy.getDatabaseUsage().get("etl"));
+    assertEquals(300L, (long) policy.getDatabaseUsage().get(""));
+
+    policy.notifyEvicted(b2);
+    verify(listener).notifyEvicted(b2);
+    assertEquals(0L, (long) policy.getDatabaseUsage().get("etl"));
+  }
+
+  @Test
+  public void testEvictAboveMaxFirst() {
+    DatabaseQuotaCachePolicy policy = createPolicy("etl:0:300");
+    LlapCacheableBuffer etl1 = createBuffer(200, "etl.t", LlapCacheableBuffer.INVALIDATE_OK);
+    LlapCacheableBuffer etl2 = createBuffer(200, "etl.t", LlapCacheableBuffer.INVALIDATE_OK);
+    LlapCacheableBuffer bi = createBuffer(200, "bi.t", LlapCacheableBuffer.INVALIDATE_OK);
+    policy.cache(etl1, null);
+    policy.cache(bi, null);
+    policy.cache(etl2, null);
+
+    // etl is 100 bytes above its max, so its oldest buffer goes first.
+    assertEquals(200L, policy.evictSomeBlocks(200));
+    verify(listener).notifyEvicted(etl1);
+    verify(realPolicy, never()).evictSomeBlocks(anyLong());
+    assertEquals(200L, (long) policy.getDatabaseUsage().get("etl"));
+
+    // Within the quotas, the real policy decides.
+    when(realPolicy.evictSomeBlocks(200)).thenReturn(200L);
+    assertEquals(200L, policy.evictSomeBlocks(200));
+    verify(realPolicy).evictSomeBlocks(200);
+  }
+
+  @Test
+  public void testMinProtectsFromOthers() {
+    DatabaseQuotaCachePolicy policy = createPolicy("bi:1kb:0");
+    LlapCacheableBuffer locked = createBuffer(100, "etl.t", LlapCacheableBuffer.INVALIDATE_FAILED);
+    LlapCacheableBuffer etl = createBuffer(100, "etl.t", LlapCacheableBuffer.INVALIDATE_OK);
+    LlapCacheableBuffer bi = createBuffer(100, "bi.t", LlapCacheableBuffer.INVALIDATE_OK);
+    policy.cache(bi, null);
+    policy.cache(locked, null);
+    policy.cache(etl, null);
+
+    // bi is below its min, so the other databases are evicted first; locked buffers are skipped.
+    when(realPolicy.evictSomeBlocks(100)).thenReturn(100L);
+    assertEquals(200L, policy.evictSomeBlocks(200));
+    verify(listener).notifyEvicted(etl);
+    verify(listener, never()).notifyEvicted(locked);
+    verify(listener, never()).notifyEvicted(bi);
+    verify(realPolicy).evictSomeBlocks(100);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidQuota() {
+    createPolicy("bi:2gb:1gb");
+  }
+}
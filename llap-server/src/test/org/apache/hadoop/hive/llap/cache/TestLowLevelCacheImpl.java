@@ -214,6 +214,25 @@ private void verifyCacheGet(LowLevelCacheImpl cache, long fileId, Object... stuf
     }
   }
 
+  @Test
+  public void testAdmissionFilter() {
+    LlapDaemonCacheMetrics metrics = LlapDaemonCacheMetrics.create("test", "1");
+    LowLevelCacheImpl cache = new LowLevelCacheImpl(
+        metrics, new DummyCachePolicy(), new DummyAllocator(), true, -1); // no cleanup thread
+    cache.setAdmissionFilter((fileKey, offset, tag) -> offset != 2);
+    long fn1 = 1;
+    MemoryBuffer[] fakes = new MemoryBuffer[] { fb(), fb() };
+    long rejectedBefore = metrics.getCacheAdmissionRejectedBytes();
+    assertNull(cache.putFileData(fn1, drs(1, 2), fbs(fakes, 0, 1), 0, Priority.NORMAL, null, null));
+    // The rejected buffer is still locked for the caller, but it is not in the cache.
+    verifyRefcount(fakes, 2, 2);
+    verifyCacheGet(cache, fn1, 1, 3, fakes[0], dr(2, 3));
+    assertEquals(1, metrics.getCacheAdmissionRejectedBytes() - rejectedBefore);
+    ((LlapDataBuffer) fakes[1]).decRef(); // The test's own reference, see fb().
+    cache.decRefBuffer(fakes[1]);
+    assertTrue(((LlapDataBuffer) fakes[1]).isInvalid());
+  }
+
   @Test
   public void testBitmaskHandling() {
     LowLevelCacheImpl cache = new LowLevelCacheImpl(
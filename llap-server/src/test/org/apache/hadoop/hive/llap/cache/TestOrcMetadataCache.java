@@ -42,9 +42,13 @@
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache.LlapBufferOrBuffers;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache.LlapMetadataBuffer;
+import org.apache.hadoop.hive.llap.io.metadata.OrcStripeMetadata;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
 import org.apache.hadoop.hive.ql.io.SyntheticFileId;
 import org.apache.hadoop.hive.ql.io.orc.encoded.IncompleteCb;
+import org.apache.hadoop.hive.ql.io.orc.encoded.OrcBatchKey;
+import org.apache.orc.OrcProto;
+import org.apache.orc.impl.OrcIndex;
 import org.apache.orc.impl.OrcTail;
 
 import org.junit.Assert;
@@ -370,6 +374,58 @@ public void testProactiveEvictionMark() throws Exception {
 
   }
 
+  @Test
+  public void testStripeIndexes() throws Exception {
+    DummyMemoryManager mm = new DummyMemoryManager();
+    DummyCachePolicy cp = new DummyCachePolicy();
+    final int MAX_ALLOC = 64;
+    LlapDaemonCacheMetrics metrics = LlapDaemonCacheMetrics.create("", "");
+    BuddyAllocator alloc = new BuddyAllocator(
+        false, false, 8, MAX_ALLOC, 1, 4096, 0, null, mm, metrics, null, true);
+    MetadataCache cache = new MetadataCache(alloc, mm, cp, true, metrics);
+    OrcBatchKey stripeKey = new OrcBatchKey(1L, 0, 0);
+
+    OrcIndex index = new OrcIndex(new OrcProto.RowIndex[2], new OrcProto.Stream.Kind[2],
+        new OrcProto.BloomFilterIndex[2]);
+    index.getRowGroupIndex()[1] = OrcProto.RowIndex.newBuilder().addEntry(
+        OrcProto.RowIndexEntry.newBuilder().addPositions(0).addPositions(5)).build();
+    index.getBloomFilterKinds()[1] = OrcProto.Stream.Kind.BLOOM_FILTER_UTF8;
+    index.getBloomFilterIndex()[1] = OrcProto.BloomFilterIndex.newBuilder().addBloomFilter(
+        OrcProto.BloomFilter.newBuilder().setNumHashFunctions(3)).build();
+
+    assertNull(cache.getStripeIndex(stripeKey, 1, true));
+    LlapBufferOrBuffers result = cache.putStripeIndex(stripeKey, 1, true,
+        OrcStripeMetadata.serializeColumnIndex(index, 1), null, null);
+    cache.decRefBuffer(result);
+    long allocSize = result.getSingleLlapBuffer().allocSize;
+    assertEquals(allocSize, metrics.getCacheIndexUsedBytes());
+    // The index without the bloom filter is cached separately.
+    assertNull(cache.getStripeIndex(stripeKey, 1, false));
+
+    result = cache.getStripeIndex(stripeKey, 1, true);
+    OrcIndex cachedIndex = new OrcIndex(new OrcProto.RowIndex[2], new OrcProto.Stream.Kind[2],
+        new OrcProto.BloomFilterIndex[2]);
+    OrcStripeMetadata.deserializeColumnIndex(
+        result.getSingleBuffer().getByteBufferDup(), cachedIndex, 1);
+    cache.decRefBuffer(result);
+    assertEquals(index.getRowGroupIndex()[1], cachedIndex.getRowGroupIndex()[1]);
+    assertEquals(OrcProto.Stream.Kind.BLOOM_FILTER_UTF8, cachedIndex.getBloomFilterKinds()[1]);
+    assertEquals(index.getBloomFilterIndex()[1], cachedIndex.getBloomFilterIndex()[1]);
+
+    cache.notifyEvicted((LlapMetadataBuffer<?>) result.getSingleBuffer());
+    assertNull(cache.getStripeIndex(stripeKey, 1, true));
+    assertEquals(0, metrics.getCacheIndexUsedBytes());
+
+    // A column without an index is cached as such.
+    result = cache.putStripeIndex(stripeKey, 0, false,
+        OrcStripeMetadata.serializeColumnIndex(index, 0), null, null);
+    cache.decRefBuffer(result);
+    OrcStripeMetadata.deserializeColumnIndex(
+        result.getSingleBuffer().getByteBufferDup(), cachedIndex, 0);
+    assertNull(cachedIndex.getRowGroupIndex()[0]);
+    assertNull(cachedIndex.getBloomFilterIndex()[0]);
+  }
+
   private static final int INCOMPLETE = 0, DRL = 1;
   public void verifyResult(DiskRangeList result, long... vals) {
     for (int i = 0; i < vals.length; i += 3) {
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.io.api.LlapIo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class TestPersistentLlapCacheHydration {
+
+  private File tempDir;
+  private LlapIo mockIo;
+  private PersistentLlapCacheHydration hydr;
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDir();
+    tempDir.deleteOnExit();
+    Configuration conf = new Configuration();
+    HiveConf.setVar(conf, ConfVars.LLAP_CACHE_HYDRATION_SAVE_DIR, tempDir.getAbsolutePath());
+    hydr = new PersistentLlapCacheHydration();
+    hydr.setConf(conf);
+    mockIo = mock(LlapIo.class);
+    hydr.llapIo = mockIo;
+    hydr.initSavePath();
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    byte[] data = new byte[] { 1, 2, 3, 4, 5 };
+    doAnswer(invocation -> {
+      ((OutputStream) invocation.getArgument(0)).write(data);
+      return null;
+    }).when(mockIo).saveCacheData(any(OutputStream.class));
+    AtomicReference<byte[]> loaded = new AtomicReference<>();
+    doAnswer(invocation -> {
+      loaded.set(ByteStreams.toByteArray((InputStream) invocation.getArgument(0)));
+      return null;
+    }).when(mockIo).loadCacheData(any(InputStream.class));
+
+    hydr.save();
+    hydr.load();
+
+    assertArrayEquals(data, loaded.get());
+    // The saved data is only loaded once.
+    assertEquals(0, tempDir.list().length);
+  }
+
+  @Test
+  public void testFailedSave() throws IOException {
+    doThrow(new IOException("test")).when(mockIo).saveCacheData(any(OutputStream.class));
+
+    hydr.save();
+    hydr.load();
+
+    verify(mockIo, never()).loadCacheData(any(InputStream.class));
+    assertEquals(0, tempDir.list().length);
+  }
+}
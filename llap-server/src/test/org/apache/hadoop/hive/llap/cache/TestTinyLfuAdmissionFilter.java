@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TestTinyLfuAdmissionFilter {
+
+  @Test
+  public void testAdmitsRepeatedReads() {
+    TinyLfuAdmissionFilter filter = new TinyLfuAdmissionFilter(1024, 2, 0, () -> 100L);
+    // A block read once is not admitted, one read again is.
+    assertFalse(filter.admit(1L, 0, null));
+    assertTrue(filter.admit(1L, 0, null));
+    assertFalse(filter.admit(1L, 100, null));
+    assertFalse(filter.admit(2L, 0, null));
+  }
+
+  @Test
+  public void testScanDoesNotPolluteHotBlocks() {
+    TinyLfuAdmissionFilter filter = new TinyLfuAdmissionFilter(1 << 16, 2, 0, () -> 100L);
+    for (int i = 0; i < 5; ++i) {
+      filter.admit(1L, 0, null);
+    }
+    int admittedFromScan = 0;
+    for (long offset = 0; offset < 10000; ++offset) {
+      if (filter.admit(2L, offset * 1000, null)) {
+        ++admittedFromScan;
+      }
+    }
+    assertTrue("Admitted " + admittedFromScan, admittedFromScan < 100);
+    assertTrue(filter.admit(1L, 0, null));
+  }
+
+  @Test
+  public void testAdmitsEverythingDuringWarmup() {
+    AtomicLong used = new AtomicLong(0);
+    TinyLfuAdmissionFilter filter = new TinyLfuAdmissionFilter(1024, 2, 1000, used::get);
+    assertTrue(filter.admit(1L, 0, null));
+    used.set(1000);
+    assertFalse(filter.admit(1L, 100, null));
+  }
+
+  @Test
+  public void testCountsAreAged() {
+    TinyLfuAdmissionFilter filter = new TinyLfuAdmissionFilter(1024, 2, 0, () -> 100L);
+    long hash = TinyLfuAdmissionFilter.hash(1L, 0);
+    assertEquals(1, filter.increment(hash));
+    // The counts are halved after every 10 * 1024 reads; the counters saturate at 15.
+    for (int i = 2; i < 10240; ++i) {
+      filter.increment(hash);
+    }
+    assertEquals(15, filter.increment(hash));
+    assertEquals(8, filter.increment(hash));
+  }
+}
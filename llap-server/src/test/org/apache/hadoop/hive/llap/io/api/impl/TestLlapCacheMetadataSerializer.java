@@ -21,8 +21,12 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.CacheTag;
 import org.apache.hadoop.hive.common.io.DataCache;
+import org.apache.hadoop.hive.common.io.DiskRange;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
 import org.apache.hadoop.hive.common.io.FileMetadataCache;
+import org.apache.hadoop.hive.common.io.encoded.MemoryBuffer;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.llap.cache.BuddyAllocator;
 import org.apache.hadoop.hive.llap.cache.LowLevelCacheImpl;
@@ -33,17 +37,24 @@
 import org.apache.hadoop.hive.llap.cache.TestBuddyAllocatorForceEvict;
 import org.apache.hadoop.hive.llap.daemon.rpc.LlapDaemonProtocolProtos;
 import org.apache.hadoop.hive.llap.io.LlapIoMocks;
+import org.apache.hadoop.hive.llap.io.encoded.OrcEncodedDataReader;
 import org.apache.hadoop.hive.llap.io.metadata.MetadataCache;
 import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
 import org.apache.hadoop.hive.ql.io.SyntheticFileId;
+import org.apache.hadoop.hive.ql.io.orc.encoded.CacheChunk;
 import org.apache.hadoop.hive.ql.io.orc.encoded.IoTrace;
 import org.apache.hive.common.util.FixedSizedObjectPool;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class TestLlapCacheMetadataSerializer {
 
@@ -57,12 +68,18 @@ public class TestLlapCacheMetadataSerializer {
   private LowLevelCachePolicy cachePolicy;
   private LlapCacheMetadataSerializer serializer;
 
+  private BuddyAllocator buddyAllocator;
+
   @Before
   public void setUp() {
     conf = new Configuration();
     HiveConf.setIntVar(conf, HiveConf.ConfVars.LLAP_LRFU_BP_WRAPPER_SIZE, 1);
     HiveConf.setFloatVar(conf, HiveConf.ConfVars.LLAP_LRFU_HOTBUFFERS_PERCENTAGE, 1.0f);
-    BuddyAllocator buddyAllocator = TestBuddyAllocatorForceEvict.create(16384, 2, 32768, false, true);
+    createCache();
+  }
+
+  private void createCache() {
+    buddyAllocator = TestBuddyAllocatorForceEvict.create(16384, 2, 32768, false, true);
     LlapDaemonCacheMetrics metrics = LlapDaemonCacheMetrics.create("", "");
     cachePolicy = new LowLevelLrfuCachePolicy(1, 5, conf);
     LowLevelCacheImpl cache = new LowLevelCacheImpl(metrics, cachePolicy, buddyAllocator, true);
@@ -85,6 +102,54 @@ public void testLoadData() throws IOException {
     assertEquals(dummyMetadata, cachedMetadata);
   }
 
+  @Test
+  public void testSaveAndLoadSavedData() throws IOException {
+    Path path = new Path(TEST_PATH);
+    Object fileKey = OrcEncodedDataReader.determineFileId(
+        OrcEncodedDataReader.getFsSupplier(path, conf), path, conf);
+    pathCache.touch(fileKey, path.toUri().toString());
+    // The lengths are not powers of two, so the allocated buffers are larger than the ranges.
+    DiskRange[] ranges = { new DiskRange(0, 100), new DiskRange(100, 1100), new DiskRange(5000, 5003) };
+    MemoryBuffer[] buffers = new MemoryBuffer[ranges.length];
+    for (int i = 0; i < ranges.length; ++i) {
+      MemoryBuffer[] dest = new MemoryBuffer[1];
+      buddyAllocator.allocateMultiple(dest, ranges[i].getLength(), mockDataCache.getDataBufferFactory());
+      buffers[i] = dest[0];
+      ByteBuffer bb = buffers[i].getByteBufferDup();
+      for (int j = 0; j < ranges[i].getLength(); ++j) {
+        bb.put(expectedByte(ranges[i].getOffset() + j));
+      }
+    }
+    mockDataCache.putFileData(fileKey, ranges, buffers, 0, CacheTag.build("dummyTable"));
+    for (MemoryBuffer buffer : buffers) {
+      mockDataCache.releaseBuffer(buffer);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.saveData(out);
+
+    createCache();
+    serializer.loadSavedData(new ByteArrayInputStream(out.toByteArray()));
+    for (DiskRange range : ranges) {
+      DiskRangeList.MutateHelper result = new DiskRangeList.MutateHelper(
+          new DiskRangeList(range.getOffset(), range.getEnd()));
+      DataCache.BooleanRef gotAllData = new DataCache.BooleanRef();
+      mockDataCache.getFileData(fileKey, result.next, 0, new LlapIoMocks.MockDiskRangeListFactory(), gotAllData);
+      assertTrue(gotAllData.value);
+      DiskRangeList chunk = result.next;
+      assertNotNull(chunk);
+      assertEquals(range.getOffset(), chunk.getOffset());
+      assertEquals(range.getEnd(), chunk.getEnd());
+      ByteBuffer bb = ((CacheChunk) chunk).getBuffer().getByteBufferDup();
+      for (long offset = range.getOffset(); offset < range.getEnd(); ++offset) {
+        assertEquals(expectedByte(offset), bb.get());
+      }
+    }
+  }
+
+  private static byte expectedByte(long offset) {
+    return (byte) (offset * 31 + 7);
+  }
+
   @Test
   public void testEncodeDecodeLongFileKey() throws IOException {
     Long originalKey = new Long(12345678L);
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.cache.MemoryLimitedPathCache;
+import org.apache.hadoop.hive.llap.cache.SimpleAllocator;
+import org.apache.hadoop.hive.llap.cache.SimpleBufferManager;
+import org.apache.hadoop.hive.llap.counters.QueryFragmentCounters;
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.Includes;
+import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.SchemaEvolutionFactory;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonIOMetrics;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
+import org.apache.hadoop.hive.ql.io.orc.encoded.Consumer;
+import org.apache.hadoop.hive.ql.io.orc.encoded.IoTrace;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.apache.orc.impl.SchemaEvolution;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that decoding the columns of an ORC split in parallel returns the same batches as
+ * decoding them on the IO thread.
+ */
+public class TestOrcParallelDecode {
+
+  private static final TypeDescription SCHEMA =
+      TypeDescription.fromString("struct<a:bigint,b:string,c:double>");
+  // Row groups of 10000, 10000 and 5000 rows; the first two span more than one set of
+  // batches decoded at once.
+  private static final int ROW_COUNT = 25000;
+  private static final int ROW_INDEX_STRIDE = 10000;
+
+  private static Configuration conf;
+  private static Path path;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    conf = new Configuration();
+    File dir = new File(System.getProperty("test.tmp.dir", System.getProperty("java.io.tmpdir")));
+    path = new Path(dir.getAbsolutePath(), "TestOrcParallelDecode.orc");
+    FileSystem fs = path.getFileSystem(conf);
+    fs.delete(path, false);
+    Writer writer = OrcFile.createWriter(path, OrcFile.writerOptions(conf)
+        .setSchema(SCHEMA).rowIndexStride(ROW_INDEX_STRIDE));
+    VectorizedRowBatch batch = SCHEMA.createRowBatch();
+    LongColumnVector a = (LongColumnVector) batch.cols[0];
+    BytesColumnVector b = (BytesColumnVector) batch.cols[1];
+    DoubleColumnVector c = (DoubleColumnVector) batch.cols[2];
+    for (int i = 0; i < ROW_COUNT; ++i) {
+      int row = batch.size++;
+      a.vector[row] = i;
+      b.setVal(row, ("v" + i).getBytes(StandardCharsets.UTF_8));
+      if (i % 13 == 0) {
+        c.noNulls = false;
+        c.isNull[row] = true;
+      } else {
+        c.vector[row] = i * 0.5;
+      }
+      if (batch.size == batch.getMaxSize()) {
+        writer.addRowBatch(batch);
+        batch.reset();
+      }
+    }
+    if (batch.size > 0) {
+      writer.addRowBatch(batch);
+    }
+    writer.close();
+  }
+
+  @AfterClass
+  public static void cleanup() throws Exception {
+    path.getFileSystem(conf).delete(path, false);
+  }
+
+  /**
+   * Reads all the columns of a non-ACID file, the way LlapRecordReader would.
+   */
+  private static class TestIncludes implements Includes, SchemaEvolutionFactory {
+    private final List<Integer> columnIds = Arrays.asList(0, 1, 2);
+
+    @Override
+    public SchemaEvolution createSchemaEvolution(TypeDescription fileSchema) {
+      return new SchemaEvolution(fileSchema, null, new Reader.Options(conf));
+    }
+
+    @Override
+    public boolean[] generateFileIncludes(TypeDescription fileSchema) {
+      return OrcInputFormat.genIncludedColumns(fileSchema, columnIds, null);
+    }
+
+    @Override
+    public List<Integer> getPhysicalColumnIds() {
+      return columnIds;
+    }
+
+    @Override
+    public List<Integer> getReaderLogicalColumnIds() {
+      return columnIds;
+    }
+
+    @Override
+    public TypeDescription[] getBatchReaderTypes(TypeDescription fileSchema) {
+      return OrcInputFormat.genIncludedTypes(fileSchema, columnIds, null);
+    }
+
+    @Override
+    public String[] getOriginalColumnNames(TypeDescription fileSchema) {
+      return OrcInputFormat.genIncludedColNames(fileSchema, columnIds, null);
+    }
+
+    @Override
+    public String getQueryId() {
+      return "test";
+    }
+
+    @Override
+    public boolean isProbeDecodeEnabled() {
+      return false;
+    }
+
+    @Override
+    public byte getProbeMjSmallTablePos() {
+      return 0;
+    }
+
+    @Override
+    public String getProbeCacheKey() {
+      return null;
+    }
+
+    @Override
+    public String getProbeColName() {
+      return null;
+    }
+
+    @Override
+    public int getProbeColIdx() {
+      return -1;
+    }
+
+    @Override
+    public boolean isLazyDecodeEnabled() {
+      return false;
+    }
+  }
+
+  /**
+   * Collects the sizes and the values of the batches in the order they are passed on, and
+   * returns them to the pipeline like the LLAP record reader does.
+   */
+  private static class CollectingConsumer implements Consumer<ColumnVectorBatch> {
+    private ReadPipeline pipeline;
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<String> rows = new ArrayList<>();
+    private boolean isDone;
+    private Throwable error;
+
+    @Override
+    public void consumeData(ColumnVectorBatch data) {
+      LongColumnVector a = (LongColumnVector) data.cols[0];
+      BytesColumnVector b = (BytesColumnVector) data.cols[1];
+      DoubleColumnVector c = (DoubleColumnVector) data.cols[2];
+      batchSizes.add(data.size);
+      for (int i = 0; i < data.size; ++i) {
+        int aRow = a.isRepeating ? 0 : i, bRow = b.isRepeating ? 0 : i, cRow = c.isRepeating ? 0 : i;
+        String cValue = (!c.noNulls && c.isNull[cRow]) ? "null" : String.valueOf(c.vector[cRow]);
+        rows.add(a.vector[aRow] + "," + b.toString(bRow) + "," + cValue);
+      }
+      pipeline.returnData(data);
+    }
+
+    @Override
+    public void setDone() {
+      isDone = true;
+    }
+
+    @Override
+    public void setError(Throwable t) {
+      error = t;
+    }
+  }
+
+  private static CollectingConsumer read(int decodeThreads) throws Exception {
+    Configuration daemonConf = new Configuration(conf);
+    HiveConf.setIntVar(daemonConf, HiveConf.ConfVars.LLAP_IO_DECODE_THREADPOOL_SIZE, decodeThreads);
+    ThreadPoolExecutor decodeExecutor = (decodeThreads == 0) ? null
+        : new ThreadPoolExecutor(decodeThreads, decodeThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>());
+    try {
+      LlapDaemonCacheMetrics cacheMetrics = LlapDaemonCacheMetrics.create("test", "1");
+      SimpleBufferManager bufferManager =
+          new SimpleBufferManager(new SimpleAllocator(daemonConf), cacheMetrics);
+      OrcColumnVectorProducer producer = new OrcColumnVectorProducer(null, bufferManager,
+          new MemoryLimitedPathCache(daemonConf), bufferManager, daemonConf, cacheMetrics,
+          LlapDaemonIOMetrics.create("TestOrcParallelDecode" + decodeThreads, "1", new int[] { 1 }),
+          IoTrace.createTracePool(daemonConf), null, decodeExecutor);
+
+      JobConf job = new JobConf(conf);
+      long length = path.getFileSystem(job).getFileStatus(path).getLen();
+      FileSplit split = new FileSplit(path, 0, length, (String[]) null);
+      TestIncludes includes = new TestIncludes();
+      CollectingConsumer consumer = new CollectingConsumer();
+      consumer.pipeline = producer.createReadPipeline(consumer, split, includes, null,
+          new QueryFragmentCounters(job, null), includes, null, null, null, job, null);
+      consumer.pipeline.getReadCallable().call();
+      if (decodeExecutor != null) {
+        assertTrue(decodeExecutor.getCompletedTaskCount() > 0);
+      }
+      return consumer;
+    } finally {
+      if (decodeExecutor != null) {
+        decodeExecutor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  public void testParallelDecode() throws Exception {
+    CollectingConsumer serial = read(0);
+    assertNull(serial.error);
+    assertTrue(serial.isDone);
+    assertEquals(ROW_COUNT, serial.rows.size());
+    for (int i = 0; i < ROW_COUNT; ++i) {
+      String cValue = (i % 13 == 0) ? "null" : String.valueOf(i * 0.5);
+      assertEquals("row " + i, i + ",v" + i + "," + cValue, serial.rows.get(i));
+    }
+
+    // Two decode threads and the IO thread each decode one of the columns.
+    CollectingConsumer parallel = read(2);
+    assertNull(parallel.error);
+    assertTrue(parallel.isDone);
+    assertEquals(serial.batchSizes, parallel.batchSizes);
+    assertEquals(serial.rows, parallel.rows);
+  }
+}
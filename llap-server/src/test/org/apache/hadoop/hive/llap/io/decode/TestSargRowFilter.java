@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.orc.Reader;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.SchemaEvolution;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for SargRowFilter.
+ */
+public class TestSargRowFilter {
+
+  private static final TypeDescription SCHEMA =
+      TypeDescription.fromString("struct<a:bigint,b:string,c:double,d:timestamp>");
+
+  private static SargRowFilter createFilter(SearchArgument sarg) {
+    SchemaEvolution evolution = new SchemaEvolution(SCHEMA, null, new Reader.Options());
+    return SargRowFilter.create(sarg, evolution,
+        SCHEMA.getChildren().toArray(new TypeDescription[0]));
+  }
+
+  private static ColumnVector[] createColumns(int size) {
+    LongColumnVector a = new LongColumnVector(size);
+    BytesColumnVector b = new BytesColumnVector(size);
+    DoubleColumnVector c = new DoubleColumnVector(size);
+    b.initBuffer();
+    for (int i = 0; i < size; ++i) {
+      a.vector[i] = i;
+      b.setVal(i, ("v" + (i % 3)).getBytes(StandardCharsets.UTF_8));
+      c.vector[i] = i * 0.5;
+    }
+    return new ColumnVector[] { a, b, c, null };
+  }
+
+  @Test
+  public void testFilter() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder()
+        .startOr()
+          .lessThan("a", PredicateLeaf.Type.LONG, 2L)
+          .equals("b", PredicateLeaf.Type.STRING, "v2")
+        .end()
+        .build();
+    SargRowFilter filter = createFilter(sarg);
+    assertTrue(filter.isFilterColumn(0));
+    assertTrue(filter.isFilterColumn(1));
+    assertFalse(filter.isFilterColumn(2));
+
+    ColumnVector[] cols = createColumns(10);
+    int[] selected = new int[10];
+    assertEquals(5, filter.filter(cols, 10, selected));
+    assertArrayEquals(new int[] { 0, 1, 2, 5, 8 }, Arrays.copyOf(selected, 5));
+  }
+
+  @Test
+  public void testNullsAndRepeating() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder()
+        .startAnd()
+          .between("c", PredicateLeaf.Type.FLOAT, 1.0, 2.0)
+          .startNot().isNull("a", PredicateLeaf.Type.LONG).end()
+        .end()
+        .build();
+    SargRowFilter filter = createFilter(sarg);
+    ColumnVector[] cols = createColumns(8);
+    cols[0].noNulls = false;
+    cols[0].isNull[3] = true;
+    int[] selected = new int[8];
+    // c is 1.0 to 2.0 for the rows 2 to 4, and a is null for the row 3.
+    assertEquals(2, filter.filter(cols, 8, selected));
+    assertEquals(2, selected[0]);
+    assertEquals(4, selected[1]);
+
+    cols[2].isRepeating = true;
+    ((DoubleColumnVector) cols[2]).vector[0] = 5;
+    assertEquals(0, filter.filter(cols, 8, selected));
+  }
+
+  @Test
+  public void testUnsupportedLeaves() {
+    // The other leaf is unknown, so nothing is filtered out of an OR.
+    SearchArgument sarg = SearchArgumentFactory.newBuilder()
+        .startOr()
+          .lessThan("a", PredicateLeaf.Type.LONG, 2L)
+          .lessThan("d", PredicateLeaf.Type.TIMESTAMP, new Timestamp(0))
+        .end()
+        .build();
+    SargRowFilter filter = createFilter(sarg);
+    int[] selected = new int[5];
+    assertEquals(5, filter.filter(createColumns(5), 5, selected));
+
+    sarg = SearchArgumentFactory.newBuilder()
+        .lessThan("d", PredicateLeaf.Type.TIMESTAMP, new Timestamp(0))
+        .build();
+    assertNull(createFilter(sarg));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.io.encoded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
+import org.apache.orc.impl.BufferChunk;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestLlapRecordReaderUtils {
+
+  private static final int FILE_SIZE = 10000;
+
+  private FileSystem fs;
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    fs = FileSystem.getLocal(new Configuration());
+    path = new Path(System.getProperty("test.tmp.dir", System.getProperty("java.io.tmpdir")),
+        "TestLlapRecordReaderUtils-" + System.nanoTime());
+    try (FSDataOutputStream out = fs.create(path)) {
+      for (int i = 0; i < FILE_SIZE; ++i) {
+        out.write(i % 251);
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    fs.delete(path, false);
+  }
+
+  @Test
+  public void testPlanCoalescedReads() {
+    DiskRangeList ranges = new DiskRangeList(0, 100);
+    ranges.insertAfter(new DiskRangeList(150, 200))
+        .insertAfter(new DiskRangeList(1000, 1100))
+        .insertAfter(new DiskRangeList(1110, 5000));
+    List<LlapRecordReaderUtils.CoalescedRead> reads =
+        LlapRecordReaderUtils.planCoalescedReads(ranges, 100, 1 << 20);
+    assertEquals(2, reads.size());
+    assertEquals(0, reads.get(0).offset);
+    assertEquals(200, reads.get(0).end);
+    assertEquals(2, reads.get(0).ranges.size());
+    assertEquals(1000, reads.get(1).offset);
+    assertEquals(5000, reads.get(1).end);
+
+    // The chunk limit stops the merging, and ranges above it are left out.
+    reads = LlapRecordReaderUtils.planCoalescedReads(ranges, 100, 3000);
+    assertEquals(2, reads.size());
+    assertEquals(1100, reads.get(1).end);
+  }
+
+  @Test
+  public void testCoalescedRead() throws Exception {
+    checkCoalescedRead(null);
+  }
+
+  @Test
+  public void testAsyncCoalescedRead() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      checkCoalescedRead(executor);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void checkCoalescedRead(ExecutorService executor) throws Exception {
+    DiskRangeList ranges = new DiskRangeList(10, 20);
+    ranges.insertAfter(new DiskRangeList(30, 40))
+        .insertAfter(new BufferChunk(ByteBuffer.allocate(10), 40))
+        .insertAfter(new DiskRangeList(2000, 2500))
+        .insertAfter(new DiskRangeList(2510, 2600))
+        .insertAfter(new DiskRangeList(6000, 9000));
+    ConcurrentLinkedQueue<FSDataInputStream> idleStreams = new ConcurrentLinkedQueue<>();
+    long base = 100;
+    try (FSDataInputStream file = fs.open(path)) {
+      DiskRangeList result = LlapRecordReaderUtils.readCoalescedDiskRanges(file,
+          () -> fs.open(path), idleStreams, executor, base, ranges, false, 2048, 100);
+      long[] expected = { 10, 20, 30, 40, 40, 50, 2000, 2500, 2510, 2600, 6000, 8048, 8048, 9000 };
+      int ix = 0;
+      for (DiskRangeList r = result; r != null; r = r.next, ix += 2) {
+        assertTrue(r.hasData());
+        assertEquals(expected[ix], r.getOffset());
+        assertEquals(expected[ix + 1], r.getEnd());
+        ByteBuffer data = r.getData().duplicate();
+        assertEquals(r.getLength(), data.remaining());
+        if (r.getOffset() == 40) {
+          continue; // The range from the cache is kept as is.
+        }
+        for (long pos = r.getOffset(); pos < r.getEnd(); ++pos) {
+          assertEquals((base + pos) % 251, data.get() & 0xff);
+        }
+      }
+      assertEquals(expected.length, ix);
+    } finally {
+      for (FSDataInputStream stream : idleStreams) {
+        stream.close();
+      }
+    }
+    if (executor == null) {
+      assertNull(idleStreams.peek());
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.encoded;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.counters.QueryFragmentCounters;
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.Includes;
+import org.apache.hadoop.hive.llap.io.decode.ParquetColumnVectorProducer;
+import org.apache.hadoop.hive.llap.io.decode.ReadPipeline;
+import org.apache.hadoop.hive.llap.metrics.LlapDaemonCacheMetrics;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.io.IOConstants;
+import org.apache.hadoop.hive.ql.io.orc.encoded.Consumer;
+import org.apache.hadoop.hive.ql.io.parquet.VectorizedColumnReaderTestBase;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.apache.parquet.hadoop.api.ReadSupport.PARQUET_READ_SCHEMA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests reading a Parquet file through the Parquet column vector producer of LLAP IO.
+ */
+public class TestParquetEncodedDataReader extends VectorizedColumnReaderTestBase {
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    removeFile();
+    writeData(initWriterFromFile(), false);
+  }
+
+  @AfterClass
+  public static void cleanup() throws Exception {
+    removeFile();
+  }
+
+  /**
+   * Collects the values of the batches, and returns them to the pipeline like the LLAP record
+   * reader does.
+   */
+  private static class CollectingConsumer implements Consumer<ColumnVectorBatch> {
+    private ReadPipeline pipeline;
+    private final List<Long> int32Values = new ArrayList<>();
+    private final List<Long> int64Values = new ArrayList<>();
+    private final Set<ColumnVector> vectors = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean isDone;
+    private Throwable error;
+
+    @Override
+    public void consumeData(ColumnVectorBatch data) {
+      LongColumnVector int32Vector = (LongColumnVector) data.cols[0];
+      LongColumnVector int64Vector = (LongColumnVector) data.cols[1];
+      vectors.add(int32Vector);
+      for (int i = 0; i < data.size; i++) {
+        int32Values.add(int32Vector.vector[int32Vector.isRepeating ? 0 : i]);
+        int64Values.add(int64Vector.vector[int64Vector.isRepeating ? 0 : i]);
+      }
+      pipeline.returnData(data);
+    }
+
+    @Override
+    public void setDone() {
+      isDone = true;
+    }
+
+    @Override
+    public void setError(Throwable t) {
+      error = t;
+    }
+  }
+
+  private static CollectingConsumer read(SearchArgument sarg) throws Exception {
+    JobConf job = new JobConf(conf);
+    job.set(IOConstants.COLUMNS, "int32_field,int64_field");
+    job.set(IOConstants.COLUMNS_TYPES, "int,bigint");
+    job.setBoolean(ColumnProjectionUtils.READ_ALL_COLUMNS, false);
+    job.set(ColumnProjectionUtils.READ_COLUMN_IDS_CONF_STR, "0,1");
+    job.set(PARQUET_READ_SCHEMA, "message test { required int32 int32_field; required int64 int64_field;}");
+    HiveConf.setBoolVar(job, HiveConf.ConfVars.HIVE_VECTORIZATION_ENABLED, true);
+    HiveConf.setVar(job, HiveConf.ConfVars.PLAN, "//tmp");
+    initialVectorizedRowBatchCtx(job);
+
+    Includes includes = mock(Includes.class);
+    when(includes.getPhysicalColumnIds()).thenReturn(Arrays.asList(0, 1));
+    long length = file.getFileSystem(job).getFileStatus(file).getLen();
+    FileSplit split = new FileSplit(file, 0, length, (String[]) null);
+
+    ParquetColumnVectorProducer producer = new ParquetColumnVectorProducer(null, null,
+        new Configuration(), LlapDaemonCacheMetrics.create("test", "1"));
+    CollectingConsumer consumer = new CollectingConsumer();
+    QueryFragmentCounters counters = new QueryFragmentCounters(job, null);
+    consumer.pipeline = producer.createReadPipeline(consumer, split, includes, sarg, counters, null,
+        null, null, null, job, null);
+    consumer.pipeline.getReadCallable().call();
+    return consumer;
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    CollectingConsumer consumer = read(null);
+    assertNull(consumer.error);
+    assertEquals(true, consumer.isDone);
+    assertEquals(nElements, consumer.int32Values.size());
+    for (int i = 0; i < nElements; i++) {
+      assertEquals("int32_field at " + i, getIntValue(false, i), consumer.int32Values.get(i).longValue());
+      assertEquals("int64_field at " + i, getLongValue(false, i), consumer.int64Values.get(i).longValue());
+    }
+    // The vectors returned by the consumer are reused, so only the first batch allocates new ones.
+    assertEquals(2, consumer.vectors.size());
+  }
+
+  @Test
+  public void testReadWithSarg() throws Exception {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder()
+        .startAnd().lessThan("int32_field", PredicateLeaf.Type.LONG, 10L).end().build();
+    assertEquals(nElements, read(sarg).int32Values.size());
+
+    // No row group has a negative value
+    sarg = SearchArgumentFactory.newBuilder()
+        .startAnd().lessThan("int32_field", PredicateLeaf.Type.LONG, -1L).end().build();
+    CollectingConsumer consumer = read(sarg);
+    assertNull(consumer.error);
+    assertEquals(true, consumer.isDone);
+    assertEquals(0, consumer.int32Values.size());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.llap.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.llap.daemon.impl.DumpingMetricsCollector;
+import org.junit.Test;
+
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.DecodeThreadPoolSize;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.DecodeThreadUtilization;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.InlineDecodeTasks;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonIOInfo.ParallelDecodeTasks;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test class for LlapDaemonIOMetrics.
+ */
+public class TestLlapDaemonIOMetrics {
+
+  @Test
+  public void testDecodeThreadMetrics() {
+    LlapDaemonIOMetrics metrics = LlapDaemonIOMetrics.create("TestDecodeThreadMetrics", "test",
+        new int[] { 1 });
+    Map<String, Long> data = new HashMap<>();
+    metrics.getMetrics(new DumpingMetricsCollector(data), true);
+    assertFalse(data.containsKey(DecodeThreadPoolSize.name()));
+
+    metrics.setDecodeThreadPoolSize(2);
+    metrics.addParallelDecodeTask(TimeUnit.HOURS.toNanos(1));
+    metrics.addParallelDecodeTask(TimeUnit.HOURS.toNanos(1));
+    metrics.incrInlineDecodeTasks();
+    metrics.getMetrics(new DumpingMetricsCollector(data), true);
+    assertEquals(2L, (long) data.get(DecodeThreadPoolSize.name()));
+    assertEquals(2L, (long) data.get(ParallelDecodeTasks.name()));
+    assertEquals(1L, (long) data.get(InlineDecodeTasks.name()));
+    // The busy time is capped at the elapsed time of all the threads.
+    assertEquals(100L, (long) data.get(DecodeThreadUtilization.name()));
+
+    metrics.getMetrics(new DumpingMetricsCollector(data), true);
+    assertEquals(0L, (long) data.get(DecodeThreadUtilization.name()));
+  }
+}
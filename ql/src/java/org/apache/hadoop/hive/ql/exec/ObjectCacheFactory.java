@@ -27,6 +27,7 @@
 import org.apache.hadoop.hive.llap.io.api.LlapProxy;
 import org.apache.hadoop.hive.llap.io.api.LlapProxy;
 import org.apache.hadoop.hive.ql.exec.tez.LlapObjectCache;
+import org.apache.hadoop.hive.ql.exec.tez.LlapSharedHashTableCache;
 
 /**
  * ObjectCacheFactory returns the appropriate cache depending on settings in
@@ -105,5 +106,6 @@ private static ObjectCache getLlapObjectCache(String queryId) {
   public static void removeLlapQueryCache(String queryId) {
     LOG.info("Removing object cache for " + queryId);
     llapQueryCaches.remove(queryId);
+    LlapSharedHashTableCache.releaseQuery(queryId);
   }
 }
@@ -21,6 +21,7 @@
 import com.google.common.base.Preconditions;
 import com.google.common.hash.Hashing;
 
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
 import org.apache.hadoop.hive.serde2.SerDeUtils;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
@@ -39,6 +40,8 @@
  *
  * TODO: Support for consistent hashing when combining the split location generator and the ServiceRegistry.
  *
+ * When the cache digests of the locations are known, a split is placed on the location that has
+ * the largest part of it cached instead, if that part is large enough.
  */
 public class HostAffinitySplitLocationProvider implements SplitLocationProvider {
 
@@ -48,11 +51,29 @@ public class HostAffinitySplitLocationProvider implements SplitLocationProvider
   @VisibleForTesting
   final List<String> locations;
 
+  private final List<LlapCacheDigest> cacheDigests;
+  private final double minCachedFraction;
+
   public HostAffinitySplitLocationProvider(List<String> knownLocations) {
+    this(knownLocations, null, 1);
+  }
+
+  /**
+   * @param cacheDigests the cache digests of the locations, in the same order; null elements for
+   *                     the locations without a digest.
+   * @param minCachedFraction the cached fraction of a split needed to place it on a location
+   *                          other than the one it hashes to.
+   */
+  public HostAffinitySplitLocationProvider(List<String> knownLocations,
+      List<LlapCacheDigest> cacheDigests, double minCachedFraction) {
     Preconditions.checkState(knownLocations != null && !knownLocations.isEmpty(),
         HostAffinitySplitLocationProvider.class.getName() +
             " needs at least 1 location to function");
+    Preconditions.checkArgument(cacheDigests == null || cacheDigests.size() == knownLocations.size(),
+        "Expected a cache digest for each location");
     this.locations = knownLocations;
+    this.cacheDigests = cacheDigests;
+    this.minCachedFraction = minCachedFraction;
   }
 
   @Override
@@ -64,11 +85,49 @@ public String[] getLocations(InputSplit split) throws IOException {
     FileSplit fsplit = (FileSplit) split;
     String splitDesc = "Split at " + fsplit.getPath() + " with offset= " + fsplit.getStart()
         + ", length=" + fsplit.getLength();
-    String location = locations.get(determineLocation(
-        locations, fsplit.getPath().toString(), fsplit.getStart(), splitDesc));
+    int index = determineLocation(
+        locations, fsplit.getPath().toString(), fsplit.getStart(), splitDesc);
+    if (cacheDigests != null) {
+      index = determineCachedLocation(index, fsplit.getPath().toUri().toString(),
+          fsplit.getStart(), fsplit.getLength(), splitDesc);
+    }
+    String location = locations.get(index);
     return (location != null) ? new String[] { location } : null;
   }
 
+  /**
+   * @return the index of the location with the largest cached fraction of the split, if that
+   *         fraction is at least the minimum and above the fraction cached at the hashed location;
+   *         the hashed location otherwise.
+   */
+  private int determineCachedLocation(
+      int hashedIndex, String path, long start, long length, String desc) {
+    double hashedFraction = getCachedFraction(hashedIndex, path, start, length);
+    int bestIndex = hashedIndex;
+    double bestFraction = hashedFraction;
+    for (int i = 0; i < locations.size(); ++i) {
+      if (i == hashedIndex || locations.get(i) == null) {
+        continue;
+      }
+      double fraction = getCachedFraction(i, path, start, length);
+      if (fraction > bestFraction) {
+        bestIndex = i;
+        bestFraction = fraction;
+      }
+    }
+    if (bestIndex == hashedIndex || bestFraction < minCachedFraction) {
+      return hashedIndex;
+    }
+    LOG.debug("{} mapped to cached index={}, location={}, fraction={}",
+        desc, bestIndex, locations.get(bestIndex), bestFraction);
+    return bestIndex;
+  }
+
+  private double getCachedFraction(int index, String path, long start, long length) {
+    LlapCacheDigest digest = cacheDigests.get(index);
+    return (digest == null) ? 0 : digest.getCachedFraction(path, start, length);
+  }
+
   @VisibleForTesting
   public static int determineLocation(
       List<String> locations, String path, long start, String desc) {
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.tez;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * LlapSharedHashTableCache. Daemon wide cache of map join small table hash tables, shared
+ * between queries that build the same hash table over the same snapshot of a table.
+ *
+ * Unlike {@link LlapObjectCache}, which lives as long as a single query, entries here outlive the
+ * query that built them. An entry is pinned while any query that acquired it is still running;
+ * only unpinned entries are evicted (least recently used first) to stay within the size limit.
+ * The caller is responsible for making the key include everything the hash table contents
+ * depend on, including the valid write ids of the scanned table.
+ */
+public class LlapSharedHashTableCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LlapSharedHashTableCache.class.getName());
+
+  private static volatile LlapSharedHashTableCache instance;
+
+  private static class Entry {
+    private final MapJoinTableContainer container;
+    private final long size;
+    private final Set<String> queryIds = new HashSet<>();
+
+    Entry(MapJoinTableContainer container, long size) {
+      this.container = container;
+      this.size = size;
+    }
+  }
+
+  // Access ordered, so iteration starts with the least recently used entry.
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final long maxSize;
+  private long currentSize;
+
+  @VisibleForTesting
+  LlapSharedHashTableCache(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public static LlapSharedHashTableCache getInstance(long maxSize) {
+    if (instance == null) {
+      synchronized (LlapSharedHashTableCache.class) {
+        if (instance == null) {
+          LOG.info("Creating shared hash table cache with max size {}", maxSize);
+          instance = new LlapSharedHashTableCache(maxSize);
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Releases all the hash tables pinned by the query. Called when the query completes.
+   */
+  public static void releaseQuery(String queryId) {
+    LlapSharedHashTableCache cache = instance;
+    if (cache != null) {
+      cache.release(queryId);
+    }
+  }
+
+  /**
+   * Returns the hash table cached for the key, pinning it for the query, or null if not cached.
+   */
+  public synchronized MapJoinTableContainer acquire(String key, String queryId) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.queryIds.add(queryId);
+    LOG.info("Reusing shared hash table {} for {}", key, queryId);
+    return entry.container;
+  }
+
+  /**
+   * Offers a freshly loaded hash table to the cache, pinning it for the query. If another
+   * fragment cached a hash table for the same key in the meantime, that one is returned instead.
+   * Hash tables that do not fit are not cached, and the offered container is returned.
+   */
+  public synchronized MapJoinTableContainer offer(String key, String queryId,
+      MapJoinTableContainer container, long size) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      entry.queryIds.add(queryId);
+      return entry.container;
+    }
+    if (!makeRoom(size)) {
+      LOG.info("Not caching shared hash table {} of size {}; cache size {} max size {}",
+          key, size, currentSize, maxSize);
+      return container;
+    }
+    entry = new Entry(container, size);
+    entry.queryIds.add(queryId);
+    entries.put(key, entry);
+    currentSize += size;
+    LOG.info("Cached shared hash table {} of size {} for {}", key, size, queryId);
+    return container;
+  }
+
+  public synchronized void release(String queryId) {
+    for (Entry entry : entries.values()) {
+      entry.queryIds.remove(queryId);
+    }
+  }
+
+  private boolean makeRoom(long size) {
+    if (size > maxSize) {
+      return false;
+    }
+    long evictable = 0;
+    for (Entry entry : entries.values()) {
+      if (entry.queryIds.isEmpty()) {
+        evictable += entry.size;
+      }
+    }
+    if (currentSize - evictable + size > maxSize) {
+      return false;
+    }
+    Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+    while (currentSize + size > maxSize && iter.hasNext()) {
+      Map.Entry<String, Entry> e = iter.next();
+      if (e.getValue().queryIds.isEmpty()) {
+        LOG.info("Evicting shared hash table {}", e.getKey());
+        currentSize -= e.getValue().size;
+        iter.remove();
+      }
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  synchronized long getCurrentSize() {
+    return currentSize;
+  }
+
+  @VisibleForTesting
+  synchronized int getEntryCount() {
+    return entries.size();
+  }
+}
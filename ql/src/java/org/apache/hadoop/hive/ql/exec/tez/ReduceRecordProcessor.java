@@ -271,7 +271,7 @@ private void initializeSourceForTag(ReduceWork redWork, int tag, ObjectInspector
     boolean vectorizedRecordSource = (tag == bigTablePosition) && redWork.getVectorMode();
     sources[tag].init(jconf, redWork.getReducer(), vectorizedRecordSource, keyTableDesc, valueTableDesc, reader,
         tag == bigTablePosition, (byte) tag, redWork.getVectorizedRowBatchCtx(), redWork.getVectorizedVertexNum(),
-        redWork.getVectorizedTestingReducerBatchSize());
+        redWork.getVectorizedTestingReducerBatchSize(), redWork.getIsColumnarBatchValues());
     ois[tag] = sources[tag].getObjectInspector();
   }
 
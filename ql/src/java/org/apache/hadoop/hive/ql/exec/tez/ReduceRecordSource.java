@@ -30,10 +30,12 @@
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnarBatchSerDe;
 import org.apache.hadoop.hive.ql.exec.vector.VectorDeserializeRow;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
+import org.apache.hadoop.hive.ql.io.NonSyncDataInputBuffer;
 import org.apache.hadoop.hive.ql.log.PerfLogger;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
@@ -97,6 +99,11 @@ public class ReduceRecordSource implements RecordSource {
 
   private VectorizedRowBatch batch;
 
+  // Set when each value is a whole batch written by VectorColumnarBatchSerDe.
+  private VectorColumnarBatchSerDe valueBatchSerDe;
+  private int[] valueBatchColumnMap;
+  private NonSyncDataInputBuffer valueBatchInput;
+
   // number of columns pertaining to keys in a vectorized row batch
   private int firstValueColumnOffset;
 
@@ -126,7 +133,7 @@ public class ReduceRecordSource implements RecordSource {
   void init(JobConf jconf, Operator<?> reducer, boolean vectorized, TableDesc keyTableDesc,
       TableDesc valueTableDesc, Reader reader, boolean handleGroupKey, byte tag,
       VectorizedRowBatchCtx batchContext, long vectorizedVertexNum,
-      int vectorizedTestingReducerBatchSize)
+      int vectorizedTestingReducerBatchSize, boolean isColumnarBatchValues)
       throws Exception {
 
     this.vectorizedVertexNum = vectorizedVertexNum;
@@ -212,6 +219,15 @@ void init(JobConf jconf, Operator<?> reducer, boolean vectorized, TableDesc keyT
                       /* useExternalBuffer */ true));
           valueLazyBinaryDeserializeToRow.init(firstValueColumnOffset);
 
+          if (isColumnarBatchValues) {
+            valueBatchSerDe = new VectorColumnarBatchSerDe();
+            valueBatchColumnMap = new int[valuesSize];
+            for (int i = 0; i < valuesSize; i++) {
+              valueBatchColumnMap[i] = firstValueColumnOffset + i;
+            }
+            valueBatchInput = new NonSyncDataInputBuffer();
+          }
+
           // Create data buffers for value bytes column vectors.
           for (int i = firstValueColumnOffset; i < batch.numCols; i++) {
             ColumnVector colVector = batch.cols[i];
@@ -444,6 +460,11 @@ private void processVectorGroup(BytesWritable keyWritable,
       VectorizedBatchUtil.setRepeatingColumn(batch, i);
     }
 
+    if (valueBatchSerDe != null) {
+      processColumnarBatchValues(values, tag);
+      return;
+    }
+
     final int maxSize =
         (vectorizedTestingReducerBatchSize > 0 ?
             Math.min(vectorizedTestingReducerBatchSize, batch.getMaxSize()) :
@@ -512,6 +533,38 @@ private void processVectorGroup(BytesWritable keyWritable,
     }
   }
 
+  /*
+   * Each value holds a whole batch, so it is deserialized straight into the value columns and
+   * forwarded as is.
+   */
+  private void processColumnarBatchValues(Iterable<Object> values, byte tag)
+      throws HiveException {
+    try {
+      Iterator<Object> iterator = values.iterator();
+      while (iterator.hasNext()) {
+        BytesWritable valueWritable = (BytesWritable) iterator.next();
+        valueBatchInput.reset(valueWritable.getBytes(), 0, valueWritable.getLength());
+        valueBatchSerDe.deserialize(valueBatchInput, batch, valueBatchColumnMap);
+        if (batch.size == 0) {
+          continue;
+        }
+        if (handleGroupKey) {
+          reducer.setNextVectorBatchGroupStatus(/* isLastGroupBatch */ !iterator.hasNext());
+        }
+        reducer.process(batch, tag);
+        batch.selectedInUse = false;
+        batch.size = 0;
+        batch.endOfFile = false;
+      }
+      batch.reset();
+    } catch (Exception e) {
+      l4j.error("Hive Runtime Error while processing vector batch (tag=" + tag
+          + ") (vectorizedVertexNum " + vectorizedVertexNum + ")", e);
+      throw new HiveException("Hive Runtime Error while processing vector batch (tag="
+          + tag + ") (vectorizedVertexNum " + vectorizedVertexNum + ")", e);
+    }
+  }
+
   boolean close() throws Exception {
     try {
       if (handleGroupKey && groupKey != null) {
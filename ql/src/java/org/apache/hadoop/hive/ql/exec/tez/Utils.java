@@ -26,6 +26,7 @@
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
 import org.apache.hadoop.hive.llap.registry.LlapServiceInstance;
 import org.apache.hadoop.hive.llap.registry.impl.LlapRegistryService;
 import org.apache.hadoop.hive.metastore.api.MetaException;
@@ -74,7 +75,7 @@ public static SplitLocationProvider getSplitLocationProvider(Configuration conf,
       return locationProviderImpl;
     } else if (useCustomLocations) {
       LlapRegistryService serviceRegistry = LlapRegistryService.getClient(conf);
-      return getCustomSplitLocationProvider(serviceRegistry, LOG);
+      return getCustomSplitLocationProvider(serviceRegistry, conf, LOG);
     } else {
       splitLocationProvider = new SplitLocationProvider() {
         @Override
@@ -98,6 +99,12 @@ public String[] getLocations(InputSplit split) throws IOException {
   @VisibleForTesting
   static SplitLocationProvider getCustomSplitLocationProvider(LlapRegistryService serviceRegistry, Logger LOG) throws
       IOException {
+    return getCustomSplitLocationProvider(serviceRegistry, null, LOG);
+  }
+
+  @VisibleForTesting
+  static SplitLocationProvider getCustomSplitLocationProvider(LlapRegistryService serviceRegistry,
+      Configuration conf, Logger LOG) throws IOException {
     LOG.info("Using LLAP instance " + serviceRegistry.getApplicationId());
 
     Collection<LlapServiceInstance> serviceInstances =
@@ -105,7 +112,14 @@ static SplitLocationProvider getCustomSplitLocationProvider(LlapRegistryService
     Preconditions.checkArgument(!serviceInstances.isEmpty(),
         "No running LLAP daemons! Please check LLAP service status and zookeeper configuration");
     ArrayList<String> locations = new ArrayList<>(serviceInstances.size());
+    boolean isCacheAware = conf != null
+        && HiveConf.getBoolVar(conf, HiveConf.ConfVars.LLAP_CLIENT_CACHE_AWARE_SPLITS);
+    ArrayList<LlapCacheDigest> cacheDigests = isCacheAware ? new ArrayList<>(serviceInstances.size()) : null;
     for (LlapServiceInstance serviceInstance : serviceInstances) {
+      if (cacheDigests != null) {
+        cacheDigests.add(LlapCacheDigest.deserialize(
+            serviceInstance.getProperties().get(LlapCacheDigest.REGISTRY_ATTRIBUTE)));
+      }
       String executors =
           serviceInstance.getProperties().get(LlapRegistryService.LLAP_DAEMON_NUM_ENABLED_EXECUTORS);
       if (executors != null && Integer.parseInt(executors) == 0) {
@@ -123,6 +137,10 @@ static SplitLocationProvider getCustomSplitLocationProvider(LlapRegistryService
         }
       }
     }
+    if (cacheDigests != null) {
+      return new HostAffinitySplitLocationProvider(locations, cacheDigests,
+          HiveConf.getFloatVar(conf, HiveConf.ConfVars.LLAP_CLIENT_CACHE_AWARE_SPLITS_MIN_FRACTION));
+    }
     return new HostAffinitySplitLocationProvider(locations);
   }
 
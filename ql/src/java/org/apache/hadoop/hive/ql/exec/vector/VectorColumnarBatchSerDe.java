@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+
+/**
+ * Serializes the columns of a VectorizedRowBatch column by column, instead of row by row like
+ * VectorSerializeRow, so a batch can be written to and read back from a stream without going
+ * through a per row (and per field) serialization.
+ *
+ * For each column the isRepeating and noNulls flags are written, followed by the isNull flags
+ * (only when there are nulls) and the values of the non-null rows. A repeating column is written
+ * as a single row. Only the column vector types for which isSupported returns true can be
+ * serialized; the column vector types of the written and the read batch must be the same.
+ */
+public class VectorColumnarBatchSerDe {
+
+  private byte[] bytesScratch = new byte[256];
+
+  public static boolean isSupported(ColumnVector.Type type) {
+    switch (type) {
+    case LONG:
+    case DOUBLE:
+    case BYTES:
+    case DECIMAL:
+    case TIMESTAMP:
+    case INTERVAL_DAY_TIME:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  public static boolean isSupported(VectorizedRowBatch batch, int[] columnMap) {
+    for (int columnNum : columnMap) {
+      if (!isSupported(batch.cols[columnNum].type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the batch size and the columns of the columnMap.
+   */
+  public void serialize(DataOutput out, VectorizedRowBatch batch, int[] columnMap)
+      throws IOException {
+    final int size = batch.size;
+    out.writeInt(size);
+    for (int columnNum : columnMap) {
+      serializeColumn(out, batch.cols[columnNum], batch.selectedInUse, batch.selected, size);
+    }
+  }
+
+  /**
+   * Reads a batch written by serialize into the columns of the columnMap, and sets the batch size.
+   * A batch larger than the read batch grows it, including its selected array and the columns
+   * outside of the columnMap, so that the operators processing it can use all of its rows.
+   */
+  public void deserialize(DataInput in, VectorizedRowBatch batch, int[] columnMap)
+      throws IOException {
+    final int size = in.readInt();
+    if (size > batch.getMaxSize()) {
+      batch.updateSelected(size);
+      for (ColumnVector colVector : batch.cols) {
+        if (colVector != null) {
+          colVector.ensureSize(size, true);
+        }
+      }
+    }
+    for (int columnNum : columnMap) {
+      deserializeColumn(in, batch.cols[columnNum], size);
+    }
+    batch.size = size;
+    batch.selectedInUse = false;
+  }
+
+  private void serializeColumn(DataOutput out, ColumnVector colVector, boolean selectedInUse,
+      int[] selected, int size) throws IOException {
+    final boolean isRepeating = colVector.isRepeating;
+    final int count = isRepeating ? 1 : size;
+
+    boolean noNulls = true;
+    if (!colVector.noNulls) {
+      for (int i = 0; i < count; i++) {
+        final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+        if (colVector.isNull[row]) {
+          noNulls = false;
+          break;
+        }
+      }
+    }
+    out.writeBoolean(isRepeating);
+    out.writeBoolean(noNulls);
+    if (!noNulls) {
+      for (int i = 0; i < count; i++) {
+        final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+        out.writeBoolean(colVector.isNull[row]);
+      }
+    }
+
+    switch (colVector.type) {
+    case LONG:
+      {
+        final long[] vector = ((LongColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            out.writeLong(vector[row]);
+          }
+        }
+      }
+      break;
+    case DOUBLE:
+      {
+        final double[] vector = ((DoubleColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            out.writeDouble(vector[row]);
+          }
+        }
+      }
+      break;
+    case BYTES:
+      {
+        final BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            out.writeInt(bytesColVector.length[row]);
+            out.write(bytesColVector.vector[row], bytesColVector.start[row],
+                bytesColVector.length[row]);
+          }
+        }
+      }
+      break;
+    case DECIMAL:
+      {
+        final HiveDecimalWritable[] vector = ((DecimalColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            final HiveDecimalWritable writable = vector[row];
+            final int length = writable.bigIntegerBytesInternalScratch();
+            out.writeInt(writable.scale());
+            out.writeInt(length);
+            out.write(writable.bigIntegerBytesInternalScratchBuffer(), 0, length);
+          }
+        }
+      }
+      break;
+    case TIMESTAMP:
+      {
+        final TimestampColumnVector timestampColVector = (TimestampColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            out.writeLong(timestampColVector.time[row]);
+            out.writeInt(timestampColVector.nanos[row]);
+          }
+        }
+      }
+      break;
+    case INTERVAL_DAY_TIME:
+      {
+        final IntervalDayTimeColumnVector intervalColVector =
+            (IntervalDayTimeColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          final int row = (selectedInUse && !isRepeating ? selected[i] : i);
+          if (noNulls || !colVector.isNull[row]) {
+            out.writeLong(intervalColVector.getTotalSeconds(row));
+            out.writeInt((int) intervalColVector.getNanos(row));
+          }
+        }
+      }
+      break;
+    default:
+      throw new IOException("Unexpected column vector type " + colVector.type);
+    }
+  }
+
+  private void deserializeColumn(DataInput in, ColumnVector colVector, int size)
+      throws IOException {
+    final boolean isRepeating = in.readBoolean();
+    final boolean noNulls = in.readBoolean();
+    final int count = isRepeating ? 1 : size;
+    colVector.ensureSize(count, false);
+
+    final boolean[] isNull = colVector.isNull;
+    if (!noNulls) {
+      for (int i = 0; i < count; i++) {
+        isNull[i] = in.readBoolean();
+      }
+    } else if (!colVector.noNulls) {
+      // Some readers check isNull without checking noNulls.
+      Arrays.fill(isNull, 0, count, false);
+    }
+    colVector.isRepeating = isRepeating;
+    colVector.noNulls = noNulls;
+
+    switch (colVector.type) {
+    case LONG:
+      {
+        final long[] vector = ((LongColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            vector[i] = in.readLong();
+          }
+        }
+      }
+      break;
+    case DOUBLE:
+      {
+        final double[] vector = ((DoubleColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            vector[i] = in.readDouble();
+          }
+        }
+      }
+      break;
+    case BYTES:
+      {
+        final BytesColumnVector bytesColVector = (BytesColumnVector) colVector;
+        bytesColVector.initBuffer();
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            final int length = in.readInt();
+            final byte[] bytes = readBytes(in, length);
+            bytesColVector.setVal(i, bytes, 0, length);
+          }
+        }
+      }
+      break;
+    case DECIMAL:
+      {
+        final HiveDecimalWritable[] vector = ((DecimalColumnVector) colVector).vector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            final int scale = in.readInt();
+            final int length = in.readInt();
+            final byte[] bytes = readBytes(in, length);
+            vector[i].setFromBigIntegerBytesAndScale(bytes, 0, length, scale);
+          }
+        }
+      }
+      break;
+    case TIMESTAMP:
+      {
+        final TimestampColumnVector timestampColVector = (TimestampColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            timestampColVector.time[i] = in.readLong();
+            timestampColVector.nanos[i] = in.readInt();
+          }
+        }
+      }
+      break;
+    case INTERVAL_DAY_TIME:
+      {
+        final IntervalDayTimeColumnVector intervalColVector =
+            (IntervalDayTimeColumnVector) colVector;
+        for (int i = 0; i < count; i++) {
+          if (noNulls || !isNull[i]) {
+            final long totalSeconds = in.readLong();
+            final int nanos = in.readInt();
+            intervalColVector.getScratchIntervalDayTime().set(totalSeconds, nanos);
+            intervalColVector.setFromScratchIntervalDayTime(i);
+          }
+        }
+      }
+      break;
+    default:
+      throw new IOException("Unexpected column vector type " + colVector.type);
+    }
+  }
+
+  private byte[] readBytes(DataInput in, int length) throws IOException {
+    if (bytesScratch.length < length) {
+      bytesScratch = new byte[Math.max(length, bytesScratch.length * 2)];
+    }
+    in.readFully(bytesScratch, 0, length);
+    return bytesScratch;
+  }
+}
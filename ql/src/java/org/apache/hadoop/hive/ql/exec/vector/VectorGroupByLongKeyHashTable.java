@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.common.MemoryEstimate;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hive.common.util.HashCodeUtil;
+
+/**
+ * Open addressing (linear probing) hash table that maps a single long key to a dense group
+ * number, used by the vectorized GROUP BY hash mode instead of a HashMap of key wrappers.
+ *
+ * Keys and group numbers live in primitive arrays, so there is no per key object and a lookup
+ * touches at most a couple of cache lines. Group numbers are handed out in insertion order
+ * starting at 0, so the caller can keep the aggregation state of each group in primitive arrays
+ * indexed by group number. The NULL key gets its own group.
+ */
+public class VectorGroupByLongKeyHashTable implements MemoryEstimate {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  // Grow when more than half of the slots are used.
+  private static final int LOAD_FACTOR_SHIFT = 1;
+
+  private long[] slotKeys;
+
+  // Group number + 1 for each slot; 0 means the slot is empty.
+  private int[] slotGroups;
+
+  private int slotMask;
+  private int resizeThreshold;
+
+  // The key of each group, indexed by group number.
+  private long[] groupKeys;
+  private int groupCount;
+  private int nullKeyGroup;
+
+  public VectorGroupByLongKeyHashTable() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public VectorGroupByLongKeyHashTable(int initialCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+    allocate(capacity);
+    groupKeys = new long[capacity >>> LOAD_FACTOR_SHIFT];
+    groupCount = 0;
+    nullKeyGroup = -1;
+  }
+
+  private void allocate(int capacity) {
+    slotKeys = new long[capacity];
+    slotGroups = new int[capacity];
+    slotMask = capacity - 1;
+    resizeThreshold = capacity >>> LOAD_FACTOR_SHIFT;
+  }
+
+  /**
+   * @return the group number of the key, adding a new group when the key is not present.
+   */
+  public int findOrInsert(long key) {
+    int slot = HashCodeUtil.calculateLongHashCode(key) & slotMask;
+    while (true) {
+      final int groupPlusOne = slotGroups[slot];
+      if (groupPlusOne == 0) {
+        break;
+      }
+      if (slotKeys[slot] == key) {
+        return groupPlusOne - 1;
+      }
+      slot = (slot + 1) & slotMask;
+    }
+
+    final int group = newGroup(key);
+    slotKeys[slot] = key;
+    slotGroups[slot] = group + 1;
+    if (groupCount - (nullKeyGroup >= 0 ? 1 : 0) > resizeThreshold) {
+      expand();
+    }
+    return group;
+  }
+
+  /**
+   * @return the group number of the NULL key, adding it when not present.
+   */
+  public int findOrInsertNull() {
+    if (nullKeyGroup < 0) {
+      nullKeyGroup = newGroup(0);
+    }
+    return nullKeyGroup;
+  }
+
+  private int newGroup(long key) {
+    if (groupCount == groupKeys.length) {
+      groupKeys = Arrays.copyOf(groupKeys, groupKeys.length * 2);
+    }
+    groupKeys[groupCount] = key;
+    return groupCount++;
+  }
+
+  private void expand() {
+    final long[] oldSlotKeys = slotKeys;
+    final int[] oldSlotGroups = slotGroups;
+    allocate(oldSlotKeys.length * 2);
+    for (int i = 0; i < oldSlotKeys.length; i++) {
+      final int groupPlusOne = oldSlotGroups[i];
+      if (groupPlusOne == 0) {
+        continue;
+      }
+      final long key = oldSlotKeys[i];
+      int slot = HashCodeUtil.calculateLongHashCode(key) & slotMask;
+      while (slotGroups[slot] != 0) {
+        slot = (slot + 1) & slotMask;
+      }
+      slotKeys[slot] = key;
+      slotGroups[slot] = groupPlusOne;
+    }
+  }
+
+  public int getGroupCount() {
+    return groupCount;
+  }
+
+  public long getKey(int group) {
+    return groupKeys[group];
+  }
+
+  public boolean isNullKey(int group) {
+    return group == nullKeyGroup;
+  }
+
+  /**
+   * Removes all the groups. The slot arrays are kept (and cleared), since a table that was
+   * flushed because it filled up is likely to fill up again.
+   */
+  public void clear() {
+    Arrays.fill(slotGroups, 0);
+    groupCount = 0;
+    nullKeyGroup = -1;
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    return jdm.object() + jdm.lengthForLongArrayOfSize(slotKeys.length)
+        + jdm.lengthForIntArrayOfSize(slotGroups.length)
+        + jdm.lengthForLongArrayOfSize(groupKeys.length) + 5 * jdm.primitive1();
+  }
+}
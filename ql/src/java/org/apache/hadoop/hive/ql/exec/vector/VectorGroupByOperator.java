@@ -49,6 +49,12 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpressionWriterFactory;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorAggregateExpression;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFBloomFilterMerge;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCount;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCountMerge;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.VectorUDAFCountStar;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMaxLong;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFMinLong;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.aggregates.gen.VectorUDAFSumLong;
 import org.apache.hadoop.hive.ql.exec.vector.wrapper.VectorHashKeyWrapperBase;
 import org.apache.hadoop.hive.ql.exec.vector.wrapper.VectorHashKeyWrapperBatch;
 import org.apache.hadoop.hive.ql.exec.vector.wrapper.VectorHashKeyWrapperGeneral;
@@ -161,6 +167,26 @@ public class VectorGroupByOperator extends Operator<GroupByDesc>
   // tracks overall access count in map agg buffer any given time.
   private long totalAccessCount;
 
+  /**
+   * Counters recording when and why the hash aggregation switched to streaming.
+   */
+  public static enum HashAggrCounter {
+    // Switched after the sampled first batches showed too little reduction.
+    HASH_AGGR_BYPASS_AFTER_SAMPLE,
+    // Switched by the periodic check every hive.groupby.mapaggr.checkinterval rows.
+    HASH_AGGR_BYPASS_AFTER_CHECK,
+    // Input rows hashed before switching.
+    HASH_AGGR_BYPASS_ROWS_HASHED
+  }
+
+  private transient String counterGroup;
+
+  /**
+   * Number of input rows the hash aggregation modes sample before deciding whether hashing
+   * pays off; 0 when the early check is disabled.
+   */
+  private transient long bypassSampleRows;
+
   /**
    * Interface for processing mode: global, hash, unsorted streaming, or group batch
    */
@@ -216,7 +242,7 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
 
       if (this instanceof ProcessingModeHashAggregate) {
         // Check if we should turn into streaming mode
-        ((ProcessingModeHashAggregate)this).checkHashModeEfficiency();
+        ((ProcessingModeHashAggregate)this).checkHashModeEfficiency(batch.size);
       }
     }
 
@@ -348,6 +374,13 @@ final class ProcessingModeHashAggregate extends ProcessingModeBase {
      */
     private long sumBatchSize;
 
+    /**
+     * Number of input rows, not counting the grouping sets expansion.
+     */
+    private long numInputRows;
+
+    private boolean bypassSampleChecked;
+
     /**
      * Max number of entries in the vector group by aggregation hashtables.
      * Exceeding this will trigger a flush irrelevant of memory pressure condition.
@@ -622,15 +655,7 @@ private void computeMemoryLimits() {
           keyWrappersBatch.getKeysFixedSize() +
           aggregationBatchInfo.getAggregatorsFixedSize();
 
-      MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
-      maxMemory = isLlap ? getConf().getMaxMemoryAvailable() : memoryMXBean.getHeapMemoryUsage().getMax();
-      memoryThreshold = conf.getMemoryThreshold();
-      // Tests may leave this unitialized, so better set it to 1
-      if (memoryThreshold == 0.0f) {
-        memoryThreshold = 1.0f;
-      }
-
-      maxHashTblMemory = (int)(maxMemory * memoryThreshold);
+      computeMaxHashTblMemory();
 
       if (LOG.isDebugEnabled()) {
         LOG.debug("GBY memory limits - isLlap: {} maxMemory: {} ({} * {}) fixSize:{} (key:{} agg:{})",
@@ -775,7 +800,19 @@ private void updateAvgVariableSize(VectorizedRowBatch batch) {
      * Checks if the HT reduces the number of entries by at least minReductionHashAggr factor
      * @throws HiveException
      */
-    private void checkHashModeEfficiency() throws HiveException {
+    private void checkHashModeEfficiency(int batchSize) throws HiveException {
+      numInputRows += batchSize;
+      if (!bypassSampleChecked && bypassSampleRows > 0 && numInputRows >= bypassSampleRows) {
+        // Decide once, on the first batches, whether hashing pays off at all.
+        bypassSampleChecked = true;
+        final long outputRecords = numEntriesHashTable + numFlushedOutEntriesBeforeFinalFlush;
+        if (isReductionTooLow(sumBatchSize, outputRecords, minReductionHashAggr)) {
+          flush(true);
+          bypassHashAggregation(HashAggrCounter.HASH_AGGR_BYPASS_AFTER_SAMPLE, sumBatchSize,
+              outputRecords);
+          return;
+        }
+      }
       if (lastModeCheckRowCount > numRowsCompareHashAggr) {
         lastModeCheckRowCount = 0;
         if (LOG.isDebugEnabled()) {
@@ -789,15 +826,462 @@ private void checkHashModeEfficiency() throws HiveException {
          */
         final long inputRecords = sumBatchSize;
         final long outputRecords = numEntriesHashTable + numFlushedOutEntriesBeforeFinalFlush;
-        final float ratio = (outputRecords) / (inputRecords * 1.0f);
-        if (ratio > minReductionHashAggr) {
+        if (isReductionTooLow(inputRecords, outputRecords, minReductionHashAggr)) {
           if (inputRecords > maxHtEntries) { // Don't bail out too soon.
             flush(true);
-            changeToStreamingMode();
+            bypassHashAggregation(HashAggrCounter.HASH_AGGR_BYPASS_AFTER_CHECK, inputRecords,
+                outputRecords);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Hash Aggregate mode processing for a single long family key (no grouping sets, no
+   * DISTINCT) where all the aggregates are COUNT, SUM, MIN or MAX over long family columns.
+   *
+   * Instead of a HashMap of key wrappers to aggregation buffer objects, keys are mapped to dense
+   * group numbers by an open addressing primitive hash table and the aggregation state of each
+   * aggregate is kept in a primitive array indexed by group number. Each batch is processed a
+   * column at a time: first the group numbers of all the rows are looked up, then each aggregate
+   * is applied to its input column in a tight loop.
+   */
+  final class ProcessingModeHashAggregateLongKey extends ProcessingModeBase {
+
+    private VectorGroupByLongKeyHashTable hashTable;
+
+    private LongKeyAggregation[] longKeyAggregations;
+
+    // The group number of each row in the current batch, indexed by logical row.
+    private int[] groupNumbers;
+
+    private int maxHtEntries;
+    private long numRowsCompareHashAggr;
+    private float minReductionHashAggr;
+
+    private long sumBatchSize;
+    private long lastModeCheckRowCount;
+    private long numFlushedOutEntries;
+    private boolean bypassSampleChecked;
+
+    /**
+     * A soft reference used to detect memory pressure
+     */
+    private SoftReference<Object> gcCanary = new SoftReference<Object>(new Object());
+
+    @Override
+    public void initialize(Configuration hconf) throws HiveException {
+      // hconf is null in unit testing
+      if (null != hconf) {
+        this.maxHtEntries = HiveConf.getIntVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_MAXENTRIES);
+        this.numRowsCompareHashAggr = HiveConf.getIntVar(hconf,
+          HiveConf.ConfVars.HIVEGROUPBYMAPINTERVAL);
+      } else {
+        this.maxHtEntries =
+            HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_MAXENTRIES.defaultIntVal;
+        this.numRowsCompareHashAggr =
+            HiveConf.ConfVars.HIVEGROUPBYMAPINTERVAL.defaultIntVal;
+      }
+      minReductionHashAggr = getConf().getMinReductionHashAggr();
+
+      hashTable = new VectorGroupByLongKeyHashTable();
+      longKeyAggregations = new LongKeyAggregation[aggregators.length];
+      for (int i = 0; i < aggregators.length; i++) {
+        longKeyAggregations[i] = new LongKeyAggregation(aggregators[i]);
+      }
+      groupNumbers = new int[VectorizedRowBatch.DEFAULT_SIZE];
+
+      computeMaxHashTblMemory();
+      LOG.info("using long key hash aggregation processing mode");
+    }
+
+    @Override
+    public void doProcessBatch(VectorizedRowBatch batch, boolean isFirstGroupingSet,
+        boolean[] currentGroupingSetsOverrideIsNulls) throws HiveException {
+
+      keyExpressions[0].evaluate(batch);
+      LongColumnVector keyColVector =
+          (LongColumnVector) batch.cols[keyExpressions[0].getOutputColumnNum()];
+
+      final int size = batch.size;
+      if (groupNumbers.length < size) {
+        groupNumbers = new int[size];
+      }
+      lookupGroupNumbers(batch, keyColVector, size);
+
+      final int groupCount = hashTable.getGroupCount();
+      for (LongKeyAggregation longKeyAggregation : longKeyAggregations) {
+        longKeyAggregation.aggregate(batch, groupNumbers, groupCount);
+      }
+
+      sumBatchSize += size;
+      lastModeCheckRowCount += size;
+
+      if (shouldFlush()) {
+        numFlushedOutEntries += hashTable.getGroupCount();
+        flush();
+      }
+      checkHashModeEfficiency();
+    }
+
+    private void lookupGroupNumbers(VectorizedRowBatch batch, LongColumnVector keyColVector,
+        int size) {
+      final int[] groupNumbers = this.groupNumbers;
+      if (keyColVector.isRepeating) {
+        final int groupNumber = (keyColVector.noNulls || !keyColVector.isNull[0]) ?
+            hashTable.findOrInsert(keyColVector.vector[0]) : hashTable.findOrInsertNull();
+        Arrays.fill(groupNumbers, 0, size, groupNumber);
+        return;
+      }
+
+      final long[] vector = keyColVector.vector;
+      final boolean selectedInUse = batch.selectedInUse;
+      final int[] selected = batch.selected;
+      if (keyColVector.noNulls) {
+        if (selectedInUse) {
+          for (int logical = 0; logical < size; logical++) {
+            groupNumbers[logical] = hashTable.findOrInsert(vector[selected[logical]]);
+          }
+        } else {
+          for (int logical = 0; logical < size; logical++) {
+            groupNumbers[logical] = hashTable.findOrInsert(vector[logical]);
+          }
+        }
+      } else {
+        final boolean[] isNull = keyColVector.isNull;
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          groupNumbers[logical] = isNull[batchIndex] ?
+              hashTable.findOrInsertNull() : hashTable.findOrInsert(vector[batchIndex]);
+        }
+      }
+    }
+
+    private long getEstimatedMemorySize() {
+      long size = hashTable.getEstimatedMemorySize();
+      for (LongKeyAggregation longKeyAggregation : longKeyAggregations) {
+        size += longKeyAggregation.getEstimatedMemorySize();
+      }
+      return size;
+    }
+
+    /**
+     * Returns true if the memory threshold for the hash table was reached.
+     */
+    private boolean shouldFlush() {
+      final int groupCount = hashTable.getGroupCount();
+      if (groupCount == 0) {
+        return false;
+      }
+      final long currMemUsed = getEstimatedMemorySize();
+      // Protect against low maxHtEntries setting: if memory usage is below 30% avoid flushing
+      if ((groupCount > maxHtEntries && currMemUsed > 0.3 * maxHashTblMemory) ||
+          currMemUsed > maxHashTblMemory) {
+        return true;
+      }
+      return gcCanary.get() == null;
+    }
+
+    /**
+     * Emits all the groups straight from the primitive arrays into the output batch, and
+     * clears the hash table.
+     */
+    private void flush() throws HiveException {
+      final int groupCount = hashTable.getGroupCount();
+      LOG.debug("Flushing {} groups from the long key hash table", groupCount);
+
+      final LongColumnVector keyOutColVector = (LongColumnVector) outputBatch.cols[0];
+      for (int group = 0; group < groupCount; group++) {
+        final int batchIndex = outputBatch.size;
+        if (hashTable.isNullKey(group)) {
+          keyOutColVector.isNull[batchIndex] = true;
+          keyOutColVector.noNulls = false;
+        } else {
+          keyOutColVector.isNull[batchIndex] = false;
+          keyOutColVector.vector[batchIndex] = hashTable.getKey(group);
+        }
+        for (int i = 0; i < longKeyAggregations.length; i++) {
+          longKeyAggregations[i].assignRowColumn(
+              (LongColumnVector) outputBatch.cols[outputKeyLength + i], batchIndex, group);
+        }
+        ++outputBatch.size;
+        if (outputBatch.size == VectorizedRowBatch.DEFAULT_SIZE) {
+          flushOutput();
+        }
+      }
+
+      hashTable.clear();
+      for (LongKeyAggregation longKeyAggregation : longKeyAggregations) {
+        longKeyAggregation.clear();
+      }
+      if (gcCanary.get() == null) {
+        gcCanary = new SoftReference<Object>(new Object());
+      }
+    }
+
+    /**
+     * Checks if the HT reduces the number of entries by at least minReductionHashAggr factor
+     * @throws HiveException
+     */
+    private void checkHashModeEfficiency() throws HiveException {
+      final long outputRecords = hashTable.getGroupCount() + numFlushedOutEntries;
+      if (!bypassSampleChecked && bypassSampleRows > 0 && sumBatchSize >= bypassSampleRows) {
+        bypassSampleChecked = true;
+        if (isReductionTooLow(sumBatchSize, outputRecords, minReductionHashAggr)) {
+          flush();
+          bypassHashAggregation(HashAggrCounter.HASH_AGGR_BYPASS_AFTER_SAMPLE, sumBatchSize,
+              outputRecords);
+          return;
+        }
+      }
+      if (lastModeCheckRowCount > numRowsCompareHashAggr) {
+        lastModeCheckRowCount = 0;
+        if (isReductionTooLow(sumBatchSize, outputRecords, minReductionHashAggr)
+            && sumBatchSize > maxHtEntries) {
+          flush();
+          bypassHashAggregation(HashAggrCounter.HASH_AGGR_BYPASS_AFTER_CHECK, sumBatchSize,
+              outputRecords);
+        }
+      }
+    }
+
+    @VisibleForTesting
+    VectorGroupByLongKeyHashTable getHashTable() {
+      return hashTable;
+    }
+
+    @Override
+    public void close(boolean aborted) throws HiveException {
+      if (!aborted) {
+        flush();
+      }
+    }
+  }
+
+  /**
+   * The per group state of one aggregate of ProcessingModeHashAggregateLongKey, kept in
+   * primitive arrays indexed by group number.
+   */
+  private static final class LongKeyAggregation {
+
+    private enum Kind {
+      COUNT_STAR,
+      COUNT,
+      COUNT_MERGE,
+      SUM,
+      MIN,
+      MAX
+    }
+
+    private final Kind kind;
+    private final VectorExpression inputExpression;
+
+    private long[] values;
+
+    // Whether a group has seen a non-NULL value; only used for SUM, MIN and MAX.
+    private boolean[] hasValue;
+
+    // The number of groups whose state has been reset, i.e. is valid in the arrays.
+    private int initializedCount;
+
+    LongKeyAggregation(VectorAggregateExpression aggregator) {
+      kind = getKind(aggregator);
+      inputExpression = aggregator.getInputExpression();
+      values = new long[VectorizedRowBatch.DEFAULT_SIZE];
+      if (kind == Kind.SUM || kind == Kind.MIN || kind == Kind.MAX) {
+        hasValue = new boolean[VectorizedRowBatch.DEFAULT_SIZE];
+      }
+    }
+
+    private static Kind getKind(VectorAggregateExpression aggregator) {
+      if (aggregator instanceof VectorUDAFCountStar) {
+        return Kind.COUNT_STAR;
+      } else if (aggregator instanceof VectorUDAFCount) {
+        return Kind.COUNT;
+      } else if (aggregator instanceof VectorUDAFCountMerge) {
+        return Kind.COUNT_MERGE;
+      } else if (aggregator instanceof VectorUDAFSumLong) {
+        return Kind.SUM;
+      } else if (aggregator instanceof VectorUDAFMinLong) {
+        return Kind.MIN;
+      } else if (aggregator instanceof VectorUDAFMaxLong) {
+        return Kind.MAX;
+      }
+      return null;
+    }
+
+    static boolean isSupported(VectorAggregateExpression aggregator) {
+      return getKind(aggregator) != null;
+    }
+
+    /**
+     * Resets the state of the groups added since the last call, growing the arrays as needed.
+     */
+    private void ensureGroups(int groupCount) {
+      if (groupCount > values.length) {
+        final int newLength = Math.max(groupCount, values.length * 2);
+        values = Arrays.copyOf(values, newLength);
+        if (hasValue != null) {
+          hasValue = Arrays.copyOf(hasValue, newLength);
+        }
+      }
+      Arrays.fill(values, initializedCount, groupCount, 0);
+      if (hasValue != null) {
+        Arrays.fill(hasValue, initializedCount, groupCount, false);
+      }
+      initializedCount = groupCount;
+    }
+
+    void aggregate(VectorizedRowBatch batch, int[] groupNumbers, int groupCount)
+        throws HiveException {
+      ensureGroups(groupCount);
+
+      final int size = batch.size;
+      final long[] values = this.values;
+      if (kind == Kind.COUNT_STAR) {
+        for (int logical = 0; logical < size; logical++) {
+          values[groupNumbers[logical]]++;
+        }
+        return;
+      }
+
+      inputExpression.evaluate(batch);
+      ColumnVector inputColVector = batch.cols[inputExpression.getOutputColumnNum()];
+
+      if (inputColVector.isRepeating) {
+        if (!inputColVector.noNulls && inputColVector.isNull[0]) {
+          return;
+        }
+        final long value =
+            (kind == Kind.COUNT) ? 0 : ((LongColumnVector) inputColVector).vector[0];
+        for (int logical = 0; logical < size; logical++) {
+          aggregateValue(groupNumbers[logical], value);
+        }
+        return;
+      }
+
+      final boolean selectedInUse = batch.selectedInUse;
+      final int[] selected = batch.selected;
+      final boolean noNulls = inputColVector.noNulls;
+      final boolean[] isNull = inputColVector.isNull;
+
+      if (kind == Kind.COUNT) {
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          if (noNulls || !isNull[batchIndex]) {
+            values[groupNumbers[logical]]++;
           }
         }
+        return;
+      }
+
+      final long[] vector = ((LongColumnVector) inputColVector).vector;
+      switch (kind) {
+      case COUNT_MERGE:
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          if (noNulls || !isNull[batchIndex]) {
+            values[groupNumbers[logical]] += vector[batchIndex];
+          }
+        }
+        break;
+      case SUM:
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          if (noNulls || !isNull[batchIndex]) {
+            final int group = groupNumbers[logical];
+            values[group] += vector[batchIndex];
+            hasValue[group] = true;
+          }
+        }
+        break;
+      case MIN:
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          if (noNulls || !isNull[batchIndex]) {
+            final int group = groupNumbers[logical];
+            final long value = vector[batchIndex];
+            if (!hasValue[group] || value < values[group]) {
+              values[group] = value;
+              hasValue[group] = true;
+            }
+          }
+        }
+        break;
+      case MAX:
+        for (int logical = 0; logical < size; logical++) {
+          final int batchIndex = selectedInUse ? selected[logical] : logical;
+          if (noNulls || !isNull[batchIndex]) {
+            final int group = groupNumbers[logical];
+            final long value = vector[batchIndex];
+            if (!hasValue[group] || value > values[group]) {
+              values[group] = value;
+              hasValue[group] = true;
+            }
+          }
+        }
+        break;
+      default:
+        throw new HiveException("Unexpected aggregation kind " + kind);
       }
     }
+
+    /**
+     * Aggregates one value into a group; used for repeating input columns.
+     */
+    private void aggregateValue(int group, long value) {
+      switch (kind) {
+      case COUNT:
+        values[group]++;
+        break;
+      case COUNT_MERGE:
+        values[group] += value;
+        break;
+      case SUM:
+        values[group] += value;
+        hasValue[group] = true;
+        break;
+      case MIN:
+        if (!hasValue[group] || value < values[group]) {
+          values[group] = value;
+          hasValue[group] = true;
+        }
+        break;
+      case MAX:
+        if (!hasValue[group] || value > values[group]) {
+          values[group] = value;
+          hasValue[group] = true;
+        }
+        break;
+      default:
+        throw new RuntimeException("Unexpected aggregation kind " + kind);
+      }
+    }
+
+    /**
+     * Called when the hash table is cleared; group numbers restart from 0.
+     */
+    void clear() {
+      initializedCount = 0;
+    }
+
+    void assignRowColumn(LongColumnVector outColVector, int batchIndex, int group) {
+      if (hasValue != null && !hasValue[group]) {
+        outColVector.isNull[batchIndex] = true;
+        outColVector.noNulls = false;
+        return;
+      }
+      outColVector.isNull[batchIndex] = false;
+      outColVector.vector[batchIndex] = values[group];
+    }
+
+    long getEstimatedMemorySize() {
+      JavaDataModel jdm = JavaDataModel.get();
+      return jdm.lengthForLongArrayOfSize(values.length) +
+          (hasValue == null ? 0 : jdm.lengthForBooleanArrayOfSize(hasValue.length));
+    }
   }
 
   /**
@@ -1128,6 +1612,15 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     isLlap = LlapProxy.isDaemon();
     VectorExpression.doTransientInit(keyExpressions, hconf);
 
+    if (hconf != null) {
+      counterGroup = HiveConf.getVar(hconf, HiveConf.ConfVars.HIVECOUNTERGROUP);
+      // Tests may leave the minimum reduction unitialized, so do not bypass on it
+      bypassSampleRows = (conf.getMinReductionHashAggr() == 0.0f) ? 0 :
+          (long) HiveConf.getIntVar(hconf,
+              HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_SAMPLE_BATCHES)
+          * VectorizedRowBatch.DEFAULT_SIZE;
+    }
+
     List<ObjectInspector> objectInspectors = new ArrayList<ObjectInspector>();
 
     List<ExprNodeDesc> keysDesc = conf.getKeys();
@@ -1199,7 +1692,11 @@ protected void initializeOp(Configuration hconf) throws HiveException {
       processingMode = this.new ProcessingModeGlobalAggregate();
       break;
     case HASH:
-      processingMode = this.new ProcessingModeHashAggregate();
+      if (canUseHashAggregateLongKey(hconf)) {
+        processingMode = this.new ProcessingModeHashAggregateLongKey();
+      } else {
+        processingMode = this.new ProcessingModeHashAggregate();
+      }
       break;
     case MERGE_PARTIAL:
       Preconditions.checkState(!groupingSetsPresent);
@@ -1215,6 +1712,47 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     processingMode.initialize(hconf);
   }
 
+  /**
+   * Whether the hash aggregation can use ProcessingModeHashAggregateLongKey: a single long family
+   * key, no grouping sets and only (non DISTINCT) COUNT, SUM, MIN and MAX aggregates over long
+   * family columns.
+   */
+  private boolean canUseHashAggregateLongKey(Configuration hconf) throws HiveException {
+    if (hconf == null || !HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED)) {
+      return false;
+    }
+    if (groupingSetsPresent || keyExpressions.length != 1 || outputKeyLength != 1) {
+      return false;
+    }
+    if (VectorizationContext.getColumnVectorTypeFromTypeInfo(outputTypeInfos[0],
+        outputDataTypePhysicalVariations[0]) != ColumnVector.Type.LONG) {
+      return false;
+    }
+    for (int i = 0; i < aggregators.length; i++) {
+      if (!LongKeyAggregation.isSupported(aggregators[i]) ||
+          conf.getAggregators().get(i).getDistinct()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes the memory available to the hash aggregation modes before they have to flush.
+   */
+  private void computeMaxHashTblMemory() {
+    MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    maxMemory = isLlap ? getConf().getMaxMemoryAvailable() : memoryMXBean.getHeapMemoryUsage().getMax();
+    memoryThreshold = conf.getMemoryThreshold();
+    // Tests may leave this unitialized, so better set it to 1
+    if (memoryThreshold == 0.0f) {
+      memoryThreshold = 1.0f;
+    }
+
+    maxHashTblMemory = (int)(maxMemory * memoryThreshold);
+  }
+
   @VisibleForTesting
   VectorAggregateExpression instantiateExpression(VectorAggregationDesc vecAggrDesc,
       Configuration hconf) throws HiveException {
@@ -1250,6 +1788,29 @@ VectorAggregateExpression instantiateExpression(VectorAggregationDesc vecAggrDes
     return vecAggrExpr;
   }
 
+  private static boolean isReductionTooLow(long inputRecords, long outputRecords,
+      float minReductionHashAggr) {
+    final float ratio = (outputRecords) / (inputRecords * 1.0f);
+    return ratio > minReductionHashAggr;
+  }
+
+  /**
+   * Stops hash aggregation and streams the rows instead, recording why in the task counters.
+   * The hash table must have been flushed.
+   */
+  private void bypassHashAggregation(HashAggrCounter reason, long inputRecords,
+      long outputRecords) throws HiveException {
+    LOG.info("Hash aggregation kept {} entries for {} input rows, less reduction than {} asks for;"
+        + " switching to streaming ({})", outputRecords, inputRecords,
+        HiveConf.ConfVars.HIVEMAPAGGRHASHMINREDUCTION.varname, reason);
+    if (reporter != null && counterGroup != null) {
+      reporter.incrCounter(counterGroup, reason.name(), 1);
+      reporter.incrCounter(counterGroup, HashAggrCounter.HASH_AGGR_BYPASS_ROWS_HASHED.name(),
+          inputRecords);
+    }
+    changeToStreamingMode();
+  }
+
   /**
    * changes the processing mode to streaming
    * This is done at the request of the hash agg mode, if the number of keys
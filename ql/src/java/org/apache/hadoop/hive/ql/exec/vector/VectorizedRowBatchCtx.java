@@ -315,6 +315,13 @@ public static void getPartitionValues(VectorizedRowBatchCtx vrbCtx, PartitionDes
     }
   }
 
+  /**
+   * Creates a column vector for a data, partition or virtual column of the row.
+   */
+  public ColumnVector createColumnVector(int columnNum) {
+    return createColumnVectorFromRowColumnTypeInfos(columnNum);
+  }
+
   private ColumnVector createColumnVectorFromRowColumnTypeInfos(int columnNum) {
     TypeInfo typeInfo = rowColumnTypeInfos[columnNum];
     final DataTypePhysicalVariation dataTypePhysicalVariation;
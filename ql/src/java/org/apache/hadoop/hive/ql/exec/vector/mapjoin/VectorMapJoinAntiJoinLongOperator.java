@@ -28,6 +28,7 @@
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.VectorDesc;
+import org.apache.hive.common.util.HashCodeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -222,6 +223,10 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
               saveKey = currentKey;
               if (useMinMax && (currentKey < min || currentKey > max)) {
                 saveJoinResult = JoinUtil.JoinResult.NOMATCH;
+              } else if (bloomFilter != null &&
+                  bloomFilterRejects(HashCodeUtil.calculateLongHashCode(currentKey))) {
+                // Key definitely not in the hash table.
+                saveJoinResult = JoinUtil.JoinResult.NOMATCH;
               } else {
                 saveJoinResult = hashSet.contains(currentKey, hashSetResults[hashSetResultCount]);
               }
@@ -36,6 +36,7 @@
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainerSerDe;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorColumnMapping;
 import org.apache.hadoop.hive.ql.exec.vector.VectorColumnOutputMapping;
 import org.apache.hadoop.hive.ql.exec.vector.VectorColumnSourceMapping;
@@ -48,6 +49,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.optimized.VectorMapJoinOptimizedCreateHashTable;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinTableContainer;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.VectorMapJoinFastHashTableLoader;
@@ -68,6 +70,7 @@
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hive.common.util.HashCodeUtil;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -228,6 +231,16 @@ protected void initLoggingPrefix(String className) {
   protected transient boolean useOverflowRepeatedThreshold;
   protected transient int overflowRepeatedThreshold;
 
+  // Whether the single long key specializations may probe a whole batch at once when the hash
+  // table supports it.
+  protected transient boolean useBatchProbe;
+
+  // The Bloom filter built alongside the fast hash table, or null.  It is dropped when it does not
+  // reject enough big table keys to pay for itself.
+  protected transient VectorMapJoinBloomFilter bloomFilter;
+  private transient long bloomFilterProbeCount;
+  private transient long bloomFilterRejectCount;
+
   // A helper object that efficiently copies the big table columns that are for the big table
   // portion of the join output.
   protected transient VectorCopyRow bigTableRetainedVectorCopy;
@@ -563,6 +576,8 @@ protected void initializeOp(Configuration hconf) throws HiveException {
     overflowRepeatedThreshold = HiveConf.getIntVar(hconf,
         HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_OVERFLOW_REPEATED_THRESHOLD);
     useOverflowRepeatedThreshold = (overflowRepeatedThreshold >= 0);
+    useBatchProbe = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BATCH_PROBE_ENABLED);
 
 
     /*
@@ -667,6 +682,7 @@ private void setUpHashTable() {
         VectorMapJoinTableContainer vectorMapJoinTableContainer =
                 (VectorMapJoinTableContainer) mapJoinTables[posSingleVectorMapJoinSmallTable];
         vectorMapJoinHashTable = vectorMapJoinTableContainer.vectorMapJoinHashTable();
+        bloomFilter = vectorMapJoinTableContainer.bloomFilter();
       }
       break;
     default:
@@ -782,6 +798,97 @@ public void firstBatchSetup(VectorizedRowBatch batch) throws HiveException {
   public void hashTableSetup() throws HiveException {
   }
 
+  /*
+   * Remove the rows of the batch whose single long key is NULL or rejected by the Bloom filter.
+   * Only for joins where such big table rows produce no output (i.e. not outer or anti joins).
+   */
+  protected void bloomFilterLongKeys(VectorizedRowBatch batch, LongColumnVector keyColVector) {
+    final boolean selectedInUse = batch.selectedInUse;
+    final int[] selected = batch.selected;
+    final int inputLogicalSize = batch.size;
+    final long[] vector = keyColVector.vector;
+    final boolean noNulls = keyColVector.noNulls;
+    final boolean[] isNull = keyColVector.isNull;
+
+    int newSize = 0;
+    for (int logical = 0; logical < inputLogicalSize; logical++) {
+      final int batchIndex = (selectedInUse ? selected[logical] : logical);
+      if ((noNulls || !isNull[batchIndex]) &&
+          bloomFilter.mightContainHashCode(HashCodeUtil.calculateLongHashCode(vector[batchIndex]))) {
+        selected[newSize++] = batchIndex;
+      }
+    }
+    finishBloomFilterBatch(batch, inputLogicalSize, newSize);
+  }
+
+  /*
+   * Remove the rows of the batch whose single bytes key is NULL or rejected by the Bloom filter.
+   * Only for joins where such big table rows produce no output (i.e. not outer or anti joins).
+   */
+  protected void bloomFilterBytesKeys(VectorizedRowBatch batch, BytesColumnVector keyColVector) {
+    final boolean selectedInUse = batch.selectedInUse;
+    final int[] selected = batch.selected;
+    final int inputLogicalSize = batch.size;
+    final byte[][] vector = keyColVector.vector;
+    final int[] start = keyColVector.start;
+    final int[] length = keyColVector.length;
+    final boolean noNulls = keyColVector.noNulls;
+    final boolean[] isNull = keyColVector.isNull;
+
+    int newSize = 0;
+    for (int logical = 0; logical < inputLogicalSize; logical++) {
+      final int batchIndex = (selectedInUse ? selected[logical] : logical);
+      if ((noNulls || !isNull[batchIndex]) &&
+          bloomFilter.mightContainHashCode(
+              HashCodeUtil.murmurHash(vector[batchIndex], start[batchIndex], length[batchIndex]))) {
+        selected[newSize++] = batchIndex;
+      }
+    }
+    finishBloomFilterBatch(batch, inputLogicalSize, newSize);
+  }
+
+  private void finishBloomFilterBatch(VectorizedRowBatch batch, int inputLogicalSize, int newSize) {
+    if (newSize < inputLogicalSize) {
+      batch.size = newSize;
+      batch.selectedInUse = true;
+    }
+    bloomFilterProbeCount += inputLogicalSize;
+    bloomFilterRejectCount += inputLogicalSize - newSize;
+    checkBloomFilterEffective();
+  }
+
+  /*
+   * For joins where rejected big table rows still produce output (anti joins), test one key
+   * instead of filtering the batch.
+   *
+   * @return true when the key with the hash code is definitely not in the small table.
+   */
+  protected boolean bloomFilterRejects(long hashCode) {
+    final boolean rejects = !bloomFilter.mightContainHashCode(hashCode);
+    bloomFilterProbeCount++;
+    if (rejects) {
+      bloomFilterRejectCount++;
+    }
+    if ((bloomFilterProbeCount & (VectorizedRowBatch.DEFAULT_SIZE - 1)) == 0) {
+      checkBloomFilterEffective();
+    }
+    return rejects;
+  }
+
+  private void checkBloomFilterEffective() {
+    if (bloomFilterProbeCount >= BLOOM_FILTER_MIN_PROBE_COUNT &&
+        bloomFilterRejectCount * BLOOM_FILTER_MIN_REJECT_RATIO_INVERSE < bloomFilterProbeCount) {
+      LOG.info(getLoggingPrefix() + " Bloom filter rejected only " + bloomFilterRejectCount +
+          " of " + bloomFilterProbeCount + " big table keys; no longer using it");
+      bloomFilter = null;
+    }
+  }
+
+  // Stop using the Bloom filter when it rejects less than 1/4 of the big table keys, after
+  // enough keys were probed to judge.
+  private static final long BLOOM_FILTER_MIN_PROBE_COUNT = 64 * VectorizedRowBatch.DEFAULT_SIZE;
+  private static final long BLOOM_FILTER_MIN_REJECT_RATIO_INVERSE = 4;
+
   /*
    * Perform the Native Vector MapJoin operator work.
    */
@@ -143,7 +143,7 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         ve.evaluate(batch);
       }
 
-      final int inputLogicalSize = batch.size;
+      int inputLogicalSize = batch.size;
       if (inputLogicalSize == 0) {
         return;
       }
@@ -163,6 +163,16 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
       LongColumnVector joinColVector = (LongColumnVector) batch.cols[singleJoinColumn];
       long[] vector = joinColVector.vector;
 
+      if (bloomFilter != null && !joinColVector.isRepeating) {
+
+        // Drop the rows whose key is NULL or definitely not in the small table before any lookups.
+        bloomFilterLongKeys(batch, joinColVector);
+        inputLogicalSize = batch.size;
+        if (inputLogicalSize == 0) {
+          return;
+        }
+      }
+
       /*
        * Single-Column Long check for repeating.
        */
@@ -33,6 +33,7 @@
 import org.apache.hadoop.hive.ql.plan.VectorDesc;
 // Single-Column Long hash table import.
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMapBatchProbe;
 
 // Single-Column Long specific imports.
 import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
@@ -65,6 +66,12 @@ protected String getLoggingPrefix() {
   // The hash map for this specialized class.
   private transient VectorMapJoinLongHashMap hashMap;
 
+  // The hash map when it can probe a whole batch at once; otherwise, null.
+  private transient VectorMapJoinLongHashMapBatchProbe batchProbeHashMap;
+
+  // The hash table slots found by the batch probe for each logical row.
+  private transient int[] matchSlots;
+
   //---------------------------------------------------------------------------
   // Single-Column Long specific members.
   //
@@ -119,6 +126,9 @@ public void hashTableSetup() throws HiveException {
      */
 
     hashMap = (VectorMapJoinLongHashMap) vectorMapJoinHashTable;
+    batchProbeHashMap =
+        (useBatchProbe && hashMap instanceof VectorMapJoinLongHashMapBatchProbe) ?
+            (VectorMapJoinLongHashMapBatchProbe) hashMap : null;
     useMinMax = hashMap.useMinMax();
     if (useMinMax) {
       min = hashMap.min();
@@ -140,7 +150,7 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         ve.evaluate(batch);
       }
 
-      final int inputLogicalSize = batch.size;
+      int inputLogicalSize = batch.size;
       if (inputLogicalSize == 0) {
         return;
       }
@@ -160,6 +170,16 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
       LongColumnVector joinColVector = (LongColumnVector) batch.cols[singleJoinColumn];
       long[] vector = joinColVector.vector;
 
+      if (bloomFilter != null && !joinColVector.isRepeating) {
+
+        // Drop the rows whose key is NULL or definitely not in the small table before any lookups.
+        bloomFilterLongKeys(batch, joinColVector);
+        inputLogicalSize = batch.size;
+        if (inputLogicalSize == 0) {
+          return;
+        }
+      }
+
       /*
        * Single-Column Long check for repeating.
        */
@@ -217,6 +237,15 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         int selected[] = batch.selected;
         boolean selectedInUse = batch.selectedInUse;
 
+        if (batchProbeHashMap != null) {
+
+          // Probe all the keys of the batch with one call.
+          if (matchSlots == null || matchSlots.length < inputLogicalSize) {
+            matchSlots = new int[Math.max(inputLogicalSize, VectorizedRowBatch.DEFAULT_SIZE)];
+          }
+          batchProbeHashMap.probeBatch(joinColVector, selectedInUse, selected, inputLogicalSize, matchSlots);
+        }
+
         int hashMapResultCount = 0;
         int allMatchCount = 0;
         int equalKeySeriesCount = 0;
@@ -291,7 +320,11 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
                * Single-Column Long specific lookup key.
                */
   
-              if (useMinMax && (currentKey < min || currentKey > max)) {
+              if (batchProbeHashMap != null) {
+                // The batch probe already did the min/max filtering.
+                saveJoinResult =
+                    batchProbeHashMap.lookupSlot(matchSlots[logical], hashMapResults[hashMapResultCount]);
+              } else if (useMinMax && (currentKey < min || currentKey > max)) {
                 // Key out of range for whole hash table.
                 saveJoinResult = JoinUtil.JoinResult.NOMATCH;
               } else {
@@ -131,7 +131,7 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         ve.evaluate(batch);
       }
 
-      final int inputLogicalSize = batch.size;
+      int inputLogicalSize = batch.size;
       if (inputLogicalSize == 0) {
         return;
       }
@@ -153,6 +153,16 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
       int[] start = joinColVector.start;
       int[] length = joinColVector.length;
 
+      if (bloomFilter != null && !joinColVector.isRepeating) {
+
+        // Drop the rows whose key is NULL or definitely not in the small table before any lookups.
+        bloomFilterBytesKeys(batch, joinColVector);
+        inputLogicalSize = batch.size;
+        if (inputLogicalSize == 0) {
+          return;
+        }
+      }
+
       /*
        * Single-Column String check for repeating.
        */
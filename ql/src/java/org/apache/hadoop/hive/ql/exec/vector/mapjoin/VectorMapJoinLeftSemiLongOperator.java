@@ -34,6 +34,7 @@
 import org.apache.hadoop.hive.ql.plan.VectorDesc;
 // Single-Column Long hash table import.
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashTableBatchProbe;
 
 // Single-Column Long specific imports.
 import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
@@ -66,6 +67,12 @@ protected String getLoggingPrefix() {
   // The hash map for this specialized class.
   private transient VectorMapJoinLongHashSet hashSet;
 
+  // The hash set when it can probe a whole batch at once; otherwise, null.
+  private transient VectorMapJoinLongHashTableBatchProbe batchProbeHashSet;
+
+  // The hash table slots found by the batch probe for each logical row.
+  private transient int[] matchSlots;
+
   //---------------------------------------------------------------------------
   // Single-Column Long specific members.
   //
@@ -120,6 +127,9 @@ public void hashTableSetup() throws HiveException {
      */
 
     hashSet = (VectorMapJoinLongHashSet) vectorMapJoinHashTable;
+    batchProbeHashSet =
+        (useBatchProbe && hashSet instanceof VectorMapJoinLongHashTableBatchProbe) ?
+            (VectorMapJoinLongHashTableBatchProbe) hashSet : null;
     useMinMax = hashSet.useMinMax();
     if (useMinMax) {
       min = hashSet.min();
@@ -142,7 +152,7 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         ve.evaluate(batch);
       }
 
-      final int inputLogicalSize = batch.size;
+      int inputLogicalSize = batch.size;
       if (inputLogicalSize == 0) {
         return;
       }
@@ -162,6 +172,16 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
       LongColumnVector joinColVector = (LongColumnVector) batch.cols[singleJoinColumn];
       long[] vector = joinColVector.vector;
 
+      if (bloomFilter != null && !joinColVector.isRepeating) {
+
+        // Drop the rows whose key is NULL or definitely not in the small table before any lookups.
+        bloomFilterLongKeys(batch, joinColVector);
+        inputLogicalSize = batch.size;
+        if (inputLogicalSize == 0) {
+          return;
+        }
+      }
+
       /*
        * Single-Column Long check for repeating.
        */
@@ -219,6 +239,15 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
         int selected[] = batch.selected;
         boolean selectedInUse = batch.selectedInUse;
 
+        if (batchProbeHashSet != null) {
+
+          // Probe all the keys of the batch with one call.
+          if (matchSlots == null || matchSlots.length < inputLogicalSize) {
+            matchSlots = new int[Math.max(inputLogicalSize, VectorizedRowBatch.DEFAULT_SIZE)];
+          }
+          batchProbeHashSet.probeBatch(joinColVector, selectedInUse, selected, inputLogicalSize, matchSlots);
+        }
+
         int hashSetResultCount = 0;
         int allMatchCount = 0;
         int spillCount = 0;
@@ -292,7 +321,11 @@ public void processBatch(VectorizedRowBatch batch) throws HiveException {
                * Single-Column Long specific lookup key.
                */
   
-              if (useMinMax && (currentKey < min || currentKey > max)) {
+              if (batchProbeHashSet != null) {
+                // The batch probe already did the min/max filtering.  A match needs no result.
+                saveJoinResult = (matchSlots[logical] == -1 ?
+                    JoinUtil.JoinResult.NOMATCH : JoinUtil.JoinResult.MATCH);
+              } else if (useMinMax && (currentKey < min || currentKey > max)) {
                 // Key out of range for whole hash table.
                 saveJoinResult = JoinUtil.JoinResult.NOMATCH;
               } else {
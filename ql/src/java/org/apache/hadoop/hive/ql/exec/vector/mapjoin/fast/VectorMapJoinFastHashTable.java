@@ -23,6 +23,7 @@
 import org.slf4j.LoggerFactory;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionError;
 import org.apache.hadoop.hive.ql.exec.persistence.MatchTracker;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinNonMatchedIterator;
 
@@ -101,6 +102,11 @@ public int size() {
     return keysAssigned;
   }
 
+  /**
+   * Add the hash codes of all the keys in the hash table to the Bloom filter.
+   */
+  public abstract void addKeysToBloomFilter(VectorMapJoinBloomFilter bloomFilter);
+
   protected final boolean checkResize() {
     // resize small hashtables up to a higher width (4096 items), but when there are collisions
     return (resizeThreshold <= keysAssigned)
@@ -20,8 +20,12 @@
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.hadoop.hive.common.ValidTxnWriteIdList;
+import org.apache.hadoop.hive.common.ValidWriteIdList;
 import org.apache.hadoop.hive.llap.LlapDaemonInfo;
+import org.apache.hadoop.hive.llap.io.api.LlapProxy;
 import org.apache.hadoop.hive.ql.exec.MemoryMonitorInfo;
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
@@ -36,9 +40,13 @@
 import org.apache.hadoop.hive.ql.exec.mr.ExecMapperContext;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainerSerDe;
+import org.apache.hadoop.hive.ql.exec.tez.LlapSharedHashTableCache;
 import org.apache.hadoop.hive.ql.exec.tez.TezContext;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.tez.runtime.api.Input;
@@ -59,6 +67,11 @@ public class VectorMapJoinFastHashTableLoader implements org.apache.hadoop.hive.
   private TezContext tezContext;
   private String cacheKey;
   private TezCounter htLoadCounter;
+  private String queryId;
+  private LlapSharedHashTableCache sharedHashTableCache;
+  private int bloomFilterBitsPerKey;
+  private int loadThreads;
+  private long loadThreadsMinKeys;
 
   @Override
   public void init(ExecMapperContext context, MapredContext mrContext,
@@ -71,6 +84,91 @@ public void init(ExecMapperContext context, MapredContext mrContext,
     String vertexName = hconf.get(Operator.CONTEXT_NAME_KEY, "");
     String counterName = Utilities.getVertexCounterName(HashTableLoaderCounters.HASHTABLE_LOAD_TIME_MS.name(), vertexName);
     this.htLoadCounter = tezContext.getTezProcessorContext().getCounters().findCounter(counterGroup, counterName);
+    this.queryId = HiveConf.getVar(hconf, HiveConf.ConfVars.HIVEQUERYID);
+    this.bloomFilterBitsPerKey = getBloomFilterBitsPerKey();
+    this.loadThreads = HiveConf.getIntVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_LOAD_THREADS);
+    this.loadThreadsMinKeys = HiveConf.getLongVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_HASHTABLE_LOAD_THREADS_MIN_KEYS);
+    if (LlapProxy.isDaemon() && !desc.getParentSharedHashTableDigests().isEmpty() &&
+        HiveConf.getBoolVar(hconf, HiveConf.ConfVars.LLAP_MAPJOIN_SHARED_HASHTABLE_CACHE_ENABLED) &&
+        !((VectorMapJoinDesc) desc.getVectorDesc()).getIsFullOuter()) {
+      this.sharedHashTableCache = LlapSharedHashTableCache.getInstance(
+          HiveConf.getSizeVar(hconf, HiveConf.ConfVars.LLAP_MAPJOIN_SHARED_HASHTABLE_CACHE_MAX_SIZE));
+    }
+  }
+
+  /**
+   * Returns the number of bits per key of the Bloom filter to build alongside the hash table, or 0
+   * when no filter is built. Only the single key inner, left semi and anti join operators, where
+   * a missing key produces no work, consult the filter.
+   */
+  private int getBloomFilterBitsPerKey() {
+    if (!HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BLOOM_FILTER_ENABLED)) {
+      return 0;
+    }
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    if (vectorDesc.getHashTableKeyType() == HashTableKeyType.MULTI_KEY) {
+      return 0;
+    }
+    switch (vectorDesc.getVectorMapJoinVariation()) {
+    case INNER:
+    case INNER_BIG_ONLY:
+    case LEFT_SEMI:
+    case LEFT_ANTI:
+      return HiveConf.getIntVar(hconf,
+          HiveConf.ConfVars.HIVE_VECTORIZATION_MAPJOIN_NATIVE_FAST_BLOOM_FILTER_BITS_PER_KEY);
+    default:
+      return 0;
+    }
+  }
+
+  /**
+   * Returns the number of hash partitions to build the small table hash table in, one load thread
+   * each: a power of 2 no larger than the configured thread count, with at least
+   * loadThreadsMinKeys estimated keys per partition. Full outer joins track matches per hash
+   * table slot, so they keep a single hash table.
+   */
+  private int getLoadPartitionCount(long keyCount) {
+    if (loadThreads <= 1 || ((VectorMapJoinDesc) desc.getVectorDesc()).getIsFullOuter()) {
+      return 1;
+    }
+    long maxPartitions = (loadThreadsMinKeys <= 0) ? loadThreads : keyCount / loadThreadsMinKeys;
+    int partitions = (int) Math.min(loadThreads, maxPartitions);
+    return (partitions <= 1) ? 1 : Integer.highestOneBit(partitions);
+  }
+
+  /**
+   * Returns the key of the small table hash table in the daemon wide shared cache, or null when
+   * it cannot be shared. The key combines the plan digest of the small table side with the valid
+   * write ids of the scanned table in this query, and the layout of the hash table.
+   */
+  private String getSharedHashTableKey(int pos) {
+    if (sharedHashTableCache == null) {
+      return null;
+    }
+    String digest = desc.getParentSharedHashTableDigests().get(pos);
+    String tableName = desc.getParentSharedHashTableNames().get(pos);
+    if (digest == null || tableName == null ||
+        hconf.get(ValidTxnWriteIdList.VALID_TABLES_WRITEIDS_KEY) == null) {
+      return null;
+    }
+    ValidWriteIdList validWriteIdList = AcidUtils.getTableValidWriteIdList(hconf, tableName);
+    if (validWriteIdList == null) {
+      return null;
+    }
+    VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+    StringBuilder sb = new StringBuilder();
+    sb.append(digest);
+    sb.append('|').append(validWriteIdList.writeToString());
+    sb.append('|').append(vectorDesc.getHashTableKind());
+    sb.append('|').append(vectorDesc.getHashTableKeyType());
+    sb.append('|').append(vectorDesc.getMinMaxEnabled());
+    sb.append('|').append(bloomFilterBitsPerKey);
+    sb.append('|').append(new TreeMap<>(desc.getKeyTblDesc().getProperties()));
+    sb.append('|').append(new TreeMap<>(desc.getValueTblDescs().get(pos).getProperties()));
+    return sb.toString();
   }
 
   @Override
@@ -108,6 +206,18 @@ public void load(MapJoinTableContainer[] mapJoinTables,
 
       long numEntries = 0;
       String inputName = parentToInput.get(pos);
+
+      String sharedKey = getSharedHashTableKey(pos);
+      if (sharedKey != null) {
+        MapJoinTableContainer shared = sharedHashTableCache.acquire(sharedKey, queryId);
+        if (shared != null) {
+          LOG.info("Using shared hash table for input: {} cacheKey: {} smallTablePos: {}",
+              inputName, cacheKey, pos);
+          mapJoinTables[pos] = shared;
+          continue;
+        }
+      }
+
       LogicalInput input = tezContext.getInput(inputName);
 
       try {
@@ -136,40 +246,67 @@ public void load(MapJoinTableContainer[] mapJoinTables,
         }
         long keyCount = Math.max(estKeyCount, inputRecords);
 
+        int partitionCount = getLoadPartitionCount(keyCount);
         VectorMapJoinFastTableContainer vectorMapJoinFastTableContainer =
-                new VectorMapJoinFastTableContainer(desc, hconf, keyCount);
+                new VectorMapJoinFastTableContainer(desc, hconf, keyCount, partitionCount);
 
         LOG.info("Loading hash table for input: {} cacheKey: {} tableContainer: {} smallTablePos: {} " +
-                "estKeyCount : {} keyCount : {}", inputName, cacheKey,
-                vectorMapJoinFastTableContainer.getClass().getSimpleName(), pos, estKeyCount, keyCount);
+                "estKeyCount : {} keyCount : {} partitions : {}", inputName, cacheKey,
+                vectorMapJoinFastTableContainer.getClass().getSimpleName(), pos, estKeyCount, keyCount,
+                partitionCount);
 
         vectorMapJoinFastTableContainer.setSerde(null, null); // No SerDes here.
+        VectorMapJoinFastParallelTableLoad parallelLoad = (partitionCount > 1) ?
+            new VectorMapJoinFastParallelTableLoad(vectorMapJoinFastTableContainer) : null;
         long startTime = System.currentTimeMillis();
-        while (kvReader.next()) {
-          vectorMapJoinFastTableContainer.putRow((BytesWritable)kvReader.getCurrentKey(),
-              (BytesWritable)kvReader.getCurrentValue());
-          numEntries++;
-          if (doMemCheck && (numEntries % memoryMonitorInfo.getMemoryCheckInterval() == 0)) {
-              final long estMemUsage = vectorMapJoinFastTableContainer.getEstimatedMemorySize();
-              if (estMemUsage > effectiveThreshold) {
-                String msg = "Hash table loading exceeded memory limits for input: " + inputName +
-                  " numEntries: " + numEntries + " estimatedMemoryUsage: " + estMemUsage +
-                  " effectiveThreshold: " + effectiveThreshold + " memoryMonitorInfo: " + memoryMonitorInfo;
-                LOG.error(msg);
-                throw new MapJoinMemoryExhaustionError(msg);
-              } else {
-              LOG.info(
-                  "Checking hash table loader memory usage for input: {} numEntries: {} "
-                      + "estimatedMemoryUsage: {} effectiveThreshold: {}",
-                  inputName, numEntries, estMemUsage, effectiveThreshold);
-              }
+        try {
+          while (kvReader.next()) {
+            if (parallelLoad != null) {
+              parallelLoad.putRow((BytesWritable)kvReader.getCurrentKey(),
+                  (BytesWritable)kvReader.getCurrentValue());
+            } else {
+              vectorMapJoinFastTableContainer.putRow((BytesWritable)kvReader.getCurrentKey(),
+                  (BytesWritable)kvReader.getCurrentValue());
+            }
+            numEntries++;
+            if (doMemCheck && (numEntries % memoryMonitorInfo.getMemoryCheckInterval() == 0)) {
+                final long estMemUsage = (parallelLoad != null) ? parallelLoad.getEstimatedMemorySize() :
+                    vectorMapJoinFastTableContainer.getEstimatedMemorySize();
+                if (estMemUsage > effectiveThreshold) {
+                  String msg = "Hash table loading exceeded memory limits for input: " + inputName +
+                    " numEntries: " + numEntries + " estimatedMemoryUsage: " + estMemUsage +
+                    " effectiveThreshold: " + effectiveThreshold + " memoryMonitorInfo: " + memoryMonitorInfo;
+                  LOG.error(msg);
+                  throw new MapJoinMemoryExhaustionError(msg);
+                } else {
+                LOG.info(
+                    "Checking hash table loader memory usage for input: {} numEntries: {} "
+                        + "estimatedMemoryUsage: {} effectiveThreshold: {}",
+                    inputName, numEntries, estMemUsage, effectiveThreshold);
+                }
+            }
+          }
+          if (parallelLoad != null) {
+            parallelLoad.finish();
+          }
+        } finally {
+          if (parallelLoad != null) {
+            parallelLoad.close();
           }
         }
         long delta = System.currentTimeMillis() - startTime;
         htLoadCounter.increment(delta);
 
         vectorMapJoinFastTableContainer.seal();
-        mapJoinTables[pos] = vectorMapJoinFastTableContainer;
+        if (bloomFilterBitsPerKey > 0) {
+          vectorMapJoinFastTableContainer.buildBloomFilter(bloomFilterBitsPerKey);
+        }
+        if (sharedKey != null) {
+          mapJoinTables[pos] = sharedHashTableCache.offer(sharedKey, queryId,
+              vectorMapJoinFastTableContainer, vectorMapJoinFastTableContainer.getEstimatedMemorySize());
+        } else {
+          mapJoinTables[pos] = vectorMapJoinFastTableContainer;
+        }
         if (doMemCheck) {
           LOG.info("Finished loading hash table for input: {} cacheKey: {} numEntries: {} " +
               "estimatedMemoryUsage: {} Load Time : {} ", inputName, cacheKey, numEntries,
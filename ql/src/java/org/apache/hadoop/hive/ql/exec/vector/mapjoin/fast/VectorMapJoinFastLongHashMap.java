@@ -28,7 +28,7 @@
 import org.apache.hadoop.hive.ql.exec.JoinUtil;
 import org.apache.hadoop.hive.ql.exec.persistence.MatchTracker;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
-import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMapBatchProbe;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinNonMatchedIterator;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
@@ -44,7 +44,7 @@
  */
 public class VectorMapJoinFastLongHashMap
              extends VectorMapJoinFastLongHashTable
-             implements VectorMapJoinLongHashMap, MemoryEstimate {
+             implements VectorMapJoinLongHashMapBatchProbe, MemoryEstimate {
 
   // public static final Logger LOG = LoggerFactory.getLogger(VectorMapJoinFastLongHashMap.class);
 
@@ -242,6 +242,28 @@ public JoinUtil.JoinResult lookup(long key, VectorMapJoinHashMapResult hashMapRe
     return joinResult;
   }
 
+  @Override
+  public JoinUtil.JoinResult lookupSlot(int matchSlot, VectorMapJoinHashMapResult hashMapResult) {
+
+    VectorMapJoinFastValueStore.HashMapResult optimizedHashMapResult =
+        (VectorMapJoinFastValueStore.HashMapResult) hashMapResult;
+
+    optimizedHashMapResult.forget();
+
+    JoinUtil.JoinResult joinResult;
+    if (matchSlot == -1) {
+      joinResult = JoinUtil.JoinResult.NOMATCH;
+    } else {
+      optimizedHashMapResult.set(valueStore, slotPairs[matchSlot * 2]);
+
+      joinResult = JoinUtil.JoinResult.MATCH;
+    }
+
+    optimizedHashMapResult.setJoinResult(joinResult);
+
+    return joinResult;
+  }
+
   public void addFullOuterNullKeyValue(BytesWritable currentValue) {
 
     byte[] valueBytes = currentValue.getBytes();
@@ -27,6 +27,7 @@
 import org.apache.hadoop.hive.ql.exec.JoinUtil.JoinResult;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashTableBatchProbe;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
 import org.apache.hadoop.io.BytesWritable;
@@ -39,7 +40,7 @@
  */
 public class VectorMapJoinFastLongHashSet
              extends VectorMapJoinFastLongHashTable
-             implements VectorMapJoinLongHashSet {
+             implements VectorMapJoinLongHashSet, VectorMapJoinLongHashTableBatchProbe {
 
   public static final Logger LOG = LoggerFactory.getLogger(VectorMapJoinFastLongHashSet.class);
 
@@ -25,6 +25,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMap;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashTable;
@@ -224,7 +226,13 @@ protected boolean containsKey(long key) {
   protected int findReadSlot(long key, long hashCode) {
 
     int intHashCode = (int) hashCode;
-    int slot = intHashCode & logicalHashBucketMask;
+    return findReadSlotFrom(key, intHashCode & logicalHashBucketMask);
+  }
+
+  /*
+   * Probe for a key starting at its home slot.  Returns the pair index of the key or -1.
+   */
+  private int findReadSlotFrom(long key, int slot) {
 
     long probeSlot = slot;
     int i = 0;
@@ -249,6 +257,60 @@ protected int findReadSlot(long key, long hashCode) {
     }
   }
 
+  /*
+   * Probe the hash table for all the (logical) rows of a non-repeating key column.
+   *
+   * The first pass hashes every key to its home slot (filtering NULL and min / max out of range
+   * keys) without any data dependent branching on the hash table; the second pass walks the
+   * probe sequences.  Keeping the bucket loads of the second pass independent of each other lets
+   * the CPU overlap their cache misses instead of serializing them behind the per-row lookup call.
+   */
+  public int probeBatch(LongColumnVector keyColVector, boolean selectedInUse, int[] selected,
+      int logicalSize, int[] matchSlots) {
+
+    final long[] vector = keyColVector.vector;
+    final boolean[] isNull = keyColVector.isNull;
+    final boolean noNulls = keyColVector.noNulls;
+    final int hashBucketMask = logicalHashBucketMask;
+
+    for (int logical = 0; logical < logicalSize; logical++) {
+      final int batchIndex = (selectedInUse ? selected[logical] : logical);
+      final long key = vector[batchIndex];
+      if ((!noNulls && isNull[batchIndex]) || (useMinMax && (key < min || key > max))) {
+        matchSlots[logical] = -1;
+      } else {
+        matchSlots[logical] = ((int) HashCodeUtil.calculateLongHashCode(key)) & hashBucketMask;
+      }
+    }
+
+    int matchCount = 0;
+    for (int logical = 0; logical < logicalSize; logical++) {
+      final int homeSlot = matchSlots[logical];
+      if (homeSlot == -1) {
+        continue;
+      }
+      final int batchIndex = (selectedInUse ? selected[logical] : logical);
+      final int pairIndex = findReadSlotFrom(vector[batchIndex], homeSlot);
+      if (pairIndex == -1) {
+        matchSlots[logical] = -1;
+      } else {
+        matchSlots[logical] = pairIndex / 2;
+        matchCount++;
+      }
+    }
+    return matchCount;
+  }
+
+  @Override
+  public void addKeysToBloomFilter(VectorMapJoinBloomFilter bloomFilter) {
+    for (int slot = 0; slot < logicalHashBucketCount; slot++) {
+      int pairIndex = slot * 2;
+      if (slotPairs[pairIndex] != 0) {
+        bloomFilter.addHashCode(HashCodeUtil.calculateLongHashCode(slotPairs[pairIndex + 1]));
+      }
+    }
+  }
+
   /*
    * The hash table slots.  For a long key hash table, each slot is 2 longs and the array is
    * 2X sized.
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.io.BytesWritable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Loads a partitioned VectorMapJoinFastTableContainer with several threads.
+ *
+ * The calling thread reads the small table rows and routes each row to the queue of its
+ * partition, in chunks of rows copied into a single buffer so the reader can reuse its key and
+ * value writables. The chunks of a partition are loaded by a task on the process wide load
+ * executor; at most one task per partition is scheduled at a time, so it is the only thread that
+ * writes to the partition hash table, and the hash tables need no locking. A task only holds an
+ * executor thread while its queue has chunks, so concurrent loads share the executor without
+ * waiting on each other. Queues are bounded: a slow partition slows down the reader rather than
+ * buffering the whole small table.
+ *
+ * Usage: putRow for every row, then finish, and always close.
+ */
+class VectorMapJoinFastParallelTableLoad {
+
+  private static final int CHUNK_ROWS = 1024;
+  private static final int QUEUE_CHUNKS = 4;
+  private static final long OFFER_WAIT_MS = 100;
+
+  // Shared by all the loads of the process; its threads exit when idle.
+  private static final ExecutorService LOAD_EXECUTOR = createLoadExecutor();
+
+  private static ExecutorService createLoadExecutor() {
+    final int threads = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+        60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("VectorMapJoinFastHashTableLoad-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Rows of one partition, with the key and value bytes appended to a shared buffer.
+   */
+  private static final class RowChunk {
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int bufferUsed;
+    private final int[] keyStarts = new int[CHUNK_ROWS];
+    private final int[] keyLengths = new int[CHUNK_ROWS];
+    private final int[] valueLengths = new int[CHUNK_ROWS];
+    private int count;
+
+    boolean isFull() {
+      return count == CHUNK_ROWS;
+    }
+
+    void add(BytesWritable key, BytesWritable value) {
+      final int keyLength = key.getLength();
+      final int valueLength = value.getLength();
+      final int needed = bufferUsed + keyLength + valueLength;
+      if (needed > buffer.length) {
+        byte[] newBuffer = new byte[Math.max(needed, buffer.length * 2)];
+        System.arraycopy(buffer, 0, newBuffer, 0, bufferUsed);
+        buffer = newBuffer;
+      }
+      keyStarts[count] = bufferUsed;
+      keyLengths[count] = keyLength;
+      valueLengths[count] = valueLength;
+      System.arraycopy(key.getBytes(), 0, buffer, bufferUsed, keyLength);
+      bufferUsed += keyLength;
+      System.arraycopy(value.getBytes(), 0, buffer, bufferUsed, valueLength);
+      bufferUsed += valueLength;
+      count++;
+    }
+
+    void reset() {
+      bufferUsed = 0;
+      count = 0;
+    }
+  }
+
+  private final VectorMapJoinFastTableContainer tableContainer;
+  private final int partitionCount;
+
+  private final RowChunk[] currentChunks;
+  private final List<BlockingQueue<RowChunk>> fullQueues;
+  private final List<BlockingQueue<RowChunk>> freeQueues;
+
+  // 1 while a task is scheduled to load the queued chunks of the partition.
+  private final AtomicIntegerArray isScheduled;
+
+  // The estimated memory size of each partition hash table, published by its tasks.
+  private final AtomicLongArray partitionMemorySizes;
+
+  private volatile Throwable failure;
+  private volatile boolean isClosed;
+
+  VectorMapJoinFastParallelTableLoad(VectorMapJoinFastTableContainer tableContainer) {
+    this.tableContainer = tableContainer;
+    this.partitionCount = tableContainer.getPartitionCount();
+    currentChunks = new RowChunk[partitionCount];
+    fullQueues = new ArrayList<>(partitionCount);
+    freeQueues = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      currentChunks[i] = new RowChunk();
+      fullQueues.add(new ArrayBlockingQueue<RowChunk>(QUEUE_CHUNKS));
+      freeQueues.add(new ArrayBlockingQueue<RowChunk>(QUEUE_CHUNKS));
+    }
+    isScheduled = new AtomicIntegerArray(partitionCount);
+    partitionMemorySizes = new AtomicLongArray(partitionCount);
+  }
+
+  private void schedule(int partition) {
+    if (isScheduled.compareAndSet(partition, 0, 1)) {
+      LOAD_EXECUTOR.execute(() -> loadPartition(partition));
+    }
+  }
+
+  /**
+   * Loads the chunks queued for the partition, until its queue is empty.
+   */
+  private void loadPartition(int partition) {
+    final BlockingQueue<RowChunk> fullQueue = fullQueues.get(partition);
+    final BlockingQueue<RowChunk> freeQueue = freeQueues.get(partition);
+    try {
+      final BytesWritable key = new BytesWritable();
+      final BytesWritable value = new BytesWritable();
+      VectorMapJoinFastHashTable hashTable =
+          ((VectorMapJoinFastPartitionedHashTable) tableContainer.vectorMapJoinHashTable())
+              .getPartitionHashTable(partition);
+      RowChunk chunk;
+      while (!isClosed && (chunk = fullQueue.poll()) != null) {
+        final byte[] buffer = chunk.buffer;
+        for (int i = 0; i < chunk.count; i++) {
+          final int keyStart = chunk.keyStarts[i];
+          final int keyLength = chunk.keyLengths[i];
+          key.set(buffer, keyStart, keyLength);
+          value.set(buffer, keyStart + keyLength, chunk.valueLengths[i]);
+          hashTable.putRow(key, value);
+        }
+        partitionMemorySizes.set(partition, hashTable.getEstimatedMemorySize());
+        chunk.reset();
+        freeQueue.offer(chunk);
+      }
+    } catch (Throwable t) {
+      if (failure == null) {
+        failure = t;
+      }
+    } finally {
+      isScheduled.set(partition, 0);
+      // A chunk queued after the last poll, but before the flag was cleared, needs another task.
+      if (!isClosed && failure == null && !fullQueue.isEmpty()) {
+        schedule(partition);
+      }
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+  }
+
+  void putRow(BytesWritable key, BytesWritable value) throws HiveException, InterruptedException {
+    final int partition = tableContainer.getPartition(key);
+    RowChunk chunk = currentChunks[partition];
+    chunk.add(key, value);
+    if (chunk.isFull()) {
+      send(partition, chunk);
+      RowChunk free = freeQueues.get(partition).poll();
+      currentChunks[partition] = (free != null) ? free : new RowChunk();
+    }
+  }
+
+  /**
+   * Hands a chunk to the load task of the partition, waiting for queue space while checking that
+   * no task has failed (the queue of a failed partition would otherwise never drain).
+   */
+  private void send(int partition, RowChunk chunk) throws HiveException, InterruptedException {
+    BlockingQueue<RowChunk> fullQueue = fullQueues.get(partition);
+    while (!fullQueue.offer(chunk, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+      checkFailure();
+    }
+    schedule(partition);
+  }
+
+  private void checkFailure() throws HiveException {
+    if (failure != null) {
+      throw new HiveException("Hash table load task failed", failure);
+    }
+  }
+
+  private boolean isIdle() {
+    for (int i = 0; i < partitionCount; i++) {
+      if (isScheduled.get(i) != 0 || !fullQueues.get(i).isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the sum of the estimated memory sizes of the partition hash tables, as of the last
+   *         chunk loaded into each.
+   */
+  long getEstimatedMemorySize() {
+    long size = 0;
+    for (int i = 0; i < partitionCount; i++) {
+      size += partitionMemorySizes.get(i);
+    }
+    return size;
+  }
+
+  /**
+   * Sends the remaining rows and waits for all the partitions to be loaded.
+   */
+  void finish() throws HiveException, InterruptedException {
+    for (int i = 0; i < partitionCount; i++) {
+      if (currentChunks[i].count > 0) {
+        send(i, currentChunks[i]);
+      }
+      currentChunks[i] = null;
+    }
+    synchronized (this) {
+      while (failure == null && !isIdle()) {
+        wait(OFFER_WAIT_MS);
+      }
+    }
+    checkFailure();
+  }
+
+  /**
+   * Stops the load tasks of this load after their current chunk; the executor is shared.
+   */
+  void close() {
+    isClosed = true;
+    for (BlockingQueue<RowChunk> fullQueue : fullQueues) {
+      fullQueue.clear();
+    }
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.persistence.MatchTracker;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMultiSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMultiSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashSetResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMultiSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashSet;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinNonMatchedIterator;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.binarysortable.fast.BinarySortableDeserializeRead;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hive.common.util.HashCodeUtil;
+
+import com.google.common.base.Preconditions;
+
+/*
+ * A vector map join hash table made of independent fast hash tables (partitions) so that the
+ * partitions can be loaded by different threads.
+ *
+ * The partition of a key is picked from a remix of the hash code the fast hash tables use, so
+ * the partition bits are independent from the low bits used for the slot and the high bits kept
+ * as the partial hash code of byte keys.
+ *
+ * Lookups are routed to the partition of the key. The result objects are created by the first
+ * partition; that is fine since all the partitions are the same class and a lookup binds the
+ * result to the partition that was probed.
+ *
+ * FULL OUTER is not supported: its non-matched iteration works on a single hash table.
+ */
+public abstract class VectorMapJoinFastPartitionedHashTable implements VectorMapJoinHashTable {
+
+  protected final VectorMapJoinFastHashTable[] partitions;
+  private final int partitionMask;
+
+  private final HashTableKeyType hashTableKeyType;
+
+  // Only used by getPartition, that is by the single thread that reads the small table.
+  // Null for MULTI_KEY, whose serialized key is hashed as is.
+  private final BinarySortableDeserializeRead keyBinarySortableDeserializeRead;
+
+  private boolean useMinMax;
+  private long min;
+  private long max;
+
+  private VectorMapJoinFastPartitionedHashTable(VectorMapJoinFastHashTable[] partitions,
+      HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+    Preconditions.checkArgument(Integer.bitCount(partitions.length) == 1,
+        "The partition count must be a power of 2");
+    this.partitions = partitions;
+    partitionMask = partitions.length - 1;
+    this.hashTableKeyType = hashTableKeyType;
+    if (hashTableKeyType == HashTableKeyType.MULTI_KEY) {
+      keyBinarySortableDeserializeRead = null;
+    } else {
+      PrimitiveTypeInfo[] primitiveTypeInfos = { hashTableKeyType.getPrimitiveTypeInfo() };
+      keyBinarySortableDeserializeRead = BinarySortableDeserializeRead.with(
+          primitiveTypeInfos, false, keyTableDesc.getProperties());
+    }
+  }
+
+  public static VectorMapJoinFastPartitionedHashTable create(
+      VectorMapJoinFastHashTable[] partitions, HashTableKind hashTableKind,
+      HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+    final boolean isLong =
+        (hashTableKeyType != HashTableKeyType.STRING &&
+            hashTableKeyType != HashTableKeyType.MULTI_KEY);
+    switch (hashTableKind) {
+    case HASH_MAP:
+      return isLong ?
+          new LongHashMap(partitions, hashTableKeyType, keyTableDesc) :
+          new BytesHashMap(partitions, hashTableKeyType, keyTableDesc);
+    case HASH_MULTISET:
+      return isLong ?
+          new LongHashMultiSet(partitions, hashTableKeyType, keyTableDesc) :
+          new BytesHashMultiSet(partitions, hashTableKeyType, keyTableDesc);
+    case HASH_SET:
+      return isLong ?
+          new LongHashSet(partitions, hashTableKeyType, keyTableDesc) :
+          new BytesHashSet(partitions, hashTableKeyType, keyTableDesc);
+    default:
+      throw new RuntimeException("Unexpected hash table kind " + hashTableKind);
+    }
+  }
+
+  private int partition(int hashCode) {
+    return HashCodeUtil.calculateLongHashCode(hashCode) & partitionMask;
+  }
+
+  protected final int longKeyPartition(long key) {
+    return partition(HashCodeUtil.calculateLongHashCode(key));
+  }
+
+  protected final int bytesKeyPartition(byte[] keyBytes, int keyStart, int keyLength) {
+    return partition(HashCodeUtil.murmurHash(keyBytes, keyStart, keyLength));
+  }
+
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  public VectorMapJoinFastHashTable getPartitionHashTable(int partition) {
+    return partitions[partition];
+  }
+
+  /**
+   * @return the partition of a small table key, hashed the same way the partition hash table
+   * will hash it in putRow.
+   */
+  public int getPartition(BytesWritable currentKey) throws HiveException {
+    byte[] keyBytes = currentKey.getBytes();
+    int keyLength = currentKey.getLength();
+    if (keyBinarySortableDeserializeRead == null) {
+      return bytesKeyPartition(keyBytes, 0, keyLength);
+    }
+    keyBinarySortableDeserializeRead.set(keyBytes, 0, keyLength);
+    try {
+      if (!keyBinarySortableDeserializeRead.readNextField()) {
+
+        // NULL keys are ignored by the partition hash tables (no FULL OUTER).
+        return 0;
+      }
+    } catch (Exception e) {
+      throw new HiveException(
+          "\nDeserializeRead details: " +
+              keyBinarySortableDeserializeRead.getDetailedReadPositionString() +
+          "\nException: " + e.toString());
+    }
+    if (hashTableKeyType == HashTableKeyType.STRING) {
+      return bytesKeyPartition(
+          keyBinarySortableDeserializeRead.currentBytes,
+          keyBinarySortableDeserializeRead.currentBytesStart,
+          keyBinarySortableDeserializeRead.currentBytesLength);
+    }
+    return longKeyPartition(VectorMapJoinFastLongHashUtil.deserializeLongKey(
+        keyBinarySortableDeserializeRead, hashTableKeyType));
+  }
+
+  @Override
+  public void putRow(BytesWritable currentKey, BytesWritable currentValue)
+      throws SerDeException, HiveException, IOException {
+    partitions[getPartition(currentKey)].putRow(currentKey, currentValue);
+  }
+
+  /**
+   * Must be called once all the partitions are loaded.
+   */
+  public void seal() {
+    if (!(partitions[0] instanceof VectorMapJoinFastLongHashTable)) {
+      return;
+    }
+    useMinMax = true;
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+    for (VectorMapJoinFastHashTable partition : partitions) {
+      VectorMapJoinFastLongHashTable longHashTable = (VectorMapJoinFastLongHashTable) partition;
+      if (!longHashTable.useMinMax()) {
+        useMinMax = false;
+        return;
+      }
+      if (longHashTable.size() > 0) {
+        min = Math.min(min, longHashTable.min());
+        max = Math.max(max, longHashTable.max());
+      }
+    }
+  }
+
+  public boolean useMinMax() {
+    return useMinMax;
+  }
+
+  public long min() {
+    return min;
+  }
+
+  public long max() {
+    return max;
+  }
+
+  public void addKeysToBloomFilter(VectorMapJoinBloomFilter bloomFilter) {
+    for (VectorMapJoinFastHashTable partition : partitions) {
+      partition.addKeysToBloomFilter(bloomFilter);
+    }
+  }
+
+  @Override
+  public boolean containsLongKey(long currentKey) {
+    return partitions[longKeyPartition(currentKey)].containsLongKey(currentKey);
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (VectorMapJoinFastHashTable partition : partitions) {
+      size += partition.size();
+    }
+    return size;
+  }
+
+  @Override
+  public MatchTracker createMatchTracker() {
+    throw new RuntimeException("Not supported for a partitioned hash table");
+  }
+
+  @Override
+  public VectorMapJoinNonMatchedIterator createNonMatchedIterator(MatchTracker matchTracker) {
+    throw new RuntimeException("Not supported for a partitioned hash table");
+  }
+
+  @Override
+  public int spillPartitionId() {
+    throw new RuntimeException("Not implemented");
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    long size = jdm.object() + jdm.lengthForObjectArrayOfSize(partitions.length);
+    for (VectorMapJoinFastHashTable partition : partitions) {
+      size += partition.getEstimatedMemorySize();
+    }
+    // Same constant as the fast hash tables use for their key deserializer.
+    size += (16 * 1024L);
+    return size;
+  }
+
+  private static final class LongHashMap extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinLongHashMap {
+
+    private LongHashMap(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashMapResult createHashMapResult() {
+      return ((VectorMapJoinLongHashMap) partitions[0]).createHashMapResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult lookup(long key, VectorMapJoinHashMapResult hashMapResult)
+        throws IOException {
+      return ((VectorMapJoinLongHashMap) partitions[longKeyPartition(key)])
+          .lookup(key, hashMapResult);
+    }
+
+    @Override
+    public JoinUtil.JoinResult lookup(long key, VectorMapJoinHashMapResult hashMapResult,
+        MatchTracker matchTracker) throws IOException {
+      return ((VectorMapJoinLongHashMap) partitions[longKeyPartition(key)])
+          .lookup(key, hashMapResult, matchTracker);
+    }
+  }
+
+  private static final class LongHashMultiSet extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinLongHashMultiSet {
+
+    private LongHashMultiSet(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashMultiSetResult createHashMultiSetResult() {
+      return ((VectorMapJoinLongHashMultiSet) partitions[0]).createHashMultiSetResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult contains(long key,
+        VectorMapJoinHashMultiSetResult hashMultiSetResult) throws IOException {
+      return ((VectorMapJoinLongHashMultiSet) partitions[longKeyPartition(key)])
+          .contains(key, hashMultiSetResult);
+    }
+  }
+
+  private static final class LongHashSet extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinLongHashSet {
+
+    private LongHashSet(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashSetResult createHashSetResult() {
+      return ((VectorMapJoinLongHashSet) partitions[0]).createHashSetResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult contains(long key, VectorMapJoinHashSetResult hashSetResult)
+        throws IOException {
+      return ((VectorMapJoinLongHashSet) partitions[longKeyPartition(key)])
+          .contains(key, hashSetResult);
+    }
+  }
+
+  private static final class BytesHashMap extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinBytesHashMap {
+
+    private BytesHashMap(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashMapResult createHashMapResult() {
+      return ((VectorMapJoinBytesHashMap) partitions[0]).createHashMapResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult lookup(byte[] keyBytes, int keyStart, int keyLength,
+        VectorMapJoinHashMapResult hashMapResult) throws IOException {
+      return ((VectorMapJoinBytesHashMap)
+          partitions[bytesKeyPartition(keyBytes, keyStart, keyLength)])
+              .lookup(keyBytes, keyStart, keyLength, hashMapResult);
+    }
+
+    @Override
+    public JoinUtil.JoinResult lookup(byte[] keyBytes, int keyStart, int keyLength,
+        VectorMapJoinHashMapResult hashMapResult, MatchTracker matchTracker) throws IOException {
+      return ((VectorMapJoinBytesHashMap)
+          partitions[bytesKeyPartition(keyBytes, keyStart, keyLength)])
+              .lookup(keyBytes, keyStart, keyLength, hashMapResult, matchTracker);
+    }
+  }
+
+  private static final class BytesHashMultiSet extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinBytesHashMultiSet {
+
+    private BytesHashMultiSet(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashMultiSetResult createHashMultiSetResult() {
+      return ((VectorMapJoinBytesHashMultiSet) partitions[0]).createHashMultiSetResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult contains(byte[] keyBytes, int keyStart, int keyLength,
+        VectorMapJoinHashMultiSetResult hashMultiSetResult) throws IOException {
+      return ((VectorMapJoinBytesHashMultiSet)
+          partitions[bytesKeyPartition(keyBytes, keyStart, keyLength)])
+              .contains(keyBytes, keyStart, keyLength, hashMultiSetResult);
+    }
+  }
+
+  private static final class BytesHashSet extends VectorMapJoinFastPartitionedHashTable
+      implements VectorMapJoinBytesHashSet {
+
+    private BytesHashSet(VectorMapJoinFastHashTable[] partitions,
+        HashTableKeyType hashTableKeyType, TableDesc keyTableDesc) {
+      super(partitions, hashTableKeyType, keyTableDesc);
+    }
+
+    @Override
+    public VectorMapJoinHashSetResult createHashSetResult() {
+      return ((VectorMapJoinBytesHashSet) partitions[0]).createHashSetResult();
+    }
+
+    @Override
+    public JoinUtil.JoinResult contains(byte[] keyBytes, int keyStart, int keyLength,
+        VectorMapJoinHashSetResult hashSetResult) throws IOException {
+      return ((VectorMapJoinBytesHashSet)
+          partitions[bytesKeyPartition(keyBytes, keyStart, keyLength)])
+              .contains(keyBytes, keyStart, keyLength, hashSetResult);
+    }
+  }
+}
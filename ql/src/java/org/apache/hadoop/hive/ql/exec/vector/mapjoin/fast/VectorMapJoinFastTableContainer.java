@@ -29,6 +29,7 @@
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinObjectSerDeContext;
 import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer.NonMatchedSmallTableIterator;
 import org.apache.hadoop.hive.ql.exec.persistence.MatchTracker;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashTable;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinTableContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
@@ -60,11 +61,24 @@ public class VectorMapJoinFastTableContainer implements VectorMapJoinTableContai
   private final long estimatedKeyCount;
 
 
+  // Exactly one of the two is set.
   private final VectorMapJoinFastHashTable vectorMapJoinFastHashTable;
+  private final VectorMapJoinFastPartitionedHashTable partitionedHashTable;
+  private VectorMapJoinBloomFilter bloomFilter;
   private String key;
 
   public VectorMapJoinFastTableContainer(MapJoinDesc desc, Configuration hconf,
       long estimatedKeyCount) throws SerDeException {
+    this(desc, hconf, estimatedKeyCount, 1);
+  }
+
+  /**
+   * @param partitionCount when above 1 (it must be a power of 2), the keys are spread over that
+   *        many hash tables that can be loaded concurrently, see
+   *        VectorMapJoinFastParallelTableLoad.
+   */
+  public VectorMapJoinFastTableContainer(MapJoinDesc desc, Configuration hconf,
+      long estimatedKeyCount, int partitionCount) throws SerDeException {
 
     this.desc = desc;
     this.hconf = hconf;
@@ -76,17 +90,63 @@ public VectorMapJoinFastTableContainer(MapJoinDesc desc, Configuration hconf,
 
     this.estimatedKeyCount = estimatedKeyCount;
 
-    int newThreshold = HashMapWrapper.calculateTableSize(
-        keyCountAdj, threshold, loadFactor, estimatedKeyCount);
+    if (partitionCount <= 1) {
+      int newThreshold = HashMapWrapper.calculateTableSize(
+          keyCountAdj, threshold, loadFactor, estimatedKeyCount);
+
+      // LOG.debug("VectorMapJoinFastTableContainer load newThreshold " + newThreshold);
+
+      vectorMapJoinFastHashTable = createHashTable(newThreshold, estimatedKeyCount);
+      partitionedHashTable = null;
+    } else {
+      long partitionKeyCount =
+          (estimatedKeyCount <= 0) ? estimatedKeyCount : estimatedKeyCount / partitionCount + 1;
+      int newThreshold = HashMapWrapper.calculateTableSize(
+          keyCountAdj, threshold / partitionCount, loadFactor, partitionKeyCount);
+      VectorMapJoinFastHashTable[] partitions = new VectorMapJoinFastHashTable[partitionCount];
+      for (int i = 0; i < partitionCount; i++) {
+        partitions[i] = createHashTable(newThreshold, partitionKeyCount);
+      }
+      VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
+      partitionedHashTable = VectorMapJoinFastPartitionedHashTable.create(partitions,
+          vectorDesc.getHashTableKind(), vectorDesc.getHashTableKeyType(), desc.getKeyTblDesc());
+      vectorMapJoinFastHashTable = null;
+    }
+  }
 
-    // LOG.debug("VectorMapJoinFastTableContainer load newThreshold " + newThreshold);
+  @Override
+  public VectorMapJoinHashTable vectorMapJoinHashTable() {
+    return (partitionedHashTable != null) ? partitionedHashTable : vectorMapJoinFastHashTable;
+  }
 
-    vectorMapJoinFastHashTable = createHashTable(newThreshold);
+  public int getPartitionCount() {
+    return (partitionedHashTable != null) ? partitionedHashTable.getPartitionCount() : 1;
+  }
+
+  /**
+   * @return the partition hash table of the key.  Not thread safe.
+   */
+  public int getPartition(BytesWritable currentKey) throws HiveException {
+    return (partitionedHashTable != null) ? partitionedHashTable.getPartition(currentKey) : 0;
   }
 
   @Override
-  public VectorMapJoinHashTable vectorMapJoinHashTable() {
-    return vectorMapJoinFastHashTable;
+  public VectorMapJoinBloomFilter bloomFilter() {
+    return bloomFilter;
+  }
+
+  /**
+   * Build a Bloom filter over the keys of the loaded hash table.  Must be called after all the
+   * rows have been put.
+   */
+  public void buildBloomFilter(int bitsPerKey) {
+    VectorMapJoinBloomFilter newBloomFilter = new VectorMapJoinBloomFilter(size(), bitsPerKey);
+    if (partitionedHashTable != null) {
+      partitionedHashTable.addKeysToBloomFilter(newBloomFilter);
+    } else {
+      vectorMapJoinFastHashTable.addKeysToBloomFilter(newBloomFilter);
+    }
+    bloomFilter = newBloomFilter;
   }
 
   @Override
@@ -99,7 +159,7 @@ public String getKey() {
     return key;
   }
 
-  private VectorMapJoinFastHashTable createHashTable(int newThreshold) {
+  private VectorMapJoinFastHashTable createHashTable(int newThreshold, long estimatedKeyCount) {
 
     VectorMapJoinDesc vectorDesc = (VectorMapJoinDesc) desc.getVectorDesc();
     HashTableImplementationType hashTableImplementationType = vectorDesc.getHashTableImplementationType();
@@ -193,13 +253,15 @@ public MapJoinKey putRow(Writable currentKey, Writable currentValue)
       throws SerDeException, HiveException, IOException {
 
     // We are not using the key and value contexts, nor do we support a MapJoinKey.
-    vectorMapJoinFastHashTable.putRow((BytesWritable) currentKey, (BytesWritable) currentValue);
+    vectorMapJoinHashTable().putRow((BytesWritable) currentKey, (BytesWritable) currentValue);
     return null;
   }
 
   @Override
   public void seal() {
-    // Do nothing
+    if (partitionedHashTable != null) {
+      partitionedHashTable.seal();
+    }
   }
 
   @Override
@@ -235,14 +297,15 @@ public boolean hasSpill() {
 
   @Override
   public int size() {
-    return vectorMapJoinFastHashTable.size();
+    return vectorMapJoinHashTable().size();
   }
 
   @Override
   public long getEstimatedMemorySize() {
     JavaDataModel jdm = JavaDataModel.get();
     long size = 0;
-    size += vectorMapJoinFastHashTable.getEstimatedMemorySize();
+    size += vectorMapJoinHashTable().getEstimatedMemorySize();
+    size += bloomFilter == null ? 0 : bloomFilter.getEstimatedMemorySize();
     size += (4 * jdm.primitive1());
     size += (2 * jdm.object());
     size += (jdm.primitive2());
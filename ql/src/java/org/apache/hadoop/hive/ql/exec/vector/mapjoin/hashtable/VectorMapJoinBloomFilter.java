@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable;
+
+import org.apache.hadoop.hive.common.MemoryEstimate;
+import org.apache.hadoop.hive.ql.util.JavaDataModel;
+
+/*
+ * A blocked Bloom filter over the keys of a vector map join hash table, used to reject probe
+ * keys that are not in the small table before doing a real hash table lookup.
+ *
+ * The filter is fed the same hash codes the hash table uses for its slots (e.g.
+ * HashCodeUtil.calculateLongHashCode or HashCodeUtil.murmurHash), so a probe costs one extra
+ * hash code mix. All the bits for a key are set in one 64 byte block (8 longs), so a test
+ * touches a single cache line (see BloomKFilter for the same layout).
+ */
+public class VectorMapJoinBloomFilter implements MemoryEstimate {
+
+  private static final int BLOCK_SIZE = 8;
+  private static final int BLOCK_SIZE_BITS = 3;
+  private static final int BLOCK_OFFSET_MASK = BLOCK_SIZE - 1;
+  private static final int BIT_OFFSET_MASK = Long.SIZE - 1;
+
+  // Limit the filter to 2^27 longs (1GB).
+  private static final int MAX_BLOCK_COUNT = 1 << 24;
+
+  private final long[] bits;
+  private final int blockMask;
+  private final int numHashFunctions;
+
+  public VectorMapJoinBloomFilter(long expectedKeyCount, int bitsPerKey) {
+    long numBits = Math.max(1, expectedKeyCount) * Math.max(1, bitsPerKey);
+    long numBlocks = (numBits + (BLOCK_SIZE * Long.SIZE) - 1) / (BLOCK_SIZE * Long.SIZE);
+    int blockCount = 1;
+    while (blockCount < numBlocks && blockCount < MAX_BLOCK_COUNT) {
+      blockCount <<= 1;
+    }
+    bits = new long[blockCount * BLOCK_SIZE];
+    blockMask = blockCount - 1;
+    // Optimal k is ln(2) * bits per key; more functions do not pay off within one block.
+    numHashFunctions = (int) Math.max(1, Math.min(BLOCK_SIZE, Math.round(bitsPerKey * Math.log(2))));
+  }
+
+  /*
+   * Mix the hash table hash code since its low bits are already used to pick the hash table
+   * slot (and are only 32 bits wide for byte keys).
+   */
+  private static long mix(long hashCode) {
+    long h = hashCode;
+    h ^= (h >>> 33);
+    h *= 0xff51afd7ed558ccdL;
+    h ^= (h >>> 33);
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return h;
+  }
+
+  public void addHashCode(long hashCode) {
+    final long h = mix(hashCode);
+    final int hash1 = (int) h;
+    final int hash2 = (int) (h >>> 32);
+    final int blockBaseOffset = ((hash2 >>> 8) & blockMask) << BLOCK_SIZE_BITS;
+    for (int i = 1; i <= numHashFunctions; i++) {
+      final int combinedHash = hash1 + (i * hash2);
+      final int absOffset = blockBaseOffset + (combinedHash & BLOCK_OFFSET_MASK);
+      final int bitPos = (combinedHash >>> BLOCK_SIZE_BITS) & BIT_OFFSET_MASK;
+      bits[absOffset] |= (1L << bitPos);
+    }
+  }
+
+  /**
+   * @return false when the key with this hash code is definitely not in the hash table.
+   */
+  public boolean mightContainHashCode(long hashCode) {
+    final long h = mix(hashCode);
+    final int hash1 = (int) h;
+    final int hash2 = (int) (h >>> 32);
+    final int blockBaseOffset = ((hash2 >>> 8) & blockMask) << BLOCK_SIZE_BITS;
+    for (int i = 1; i <= numHashFunctions; i++) {
+      final int combinedHash = hash1 + (i * hash2);
+      final int absOffset = blockBaseOffset + (combinedHash & BLOCK_OFFSET_MASK);
+      final int bitPos = (combinedHash >>> BLOCK_SIZE_BITS) & BIT_OFFSET_MASK;
+      if ((bits[absOffset] & (1L << bitPos)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getNumHashFunctions() {
+    return numHashFunctions;
+  }
+
+  @Override
+  public long getEstimatedMemorySize() {
+    JavaDataModel jdm = JavaDataModel.get();
+    return jdm.object() + jdm.lengthForLongArrayOfSize(bits.length) + 2 * jdm.primitive1();
+  }
+}
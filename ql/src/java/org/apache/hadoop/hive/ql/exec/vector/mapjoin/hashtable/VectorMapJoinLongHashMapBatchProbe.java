@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable;
+
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+
+/*
+ * The interface adds getting the small table value(s) of a slot found by a batch probe to the
+ * single long key hash map.
+ */
+public interface VectorMapJoinLongHashMapBatchProbe
+          extends VectorMapJoinLongHashMap, VectorMapJoinLongHashTableBatchProbe {
+
+  /*
+   * Lookup the small table value(s) of a slot found by probeBatch.
+   *
+   * @param matchSlot
+   *         A slot from the matchSlots of probeBatch, or -1 for no match.
+   * @param hashMapResult
+   *         The object to receive small table value(s) information on a MATCH.
+   *
+   * @return
+   *         Whether the slot was a match or no match.
+   */
+  JoinUtil.JoinResult lookupSlot(int matchSlot, VectorMapJoinHashMapResult hashMapResult);
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable;
+
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+
+/*
+ * The interface adds a whole batch probe to single long key hash tables so a vectorized
+ * map join can look up all the keys of a batch with one call instead of one call per row.
+ */
+public interface VectorMapJoinLongHashTableBatchProbe extends VectorMapJoinLongHashTable {
+
+  /*
+   * Probe the hash table for the (logical) rows of a non-repeating long key column.
+   *
+   * @param keyColVector
+   *         The long key column of the batch.
+   * @param selectedInUse
+   *         Whether the batch selected vector is in use.
+   * @param selected
+   *         The batch selected vector.
+   * @param logicalSize
+   *         The logical size of the batch.
+   * @param matchSlots
+   *         Receives, for each logical row, the hash table slot of its key.  A NULL key or a key
+   *         that is not in the hash table gets -1.  Must be at least logicalSize long.
+   *
+   * @return
+   *         The number of logical rows that matched.
+   */
+  int probeBatch(LongColumnVector keyColVector, boolean selectedInUse, int[] selected,
+      int logicalSize, int[] matchSlots);
+}
@@ -24,5 +24,10 @@ public interface VectorMapJoinTableContainer extends MapJoinTableContainer {
 
   VectorMapJoinHashTable vectorMapJoinHashTable();
 
+  /**
+   * @return The Bloom filter over the hash table keys, or null when none was built.
+   */
+  VectorMapJoinBloomFilter bloomFilter();
+
   // com.esotericsoftware.kryo.io.Output getHybridBigTableSpillOutput(int partitionId);
 }
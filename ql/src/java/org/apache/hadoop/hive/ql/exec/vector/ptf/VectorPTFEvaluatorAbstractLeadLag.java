@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector.Type;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
+
+/**
+ * Base class of the lead() and lag() evaluators. The result of a row is the value of the input
+ * column in the row that is a fixed number of rows after/before it in the partition, or NULL when
+ * there is no such row. The window frame is not used; the value is read directly from the
+ * buffered batches, so the input must be a buffered column (not an expression).
+ */
+public abstract class VectorPTFEvaluatorAbstractLeadLag extends VectorPTFEvaluatorBase {
+
+  private final Type resultColumnVectorType;
+
+  // Signed distance of the row whose value is returned: positive for lead, negative for lag.
+  private final int rowOffset;
+
+  public VectorPTFEvaluatorAbstractLeadLag(WindowFrameDef windowFrameDef,
+      VectorExpression inputVecExpr, int outputColumnNum, Type resultColumnVectorType,
+      int rowOffset) {
+    super(windowFrameDef, inputVecExpr, outputColumnNum);
+    this.resultColumnVectorType = resultColumnVectorType;
+    this.rowOffset = rowOffset;
+  }
+
+  @Override
+  public void evaluateGroupBatch(VectorizedRowBatch batch) {
+    // Nothing to aggregate, the result of each row is looked up in runOnRange.
+  }
+
+  @Override
+  public boolean streamsResult() {
+    // We must have the whole group buffered to look ahead.
+    return false;
+  }
+
+  @Override
+  public boolean isGroupResultNull() {
+    return true;
+  }
+
+  @Override
+  public Type getResultColumnVectorType() {
+    return resultColumnVectorType;
+  }
+
+  @Override
+  public void resetEvaluator() {
+  }
+
+  @Override
+  public boolean canRunOptimizedCalculation(int rowNum, Range range) {
+    return true;
+  }
+
+  @Override
+  public Object runOnRange(int rowNum, Range range, VectorPTFGroupBatches batches)
+      throws HiveException {
+    final long row = (long) rowNum + rowOffset;
+    if (row < 0 || row >= batches.size()) {
+      return null;
+    }
+    return batches.getValue((int) row, inputColumnNum);
+  }
+
+  @Override
+  public boolean isCacheableForRange() {
+    return false;
+  }
+}
@@ -24,6 +24,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
 
 import com.google.common.base.Preconditions;
 
@@ -35,6 +36,8 @@
 public class VectorPTFEvaluatorCount extends VectorPTFEvaluatorBase {
 
   protected long count;
+  protected long previousCount;
+  protected Range previousRange = null;
 
   public VectorPTFEvaluatorCount(WindowFrameDef windowFrameDef, VectorExpression inputVecExpr,
       int outputColumnNum) {
@@ -104,6 +107,36 @@ public Object getGroupResult() {
     return count;
   }
 
+  @Override
+  public boolean canRunOptimizedCalculation(int rowNum, Range range) {
+    return previousRange != null && !(range.getSize() <= range.getDiff(previousRange));
+  }
+
+  /**
+   * Same as the sum optimization: only count the rows leaving and entering the window.
+   */
+  @Override
+  public Object runOnRange(int rowNum, Range range, VectorPTFGroupBatches batches)
+      throws HiveException {
+    Range r1 = new Range(previousRange.getStart(), range.getStart(), batches);
+    Range r2 = new Range(previousRange.getEnd(), range.getEnd(), batches);
+    long count1 = (Long) batches.runEvaluatorOnRange(this, r1);
+    long count2 = (Long) batches.runEvaluatorOnRange(this, r2);
+    return previousCount - count1 + count2;
+  }
+
+  @Override
+  public void onResultCalculated(Object result, Range range) {
+    this.previousCount = (Long) result;
+    this.previousRange = range;
+  }
+
+  @Override
+  public void onPartitionEnd() {
+    previousCount = 0;
+    previousRange = null;
+  }
+
   @Override
   public void resetEvaluator() {
     count = 0;
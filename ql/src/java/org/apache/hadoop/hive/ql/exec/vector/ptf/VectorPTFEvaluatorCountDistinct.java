@@ -26,6 +26,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
 
 import com.google.common.base.Preconditions;
 
@@ -99,6 +100,12 @@ protected void countValue(ColumnVector colVector, int i) {
 
   protected abstract Object getValue(ColumnVector colVector, int i);
 
+  @Override
+  public boolean canRunOptimizedCalculation(int rowNum, Range range) {
+    // Distinct counts of overlapping ranges cannot be combined.
+    return false;
+  }
+
   @Override
   public Object getGroupResult() {
     return Long.valueOf(uniqueObjects.size());
@@ -24,6 +24,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
 
 import com.google.common.base.Preconditions;
 
@@ -35,6 +36,9 @@ public class VectorPTFEvaluatorLongMax extends VectorPTFEvaluatorBase {
   protected boolean isGroupResultNull;
   protected long max;
 
+  private final VectorPTFSlidingMinMax slidingWindow =
+      new VectorPTFSlidingMinMax(/* isMax */ true, /* isLong */ true);
+
   public VectorPTFEvaluatorLongMax(WindowFrameDef windowFrameDef, VectorExpression inputVecExpr,
       int outputColumnNum) {
     super(windowFrameDef, inputVecExpr, outputColumnNum);
@@ -133,6 +137,27 @@ public Object getGroupResult() {
     return max;
   }
 
+  /**
+   * The window of the next row is found by sliding the window of the previous row, instead of
+   * evaluating the whole range. Only done when the input is a buffered column, since the values
+   * are read from the buffered batches directly.
+   */
+  @Override
+  public boolean canRunOptimizedCalculation(int rowNum, Range range) {
+    return inputVecExpr == null;
+  }
+
+  @Override
+  public Object runOnRange(int rowNum, Range range, VectorPTFGroupBatches batches)
+      throws HiveException {
+    return slidingWindow.slide(range, batches, inputColumnNum) ? slidingWindow.getLong() : null;
+  }
+
+  @Override
+  public void onPartitionEnd() {
+    slidingWindow.reset();
+  }
+
   @Override
   public void resetEvaluator() {
     isGroupResultNull = true;
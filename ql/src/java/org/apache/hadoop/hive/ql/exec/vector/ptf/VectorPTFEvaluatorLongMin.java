@@ -24,6 +24,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
 
 import com.google.common.base.Preconditions;
 
@@ -35,6 +36,9 @@ public class VectorPTFEvaluatorLongMin extends VectorPTFEvaluatorBase {
   protected boolean isGroupResultNull;
   protected long min;
 
+  private final VectorPTFSlidingMinMax slidingWindow =
+      new VectorPTFSlidingMinMax(/* isMax */ false, /* isLong */ true);
+
   public VectorPTFEvaluatorLongMin(WindowFrameDef windowFrameDef, VectorExpression inputVecExpr,
       int outputColumnNum) {
     super(windowFrameDef, inputVecExpr, outputColumnNum);
@@ -133,6 +137,23 @@ public Object getGroupResult() {
     return min;
   }
 
+  // Slide the window of the previous row, see VectorPTFEvaluatorLongMax.
+  @Override
+  public boolean canRunOptimizedCalculation(int rowNum, Range range) {
+    return inputVecExpr == null;
+  }
+
+  @Override
+  public Object runOnRange(int rowNum, Range range, VectorPTFGroupBatches batches)
+      throws HiveException {
+    return slidingWindow.slide(range, batches, inputColumnNum) ? slidingWindow.getLong() : null;
+  }
+
+  @Override
+  public void onPartitionEnd() {
+    slidingWindow.reset();
+  }
+
   @Override
   public void resetEvaluator() {
     isGroupResultNull = true;
@@ -18,7 +18,6 @@
 
 package org.apache.hadoop.hive.ql.exec.vector.ptf;
 
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +27,7 @@
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.common.type.HiveIntervalDayTime;
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.exec.PTFPartition;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
@@ -40,7 +40,6 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedBatchUtil;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorSpillBlockContainer.VectorSpillBlock;
-import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorRowBytesContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.metadata.HiveUtils;
 import org.apache.hadoop.hive.ql.udf.ptf.PTFRangeUtil;
@@ -67,6 +66,7 @@ public class VectorPTFGroupBatches extends PTFPartition {
 
   private int spillLimitBufferedBatchCount;
   private String spillLocalDirs;
+  private boolean isColumnarSpillEnabled;
 
   @VisibleForTesting
   ArrayList<BufferedVectorizedRowBatch> bufferedBatches;
@@ -280,6 +280,8 @@ public VectorPTFGroupBatches(Configuration hconf, int vectorizedPTFMaxMemoryBuff
     currentBufferedBatchCount = 0;
 
     spillLocalDirs = HiveUtils.getLocalDirList(hconf);
+    isColumnarSpillEnabled = HiveConf.getBoolVar(hconf,
+        HiveConf.ConfVars.HIVE_VECTORIZATION_PTF_COLUMNAR_SPILL_ENABLED);
 
     // Cannot be 0.
     spillLimitBufferedBatchCount = Math.max(1, vectorizedPTFMaxMemoryBufferingBatchCount);
@@ -304,7 +306,7 @@ public void init(VectorPTFEvaluatorBase[] evaluators, int[] outputProjectionColu
     }
 
     this.blocks = new VectorSpillBlockContainer(spillLimitBufferedBatchCount, spillLocalDirs,
-        bufferedColumnMap, bufferedTypeInfos);
+        bufferedColumnMap, bufferedTypeInfos, isColumnarSpillEnabled);
   }
 
   /**
@@ -709,60 +711,30 @@ private void prepareBufferedBatchForForwarding(BufferedVectorizedRowBatch buffer
   private void forwardSpilledBatches(VectorPTFOperator vecPTFOperator, Object[] partitionKey)
       throws HiveException {
 
-    overflowBatch.reset();
-    copyPartitionColumnToOverflow(partitionKey);
-
-    try {
-      for (int b = 0; b < blocks.size(); b++) {
-        VectorSpillBlock block = blocks.get(b);
-        if (blocks.isBlockInMemory(block)) {
-          /*
-           * Buffered blocks will be forwarded in forwardBufferedBatch. We can break instead of
-           * continue, as we already called jumpToLastBlock() before starting to forward batches to
-           * next operator, so the in-memory block should be the last block.
-           */
-          break;
-        }
-        block.setDoFinalRead(true);
-
-        VectorRowBytesContainer rowBytesContainer = block.getSpillRowBytesContainer();
-        rowBytesContainer.prepareForReading();
-        int batchIndex = 0;
-        long spillRowsRead = 0;
-
-        while (rowBytesContainer.readNext()) {
-          if (batchIndex < block.startRowIndex.length - 1
-              && overflowBatch.size == block.startRowIndex[batchIndex + 1]
-                  - block.startRowIndex[batchIndex]) {
-            fillGroupResults(overflowBatch, block.isLastGroupBatch[batchIndex]);
-            vecPTFOperator.forwardBatch(overflowBatch);
-
-            overflowBatch.reset();
-            copyPartitionColumnToOverflow(partitionKey);
-
-            batchIndex += 1;
-          }
-
-          block.readSingleRowFromBytesContainer(overflowBatch);
-          overflowBatch.size++;
-          spillRowsRead++;
-        }
-
-        if (overflowBatch.size > 0){
-          fillGroupResults(overflowBatch, block.isLastGroupBatch[batchIndex]);
-          vecPTFOperator.forwardBatch(overflowBatch);
+    for (int b = 0; b < blocks.size(); b++) {
+      VectorSpillBlock block = blocks.get(b);
+      if (blocks.isBlockInMemory(block)) {
+        /*
+         * Buffered blocks will be forwarded in forwardBufferedBatch. We can break instead of
+         * continue, as we already called jumpToLastBlock() before starting to forward batches to
+         * next operator, so the in-memory block should be the last block.
+         */
+        break;
+      }
+      block.setDoFinalRead(true);
+      block.prepareForReading();
 
-          overflowBatch.reset();
-          copyPartitionColumnToOverflow(partitionKey);
-        }
+      for (int batchIndex = 0; batchIndex < block.spillBatchCount; batchIndex++) {
+        overflowBatch.reset();
+        copyPartitionColumnToOverflow(partitionKey);
 
-        Preconditions.checkState(spillRowsRead == block.spillRowCount,
-            "error while checking forwardSpilledBatches state for spillRowsRead == block.spillRowCount, %s != %s (block %s/%s)",
-            spillRowsRead, block.spillRowCount, b, blocks.size() - 1);
+        block.readBatch(batchIndex, overflowBatch);
+        fillGroupResults(overflowBatch, block.isLastGroupBatch[batchIndex]);
+        vecPTFOperator.forwardBatch(overflowBatch);
       }
-    } catch (Exception e) {
-      throw new HiveException(e);
     }
+    overflowBatch.reset();
+    copyPartitionColumnToOverflow(partitionKey);
   }
 
   private void copyPartitionColumnToOverflow(Object[] partitionKey) {
@@ -1125,35 +1097,15 @@ private void readBlock(VectorSpillBlock block) throws HiveException {
   }
 
   private void readBlockFromSpillToMemory(VectorSpillBlock block) throws HiveException {
-    VectorRowBytesContainer rowBytesContainer = block.getSpillRowBytesContainer();
-    try {
-      rowBytesContainer.prepareForReading();
-
-      int batchIndex = 0;
-      bufferedBatches.get(batchIndex).reset();
-
-      /*
-       * On rowBytesContainer level, we have a row-wise structure. As we want to get the rows back
-       * into batches, we need to distribute them simply by filling the batches sequentially, but
-       * taking care of the original number of rows in the batches (startRowIndex).
-       */
-      while (rowBytesContainer.readNext()) {
-        if (batchIndex < block.startRowIndex.length - 1
-            && bufferedBatches.get(batchIndex).size == block.startRowIndex[batchIndex + 1]
-                - block.startRowIndex[batchIndex]) {
-          batchIndex += 1;
-          bufferedBatches.get(batchIndex).reset();
-        }
-        BufferedVectorizedRowBatch bufferedBatch = bufferedBatches.get(batchIndex);
-        block.readSingleRowFromBytesContainer(bufferedBatch);
-        bufferedBatch.size += 1;
-        bufferedBatch.isLastGroupBatch = block.isLastGroupBatch[batchIndex];
-      }
-      currentBufferedBatchCount = block.spillBatchCount;
-      partitionMetrics.batchesReadFromSpill += currentBufferedBatchCount;
-    } catch (IOException e) {
-      throw new HiveException(e);
-    }
+    block.prepareForReading();
+    for (int batchIndex = 0; batchIndex < block.spillBatchCount; batchIndex++) {
+      BufferedVectorizedRowBatch bufferedBatch = bufferedBatches.get(batchIndex);
+      bufferedBatch.reset();
+      block.readBatch(batchIndex, bufferedBatch);
+      bufferedBatch.isLastGroupBatch = block.isLastGroupBatch[batchIndex];
+    }
+    currentBufferedBatchCount = block.spillBatchCount;
+    partitionMetrics.batchesReadFromSpill += currentBufferedBatchCount;
   }
 
   private void spillAndResetCurrentBufferedBatches() throws HiveException {
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
+
+/**
+ * Monotonic deque that maintains min() or max() of a long or double column over a window that
+ * slides forward through a PTF partition, so each row of the partition is read once instead of
+ * once for every range that contains it.
+ *
+ * The deque holds the row numbers (and values) of the candidates for the current window in
+ * ascending row order, with values in descending (max) or ascending (min) order: a row is dropped
+ * as soon as a later row with a value at least as good is pushed, since it can never be the
+ * result again. The head of the deque is the result.
+ *
+ * The ranges of a partition are expected to move forward (that is the case for both ROWS and
+ * RANGE frames as rowNum ascends). If a range moves backwards, the deque is rebuilt from that
+ * range, which is no worse than evaluating the range batch by batch.
+ */
+class VectorPTFSlidingMinMax {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final boolean isMax;
+  private final boolean isLong;
+
+  // Ring buffer of the candidate rows and their values.
+  private int[] rows;
+  private long[] longValues;
+  private double[] doubleValues;
+  private int head;
+  private int count;
+
+  // The window covered by the deque: rows [windowStart, nextRow) have been seen.
+  private int windowStart;
+  private int nextRow;
+
+  VectorPTFSlidingMinMax(boolean isMax, boolean isLong) {
+    this.isMax = isMax;
+    this.isLong = isLong;
+    rows = new int[INITIAL_CAPACITY];
+    if (isLong) {
+      longValues = new long[INITIAL_CAPACITY];
+    } else {
+      doubleValues = new double[INITIAL_CAPACITY];
+    }
+    reset();
+  }
+
+  void reset() {
+    head = 0;
+    count = 0;
+    windowStart = 0;
+    nextRow = 0;
+  }
+
+  /**
+   * Moves the window to the range, reading the values of the new rows from the buffered column.
+   * @return false if there is no non-null value in the range.
+   */
+  boolean slide(Range range, VectorPTFGroupBatches batches, int columnNum) throws HiveException {
+    final int start = range.getStart();
+    final int end = range.getEnd();
+    if (start < windowStart || end < nextRow) {
+      reset();
+    }
+    if (nextRow < start) {
+      // The rows between the previous window and this one are never needed.
+      count = 0;
+      nextRow = start;
+    }
+    windowStart = start;
+
+    while (count > 0 && rows[head] < start) {
+      head = (head + 1) & (rows.length - 1);
+      count--;
+    }
+    for (; nextRow < end; nextRow++) {
+      Object value = batches.getValue(nextRow, columnNum);
+      if (value == null) {
+        continue;
+      }
+      if (isLong) {
+        pushLong(nextRow, (Long) value);
+      } else {
+        pushDouble(nextRow, (Double) value);
+      }
+    }
+    return count > 0;
+  }
+
+  private void pushLong(int row, long value) {
+    while (count > 0) {
+      final long last = longValues[tail()];
+      if (isMax ? last > value : last < value) {
+        break;
+      }
+      count--;
+    }
+    final int slot = append(row);
+    longValues[slot] = value;
+  }
+
+  private void pushDouble(int row, double value) {
+    while (count > 0) {
+      final double last = doubleValues[tail()];
+      if (isMax ? last > value : last < value) {
+        break;
+      }
+      count--;
+    }
+    final int slot = append(row);
+    doubleValues[slot] = value;
+  }
+
+  private int tail() {
+    return (head + count - 1) & (rows.length - 1);
+  }
+
+  private int append(int row) {
+    if (count == rows.length) {
+      grow();
+    }
+    final int slot = (head + count) & (rows.length - 1);
+    rows[slot] = row;
+    count++;
+    return slot;
+  }
+
+  private void grow() {
+    final int capacity = rows.length;
+    int[] newRows = new int[capacity * 2];
+    for (int i = 0; i < count; i++) {
+      newRows[i] = rows[(head + i) & (capacity - 1)];
+    }
+    rows = newRows;
+    if (isLong) {
+      long[] newValues = new long[capacity * 2];
+      for (int i = 0; i < count; i++) {
+        newValues[i] = longValues[(head + i) & (capacity - 1)];
+      }
+      longValues = newValues;
+    } else {
+      double[] newValues = new double[capacity * 2];
+      for (int i = 0; i < count; i++) {
+        newValues[i] = doubleValues[(head + i) & (capacity - 1)];
+      }
+      doubleValues = newValues;
+    }
+    head = 0;
+  }
+
+  long getLong() {
+    return longValues[head];
+  }
+
+  double getDouble() {
+    return doubleValues[head];
+  }
+}
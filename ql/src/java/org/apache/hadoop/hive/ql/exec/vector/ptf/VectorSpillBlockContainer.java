@@ -23,9 +23,11 @@
 import java.util.List;
 import java.util.stream.IntStream;
 
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnarBatchSerDe;
 import org.apache.hadoop.hive.ql.exec.vector.VectorDeserializeRow;
 import org.apache.hadoop.hive.ql.exec.vector.VectorSerializeRow;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorColumnarBatchContainer;
 import org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer.VectorRowBytesContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.serde2.ByteStream.Output;
@@ -36,10 +38,15 @@
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 
 /**
  * VectorSpillBlockContainer is a convenience wrapper class for handling block spills from
  * VectorPTFGroupBatches.
+ *
+ * Blocks are spilled batch by batch in a columnar form (VectorColumnarBatchContainer) when all the
+ * buffered column types are supported by VectorColumnarBatchSerDe and columnar spilling is
+ * enabled, otherwise row by row (VectorRowBytesContainer).
  */
 class VectorSpillBlockContainer {
   private final Logger LOG = LoggerFactory.getLogger(getClass());
@@ -49,6 +56,8 @@ class VectorSpillBlockContainer {
   private final String spillLocalDirs;
   private final int[] bufferedColumnMap;
   private final TypeInfo[] bufferedTypeInfos;
+  private final int[] bufferedColumnIdentityMap;
+  private final boolean isColumnarSpillEnabled;
 
   /**
    * Should contain the index of the first batch which is now in memory. So if the the block
@@ -153,6 +162,12 @@ class VectorSpillBlock {
     private boolean doFinalRead = false;
 
     private VectorRowBytesContainer spillRowBytesContainer;
+
+    /**
+     * Decided when the first batch of the block is spilled, see VectorSpillBlockContainer.
+     */
+    private boolean isColumnarSpill;
+    private VectorColumnarBatchContainer spillBatchContainer;
     private transient VectorSerializeRow bufferedBatchVectorSerializeRow;
     private transient VectorDeserializeRow bufferedBatchVectorDeserializeRow;
 
@@ -168,6 +183,10 @@ void releaseRowBytesContainer() {
         spillRowBytesContainer.clear();
         spillRowBytesContainer = null;
       }
+      if (spillBatchContainer != null) {
+        spillBatchContainer.clear();
+        spillBatchContainer = null;
+      }
     }
 
     VectorRowBytesContainer getSpillRowBytesContainer() throws HiveException {
@@ -211,7 +230,7 @@ private void initVectorDeserializeRow() throws HiveException{
 
       // Deserialize the fields into a batch using the buffered batch column map.
       bufferedBatchVectorDeserializeRow.init(
-          doFinalRead ? bufferedColumnMap : IntStream.range(0, bufferedColumnMap.length).toArray());
+          doFinalRead ? bufferedColumnMap : bufferedColumnIdentityMap);
     }
 
     public boolean isEmpty() {
@@ -220,7 +239,9 @@ public boolean isEmpty() {
 
     public void setDoFinalRead(boolean doFinalRead) throws HiveException {
       this.doFinalRead = doFinalRead;
-      initVectorDeserializeRow();
+      if (!isColumnarSpill) {
+        initVectorDeserializeRow();
+      }
     }
 
     @Override
@@ -248,6 +269,22 @@ public VectorDeserializeRow getBufferedBatchVectorDeserializeRow() {
     }
 
     public void spillBatch(BufferedVectorizedRowBatch batch) throws HiveException {
+      if (spillBatchCount == 0) {
+        isColumnarSpill = isColumnarSpillEnabled
+            && VectorColumnarBatchSerDe.isSupported(batch, bufferedColumnIdentityMap);
+      }
+      if (isColumnarSpill) {
+        if (spillBatchContainer == null) {
+          spillBatchContainer = new VectorColumnarBatchContainer(spillLocalDirs);
+        }
+        try {
+          spillBatchContainer.writeBatch(batch, bufferedColumnIdentityMap);
+        } catch (IOException e) {
+          throw new HiveException(e);
+        }
+        return;
+      }
+
       VectorRowBytesContainer rowBytesContainer = getSpillRowBytesContainer();
       VectorSerializeRow vectorSerializeRow = getVectorSerializeRow();
 
@@ -269,6 +306,58 @@ public void spillBatch(BufferedVectorizedRowBatch batch) throws HiveException {
       }
     }
 
+    /**
+     * Prepares reading the spilled batches of this block from the first one with readBatch.
+     */
+    public void prepareForReading() throws HiveException {
+      try {
+        if (isColumnarSpill) {
+          spillBatchContainer.prepareForReading();
+        } else {
+          getSpillRowBytesContainer().prepareForReading();
+        }
+      } catch (IOException e) {
+        throw new HiveException(e);
+      }
+    }
+
+    /**
+     * Reads the next spilled batch (batchIndex) of this block into the batch, either into the
+     * buffered column layout, or into the bufferedColumnMap columns for the final read.
+     */
+    public void readBatch(int batchIndex, VectorizedRowBatch batch) throws HiveException {
+      final int rowCount = getBatchRowCount(batchIndex);
+      try {
+        if (isColumnarSpill) {
+          if (!spillBatchContainer.readNextBatch(batch,
+              doFinalRead ? bufferedColumnMap : bufferedColumnIdentityMap)) {
+            throw new HiveException("Spilled batch " + batchIndex + " is missing in " + this);
+          }
+        } else {
+          VectorRowBytesContainer rowBytesContainer = getSpillRowBytesContainer();
+          for (int i = 0; i < rowCount; i++) {
+            if (!rowBytesContainer.readNext()) {
+              throw new HiveException("Spilled row " + i + " of batch " + batchIndex
+                  + " is missing in " + this);
+            }
+            readSingleRowFromBytesContainer(batch);
+            batch.size++;
+          }
+        }
+      } catch (IOException e) {
+        throw new HiveException(e);
+      }
+      Preconditions.checkState(batch.size == rowCount,
+          "Read %s rows instead of %s for spilled batch %s in %s", batch.size, rowCount,
+          batchIndex, this);
+    }
+
+    private int getBatchRowCount(int batchIndex) {
+      final int endRowIndex = (batchIndex < spillBatchCount - 1)
+          ? startRowIndex[batchIndex + 1] : (int) (startRowIndex[0] + spillRowCount);
+      return endRowIndex - startRowIndex[batchIndex];
+    }
+
     /**
      * Reads a single row from a VectorRowBytesContainer. Caller is responsible for calling and
      * checking readNext in advance.
@@ -297,11 +386,13 @@ public void readSingleRowFromBytesContainer(VectorizedRowBatch batch) throws Hiv
   }
 
   public VectorSpillBlockContainer(int blockSize, String spillLocalDirs,
-      int[] bufferedColumnMap, TypeInfo[] bufferedTypeInfos) {
+      int[] bufferedColumnMap, TypeInfo[] bufferedTypeInfos, boolean isColumnarSpillEnabled) {
     this.blockSize = blockSize;
     this.spillLocalDirs = spillLocalDirs;
     this.bufferedColumnMap = bufferedColumnMap;
     this.bufferedTypeInfos = bufferedTypeInfos;
+    this.bufferedColumnIdentityMap = IntStream.range(0, bufferedColumnMap.length).toArray();
+    this.isColumnarSpillEnabled = isColumnarSpillEnabled;
   }
 
   int size() {
@@ -29,12 +29,14 @@
 import org.apache.hadoop.hive.ql.exec.TerminalOperator;
 import org.apache.hadoop.hive.ql.exec.TopNHash;
 import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnarBatchSerDe;
 import org.apache.hadoop.hive.ql.exec.vector.VectorSerializeRow;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContextRegion;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationOperator;
 import org.apache.hadoop.hive.ql.exec.vector.expressions.VectorExpression;
 import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.apache.hadoop.hive.ql.io.NonSyncDataOutputBuffer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.BaseWork;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
@@ -119,6 +121,11 @@ public abstract class VectorReduceSinkCommonOperator extends TerminalOperator<Re
   // The output buffer used to serialize a value into.
   protected transient Output valueOutput;
 
+  // Whether each batch is sent as a single columnar value instead of a LazyBinary value per row.
+  protected transient boolean isColumnarBatchValues;
+  protected transient VectorColumnarBatchSerDe valueBatchSerDe;
+  protected transient NonSyncDataOutputBuffer valueBatchOutput;
+
   // The hive key and bytes writable value needed to pass the key and value to the collector.
   protected transient HiveKey keyWritable;
   protected transient BytesWritable valueBytesWritable;
@@ -284,6 +291,12 @@ protected void initializeOp(Configuration hconf) throws HiveException {
 
       valueOutput = new Output();
       valueVectorSerializeRow.setOutput(valueOutput);
+
+      isColumnarBatchValues = vectorDesc.getIsColumnarBatchValues();
+      if (isColumnarBatchValues) {
+        valueBatchSerDe = new VectorColumnarBatchSerDe();
+        valueBatchOutput = new NonSyncDataOutputBuffer();
+      }
     }
 
     keyWritable = new HiveKey();
@@ -345,13 +358,28 @@ protected void collect(HiveKey keyWritable, BytesWritable valueWritable)
     }
   }
 
+  /*
+   * Collect a value that holds rowCount rows. The Vectorizer only sends batches as values when
+   * there is no TopNHash.
+   */
+  protected void collectBatch(HiveKey keyWritable, BytesWritable valueWritable, int rowCount)
+      throws IOException {
+    Preconditions.checkState(reducerHash == null);
+    doCollect(keyWritable, valueWritable, rowCount);
+  }
+
   private void doCollect(HiveKey keyWritable, BytesWritable valueWritable) throws IOException {
+    doCollect(keyWritable, valueWritable, 1);
+  }
+
+  private void doCollect(HiveKey keyWritable, BytesWritable valueWritable, int rowCount)
+      throws IOException {
     // Since this is a terminal operator, update counters explicitly -
     // forward is not called
     if (null != out) {
-      numRows++;
+      numRows += rowCount;
       if (LOG.isInfoEnabled()) {
-        if (numRows == cntr) {
+        if (numRows >= cntr) {
           cntr = logEveryNRows == 0 ? cntr * 10 : numRows + logEveryNRows;
           if (cntr < 0 || numRows < 0) {
             cntr = 0;
@@ -103,7 +103,15 @@ public void process(Object row, int tag) throws HiveException {
       }
 
       final int size = batch.size;
-      if (!isEmptyValue) {
+      if (isColumnarBatchValues) {
+
+        // The whole batch goes in one value; the reducer deserializes it straight into its batch.
+        valueBatchOutput.reset();
+        valueBatchSerDe.serialize(valueBatchOutput, batch, reduceSinkValueColumnMap);
+        valueBytesWritable.set(valueBatchOutput.getData(), 0, valueBatchOutput.getLength());
+
+        collectBatch(keyWritable, valueBytesWritable, size);
+      } else if (!isEmptyValue) {
         if (batch.selectedInUse) {
           int[] selected = batch.selected;
           for (int logical = 0; logical < size; logical++) {
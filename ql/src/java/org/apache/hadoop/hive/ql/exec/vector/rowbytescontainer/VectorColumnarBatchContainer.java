@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.rowbytescontainer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.hive.common.FileUtils;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnarBatchSerDe;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The columnar counterpart of VectorRowBytesContainer: an eager container that writes whole
+ * batches to a local file with VectorColumnarBatchSerDe, and reads them back batch by batch.
+ *
+ * Batches can be appended after a read, prepareForReading always starts reading from the first
+ * batch.
+ */
+public class VectorColumnarBatchContainer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorColumnarBatchContainer.class);
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final String spillLocalDirs;
+  private final VectorColumnarBatchSerDe serDe = new VectorColumnarBatchSerDe();
+
+  private File parentDir;
+  private File tmpFile;
+
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+
+  private int writeBatchCount;
+  private int readBatchCount;
+
+  public VectorColumnarBatchContainer(String spillLocalDirs) {
+    this.spillLocalDirs = spillLocalDirs;
+  }
+
+  private void setupOutputFileStreams() throws IOException {
+    parentDir = FileUtils.createLocalDirsTempFile(spillLocalDirs, "batch-container", "", true);
+    parentDir.deleteOnExit();
+    tmpFile = File.createTempFile("BatchContainer", ".tmp", parentDir);
+    LOG.debug("BatchContainer created temp file " + tmpFile.getAbsolutePath());
+    tmpFile.deleteOnExit();
+
+    outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE));
+  }
+
+  public void writeBatch(VectorizedRowBatch batch, int[] columnMap) throws IOException {
+    if (outputStream == null) {
+      setupOutputFileStreams();
+    }
+    serDe.serialize(outputStream, batch, columnMap);
+    writeBatchCount++;
+  }
+
+  public void prepareForReading() throws IOException {
+    if (outputStream == null) {
+      return;
+    }
+    outputStream.flush();
+    if (inputStream != null) {
+      inputStream.close();
+    }
+    inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(tmpFile), BUFFER_SIZE));
+    readBatchCount = 0;
+  }
+
+  /**
+   * Reads the next batch into the columns of the columnMap.
+   * @return false if all the written batches have been read.
+   */
+  public boolean readNextBatch(VectorizedRowBatch batch, int[] columnMap) throws IOException {
+    if (inputStream == null || readBatchCount >= writeBatchCount) {
+      return false;
+    }
+    serDe.deserialize(inputStream, batch, columnMap);
+    readBatchCount++;
+    return true;
+  }
+
+  public int getBatchCount() {
+    return writeBatchCount;
+  }
+
+  public void clear() {
+    if (inputStream != null) {
+      try {
+        inputStream.close();
+      } catch (Throwable ignored) {
+      }
+      inputStream = null;
+    }
+    if (outputStream != null) {
+      try {
+        outputStream.close();
+      } catch (Throwable ignored) {
+      }
+      outputStream = null;
+    }
+
+    if (parentDir != null) {
+      try {
+        FileUtil.fullyDelete(parentDir);
+      } catch (Throwable ignored) {
+      }
+    }
+    parentDir = null;
+    tmpFile = null;
+    writeBatchCount = 0;
+    readBatchCount = 0;
+  }
+}
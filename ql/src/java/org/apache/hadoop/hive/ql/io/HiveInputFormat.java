@@ -262,6 +262,11 @@ public static InputFormat<WritableComparable, Writable> wrapForLlap(
       // See if we can use re-encoding to read the format thru IO elevator.
       isSupported = isSerdeBased = checkInputFormatForLlapEncode(conf, ifName);
     }
+    if (!isSupported && isCacheOnly && Utilities.getIsVectorized(conf)
+        && HiveConf.getBoolVar(conf, ConfVars.LLAP_IO_PARQUET_ELEVATOR_ENABLED)) {
+      // Read through the IO elevator; if LLAP IO cannot wrap the format, caches are injected below.
+      isSupported = true;
+    }
     if ((!isSupported || !isVectorized) && !isCacheOnly) {
       LOG.info("Not using llap for " + ifName + ": supported = " + isSupported + ", vectorized = " + isVectorized
           + ", cache only = " + isCacheOnly);
@@ -162,6 +162,15 @@ public float getProgress() throws IOException {
     }
   }
 
+  /**
+   * Creates a vectorized reader over an already opened ORC file, for callers that inspect the
+   * file (e.g. its schema) before reading it.
+   */
+  public static RecordReader<NullWritable, VectorizedRowBatch> createRecordReader(Reader file,
+      Configuration conf, FileSplit fileSplit) throws IOException {
+    return new VectorizedOrcRecordReader(file, conf, fileSplit);
+  }
+
   public VectorizedOrcInputFormat() {
     // just set a really small lower bound
     setMinSplitSize(16 * 1024);
@@ -366,6 +366,13 @@ public long getLength() throws IOException {
   private DataCache cache;
   private Configuration cacheConf;
 
+  /**
+   * @return the schema of the file, or null if the split has no row group to read.
+   */
+  public MessageType getFileSchema() {
+    return fileSchema;
+  }
+
   @Override
   public boolean next(
     NullWritable nullWritable,
@@ -156,6 +156,8 @@
 import org.apache.hadoop.hive.metastore.api.PartitionSpec;
 import org.apache.hadoop.hive.metastore.api.PartitionWithoutSD;
 import org.apache.hadoop.hive.metastore.api.PartitionsByExprRequest;
+import org.apache.hadoop.hive.metastore.api.PartitionsRequest;
+import org.apache.hadoop.hive.metastore.api.PartitionsResponse;
 import org.apache.hadoop.hive.metastore.api.PrimaryKeysRequest;
 import org.apache.hadoop.hive.metastore.api.PrincipalPrivilegeSet;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
@@ -3822,6 +3824,36 @@ public List<Partition> getPartitions(Table tbl) throws HiveException {
     }
   }
 
+  /**
+   * Get a page of the partitions of a table, ordered by partition name; does not include auth.
+   * @param tbl table for which partitions are needed
+   * @param continuationToken the token returned with the previous page, or an empty string for
+   *          the first page
+   * @param maxParts maximum number of partitions in the page
+   * @return the partitions of the page and the token of the next page, which is empty after the
+   *         last page; the token is not set if the metastore does not support paging
+   */
+  public PartitionsResponse getPartitionsPage(Table tbl, String continuationToken, int maxParts)
+      throws HiveException {
+    if (!tbl.isPartitioned()) {
+      throw new HiveException(ErrorMsg.TABLE_NOT_PARTITIONED, tbl.getTableName());
+    }
+    PartitionsRequest req = new PartitionsRequest(tbl.getDbName(), tbl.getTableName());
+    req.setCatName(tbl.getCatName());
+    req.setMaxParts((short) Math.min(maxParts, Short.MAX_VALUE));
+    req.setContinuationToken(continuationToken);
+    if (AcidUtils.isTransactionalTable(tbl)) {
+      ValidWriteIdList validWriteIdList = getValidWriteIdList(tbl.getDbName(), tbl.getTableName());
+      req.setValidWriteIdList(validWriteIdList != null ? validWriteIdList.toString() : null);
+      req.setId(tbl.getTTable().getId());
+    }
+    try {
+      return getMSC().getPartitionsRequest(req);
+    } catch (Exception e) {
+      throw new HiveException(e);
+    }
+  }
+
   /**
    * Get all the partitions; unlike {@link #getPartitions(Table)}, does not include auth.
    * @param tbl table for which partitions are needed
@@ -23,6 +23,10 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hive.metastore.api.PartitionsResponse;
+import org.apache.thrift.TApplicationException;
 
 /**
  * PartitionIterable - effectively a lazy Iterable&lt;Partition&gt;
@@ -37,9 +41,11 @@
  * in a large number of calls, so use sparingly only when the memory cost
  * of fetching all the partitions in one shot is too prohibitive.
  *
- * This is still pretty costly in that it would retain a list of partition
- * names, but that should be far less expensive than the entire partition
- * objects.
+ * All the partitions of a table are fetched in pages, each starting after
+ * the last partition of the previous one. Otherwise, e.g. for a partial
+ * partition spec, this is still pretty costly in that it would retain a list
+ * of partition names, but that should be far less expensive than the entire
+ * partition objects.
  *
  * Note that remove() is an illegal call on this, and will result in an
  * IllegalStateException.
@@ -55,12 +61,14 @@ public Iterator<Partition> iterator() {
 
       private Iterator<String> partitionNamesIter = null;
       private Iterator<Partition> batchIter = null;
+      // null before the first page, empty after the last one
+      private String continuationToken = null;
 
       private void initialize(){
         if(!initialized){
           if (currType == Type.LIST_PROVIDED){
             ptnsIterator = ptnsProvided.iterator();
-          } else {
+          } else if (partitionNames != null) {
             partitionNamesIter = partitionNames.iterator();
           }
           initialized = true;
@@ -72,9 +80,12 @@ public boolean hasNext() {
         initialize();
         if (currType == Type.LIST_PROVIDED){
           return ptnsIterator.hasNext();
-        } else {
-          return ((batchIter != null) && batchIter.hasNext()) || partitionNamesIter.hasNext();
         }
+        // A page may be empty if all its partitions are filtered out.
+        while (((batchIter == null) || !batchIter.hasNext()) && hasMoreBatches()) {
+          getNextBatch();
+        }
+        return (batchIter != null) && batchIter.hasNext();
       }
 
       @Override
@@ -83,15 +94,24 @@ public Partition next() {
         if (currType == Type.LIST_PROVIDED){
           return ptnsIterator.next();
         }
-
-        if ((batchIter == null) || !batchIter.hasNext()){
-          getNextBatch();
+        if (!hasNext()) {
+          throw new NoSuchElementException();
         }
-
         return batchIter.next();
       }
 
+      private boolean hasMoreBatches() {
+        if (partitionNamesIter != null) {
+          return partitionNamesIter.hasNext();
+        }
+        return (continuationToken == null) || !continuationToken.isEmpty();
+      }
+
       private void getNextBatch() {
+        if (partitionNamesIter == null) {
+          getNextPage();
+          return;
+        }
         int batchCounter = 0;
         List<String> nameBatch = new ArrayList<String>();
         while (batchCounter < batchSize && partitionNamesIter.hasNext()){
@@ -105,6 +125,46 @@ private void getNextBatch() {
         }
       }
 
+      private void getNextPage() {
+        try {
+          PartitionsResponse res;
+          try {
+            res = db.getPartitionsPage(table,
+                (continuationToken == null) ? "" : continuationToken, batchSize);
+          } catch (HiveException e) {
+            if (!isUnknownMethod(e.getCause())) {
+              throw e;
+            }
+            // The metastore does not have get_partitions_req at all.
+            res = null;
+          }
+          if (res == null || !res.isSetContinuationToken()) {
+            // The metastore ignored the token and returned the first partitions only.
+            partitionNamesIter = db.getPartitionNames(
+                table.getDbName(), table.getTableName(), (short) -1).iterator();
+            batchIter = null;
+            return;
+          }
+          List<Partition> page = new ArrayList<Partition>(res.getPartitionsSize());
+          for (org.apache.hadoop.hive.metastore.api.Partition tPart : res.getPartitions()) {
+            page.add(new Partition(table, tPart));
+          }
+          batchIter = page.iterator();
+          continuationToken = res.getContinuationToken();
+        } catch (HiveException e) {
+          throw new RuntimeException(e);
+        }
+      }
+
+      private boolean isUnknownMethod(Throwable t) {
+        if (!(t instanceof TApplicationException)) {
+          return false;
+        }
+        int type = ((TApplicationException) t).getType();
+        return type == TApplicationException.UNKNOWN_METHOD
+            || type == TApplicationException.WRONG_METHOD_NAME;
+      }
+
       @Override
       public void remove() {
         throw new IllegalStateException(
@@ -127,6 +187,7 @@ enum Type {
   private Hive db = null; // Assumes one instance of this + single-threaded compilation for each query.
   private Table table = null;
   private Map<String, String> partialPartitionSpec = null;
+  // null when the partitions are fetched in pages
   private List<String> partitionNames = null;
   private int batchSize;
   private boolean getColStats = false;
@@ -164,8 +225,11 @@ public PartitionIterable(Hive db, Table table, Map<String, String> partialPartit
     this.getColStats = getColStats;
 
     if (this.partialPartitionSpec == null){
-      partitionNames = db.getPartitionNames(
-          table.getDbName(),table.getTableName(), (short) -1);
+      if (getColStats) {
+        // The pages do not include the column statistics, so the partitions are fetched by name.
+        partitionNames = db.getPartitionNames(
+            table.getDbName(),table.getTableName(), (short) -1);
+      }
     } else {
       partitionNames = db.getPartitionNames(
           table.getDbName(),table.getTableName(),partialPartitionSpec,(short)-1);
@@ -21,6 +21,7 @@
 import static org.apache.hadoop.hive.ql.plan.ReduceSinkDesc.ReducerTraits.FIXED;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +29,10 @@
 import java.util.Set;
 import java.util.Stack;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.FilterOperator;
+import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
 import org.apache.hadoop.hive.ql.exec.HashTableDummyOperator;
 import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
 import org.apache.hadoop.hive.ql.exec.Operator;
@@ -35,16 +40,21 @@
 import org.apache.hadoop.hive.ql.exec.OperatorUtils;
 import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
 import org.apache.hadoop.hive.ql.exec.RowSchema;
+import org.apache.hadoop.hive.ql.exec.SelectOperator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.lib.Node;
 import org.apache.hadoop.hive.ql.lib.SemanticNodeProcessor;
 import org.apache.hadoop.hive.ql.lib.NodeProcessorCtx;
+import org.apache.hadoop.hive.ql.optimizer.signature.OpTreeSignature;
 import org.apache.hadoop.hive.ql.parse.GenTezProcContext;
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.plan.BaseWork;
 import org.apache.hadoop.hive.ql.plan.ColStatistics;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicListDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicValueDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
 import org.apache.hadoop.hive.ql.plan.HashTableDummyDesc;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
 import org.apache.hadoop.hive.ql.plan.OpTraits;
@@ -53,11 +63,13 @@
 import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
 import org.apache.hadoop.hive.ql.plan.Statistics;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
 import org.apache.hadoop.hive.ql.plan.TezEdgeProperty;
 import org.apache.hadoop.hive.ql.plan.TezEdgeProperty.EdgeType;
 import org.apache.hadoop.hive.ql.plan.TezWork;
 import org.apache.hadoop.hive.ql.plan.TezWork.VertexType;
 import org.apache.hadoop.hive.ql.stats.StatsUtils;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
 import org.apache.hadoop.hive.ql.util.NullOrdering;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -138,6 +150,83 @@ public static BaseWork getMapJoinParentWork(GenTezProcContext context, Operator<
     return parentWork;
   }
 
+  /**
+   * Returns the table scan of a small table side whose hash table only depends on the scanned
+   * transactional table snapshot, so it can be shared across queries: a chain of deterministic
+   * filters and selects over one table scan. Returns null otherwise.
+   */
+  private static TableScanOperator getSharedHashTableScan(ReduceSinkOperator parentRS) {
+    ReduceSinkDesc rsDesc = parentRS.getConf();
+    if (!isSharable(rsDesc.getKeyCols()) || !isSharable(rsDesc.getValueCols())) {
+      return null;
+    }
+    Operator<?> op = parentRS;
+    while (true) {
+      List<Operator<? extends OperatorDesc>> parents = op.getParentOperators();
+      if (parents == null || parents.size() != 1) {
+        return null;
+      }
+      op = parents.get(0);
+      if (op instanceof TableScanOperator) {
+        break;
+      } else if (op instanceof FilterOperator) {
+        if (!isSharable(Collections.singletonList(((FilterOperator) op).getConf().getPredicate()))) {
+          return null;
+        }
+      } else if (op instanceof SelectOperator) {
+        if (!isSharable(((SelectOperator) op).getConf().getColList())) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    }
+    TableScanOperator ts = (TableScanOperator) op;
+    TableScanDesc tsDesc = ts.getConf();
+    if (tsDesc.getTableMetadata() == null || tsDesc.isTemporary() || !tsDesc.isTranscationalTable() ||
+        tsDesc.isFetchDeletedRows() || tsDesc.getRowLimit() >= 0 ||
+        (tsDesc.getFilterExpr() != null &&
+            !isSharable(Collections.singletonList(tsDesc.getFilterExpr())))) {
+      return null;
+    }
+    return ts;
+  }
+
+  /**
+   * Whether the expressions evaluate the same in every query: no runtime (semijoin or dynamic
+   * partition pruning) values and no non-deterministic or runtime constant functions.
+   */
+  private static boolean isSharable(List<ExprNodeDesc> exprs) {
+    if (exprs == null) {
+      return true;
+    }
+    for (ExprNodeDesc expr : exprs) {
+      if (expr == null) {
+        continue;
+      }
+      if (expr instanceof ExprNodeDynamicValueDesc || expr instanceof ExprNodeDynamicListDesc) {
+        return false;
+      }
+      if (expr instanceof ExprNodeGenericFuncDesc) {
+        GenericUDF udf = ((ExprNodeGenericFuncDesc) expr).getGenericUDF();
+        if (!FunctionRegistry.isDeterministic(udf) || FunctionRegistry.isRuntimeConstant(udf)) {
+          return false;
+        }
+      }
+      if (!isSharable(expr.getChildren())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getSharedHashTableDigest(ReduceSinkOperator parentRS, TableScanOperator ts) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(OpTreeSignature.of(parentRS).toString());
+    sb.append("neededColumns = ").append(ts.getConf().getNeededColumns()).append('\n');
+    return DigestUtils.sha256Hex(sb.toString());
+  }
+
   public static Object processReduceSinkToHashJoin(ReduceSinkOperator parentRS, MapJoinOperator mapJoinOp,
       GenTezProcContext context) throws SemanticException {
     // remove the tag for in-memory side of mapjoin
@@ -228,6 +317,16 @@ public static Object processReduceSinkToHashJoin(ReduceSinkOperator parentRS, Ma
       joinConf.getParentKeyCounts().put(pos, keyCount);
     }
     joinConf.getParentDataSizes().put(pos, tableSize);
+    if (!joinConf.isBucketMapJoin() && !joinConf.isDynamicPartitionHashJoin() &&
+        HiveConf.getBoolVar(context.conf, HiveConf.ConfVars.LLAP_MAPJOIN_SHARED_HASHTABLE_CACHE_ENABLED)) {
+      TableScanOperator sharedTableScan = getSharedHashTableScan(parentRS);
+      if (sharedTableScan != null) {
+        joinConf.getParentSharedHashTableDigests().put(pos,
+            getSharedHashTableDigest(parentRS, sharedTableScan));
+        joinConf.getParentSharedHashTableNames().put(pos,
+            sharedTableScan.getConf().getTableMetadata().getFullyQualifiedName());
+      }
+    }
 
     int numBuckets = -1;
     EdgeType edgeType = EdgeType.BROADCAST_EDGE;
@@ -93,6 +93,7 @@
 import org.apache.hadoop.hive.ql.exec.vector.VectorMapJoinOperator;
 import org.apache.hadoop.hive.ql.exec.vector.VectorMapJoinOuterFilteredOperator;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext;
+import org.apache.hadoop.hive.ql.exec.vector.VectorColumnarBatchSerDe;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationOperator;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedUDAFs;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizationContext.HiveVectorAdaptorUsageMode;
@@ -160,6 +161,7 @@
 import org.apache.hadoop.hive.ql.plan.SparkWork;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.plan.TezEdgeProperty.EdgeType;
 import org.apache.hadoop.hive.ql.plan.TezWork;
 import org.apache.hadoop.hive.ql.plan.VectorGroupByDesc;
 import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
@@ -323,6 +325,8 @@ public enum EnabledOverride {
   private boolean useRowDeserialize;
   private boolean isReduceVectorizationEnabled;
   private boolean isPtfVectorizationEnabled;
+  private boolean isPtfSlidingWindowVectorizationEnabled;
+  private boolean isReduceSinkColumnarBatchEnabled;
   private boolean isVectorizationComplexTypesEnabled;
 
   // Now deprecated.
@@ -1045,6 +1049,9 @@ public Object dispatch(Node nd, Stack<Node> stack, Object... nodeOutputs)
             logMergeJoinWorkExplainVectorization(mergeJoinWork);
           }
         }
+        if (isReduceVectorizationEnabled && isReduceSinkColumnarBatchEnabled) {
+          setColumnarBatchValues(work);
+        }
       } else if (currTask instanceof SparkTask) {
         SparkWork sparkWork = (SparkWork) currTask.getWork();
         for (BaseWork baseWork : sparkWork.getAllWork()) {
@@ -2475,6 +2482,12 @@ public PhysicalContext resolve(PhysicalContext physicalContext) throws SemanticE
     isPtfVectorizationEnabled =
         HiveConf.getBoolVar(hiveConf,
             HiveConf.ConfVars.HIVE_VECTORIZATION_PTF_ENABLED);
+    isPtfSlidingWindowVectorizationEnabled =
+        HiveConf.getBoolVar(hiveConf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_PTF_SLIDING_WINDOW_ENABLED);
+    isReduceSinkColumnarBatchEnabled =
+        HiveConf.getBoolVar(hiveConf,
+            HiveConf.ConfVars.HIVE_VECTORIZATION_REDUCESINK_COLUMNAR_BATCH_ENABLED);
 
     isVectorizationComplexTypesEnabled =
         HiveConf.getBoolVar(hiveConf,
@@ -2931,9 +2944,34 @@ private boolean validatePTFOperator(PTFOperator op, VectorizationContext vContex
           (singleTypeInfo instanceof PrimitiveTypeInfo ?
               ((PrimitiveTypeInfo) singleTypeInfo).getPrimitiveCategory() : null);
 
+      final boolean isLeadLag = (supportedFunctionType == SupportedFunctionType.LEAD ||
+          supportedFunctionType == SupportedFunctionType.LAG);
+      if (isLeadLag) {
+        if (!validateLeadLag(functionName, exprNodeDescList)) {
+          return false;
+        }
+        // The window frame does not matter for lead/lag.
+        continue;
+      }
+
+      // A sliding window has a bounded end, which the evaluators handle by sliding the window
+      // of the previous row (see VectorPTFSlidingMinMax and the sum/avg/count optimizations).
+      final boolean isSlidingWindow =
+          (isPtfSlidingWindowVectorizationEnabled &&
+          !windowFrameDef.getEnd().isCurrentRow() &&
+          !windowFrameDef.isEndUnbounded() &&
+          (supportedFunctionType == SupportedFunctionType.AVG ||
+           supportedFunctionType == SupportedFunctionType.MAX ||
+           supportedFunctionType == SupportedFunctionType.MIN ||
+           supportedFunctionType == SupportedFunctionType.SUM ||
+           supportedFunctionType == SupportedFunctionType.COUNT) &&
+          !distinctEvaluator[i] &&
+          isSingleParameter &&
+          singlePrimitiveCategory != null);
+
       switch (windowFrameDef.getWindowType()) {
       case RANGE:
-        if (!windowFrameDef.getEnd().isCurrentRow()) {
+        if (!windowFrameDef.getEnd().isCurrentRow() && !isSlidingWindow) {
           setOperatorIssue(functionName + " only CURRENT ROW end frame is supported for RANGE");
           return false;
         }
@@ -2948,7 +2986,7 @@ private boolean validatePTFOperator(PTFOperator op, VectorizationContext vContex
                supportedFunctionType == SupportedFunctionType.SUM) &&
               isSingleParameter &&
               singlePrimitiveCategory != null);
-          if (!isRowEndCurrent && !windowFrameDef.isEndUnbounded()) {
+          if (!isRowEndCurrent && !windowFrameDef.isEndUnbounded() && !isSlidingWindow) {
             setOperatorIssue(
                 functionName + " UNBOUNDED end frame is required for ROWS window type");
             return false;
@@ -3023,6 +3061,41 @@ private boolean validatePTFOperator(PTFOperator op, VectorizationContext vContex
     return true;
   }
 
+  /*
+   * lead/lag read the values of other rows from the buffered batches directly, so the first
+   * argument must be a long or double column and the amount a constant. The default value
+   * argument is not supported.
+   */
+  private boolean validateLeadLag(String functionName, List<ExprNodeDesc> exprNodeDescList) {
+    if (!isPtfSlidingWindowVectorizationEnabled) {
+      setOperatorIssue(functionName + " is only vectorized when " +
+          HiveConf.ConfVars.HIVE_VECTORIZATION_PTF_SLIDING_WINDOW_ENABLED.varname + " is true");
+      return false;
+    }
+    if (exprNodeDescList == null || exprNodeDescList.size() > 2) {
+      setOperatorIssue(functionName + " is only supported with 1 or 2 arguments");
+      return false;
+    }
+    ExprNodeDesc exprNodeDesc = exprNodeDescList.get(0);
+    if (!(exprNodeDesc instanceof ExprNodeColumnDesc)) {
+      setOperatorIssue(functionName + " is only supported over a column");
+      return false;
+    }
+    TypeInfo typeInfo = exprNodeDesc.getTypeInfo();
+    ColumnVector.Type colVecType = (typeInfo.getCategory() == Category.PRIMITIVE ?
+        VectorizationContext.getColumnVectorTypeFromTypeInfo(typeInfo) : null);
+    if (colVecType != ColumnVector.Type.LONG && colVecType != ColumnVector.Type.DOUBLE) {
+      setOperatorIssue(typeInfo.getTypeName() + " data type not supported in argument expression of " +
+          functionName);
+      return false;
+    }
+    if (VectorPTFDesc.getLeadLagAmt(exprNodeDescList) < 0) {
+      setOperatorIssue(functionName + " amount must be an integer constant");
+      return false;
+    }
+    return true;
+  }
+
   private boolean validateExprNodeDesc(List<ExprNodeDesc> descs, String expressionTitle) {
     return validateExprNodeDesc(
         descs, expressionTitle, VectorExpressionDescriptor.Mode.PROJECTION, /* allowComplex */ true);
@@ -4084,6 +4157,79 @@ private Operator<? extends OperatorDesc> specializeReduceSinkOperator(
     return vectorOp;
   }
 
+  /*
+   * Once all the works of the Tez DAG are vectorized, switch the vectorized reducers whose only
+   * input comes from native empty key ReduceSinks to whole batch values. Both sides have to agree
+   * on the value format, so the reducer and every ReduceSink feeding it are switched together.
+   *
+   * Decimal values are not sent as batches since the map side column may be DECIMAL_64 while the
+   * reducer reads a DecimalColumnVector.
+   */
+  private void setColumnarBatchValues(TezWork tezWork) {
+    for (BaseWork baseWork : tezWork.getAllWork()) {
+      if (!(baseWork instanceof ReduceWork)) {
+        continue;
+      }
+      ReduceWork reduceWork = (ReduceWork) baseWork;
+      if (!reduceWork.getVectorMode() || reduceWork.getTagToValueDesc().size() != 1) {
+        continue;
+      }
+
+      List<VectorReduceSinkDesc> vectorDescs = new ArrayList<VectorReduceSinkDesc>();
+      boolean isSupported = true;
+      for (BaseWork parentWork : tezWork.getParents(reduceWork)) {
+        EdgeType edgeType = tezWork.getEdgeType(parentWork, reduceWork);
+        if (edgeType != EdgeType.SIMPLE_EDGE && edgeType != EdgeType.CUSTOM_SIMPLE_EDGE) {
+          isSupported = false;
+          break;
+        }
+        for (Operator<? extends OperatorDesc> op : parentWork.getAllLeafOperators()) {
+          if (!(op.getConf() instanceof ReduceSinkDesc)) {
+            continue;
+          }
+          ReduceSinkDesc desc = (ReduceSinkDesc) op.getConf();
+          if (!reduceWork.getName().equals(desc.getOutputName())) {
+            continue;
+          }
+          if (!(op instanceof VectorReduceSinkEmptyKeyOperator) || desc.getTopN() >= 0) {
+            isSupported = false;
+            break;
+          }
+          VectorReduceSinkDesc vectorDesc =
+              (VectorReduceSinkDesc) ((VectorizationOperator) op).getVectorDesc();
+          if (vectorDesc.getIsEmptyValue()) {
+            isSupported = false;
+            break;
+          }
+          for (Type columnVectorType :
+              vectorDesc.getVectorReduceSinkInfo().getReduceSinkValueColumnVectorTypes()) {
+            if (columnVectorType == Type.DECIMAL ||
+                !VectorColumnarBatchSerDe.isSupported(columnVectorType)) {
+              isSupported = false;
+              break;
+            }
+          }
+          if (!isSupported) {
+            break;
+          }
+          vectorDescs.add(vectorDesc);
+        }
+        if (!isSupported) {
+          break;
+        }
+      }
+      if (!isSupported || vectorDescs.isEmpty()) {
+        continue;
+      }
+
+      LOG.info("Using columnar batch values for reducer " + reduceWork.getName());
+      for (VectorReduceSinkDesc vectorDesc : vectorDescs) {
+        vectorDesc.setIsColumnarBatchValues(true);
+      }
+      reduceWork.setIsColumnarBatchValues(true);
+    }
+  }
+
   private boolean canSpecializeReduceSink(ReduceSinkDesc desc,
       boolean isTezOrSpark, VectorizationContext vContext,
       VectorReduceSinkDesc vectorDesc) throws HiveException {
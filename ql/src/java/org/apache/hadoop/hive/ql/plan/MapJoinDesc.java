@@ -69,6 +69,10 @@ public class MapJoinDesc extends JoinDesc implements Serializable {
   private Map<Integer, String> parentToInput = new HashMap<Integer, String>();
   private Map<Integer, Long> parentKeyCounts = new HashMap<Integer, Long>();
   private Map<Integer, Long> parentDataSizes = new HashMap<Integer, Long>();
+  // for llap. small table sides that are plain scans of a transactional table: the digest of the
+  // small table operator tree and the table name whose snapshot keys a cross-query hash table cache
+  private Map<Integer, String> parentSharedHashTableDigests = new HashMap<Integer, String>();
+  private Map<Integer, String> parentSharedHashTableNames = new HashMap<Integer, String>();
 
   // table alias (small) --> input file name (big) --> target file names (small)
   private Map<String, Map<String, List<String>>> aliasBucketFileNameMapping;
@@ -111,6 +115,8 @@ public MapJoinDesc(MapJoinDesc clone) {
     this.parentToInput = clone.parentToInput;
     this.parentKeyCounts = clone.parentKeyCounts;
     this.parentDataSizes = clone.parentDataSizes;
+    this.parentSharedHashTableDigests = clone.parentSharedHashTableDigests;
+    this.parentSharedHashTableNames = clone.parentSharedHashTableNames;
     this.isBucketMapJoin = clone.isBucketMapJoin;
     this.isHybridHashJoin = clone.isHybridHashJoin;
     this.cacheKey = clone.cacheKey;
@@ -166,6 +172,22 @@ public Map<Integer, Long> getParentDataSizes() {
     return parentDataSizes;
   }
 
+  public Map<Integer, String> getParentSharedHashTableDigests() {
+    return parentSharedHashTableDigests;
+  }
+
+  public void setParentSharedHashTableDigests(Map<Integer, String> parentSharedHashTableDigests) {
+    this.parentSharedHashTableDigests = parentSharedHashTableDigests;
+  }
+
+  public Map<Integer, String> getParentSharedHashTableNames() {
+    return parentSharedHashTableNames;
+  }
+
+  public void setParentSharedHashTableNames(Map<Integer, String> parentSharedHashTableNames) {
+    this.parentSharedHashTableNames = parentSharedHashTableNames;
+  }
+
   @Explain(displayName = "Estimated key counts", explainLevels = { Level.EXTENDED })
   public String getKeyCountsExplainDesc() {
     StringBuilder result = null;
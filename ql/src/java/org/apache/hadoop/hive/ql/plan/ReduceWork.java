@@ -99,6 +99,10 @@ public ReduceWork(String name) {
   private String vectorReduceColumnSortOrder;
   private String vectorReduceColumnNullOrder;
 
+  // Whether the values arrive as whole columnar vectorized row batches from an empty key
+  // VectorReduceSinkOperator.
+  private boolean isColumnarBatchValues;
+
   private transient TezEdgeProperty edgeProp;
 
   /**
@@ -278,6 +282,14 @@ public String getVectorReduceColumnNullOrder() {
     return vectorReduceColumnNullOrder;
   }
 
+  public void setIsColumnarBatchValues(boolean isColumnarBatchValues) {
+    this.isColumnarBatchValues = isColumnarBatchValues;
+  }
+
+  public boolean getIsColumnarBatchValues() {
+    return isColumnarBatchValues;
+  }
+
   // Use LinkedHashSet to give predictable display order.
   private static Set<String> reduceVectorizableEngines =
       new LinkedHashSet<String>(Arrays.asList("tez", "spark"));
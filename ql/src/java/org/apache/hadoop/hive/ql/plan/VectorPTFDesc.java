@@ -46,6 +46,8 @@
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleMax;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleMin;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorDoubleSum;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLag;
+import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLead;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongAvg;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongCountDistinct;
 import org.apache.hadoop.hive.ql.exec.vector.ptf.VectorPTFEvaluatorLongFirstValue;
@@ -94,7 +96,9 @@ public enum SupportedFunctionType {
     AVG,
     FIRST_VALUE,
     LAST_VALUE,
-    COUNT(true);
+    COUNT(true),
+    LEAD,
+    LAG;
 
     private final boolean supportDistinct;
 
@@ -124,6 +128,8 @@ public boolean isSupportDistinct() {
     supportedFunctionsMap.put("first_value", SupportedFunctionType.FIRST_VALUE);
     supportedFunctionsMap.put("last_value", SupportedFunctionType.LAST_VALUE);
     supportedFunctionsMap.put("count", SupportedFunctionType.COUNT);
+    supportedFunctionsMap.put("lead", SupportedFunctionType.LEAD);
+    supportedFunctionsMap.put("lag", SupportedFunctionType.LAG);
   }
   public static List<String> supportedFunctionNames = new ArrayList<String>();
   static {
@@ -170,10 +176,33 @@ public VectorPTFDesc() {
 
   }
 
+  /**
+   * The amount of rows of lead(col, amt) / lag(col, amt): the constant second argument, or 1.
+   * Returns -1 when the amount is not an integer constant.
+   */
+  public static int getLeadLagAmt(List<ExprNodeDesc> exprNodeDescList) {
+    if (exprNodeDescList == null || exprNodeDescList.size() < 2) {
+      return 1;
+    }
+    ExprNodeDesc amtExprNodeDesc = exprNodeDescList.get(1);
+    if (!(amtExprNodeDesc instanceof ExprNodeConstantDesc)) {
+      return -1;
+    }
+    Object amt = ((ExprNodeConstantDesc) amtExprNodeDesc).getValue();
+    return amt instanceof Integer ? (Integer) amt : -1;
+  }
+
   // We provide this public method to help EXPLAIN VECTORIZATION show the evaluator classes.
   public static VectorPTFEvaluatorBase getEvaluator(SupportedFunctionType functionType,
       boolean isDistinct, WindowFrameDef windowFrameDef, Type columnVectorType,
       VectorExpression inputVectorExpression, int outputColumnNum) {
+    return getEvaluator(functionType, isDistinct, windowFrameDef, columnVectorType,
+        inputVectorExpression, outputColumnNum, 1);
+  }
+
+  public static VectorPTFEvaluatorBase getEvaluator(SupportedFunctionType functionType,
+      boolean isDistinct, WindowFrameDef windowFrameDef, Type columnVectorType,
+      VectorExpression inputVectorExpression, int outputColumnNum, int leadLagAmt) {
 
     final boolean isRowEndCurrent = (windowFrameDef.getWindowType() == WindowType.ROWS
         && windowFrameDef.getEnd().isCurrentRow());
@@ -372,6 +401,14 @@ public static VectorPTFEvaluatorBase getEvaluator(SupportedFunctionType function
         }
       }
       break;
+    case LEAD:
+      evaluator = new VectorPTFEvaluatorLead(windowFrameDef, inputVectorExpression,
+          outputColumnNum, columnVectorType, leadLagAmt);
+      break;
+    case LAG:
+      evaluator = new VectorPTFEvaluatorLag(windowFrameDef, inputVectorExpression,
+          outputColumnNum, columnVectorType, leadLagAmt);
+      break;
     default:
       throw new RuntimeException("Unexpected function type " + functionType);
     }
@@ -385,6 +422,8 @@ public static VectorPTFEvaluatorBase[] getEvaluators(VectorPTFDesc vectorPTFDesc
     WindowFrameDef[] evaluatorWindowFrameDefs = vectorPTFDesc.getEvaluatorWindowFrameDefs();
     VectorExpression[] evaluatorInputExpressions = vectorPTFInfo.getEvaluatorInputExpressions();
     Type[] evaluatorInputColumnVectorTypes = vectorPTFInfo.getEvaluatorInputColumnVectorTypes();
+    List<ExprNodeDesc>[] evaluatorInputExprNodeDescLists =
+        vectorPTFDesc.getEvaluatorInputExprNodeDescLists();
 
     int[] outputColumnMap = vectorPTFInfo.getOutputColumnMap();
 
@@ -400,8 +439,11 @@ public static VectorPTFEvaluatorBase[] getEvaluators(VectorPTFDesc vectorPTFDesc
       // The output* arrays start at index 0 for output evaluator aggregations.
       final int outputColumnNum = outputColumnMap[i];
 
+      final int leadLagAmt = (evaluatorInputExprNodeDescLists == null ?
+          1 : getLeadLagAmt(evaluatorInputExprNodeDescLists[i]));
+
       VectorPTFEvaluatorBase evaluator = VectorPTFDesc.getEvaluator(functionType, isDistinct,
-          windowFrameDef, columnVectorType, inputVectorExpression, outputColumnNum);
+          windowFrameDef, columnVectorType, inputVectorExpression, outputColumnNum, leadLagAmt);
 
       evaluators[i] = evaluator;
     }
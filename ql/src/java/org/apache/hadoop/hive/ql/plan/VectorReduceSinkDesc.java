@@ -74,6 +74,7 @@ public VectorReduceSinkInfo getVectorReduceSinkInfo() {
   private boolean isValueLazyBinary;
   private boolean isUnexpectedCondition;
   private boolean isAcidChange;
+  private boolean isColumnarBatchValues;
 
   /*
    * The following conditions are for native Vector ReduceSink.
@@ -152,4 +153,12 @@ public void setIsAcidChange(boolean isAcidChange) {
   public boolean getIsAcidChange() {
     return isAcidChange;
   }
+
+  public void setIsColumnarBatchValues(boolean isColumnarBatchValues) {
+    this.isColumnarBatchValues = isColumnarBatchValues;
+  }
+
+  public boolean getIsColumnarBatchValues() {
+    return isColumnarBatchValues;
+  }
 }
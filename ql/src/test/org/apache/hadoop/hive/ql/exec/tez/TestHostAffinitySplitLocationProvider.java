@@ -28,6 +28,7 @@
 
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.llap.registry.LlapCacheDigest;
 import org.apache.hadoop.hive.ql.io.orc.OrcSplit;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
@@ -299,6 +300,36 @@ public void testOrcSplitsLocationAffinity() throws IOException {
     assertArrayEquals(retLoc13, retLoc132);
   }
 
+  @Test (timeout = 5000)
+  public void testCacheAwareLocations() throws IOException {
+    InputSplit split = createMockFileSplit(true, "path1", 0, 2000, new String[] {locations.get(0)});
+    String hashed = new HostAffinitySplitLocationProvider(executorLocations).getLocations(split)[0];
+    int cachedIndex = (executorLocations.indexOf(hashed) + 1) % executorLocations.size();
+
+    List<LlapCacheDigest> digests = new ArrayList<>();
+    for (int i = 0; i < executorLocations.size(); ++i) {
+      digests.add(i == cachedIndex ? LlapCacheDigest.create(1000, 10) : null);
+    }
+    // Only half of the split is cached on the other location.
+    digests.get(cachedIndex).addBlock("path1", 0);
+    assertEquals(hashed, new HostAffinitySplitLocationProvider(executorLocations, digests, 0.75)
+        .getLocations(split)[0]);
+    assertEquals(executorLocations.get(cachedIndex),
+        new HostAffinitySplitLocationProvider(executorLocations, digests, 0.5)
+            .getLocations(split)[0]);
+
+    // A disabled location is not used, even if it has the split cached.
+    List<String> withDisabled = new ArrayList<>(executorLocations);
+    withDisabled.set(cachedIndex, null);
+    assertEquals(hashed, new HostAffinitySplitLocationProvider(withDisabled, digests, 0.5)
+        .getLocations(split)[0]);
+
+    // The digest survives the round trip through the registry.
+    LlapCacheDigest deserialized = LlapCacheDigest.deserialize(
+        digests.get(cachedIndex).serialize());
+    assertEquals(0.5, deserialized.getCachedFraction("path1", 0, 2000), 0.0);
+    assertNull(LlapCacheDigest.deserialize("not a digest"));
+  }
 
   private InputSplit createMockInputSplit(String[] locations) throws IOException {
     InputSplit inputSplit = mock(InputSplit.class);
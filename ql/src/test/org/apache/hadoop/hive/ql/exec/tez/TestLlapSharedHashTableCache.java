@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.tez;
+
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class TestLlapSharedHashTableCache {
+
+  @Test
+  public void testAcquireAfterOffer() {
+    LlapSharedHashTableCache cache = new LlapSharedHashTableCache(100);
+    MapJoinTableContainer first = mock(MapJoinTableContainer.class);
+    MapJoinTableContainer second = mock(MapJoinTableContainer.class);
+
+    assertNull(cache.acquire("k1", "q1"));
+    assertSame(first, cache.offer("k1", "q1", first, 10));
+    // A concurrent load of the same hash table gets the cached one.
+    assertSame(first, cache.offer("k1", "q2", second, 10));
+    assertSame(first, cache.acquire("k1", "q3"));
+    assertEquals(10, cache.getCurrentSize());
+  }
+
+  @Test
+  public void testPinnedEntriesAreNotEvicted() {
+    LlapSharedHashTableCache cache = new LlapSharedHashTableCache(100);
+    MapJoinTableContainer first = mock(MapJoinTableContainer.class);
+    MapJoinTableContainer second = mock(MapJoinTableContainer.class);
+
+    cache.offer("k1", "q1", first, 60);
+    // Does not fit while q1 is running, so it is handed back without being cached.
+    assertSame(second, cache.offer("k2", "q2", second, 60));
+    assertNull(cache.acquire("k2", "q3"));
+    assertEquals(1, cache.getEntryCount());
+
+    cache.release("q1");
+    assertSame(second, cache.offer("k2", "q2", second, 60));
+    assertNull(cache.acquire("k1", "q3"));
+    assertSame(second, cache.acquire("k2", "q3"));
+    assertEquals(60, cache.getCurrentSize());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    LlapSharedHashTableCache cache = new LlapSharedHashTableCache(100);
+    cache.offer("k1", "q1", mock(MapJoinTableContainer.class), 40);
+    cache.offer("k2", "q1", mock(MapJoinTableContainer.class), 40);
+    cache.release("q1");
+    cache.acquire("k1", "q2");
+    cache.release("q2");
+
+    cache.offer("k3", "q3", mock(MapJoinTableContainer.class), 40);
+    assertNull(cache.acquire("k2", "q4"));
+    assertEquals(2, cache.getEntryCount());
+    assertEquals(80, cache.getCurrentSize());
+  }
+
+  @Test
+  public void testTooLarge() {
+    LlapSharedHashTableCache cache = new LlapSharedHashTableCache(100);
+    MapJoinTableContainer container = mock(MapJoinTableContainer.class);
+    assertSame(container, cache.offer("k1", "q1", container, 101));
+    assertEquals(0, cache.getEntryCount());
+  }
+}
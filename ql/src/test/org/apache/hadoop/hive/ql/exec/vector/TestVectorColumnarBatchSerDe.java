@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.vector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Random;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.IsNotNull;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.SelectColumnIsNotNull;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestVectorColumnarBatchSerDe {
+
+  private static final int[] COLUMN_MAP = new int[] { 0, 1, 2, 3, 4 };
+
+  private VectorizedRowBatch createBatch() {
+    return createBatch(VectorizedRowBatch.DEFAULT_SIZE);
+  }
+
+  private VectorizedRowBatch createBatch(int maxSize) {
+    VectorizedRowBatch batch = new VectorizedRowBatch(COLUMN_MAP.length, maxSize);
+    batch.cols[0] = new LongColumnVector(maxSize);
+    batch.cols[1] = new DoubleColumnVector(maxSize);
+    batch.cols[2] = new BytesColumnVector(maxSize);
+    batch.cols[3] = new DecimalColumnVector(maxSize, 20, 4);
+    batch.cols[4] = new TimestampColumnVector(maxSize);
+    return batch;
+  }
+
+  private void fillRandomBatch(Random random, VectorizedRowBatch batch, int size) {
+    batch.reset();
+    for (ColumnVector colVector : batch.cols) {
+      colVector.init();
+    }
+    ((BytesColumnVector) batch.cols[2]).initBuffer();
+    for (int i = 0; i < size; i++) {
+      for (int c = 0; c < batch.numCols; c++) {
+        if (random.nextInt(5) == 0) {
+          batch.cols[c].noNulls = false;
+          batch.cols[c].isNull[i] = true;
+        } else {
+          batch.cols[c].isNull[i] = false;
+        }
+      }
+      ((LongColumnVector) batch.cols[0]).vector[i] = random.nextLong();
+      ((DoubleColumnVector) batch.cols[1]).vector[i] = random.nextDouble();
+      byte[] bytes = ("value" + random.nextInt()).getBytes(StandardCharsets.UTF_8);
+      ((BytesColumnVector) batch.cols[2]).setVal(i, bytes, 0, bytes.length);
+      ((DecimalColumnVector) batch.cols[3]).set(i,
+          HiveDecimal.create(random.nextInt() + "." + random.nextInt(10000)));
+      ((TimestampColumnVector) batch.cols[4]).set(i,
+          new Timestamp(random.nextInt(Integer.MAX_VALUE) * 1000L));
+    }
+    batch.size = size;
+  }
+
+  private VectorizedRowBatch roundTrip(VectorizedRowBatch batch) throws Exception {
+    VectorColumnarBatchSerDe serDe = new VectorColumnarBatchSerDe();
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytesOut);
+    serDe.serialize(out, batch, COLUMN_MAP);
+    out.flush();
+
+    VectorizedRowBatch readBatch = createBatch();
+    serDe.deserialize(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())),
+        readBatch, COLUMN_MAP);
+    return readBatch;
+  }
+
+  private void verify(VectorizedRowBatch expected, VectorizedRowBatch actual) {
+    int size = expected.size;
+    assertEquals(size, actual.size);
+    assertFalse(actual.selectedInUse);
+    for (int i = 0; i < size; i++) {
+      int expectedRow = expected.selectedInUse ? expected.selected[i] : i;
+      for (int c = 0; c < expected.numCols; c++) {
+        int batchIndex = expected.cols[c].isRepeating ? 0 : expectedRow;
+        int actualIndex = actual.cols[c].isRepeating ? 0 : i;
+        StringBuilder expectedValue = new StringBuilder();
+        expected.cols[c].stringifyValue(expectedValue, batchIndex);
+        StringBuilder actualValue = new StringBuilder();
+        actual.cols[c].stringifyValue(actualValue, actualIndex);
+        assertEquals("row " + i + " column " + c, expectedValue.toString(),
+            actualValue.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Random random = new Random(8237);
+    VectorizedRowBatch batch = createBatch();
+    for (int i = 0; i < 20; i++) {
+      fillRandomBatch(random, batch, random.nextInt(VectorizedRowBatch.DEFAULT_SIZE) + 1);
+      verify(batch, roundTrip(batch));
+    }
+  }
+
+  @Test
+  public void testRoundTripSelectedInUse() throws Exception {
+    Random random = new Random(5521);
+    VectorizedRowBatch batch = createBatch();
+    fillRandomBatch(random, batch, 100);
+    int selectedCount = 0;
+    for (int i = 0; i < 100; i += 3) {
+      batch.selected[selectedCount++] = i;
+    }
+    batch.selectedInUse = true;
+    batch.size = selectedCount;
+    verify(batch, roundTrip(batch));
+  }
+
+  @Test
+  public void testRoundTripRepeating() throws Exception {
+    Random random = new Random(193);
+    VectorizedRowBatch batch = createBatch();
+    fillRandomBatch(random, batch, 50);
+    batch.cols[0].isRepeating = true;
+    batch.cols[0].noNulls = true;
+    batch.cols[0].isNull[0] = false;
+    batch.cols[2].isRepeating = true;
+    batch.cols[2].noNulls = false;
+    batch.cols[2].isNull[0] = true;
+
+    VectorizedRowBatch readBatch = roundTrip(batch);
+    assertTrue(readBatch.cols[0].isRepeating);
+    assertTrue(readBatch.cols[2].isRepeating);
+    assertTrue(readBatch.cols[2].isNull[0]);
+    verify(batch, readBatch);
+  }
+
+  @Test
+  public void testRoundTripLargerThanReadBatch() throws Exception {
+    Random random = new Random(7790);
+    VectorizedRowBatch batch = createBatch(VectorizedRowBatch.DEFAULT_SIZE * 2);
+    fillRandomBatch(random, batch, VectorizedRowBatch.DEFAULT_SIZE * 2);
+    verify(batch, roundTrip(batch));
+  }
+
+  /*
+   * The reducer batch has a repeating key column before the value columns and a scratch column
+   * after them; a larger batch from the map side must grow all of them, and the selected array.
+   */
+  @Test
+  public void testDeserializeLargerBatchIntoReducerBatch() throws Exception {
+    final int size = VectorizedRowBatch.DEFAULT_SIZE * 2;
+    Random random = new Random(4411);
+    VectorizedRowBatch batch = createBatch(size);
+    fillRandomBatch(random, batch, size);
+    VectorColumnarBatchSerDe serDe = new VectorColumnarBatchSerDe();
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytesOut);
+    serDe.serialize(out, batch, COLUMN_MAP);
+    out.flush();
+
+    VectorizedRowBatch reducerBatch = new VectorizedRowBatch(COLUMN_MAP.length + 2);
+    LongColumnVector keyColVector = new LongColumnVector();
+    keyColVector.isRepeating = true;
+    keyColVector.vector[0] = 42;
+    reducerBatch.cols[0] = keyColVector;
+    VectorizedRowBatch valueBatch = createBatch();
+    System.arraycopy(valueBatch.cols, 0, reducerBatch.cols, 1, COLUMN_MAP.length);
+    reducerBatch.cols[COLUMN_MAP.length + 1] = new LongColumnVector();
+    int[] reducerColumnMap = new int[] { 1, 2, 3, 4, 5 };
+    serDe.deserialize(new DataInputStream(new ByteArrayInputStream(bytesOut.toByteArray())),
+        reducerBatch, reducerColumnMap);
+
+    assertEquals(size, reducerBatch.size);
+    assertTrue(reducerBatch.getMaxSize() >= size);
+    assertTrue(keyColVector.isRepeating);
+    assertEquals(42, keyColVector.vector[0]);
+
+    // The vector expressions write the scratch column and the selected array for all the rows.
+    int scratchColumn = COLUMN_MAP.length + 1;
+    new IsNotNull(1, scratchColumn).evaluate(reducerBatch);
+    new SelectColumnIsNotNull(1).evaluate(reducerBatch);
+    LongColumnVector scratchColVector = (LongColumnVector) reducerBatch.cols[scratchColumn];
+    LongColumnVector expectedColVector = (LongColumnVector) batch.cols[0];
+    int selectedCount = 0;
+    for (int i = 0; i < size; i++) {
+      boolean isNotNull = expectedColVector.noNulls || !expectedColVector.isNull[i];
+      assertEquals("row " + i, isNotNull ? 1 : 0, scratchColVector.vector[i]);
+      if (isNotNull) {
+        assertEquals(i, reducerBatch.selected[selectedCount++]);
+      }
+    }
+    assertTrue(reducerBatch.selectedInUse);
+    assertEquals(selectedCount, reducerBatch.size);
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.hadoop.hive.ql.exec.vector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.spy;
@@ -90,6 +91,7 @@
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.Reporter;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -891,6 +893,217 @@ public void remove() {
     assertTrue(countRowsProduced < 0.3 * (1000 * 1024 / 16));
   }
 
+  @Test
+  public void testLongKeyHashAggregateMode() throws HiveException {
+    hconf.setBoolVar(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED, true);
+
+    List<Long> keys = Arrays.asList(new Long[]{null, 2L, null, 2L, 3L, 4L, 3L});
+    List<Long> values = Arrays.asList(new Long[]{13L, 5L, 7L, null, null, 11L, null});
+    for (int batchSize : new int[] {1, 3, 7}) {
+      testAggregateLongKeyAggregate("min", batchSize, keys, values,
+          buildHashMap(null, 7L, 2L, 5L, 3L, null, 4L, 11L));
+      testAggregateLongKeyAggregate("max", batchSize, keys, values,
+          buildHashMap(null, 13L, 2L, 5L, 3L, null, 4L, 11L));
+      testAggregateLongKeyAggregate("sum", batchSize, keys, values,
+          buildHashMap(null, 20L, 2L, 5L, 3L, null, 4L, 11L));
+      testAggregateLongKeyAggregate("count", batchSize, keys, values,
+          buildHashMap(null, 2L, 2L, 1L, 3L, 0L, 4L, 1L));
+    }
+  }
+
+  @Test
+  public void testLongKeyHashAggregateFlush() throws HiveException {
+
+    List<String> mapColumnNames = new ArrayList<String>();
+    mapColumnNames.add("Key");
+    mapColumnNames.add("Value");
+    VectorizationContext ctx = new VectorizationContext("name", mapColumnNames);
+
+    Pair<GroupByDesc,VectorGroupByDesc> pair = buildKeyGroupByDesc (ctx, "sum",
+        "Value", TypeInfoFactory.longTypeInfo,
+        new String[] {"Key"},
+        new TypeInfo[] {TypeInfoFactory.longTypeInfo});
+    GroupByDesc desc = pair.left;
+    VectorGroupByDesc vectorDesc = pair.right;
+
+    // Leave no memory for the hash table, so it is flushed after every batch.
+    MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    long maxMemory = memoryMXBean.getHeapMemoryUsage().getMax();
+    desc.setMemoryThreshold(1.0f / maxMemory);
+    // Never switch to streaming.
+    desc.setMinReductionHashAggr(1.0f);
+    hconf.setBoolVar(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED, true);
+
+    CompilationOpContext cCtx = new CompilationOpContext();
+
+    Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(cCtx, desc);
+
+    VectorGroupByOperator vgo =
+        (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorDesc);
+
+    FakeCaptureVectorToRowOutputOperator out = FakeCaptureVectorToRowOutputOperator.addCaptureOutputChild(cCtx, vgo);
+    vgo.initialize(hconf, null);
+    assertTrue(vgo.processingMode instanceof VectorGroupByOperator.ProcessingModeHashAggregateLongKey);
+
+    // Each key is seen 5 times with value 1.
+    List<Long> keys = new ArrayList<Long>();
+    List<Long> values = new ArrayList<Long>();
+    for (int i = 0; i < 5; i++) {
+      for (long key = 0; key < 500; key++) {
+        keys.add(key);
+        values.add(1L);
+      }
+    }
+    @SuppressWarnings("unchecked")
+    FakeVectorRowBatchFromLongIterables data = new FakeVectorRowBatchFromLongIterables(100,
+        keys, values);
+
+    final Map<Long, Long> sums = new HashMap<Long, Long>();
+    out.setOutputInspector(new FakeCaptureVectorToRowOutputOperator.OutputInspector() {
+      @Override
+      public void inspectRow(Object row, int tag) throws HiveException {
+        Object[] fields = (Object[]) row;
+        long key = ((LongWritable) fields[0]).get();
+        long sum = ((LongWritable) fields[1]).get();
+        sums.merge(key, sum, Long::sum);
+      }
+    });
+
+    for (VectorizedRowBatch unit: data) {
+      vgo.process(unit,  0);
+    }
+    vgo.close(false);
+
+    // Partial sums of the same key are emitted by each flush.
+    assertTrue(out.getCapturedRows().size() > 500);
+    assertEquals(500, sums.size());
+    for (long sum : sums.values()) {
+      assertEquals(5L, sum);
+    }
+  }
+
+  @Test
+  public void testHashAggregateBypassAfterSample() throws HiveException {
+    testHashAggregateBypassAfterSample(false);
+    testHashAggregateBypassAfterSample(true);
+  }
+
+  private void testHashAggregateBypassAfterSample(boolean longKeyHash) throws HiveException {
+
+    List<String> mapColumnNames = new ArrayList<String>();
+    mapColumnNames.add("Key");
+    mapColumnNames.add("Value");
+    VectorizationContext ctx = new VectorizationContext("name", mapColumnNames);
+
+    Pair<GroupByDesc,VectorGroupByDesc> pair = buildKeyGroupByDesc (ctx, "sum",
+        "Value", TypeInfoFactory.longTypeInfo,
+        new String[] {"Key"},
+        new TypeInfo[] {TypeInfoFactory.longTypeInfo});
+    GroupByDesc desc = pair.left;
+    VectorGroupByDesc vectorDesc = pair.right;
+    desc.setMinReductionHashAggr(0.5f);
+
+    hconf.setBoolVar(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED, longKeyHash);
+    hconf.setIntVar(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_BYPASS_SAMPLE_BATCHES, 2);
+
+    CompilationOpContext cCtx = new CompilationOpContext();
+
+    Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(cCtx, desc);
+
+    VectorGroupByOperator vgo =
+        (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorDesc);
+
+    FakeCaptureVectorToRowOutputOperator out = FakeCaptureVectorToRowOutputOperator.addCaptureOutputChild(cCtx, vgo);
+    vgo.initialize(hconf, null);
+    Reporter reporter = Mockito.mock(Reporter.class);
+    vgo.setReporter(reporter);
+
+    // Every key is unique, so hashing does not reduce anything.
+    final int batchSize = VectorizedRowBatch.DEFAULT_SIZE;
+    List<Long> keys = new ArrayList<Long>();
+    List<Long> values = new ArrayList<Long>();
+    for (long key = 0; key < 4 * batchSize; key++) {
+      keys.add(key);
+      values.add(1L);
+    }
+    @SuppressWarnings("unchecked")
+    FakeVectorRowBatchFromLongIterables data = new FakeVectorRowBatchFromLongIterables(batchSize,
+        keys, values);
+
+    int batchCount = 0;
+    for (VectorizedRowBatch unit: data) {
+      vgo.process(unit,  0);
+      ++batchCount;
+      assertEquals(batchCount >= 2,
+          vgo.processingMode instanceof VectorGroupByOperator.ProcessingModeStreaming);
+    }
+    vgo.close(false);
+
+    assertEquals(4 * batchSize, out.getCapturedRows().size());
+    String counterGroup = HiveConf.getVar(hconf, HiveConf.ConfVars.HIVECOUNTERGROUP);
+    verify(reporter).incrCounter(counterGroup,
+        VectorGroupByOperator.HashAggrCounter.HASH_AGGR_BYPASS_AFTER_SAMPLE.name(), 1);
+    verify(reporter).incrCounter(counterGroup,
+        VectorGroupByOperator.HashAggrCounter.HASH_AGGR_BYPASS_ROWS_HASHED.name(), 2L * batchSize);
+  }
+
+  @Test
+  public void testHashAggregateNoBypassOnSkewedPrefix() throws HiveException {
+    testHashAggregateNoBypassOnSkewedPrefix(false);
+    testHashAggregateNoBypassOnSkewedPrefix(true);
+  }
+
+  private void testHashAggregateNoBypassOnSkewedPrefix(boolean longKeyHash) throws HiveException {
+
+    List<String> mapColumnNames = new ArrayList<String>();
+    mapColumnNames.add("Key");
+    mapColumnNames.add("Value");
+    VectorizationContext ctx = new VectorizationContext("name", mapColumnNames);
+
+    Pair<GroupByDesc,VectorGroupByDesc> pair = buildKeyGroupByDesc (ctx, "sum",
+        "Value", TypeInfoFactory.longTypeInfo,
+        new String[] {"Key"},
+        new TypeInfo[] {TypeInfoFactory.longTypeInfo});
+    GroupByDesc desc = pair.left;
+    VectorGroupByDesc vectorDesc = pair.right;
+    desc.setMinReductionHashAggr(0.5f);
+
+    // The early bypass check is left at its default.
+    hconf.setBoolVar(HiveConf.ConfVars.HIVE_VECTORIZATION_GROUPBY_LONG_KEY_HASH_ENABLED, longKeyHash);
+
+    CompilationOpContext cCtx = new CompilationOpContext();
+
+    Operator<? extends OperatorDesc> groupByOp = OperatorFactory.get(cCtx, desc);
+
+    VectorGroupByOperator vgo =
+        (VectorGroupByOperator) Vectorizer.vectorizeGroupByOperator(groupByOp, ctx, vectorDesc);
+
+    FakeCaptureVectorToRowOutputOperator out = FakeCaptureVectorToRowOutputOperator.addCaptureOutputChild(cCtx, vgo);
+    vgo.initialize(hconf, null);
+
+    // The first batches only have unique keys, but the key has few distinct values overall.
+    final int batchSize = VectorizedRowBatch.DEFAULT_SIZE;
+    final int prefixRows = 4 * batchSize;
+    final int distinctKeys = 10;
+    List<Long> keys = new ArrayList<Long>();
+    List<Long> values = new ArrayList<Long>();
+    for (long row = 0; row < 64 * batchSize; row++) {
+      keys.add(row < prefixRows ? row : row % distinctKeys);
+      values.add(1L);
+    }
+    @SuppressWarnings("unchecked")
+    FakeVectorRowBatchFromLongIterables data = new FakeVectorRowBatchFromLongIterables(batchSize,
+        keys, values);
+
+    for (VectorizedRowBatch unit: data) {
+      vgo.process(unit,  0);
+      assertFalse(vgo.processingMode instanceof VectorGroupByOperator.ProcessingModeStreaming);
+    }
+    vgo.close(false);
+
+    assertEquals(prefixRows, out.getCapturedRows().size());
+  }
+
   @Test
   public void testMultiKeyIntStringInt() throws HiveException {
     testMultiKey(
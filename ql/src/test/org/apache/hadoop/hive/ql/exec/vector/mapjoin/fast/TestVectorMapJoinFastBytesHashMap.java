@@ -26,8 +26,10 @@
 import org.apache.hadoop.hive.ql.exec.JoinUtil;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionError;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.CheckFastHashTable.VerifyFastBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hive.common.util.HashCodeUtil;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -39,6 +41,52 @@
  */
 public class TestVectorMapJoinFastBytesHashMap extends CommonFastHashTable {
 
+  @Test
+  public void testBloomFilter() throws Exception {
+    random = new Random(5120);
+
+    VectorMapJoinFastMultiKeyHashMap map =
+        new VectorMapJoinFastMultiKeyHashMap(
+            false,CAPACITY, LOAD_FACTOR, WB_SIZE, -1);
+
+    VerifyFastBytesHashMap verifyTable = new VerifyFastBytesHashMap();
+
+    // Include keys too long for the small key length in the reference word.
+    int keyCount = 500 + random.nextInt(500);
+    byte[][] keys = new byte[keyCount][];
+    for (int i = 0; i < keyCount; i++) {
+      byte[] key = new byte[1 + random.nextInt(i % 10 == 0 ? 400 : MAX_KEY_LENGTH)];
+      random.nextBytes(key);
+      keys[i] = key;
+      byte[] value = new byte[random.nextInt(MAX_VALUE_LENGTH)];
+      random.nextBytes(value);
+      map.testPutRow(key, value);
+      verifyTable.add(key, value);
+    }
+
+    VectorMapJoinBloomFilter bloomFilter = new VectorMapJoinBloomFilter(map.size(), 8);
+    map.addKeysToBloomFilter(bloomFilter);
+
+    for (byte[] key : keys) {
+      assertTrue(bloomFilter.mightContainHashCode(HashCodeUtil.murmurHash(key, 0, key.length)));
+    }
+
+    int missCount = 0;
+    int rejectCount = 0;
+    for (int i = 0; i < keyCount; i++) {
+      byte[] key = new byte[1 + random.nextInt(MAX_KEY_LENGTH)];
+      random.nextBytes(key);
+      if (verifyTable.contains(key)) {
+        continue;
+      }
+      missCount++;
+      if (!bloomFilter.mightContainHashCode(HashCodeUtil.murmurHash(key, 0, key.length))) {
+        rejectCount++;
+      }
+    }
+    assertTrue("rejected only " + rejectCount + " of " + missCount, rejectCount > missCount * 0.9);
+  }
+
   @Test
   public void testOneKey() throws Exception {
     random = new Random(82733);
@@ -24,11 +24,15 @@
 
 import org.apache.hadoop.hive.ql.exec.JoinUtil;
 import org.apache.hadoop.hive.ql.exec.mapjoin.MapJoinMemoryExhaustionError;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBloomFilter;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
 import org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast.CheckFastHashTable.VerifyFastLongHashMap;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hive.common.util.HashCodeUtil;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -305,6 +309,90 @@ public void testOutOfBounds() throws Exception {
     assert error;
   }
 
+  @Test
+  public void testProbeBatch() throws Exception {
+    random = new Random(7701);
+
+    VectorMapJoinFastLongHashMap map =
+        new VectorMapJoinFastLongHashMap(
+            false, false, HashTableKeyType.LONG, CAPACITY, LOAD_FACTOR, WB_SIZE, -1, tableDesc);
+
+    VerifyFastLongHashMap verifyTable = new VerifyFastLongHashMap();
+
+    int keyCount = 100 + random.nextInt(1000);
+    for (int i = 0; i < keyCount; i++) {
+      long key = random.nextInt(4000);
+      byte[] value = new byte[random.nextInt(MAX_VALUE_LENGTH)];
+      random.nextBytes(value);
+      map.testPutRow(key, value);
+      verifyTable.add(key, value);
+    }
+
+    LongColumnVector keyColVector = new LongColumnVector();
+    keyColVector.noNulls = false;
+    int[] selected = new int[VectorizedRowBatch.DEFAULT_SIZE];
+    int logicalSize = 0;
+    for (int batchIndex = 0; batchIndex < VectorizedRowBatch.DEFAULT_SIZE; batchIndex++) {
+      keyColVector.vector[batchIndex] = random.nextInt(4000);
+      keyColVector.isNull[batchIndex] = (random.nextInt(10) == 0);
+      if (random.nextBoolean()) {
+        selected[logicalSize++] = batchIndex;
+      }
+    }
+
+    int[] matchSlots = new int[VectorizedRowBatch.DEFAULT_SIZE];
+    int matchCount = map.probeBatch(keyColVector, true, selected, logicalSize, matchSlots);
+
+    VectorMapJoinHashMapResult hashMapResult = map.createHashMapResult();
+    VectorMapJoinHashMapResult slotHashMapResult = map.createHashMapResult();
+    int expectedMatchCount = 0;
+    for (int logical = 0; logical < logicalSize; logical++) {
+      int batchIndex = selected[logical];
+      long key = keyColVector.vector[batchIndex];
+      JoinUtil.JoinResult expected =
+          (keyColVector.isNull[batchIndex] ?
+              JoinUtil.JoinResult.NOMATCH : map.lookup(key, hashMapResult));
+      JoinUtil.JoinResult actual = map.lookupSlot(matchSlots[logical], slotHashMapResult);
+      assertEquals(expected, actual);
+      if (expected == JoinUtil.JoinResult.MATCH) {
+        expectedMatchCount++;
+        assertEquals(hashMapResult.cappedCount(), slotHashMapResult.cappedCount());
+        assertTrue(verifyTable.contains(key));
+      }
+    }
+    assertEquals(expectedMatchCount, matchCount);
+  }
+
+  @Test
+  public void testBloomFilter() throws Exception {
+    random = new Random(3391);
+
+    VectorMapJoinFastLongHashMap map =
+        new VectorMapJoinFastLongHashMap(
+            false, false, HashTableKeyType.LONG, CAPACITY, LOAD_FACTOR, WB_SIZE, -1, tableDesc);
+
+    // Even keys are in the hash table, odd keys are not.
+    int keyCount = 1000 + random.nextInt(1000);
+    for (int i = 0; i < keyCount; i++) {
+      byte[] value = new byte[random.nextInt(MAX_VALUE_LENGTH)];
+      random.nextBytes(value);
+      map.testPutRow(2L * i, value);
+    }
+
+    VectorMapJoinBloomFilter bloomFilter = new VectorMapJoinBloomFilter(map.size(), 8);
+    map.addKeysToBloomFilter(bloomFilter);
+
+    int rejectCount = 0;
+    for (int i = 0; i < keyCount; i++) {
+      assertTrue(bloomFilter.mightContainHashCode(HashCodeUtil.calculateLongHashCode(2L * i)));
+      if (!bloomFilter.mightContainHashCode(HashCodeUtil.calculateLongHashCode(2L * i + 1))) {
+        rejectCount++;
+      }
+    }
+    // 8 bits per key gives a few percent false positives.
+    assertTrue("rejected only " + rejectCount + " of " + keyCount, rejectCount > keyCount * 0.9);
+  }
+
   /*
   // Doesn't finish in a reasonable amount of time....
   @Test
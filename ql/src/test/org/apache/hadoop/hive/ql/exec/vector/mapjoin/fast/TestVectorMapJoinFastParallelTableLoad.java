@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.mapjoin.fast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.JoinUtil;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinBytesHashMap;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinHashMapResult;
+import org.apache.hadoop.hive.ql.exec.vector.mapjoin.hashtable.VectorMapJoinLongHashMap;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableImplementationType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKeyType;
+import org.apache.hadoop.hive.ql.plan.VectorMapJoinDesc.HashTableKind;
+import org.apache.hadoop.hive.serde2.ByteStream.Output;
+import org.apache.hadoop.hive.serde2.binarysortable.fast.BinarySortableSerializeWrite;
+import org.apache.hadoop.hive.serde2.WriteBuffers.ByteSegmentRef;
+import org.apache.hadoop.io.BytesWritable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestVectorMapJoinFastParallelTableLoad {
+
+  private static final int PARTITION_COUNT = 4;
+
+  private VectorMapJoinFastTableContainer createContainer(HashTableKeyType keyType,
+      int partitionCount) throws Exception {
+    MapJoinDesc desc = new MapJoinDesc();
+    VectorMapJoinDesc vectorDesc = new VectorMapJoinDesc();
+    vectorDesc.setHashTableKeyType(keyType);
+    vectorDesc.setIsFastHashTableEnabled(true);
+    vectorDesc.setHashTableImplementationType(HashTableImplementationType.FAST);
+    vectorDesc.setHashTableKind(HashTableKind.HASH_MAP);
+    desc.setVectorDesc(vectorDesc);
+    TableDesc keyTblDesc = new TableDesc();
+    keyTblDesc.setProperties(new Properties());
+    desc.setKeyTblDesc(keyTblDesc);
+    Configuration hconf = new HiveConf();
+    VectorMapJoinFastTableContainer container =
+        new VectorMapJoinFastTableContainer(desc, hconf, -1, partitionCount);
+    container.setSerde(null, null);
+    return container;
+  }
+
+  private static BytesWritable serializeLong(long v) throws Exception {
+    BinarySortableSerializeWrite serializeWrite = new BinarySortableSerializeWrite(1);
+    Output output = new Output();
+    serializeWrite.set(output);
+    serializeWrite.writeLong(v);
+    return new BytesWritable(output.getData(), output.getLength());
+  }
+
+  private static List<String> values(VectorMapJoinHashMapResult hashMapResult) {
+    List<String> values = new ArrayList<>();
+    for (ByteSegmentRef ref = hashMapResult.first(); ref != null; ref = hashMapResult.next()) {
+      values.add(new String(ref.getBytes(), (int) ref.getOffset(), ref.getLength()));
+    }
+    return values;
+  }
+
+  @Test
+  public void testLongHashMap() throws Exception {
+    Random random = new Random(4411);
+    VectorMapJoinFastTableContainer single = createContainer(HashTableKeyType.LONG, 1);
+    VectorMapJoinFastTableContainer partitioned =
+        createContainer(HashTableKeyType.LONG, PARTITION_COUNT);
+    assertEquals(PARTITION_COUNT, partitioned.getPartitionCount());
+
+    long[] keys = new long[50000];
+    VectorMapJoinFastParallelTableLoad parallelLoad =
+        new VectorMapJoinFastParallelTableLoad(partitioned);
+    try {
+      for (int i = 0; i < keys.length; i++) {
+        // Repeat some keys to get multiple values.
+        keys[i] = (i > 0 && random.nextInt(4) == 0) ? keys[random.nextInt(i)] : random.nextLong();
+        BytesWritable key = serializeLong(keys[i]);
+        BytesWritable value = new BytesWritable(("v" + i).getBytes());
+        single.putRow(key, value);
+        parallelLoad.putRow(key, value);
+      }
+      parallelLoad.finish();
+    } finally {
+      parallelLoad.close();
+    }
+    single.seal();
+    partitioned.seal();
+
+    VectorMapJoinLongHashMap singleMap = (VectorMapJoinLongHashMap) single.vectorMapJoinHashTable();
+    VectorMapJoinLongHashMap partitionedMap =
+        (VectorMapJoinLongHashMap) partitioned.vectorMapJoinHashTable();
+    assertEquals(singleMap.size(), partitionedMap.size());
+    assertEquals(singleMap.min(), partitionedMap.min());
+    assertEquals(singleMap.max(), partitionedMap.max());
+
+    VectorMapJoinHashMapResult singleResult = singleMap.createHashMapResult();
+    VectorMapJoinHashMapResult partitionedResult = partitionedMap.createHashMapResult();
+    for (int i = 0; i < keys.length + 1000; i++) {
+      long key = (i < keys.length) ? keys[i] : random.nextLong();
+      JoinUtil.JoinResult joinResult = singleMap.lookup(key, singleResult);
+      assertEquals(joinResult, partitionedMap.lookup(key, partitionedResult));
+      if (joinResult == JoinUtil.JoinResult.MATCH) {
+        assertEquals(values(singleResult), values(partitionedResult));
+      }
+    }
+  }
+
+  @Test
+  public void testMultiKeyHashMap() throws Exception {
+    Random random = new Random(7203);
+    VectorMapJoinFastTableContainer single = createContainer(HashTableKeyType.MULTI_KEY, 1);
+    VectorMapJoinFastTableContainer partitioned =
+        createContainer(HashTableKeyType.MULTI_KEY, PARTITION_COUNT);
+
+    byte[][] keys = new byte[20000][];
+    VectorMapJoinFastParallelTableLoad parallelLoad =
+        new VectorMapJoinFastParallelTableLoad(partitioned);
+    try {
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = new byte[1 + random.nextInt(20)];
+        random.nextBytes(keys[i]);
+        BytesWritable key = new BytesWritable(keys[i]);
+        BytesWritable value = new BytesWritable(("v" + i).getBytes());
+        single.putRow(key, value);
+        parallelLoad.putRow(key, value);
+      }
+      parallelLoad.finish();
+    } finally {
+      parallelLoad.close();
+    }
+
+    VectorMapJoinBytesHashMap singleMap = (VectorMapJoinBytesHashMap) single.vectorMapJoinHashTable();
+    VectorMapJoinBytesHashMap partitionedMap =
+        (VectorMapJoinBytesHashMap) partitioned.vectorMapJoinHashTable();
+    assertEquals(singleMap.size(), partitionedMap.size());
+
+    VectorMapJoinHashMapResult singleResult = singleMap.createHashMapResult();
+    VectorMapJoinHashMapResult partitionedResult = partitionedMap.createHashMapResult();
+    for (byte[] key : keys) {
+      assertEquals(JoinUtil.JoinResult.MATCH,
+          singleMap.lookup(key, 0, key.length, singleResult));
+      assertEquals(JoinUtil.JoinResult.MATCH,
+          partitionedMap.lookup(key, 0, key.length, partitionedResult));
+      assertEquals(values(singleResult), values(partitionedResult));
+    }
+  }
+}
@@ -46,9 +46,15 @@
 public class TestVectorPTFGroupBatches {
 
   private Configuration getConf(int batchSize) {
+    return getConf(batchSize, true);
+  }
+
+  private Configuration getConf(int batchSize, boolean isColumnarSpillEnabled) {
     Configuration hconf = new HiveConf();
     HiveConf.setIntVar(hconf, HiveConf.ConfVars.HIVE_VECTORIZATION_TESTING_REDUCER_BATCH_SIZE,
         batchSize);
+    HiveConf.setBoolVar(hconf, HiveConf.ConfVars.HIVE_VECTORIZATION_PTF_COLUMNAR_SPILL_ENABLED,
+        isColumnarSpillEnabled);
     return hconf;
   }
 
@@ -495,7 +501,7 @@ public void testGetAt() {
         int numberOfBufferedBatches = i;
         int batchSize = j;
         try {
-          runTestGetAt(batchSize, numberOfBufferedBatches);
+          runTestGetAt(getConf(batchSize), batchSize, numberOfBufferedBatches);
           runTestGetAtRandomBatchSize(batchSize, numberOfBufferedBatches);
         } catch (Throwable t) {
           throw new RuntimeException(String.format(
@@ -506,8 +512,25 @@ public void testGetAt() {
     }
   }
 
-  private void runTestGetAt(int batchSize, int numberOfBufferedBatches) throws HiveException {
-    Configuration hconf = getConf(batchSize);
+  @Test
+  public void testGetAtWithRowSpill() {
+    for (int i = 1; i < 20; i += 3) {
+      for (int j = 1; j < 20; j += 3) {
+        int numberOfBufferedBatches = i;
+        int batchSize = j;
+        try {
+          runTestGetAt(getConf(batchSize, false), batchSize, numberOfBufferedBatches);
+        } catch (Throwable t) {
+          throw new RuntimeException(String.format(
+              "Failed while testing getAt for batchSize: %d, numberOfBufferedBatches: %d", batchSize,
+              numberOfBufferedBatches), t);
+        }
+      }
+    }
+  }
+
+  private void runTestGetAt(Configuration hconf, int batchSize, int numberOfBufferedBatches)
+      throws HiveException {
     VectorPTFGroupBatches groupBatches =
         new VectorPTFGroupBatches(hconf, numberOfBufferedBatches);
 
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.ptf;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Random;
+
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector.Type;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.IdentityExpression;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.BoundarySpec;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.Direction;
+import org.apache.hadoop.hive.ql.parse.WindowingSpec.WindowType;
+import org.apache.hadoop.hive.ql.plan.ptf.BoundaryDef;
+import org.apache.hadoop.hive.ql.plan.ptf.WindowFrameDef;
+import org.apache.hadoop.hive.ql.udf.ptf.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestVectorPTFSlidingWindow {
+
+  private static final int COLUMN = 1;
+
+  private VectorPTFGroupBatches mockBatches(Object[] values) throws HiveException {
+    VectorPTFGroupBatches batches = mock(VectorPTFGroupBatches.class);
+    when(batches.size()).thenReturn(values.length);
+    when(batches.getValue(anyInt(), anyInt())).thenAnswer(
+        invocation -> values[(Integer) invocation.getArgument(0)]);
+    return batches;
+  }
+
+  private static Long[] randomLongs(Random random, int size) {
+    Long[] values = new Long[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = random.nextInt(10) == 0 ? null : Long.valueOf(random.nextInt(100));
+    }
+    return values;
+  }
+
+  private static Long bruteForce(Long[] values, int start, int end, boolean isMax) {
+    Long result = null;
+    for (int i = start; i < end; i++) {
+      if (values[i] != null && (result == null
+          || (isMax ? values[i] > result : values[i] < result))) {
+        result = values[i];
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testSlidingMinMaxRows() throws HiveException {
+    Random random = new Random(7);
+    for (boolean isMax : new boolean[] { true, false }) {
+      for (int preceding = 0; preceding < 5; preceding++) {
+        for (int following = 0; following < 5; following++) {
+          Long[] values = randomLongs(random, 200);
+          VectorPTFGroupBatches batches = mockBatches(values);
+          VectorPTFSlidingMinMax window = new VectorPTFSlidingMinMax(isMax, true);
+          for (int row = 0; row < values.length; row++) {
+            int start = Math.max(0, row - preceding);
+            int end = Math.min(values.length, row + following + 1);
+            Long expected = bruteForce(values, start, end, isMax);
+            boolean hasValue = window.slide(new Range(start, end, batches), batches, COLUMN);
+            Assert.assertEquals("row " + row, expected, hasValue ? window.getLong() : null);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSlidingMinMaxGapsAndBackwardRanges() throws HiveException {
+    Double[] values = new Double[] { 3.0, 1.0, null, 5.0, 2.0, 4.0, null, null, 0.5, 6.0 };
+    VectorPTFGroupBatches batches = mockBatches(values);
+    VectorPTFSlidingMinMax window = new VectorPTFSlidingMinMax(true, false);
+
+    Assert.assertTrue(window.slide(new Range(0, 3, batches), batches, COLUMN));
+    Assert.assertEquals(3.0, window.getDouble(), 0.0);
+    // Skips rows 3 and 4 entirely.
+    Assert.assertTrue(window.slide(new Range(5, 6, batches), batches, COLUMN));
+    Assert.assertEquals(4.0, window.getDouble(), 0.0);
+    Assert.assertFalse(window.slide(new Range(6, 8, batches), batches, COLUMN));
+    // Moves backwards, the window is rebuilt.
+    Assert.assertTrue(window.slide(new Range(1, 5, batches), batches, COLUMN));
+    Assert.assertEquals(5.0, window.getDouble(), 0.0);
+    Assert.assertTrue(window.slide(new Range(4, 10, batches), batches, COLUMN));
+    Assert.assertEquals(6.0, window.getDouble(), 0.0);
+  }
+
+  @Test
+  public void testLeadLag() throws HiveException {
+    Long[] values = new Long[] { 10L, 11L, null, 13L, 14L };
+    VectorPTFGroupBatches batches = mockBatches(values);
+    WindowFrameDef windowFrameDef = new WindowFrameDef(WindowType.ROWS,
+        new BoundaryDef(Direction.PRECEDING, BoundarySpec.UNBOUNDED_AMOUNT),
+        new BoundaryDef(Direction.FOLLOWING, BoundarySpec.UNBOUNDED_AMOUNT));
+    VectorPTFEvaluatorBase lead = new VectorPTFEvaluatorLead(windowFrameDef,
+        new IdentityExpression(COLUMN), 2, Type.LONG, 2);
+    VectorPTFEvaluatorBase lag = new VectorPTFEvaluatorLag(windowFrameDef,
+        new IdentityExpression(COLUMN), 3, Type.LONG, 1);
+    Range range = new Range(0, values.length, batches);
+
+    Assert.assertFalse(lead.isCacheableForRange());
+    Long[] expectedLead = new Long[] { null, 13L, 14L, null, null };
+    Long[] expectedLag = new Long[] { null, 10L, 11L, null, 13L };
+    for (int row = 0; row < values.length; row++) {
+      Assert.assertTrue(lead.canRunOptimizedCalculation(row, range));
+      Assert.assertEquals(expectedLead[row], lead.runOnRange(row, range, batches));
+      Assert.assertEquals(expectedLag[row], lag.runOnRange(row, range, batches));
+    }
+  }
+}
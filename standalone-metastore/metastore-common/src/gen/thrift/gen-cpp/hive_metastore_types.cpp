@@ -44582,6 +44582,11 @@ void PartitionsRequest::__set_id(const int64_t val) {
   this->id = val;
 __isset.id = true;
 }
+
+void PartitionsRequest::__set_continuationToken(const std::string& val) {
+  this->continuationToken = val;
+__isset.continuationToken = true;
+}
 std::ostream& operator<<(std::ostream& out, const PartitionsRequest& obj)
 {
   obj.printTo(out);
@@ -44660,6 +44665,14 @@ uint32_t PartitionsRequest::read(::apache::thrift::protocol::TProtocol* iprot) {
           xfer += iprot->skip(ftype);
         }
         break;
+      case 7:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->continuationToken);
+          this->__isset.continuationToken = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -44709,6 +44722,11 @@ uint32_t PartitionsRequest::write(::apache::thrift::protocol::TProtocol* oprot)
     xfer += oprot->writeI64(this->id);
     xfer += oprot->writeFieldEnd();
   }
+  if (this->__isset.continuationToken) {
+    xfer += oprot->writeFieldBegin("continuationToken", ::apache::thrift::protocol::T_STRING, 7);
+    xfer += oprot->writeString(this->continuationToken);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -44722,6 +44740,7 @@ void swap(PartitionsRequest &a, PartitionsRequest &b) {
   swap(a.maxParts, b.maxParts);
   swap(a.validWriteIdList, b.validWriteIdList);
   swap(a.id, b.id);
+  swap(a.continuationToken, b.continuationToken);
   swap(a.__isset, b.__isset);
 }
 
@@ -44732,6 +44751,7 @@ PartitionsRequest::PartitionsRequest(const PartitionsRequest& other1581) {
   maxParts = other1581.maxParts;
   validWriteIdList = other1581.validWriteIdList;
   id = other1581.id;
+  continuationToken = other1581.continuationToken;
   __isset = other1581.__isset;
 }
 PartitionsRequest& PartitionsRequest::operator=(const PartitionsRequest& other1582) {
@@ -44741,6 +44761,7 @@ PartitionsRequest& PartitionsRequest::operator=(const PartitionsRequest& other15
   maxParts = other1582.maxParts;
   validWriteIdList = other1582.validWriteIdList;
   id = other1582.id;
+  continuationToken = other1582.continuationToken;
   __isset = other1582.__isset;
   return *this;
 }
@@ -44753,6 +44774,7 @@ void PartitionsRequest::printTo(std::ostream& out) const {
   out << ", " << "maxParts="; (__isset.maxParts ? (out << to_string(maxParts)) : (out << "<null>"));
   out << ", " << "validWriteIdList="; (__isset.validWriteIdList ? (out << to_string(validWriteIdList)) : (out << "<null>"));
   out << ", " << "id="; (__isset.id ? (out << to_string(id)) : (out << "<null>"));
+  out << ", " << "continuationToken="; (__isset.continuationToken ? (out << to_string(continuationToken)) : (out << "<null>"));
   out << ")";
 }
 
@@ -44764,6 +44786,11 @@ PartitionsResponse::~PartitionsResponse() noexcept {
 void PartitionsResponse::__set_partitions(const std::vector<Partition> & val) {
   this->partitions = val;
 }
+
+void PartitionsResponse::__set_continuationToken(const std::string& val) {
+  this->continuationToken = val;
+__isset.continuationToken = true;
+}
 std::ostream& operator<<(std::ostream& out, const PartitionsResponse& obj)
 {
   obj.printTo(out);
@@ -44813,6 +44840,14 @@ uint32_t PartitionsResponse::read(::apache::thrift::protocol::TProtocol* iprot)
           xfer += iprot->skip(ftype);
         }
         break;
+      case 2:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->continuationToken);
+          this->__isset.continuationToken = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -44844,6 +44879,11 @@ uint32_t PartitionsResponse::write(::apache::thrift::protocol::TProtocol* oprot)
   }
   xfer += oprot->writeFieldEnd();
 
+  if (this->__isset.continuationToken) {
+    xfer += oprot->writeFieldBegin("continuationToken", ::apache::thrift::protocol::T_STRING, 2);
+    xfer += oprot->writeString(this->continuationToken);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -44852,19 +44892,26 @@ uint32_t PartitionsResponse::write(::apache::thrift::protocol::TProtocol* oprot)
 void swap(PartitionsResponse &a, PartitionsResponse &b) {
   using ::std::swap;
   swap(a.partitions, b.partitions);
+  swap(a.continuationToken, b.continuationToken);
+  swap(a.__isset, b.__isset);
 }
 
 PartitionsResponse::PartitionsResponse(const PartitionsResponse& other1589) {
   partitions = other1589.partitions;
+  continuationToken = other1589.continuationToken;
+  __isset = other1589.__isset;
 }
 PartitionsResponse& PartitionsResponse::operator=(const PartitionsResponse& other1590) {
   partitions = other1590.partitions;
+  continuationToken = other1590.continuationToken;
+  __isset = other1590.__isset;
   return *this;
 }
 void PartitionsResponse::printTo(std::ostream& out) const {
   using ::apache::thrift::to_string;
   out << "PartitionsResponse(";
   out << "partitions=" << to_string(partitions);
+  out << ", " << "continuationToken="; (__isset.continuationToken ? (out << to_string(continuationToken)) : (out << "<null>"));
   out << ")";
 }
 
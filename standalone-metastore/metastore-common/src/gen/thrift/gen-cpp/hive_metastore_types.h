@@ -16847,11 +16847,12 @@ void swap(GetPartitionResponse &a, GetPartitionResponse &b);
 std::ostream& operator<<(std::ostream& out, const GetPartitionResponse& obj);
 
 typedef struct _PartitionsRequest__isset {
-  _PartitionsRequest__isset() : catName(false), maxParts(true), validWriteIdList(false), id(true) {}
+  _PartitionsRequest__isset() : catName(false), maxParts(true), validWriteIdList(false), id(true), continuationToken(false) {}
   bool catName :1;
   bool maxParts :1;
   bool validWriteIdList :1;
   bool id :1;
+  bool continuationToken :1;
 } _PartitionsRequest__isset;
 
 class PartitionsRequest : public virtual ::apache::thrift::TBase {
@@ -16859,7 +16860,7 @@ class PartitionsRequest : public virtual ::apache::thrift::TBase {
 
   PartitionsRequest(const PartitionsRequest&);
   PartitionsRequest& operator=(const PartitionsRequest&);
-  PartitionsRequest() : catName(), dbName(), tblName(), maxParts(-1), validWriteIdList(), id(-1LL) {
+  PartitionsRequest() : catName(), dbName(), tblName(), maxParts(-1), validWriteIdList(), id(-1LL), continuationToken() {
   }
 
   virtual ~PartitionsRequest() noexcept;
@@ -16869,6 +16870,7 @@ class PartitionsRequest : public virtual ::apache::thrift::TBase {
   int16_t maxParts;
   std::string validWriteIdList;
   int64_t id;
+  std::string continuationToken;
 
   _PartitionsRequest__isset __isset;
 
@@ -16884,6 +16886,8 @@ class PartitionsRequest : public virtual ::apache::thrift::TBase {
 
   void __set_id(const int64_t val);
 
+  void __set_continuationToken(const std::string& val);
+
   bool operator == (const PartitionsRequest & rhs) const
   {
     if (__isset.catName != rhs.__isset.catName)
@@ -16906,6 +16910,10 @@ class PartitionsRequest : public virtual ::apache::thrift::TBase {
       return false;
     else if (__isset.id && !(id == rhs.id))
       return false;
+    if (__isset.continuationToken != rhs.__isset.continuationToken)
+      return false;
+    else if (__isset.continuationToken && !(continuationToken == rhs.continuationToken))
+      return false;
     return true;
   }
   bool operator != (const PartitionsRequest &rhs) const {
@@ -16924,24 +16932,37 @@ void swap(PartitionsRequest &a, PartitionsRequest &b);
 
 std::ostream& operator<<(std::ostream& out, const PartitionsRequest& obj);
 
+typedef struct _PartitionsResponse__isset {
+  _PartitionsResponse__isset() : continuationToken(false) {}
+  bool continuationToken :1;
+} _PartitionsResponse__isset;
 
 class PartitionsResponse : public virtual ::apache::thrift::TBase {
  public:
 
   PartitionsResponse(const PartitionsResponse&);
   PartitionsResponse& operator=(const PartitionsResponse&);
-  PartitionsResponse() {
+  PartitionsResponse() : continuationToken() {
   }
 
   virtual ~PartitionsResponse() noexcept;
   std::vector<Partition>  partitions;
+  std::string continuationToken;
+
+  _PartitionsResponse__isset __isset;
 
   void __set_partitions(const std::vector<Partition> & val);
 
+  void __set_continuationToken(const std::string& val);
+
   bool operator == (const PartitionsResponse & rhs) const
   {
     if (!(partitions == rhs.partitions))
       return false;
+    if (__isset.continuationToken != rhs.__isset.continuationToken)
+      return false;
+    else if (__isset.continuationToken && !(continuationToken == rhs.continuationToken))
+      return false;
     return true;
   }
   bool operator != (const PartitionsResponse &rhs) const {
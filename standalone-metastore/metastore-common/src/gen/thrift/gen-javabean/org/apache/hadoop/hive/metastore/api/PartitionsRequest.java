@@ -17,6 +17,7 @@
   private static final org.apache.thrift.protocol.TField MAX_PARTS_FIELD_DESC = new org.apache.thrift.protocol.TField("maxParts", org.apache.thrift.protocol.TType.I16, (short)4);
   private static final org.apache.thrift.protocol.TField VALID_WRITE_ID_LIST_FIELD_DESC = new org.apache.thrift.protocol.TField("validWriteIdList", org.apache.thrift.protocol.TType.STRING, (short)5);
   private static final org.apache.thrift.protocol.TField ID_FIELD_DESC = new org.apache.thrift.protocol.TField("id", org.apache.thrift.protocol.TType.I64, (short)6);
+  private static final org.apache.thrift.protocol.TField CONTINUATION_TOKEN_FIELD_DESC = new org.apache.thrift.protocol.TField("continuationToken", org.apache.thrift.protocol.TType.STRING, (short)7);
 
   private static final org.apache.thrift.scheme.SchemeFactory STANDARD_SCHEME_FACTORY = new PartitionsRequestStandardSchemeFactory();
   private static final org.apache.thrift.scheme.SchemeFactory TUPLE_SCHEME_FACTORY = new PartitionsRequestTupleSchemeFactory();
@@ -27,6 +28,7 @@
   private short maxParts; // optional
   private @org.apache.thrift.annotation.Nullable java.lang.String validWriteIdList; // optional
   private long id; // optional
+  private @org.apache.thrift.annotation.Nullable java.lang.String continuationToken; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -35,7 +37,8 @@
     TBL_NAME((short)3, "tblName"),
     MAX_PARTS((short)4, "maxParts"),
     VALID_WRITE_ID_LIST((short)5, "validWriteIdList"),
-    ID((short)6, "id");
+    ID((short)6, "id"),
+    CONTINUATION_TOKEN((short)7, "continuationToken");
 
     private static final java.util.Map<java.lang.String, _Fields> byName = new java.util.HashMap<java.lang.String, _Fields>();
 
@@ -63,6 +66,8 @@ public static _Fields findByThriftId(int fieldId) {
           return VALID_WRITE_ID_LIST;
         case 6: // ID
           return ID;
+        case 7: // CONTINUATION_TOKEN
+          return CONTINUATION_TOKEN;
         default:
           return null;
       }
@@ -107,7 +112,7 @@ public java.lang.String getFieldName() {
   private static final int __MAXPARTS_ISSET_ID = 0;
   private static final int __ID_ISSET_ID = 1;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.CAT_NAME,_Fields.MAX_PARTS,_Fields.VALID_WRITE_ID_LIST,_Fields.ID};
+  private static final _Fields optionals[] = {_Fields.CAT_NAME,_Fields.MAX_PARTS,_Fields.VALID_WRITE_ID_LIST,_Fields.ID,_Fields.CONTINUATION_TOKEN};
   public static final java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new java.util.EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -123,6 +128,8 @@ public java.lang.String getFieldName() {
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     tmpMap.put(_Fields.ID, new org.apache.thrift.meta_data.FieldMetaData("id", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.CONTINUATION_TOKEN, new org.apache.thrift.meta_data.FieldMetaData("continuationToken", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = java.util.Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(PartitionsRequest.class, metaDataMap);
   }
@@ -162,6 +169,9 @@ public PartitionsRequest(PartitionsRequest other) {
       this.validWriteIdList = other.validWriteIdList;
     }
     this.id = other.id;
+    if (other.isSetContinuationToken()) {
+      this.continuationToken = other.continuationToken;
+    }
   }
 
   public PartitionsRequest deepCopy() {
@@ -178,6 +188,7 @@ public void clear() {
     this.validWriteIdList = null;
     this.id = -1L;
 
+    this.continuationToken = null;
   }
 
   @org.apache.thrift.annotation.Nullable
@@ -320,6 +331,30 @@ public void setIdIsSet(boolean value) {
     __isset_bitfield = org.apache.thrift.EncodingUtils.setBit(__isset_bitfield, __ID_ISSET_ID, value);
   }
 
+  @org.apache.thrift.annotation.Nullable
+  public java.lang.String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(@org.apache.thrift.annotation.Nullable java.lang.String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
+
+  public void unsetContinuationToken() {
+    this.continuationToken = null;
+  }
+
+  /** Returns true if field continuationToken is set (has been assigned a value) and false otherwise */
+  public boolean isSetContinuationToken() {
+    return this.continuationToken != null;
+  }
+
+  public void setContinuationTokenIsSet(boolean value) {
+    if (!value) {
+      this.continuationToken = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, @org.apache.thrift.annotation.Nullable java.lang.Object value) {
     switch (field) {
     case CAT_NAME:
@@ -370,6 +405,14 @@ public void setFieldValue(_Fields field, @org.apache.thrift.annotation.Nullable
       }
       break;
 
+    case CONTINUATION_TOKEN:
+      if (value == null) {
+        unsetContinuationToken();
+      } else {
+        setContinuationToken((java.lang.String)value);
+      }
+      break;
+
     }
   }
 
@@ -394,6 +437,9 @@ public java.lang.Object getFieldValue(_Fields field) {
     case ID:
       return getId();
 
+    case CONTINUATION_TOKEN:
+      return getContinuationToken();
+
     }
     throw new java.lang.IllegalStateException();
   }
@@ -417,6 +463,8 @@ public boolean isSet(_Fields field) {
       return isSetValidWriteIdList();
     case ID:
       return isSetId();
+    case CONTINUATION_TOKEN:
+      return isSetContinuationToken();
     }
     throw new java.lang.IllegalStateException();
   }
@@ -488,6 +536,15 @@ public boolean equals(PartitionsRequest that) {
         return false;
     }
 
+    boolean this_present_continuationToken = true && this.isSetContinuationToken();
+    boolean that_present_continuationToken = true && that.isSetContinuationToken();
+    if (this_present_continuationToken || that_present_continuationToken) {
+      if (!(this_present_continuationToken && that_present_continuationToken))
+        return false;
+      if (!this.continuationToken.equals(that.continuationToken))
+        return false;
+    }
+
     return true;
   }
 
@@ -519,6 +576,10 @@ public int hashCode() {
     if (isSetId())
       hashCode = hashCode * 8191 + org.apache.thrift.TBaseHelper.hashCode(id);
 
+    hashCode = hashCode * 8191 + ((isSetContinuationToken()) ? 131071 : 524287);
+    if (isSetContinuationToken())
+      hashCode = hashCode * 8191 + continuationToken.hashCode();
+
     return hashCode;
   }
 
@@ -590,6 +651,16 @@ public int compareTo(PartitionsRequest other) {
         return lastComparison;
       }
     }
+    lastComparison = java.lang.Boolean.compare(isSetContinuationToken(), other.isSetContinuationToken());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetContinuationToken()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.continuationToken, other.continuationToken);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -658,6 +729,16 @@ public java.lang.String toString() {
       sb.append(this.id);
       first = false;
     }
+    if (isSetContinuationToken()) {
+      if (!first) sb.append(", ");
+      sb.append("continuationToken:");
+      if (this.continuationToken == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.continuationToken);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -759,6 +840,14 @@ public void read(org.apache.thrift.protocol.TProtocol iprot, PartitionsRequest s
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 7: // CONTINUATION_TOKEN
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.continuationToken = iprot.readString();
+              struct.setContinuationTokenIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -806,6 +895,13 @@ public void write(org.apache.thrift.protocol.TProtocol oprot, PartitionsRequest
         oprot.writeI64(struct.id);
         oprot.writeFieldEnd();
       }
+      if (struct.continuationToken != null) {
+        if (struct.isSetContinuationToken()) {
+          oprot.writeFieldBegin(CONTINUATION_TOKEN_FIELD_DESC);
+          oprot.writeString(struct.continuationToken);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -838,7 +934,10 @@ public void write(org.apache.thrift.protocol.TProtocol prot, PartitionsRequest s
       if (struct.isSetId()) {
         optionals.set(3);
       }
-      oprot.writeBitSet(optionals, 4);
+      if (struct.isSetContinuationToken()) {
+        optionals.set(4);
+      }
+      oprot.writeBitSet(optionals, 5);
       if (struct.isSetCatName()) {
         oprot.writeString(struct.catName);
       }
@@ -851,6 +950,9 @@ public void write(org.apache.thrift.protocol.TProtocol prot, PartitionsRequest s
       if (struct.isSetId()) {
         oprot.writeI64(struct.id);
       }
+      if (struct.isSetContinuationToken()) {
+        oprot.writeString(struct.continuationToken);
+      }
     }
 
     @Override
@@ -860,7 +962,7 @@ public void read(org.apache.thrift.protocol.TProtocol prot, PartitionsRequest st
       struct.setDbNameIsSet(true);
       struct.tblName = iprot.readString();
       struct.setTblNameIsSet(true);
-      java.util.BitSet incoming = iprot.readBitSet(4);
+      java.util.BitSet incoming = iprot.readBitSet(5);
       if (incoming.get(0)) {
         struct.catName = iprot.readString();
         struct.setCatNameIsSet(true);
@@ -877,6 +979,10 @@ public void read(org.apache.thrift.protocol.TProtocol prot, PartitionsRequest st
         struct.id = iprot.readI64();
         struct.setIdIsSet(true);
       }
+      if (incoming.get(4)) {
+        struct.continuationToken = iprot.readString();
+        struct.setContinuationTokenIsSet(true);
+      }
     }
   }
 
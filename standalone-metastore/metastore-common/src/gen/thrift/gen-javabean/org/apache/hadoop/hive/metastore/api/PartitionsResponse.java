@@ -12,15 +12,18 @@
   private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("PartitionsResponse");
 
   private static final org.apache.thrift.protocol.TField PARTITIONS_FIELD_DESC = new org.apache.thrift.protocol.TField("partitions", org.apache.thrift.protocol.TType.LIST, (short)1);
+  private static final org.apache.thrift.protocol.TField CONTINUATION_TOKEN_FIELD_DESC = new org.apache.thrift.protocol.TField("continuationToken", org.apache.thrift.protocol.TType.STRING, (short)2);
 
   private static final org.apache.thrift.scheme.SchemeFactory STANDARD_SCHEME_FACTORY = new PartitionsResponseStandardSchemeFactory();
   private static final org.apache.thrift.scheme.SchemeFactory TUPLE_SCHEME_FACTORY = new PartitionsResponseTupleSchemeFactory();
 
   private @org.apache.thrift.annotation.Nullable java.util.List<Partition> partitions; // required
+  private @org.apache.thrift.annotation.Nullable java.lang.String continuationToken; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
-    PARTITIONS((short)1, "partitions");
+    PARTITIONS((short)1, "partitions"),
+    CONTINUATION_TOKEN((short)2, "continuationToken");
 
     private static final java.util.Map<java.lang.String, _Fields> byName = new java.util.HashMap<java.lang.String, _Fields>();
 
@@ -38,6 +41,8 @@ public static _Fields findByThriftId(int fieldId) {
       switch(fieldId) {
         case 1: // PARTITIONS
           return PARTITIONS;
+        case 2: // CONTINUATION_TOKEN
+          return CONTINUATION_TOKEN;
         default:
           return null;
       }
@@ -79,12 +84,15 @@ public java.lang.String getFieldName() {
   }
 
   // isset id assignments
+  private static final _Fields optionals[] = {_Fields.CONTINUATION_TOKEN};
   public static final java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new java.util.EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
     tmpMap.put(_Fields.PARTITIONS, new org.apache.thrift.meta_data.FieldMetaData("partitions", org.apache.thrift.TFieldRequirementType.REQUIRED, 
         new org.apache.thrift.meta_data.ListMetaData(org.apache.thrift.protocol.TType.LIST, 
             new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, Partition.class))));
+    tmpMap.put(_Fields.CONTINUATION_TOKEN, new org.apache.thrift.meta_data.FieldMetaData("continuationToken", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = java.util.Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(PartitionsResponse.class, metaDataMap);
   }
@@ -110,6 +118,9 @@ public PartitionsResponse(PartitionsResponse other) {
       }
       this.partitions = __this__partitions;
     }
+    if (other.isSetContinuationToken()) {
+      this.continuationToken = other.continuationToken;
+    }
   }
 
   public PartitionsResponse deepCopy() {
@@ -119,6 +130,7 @@ public PartitionsResponse deepCopy() {
   @Override
   public void clear() {
     this.partitions = null;
+    this.continuationToken = null;
   }
 
   public int getPartitionsSize() {
@@ -161,6 +173,30 @@ public void setPartitionsIsSet(boolean value) {
     }
   }
 
+  @org.apache.thrift.annotation.Nullable
+  public java.lang.String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(@org.apache.thrift.annotation.Nullable java.lang.String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
+
+  public void unsetContinuationToken() {
+    this.continuationToken = null;
+  }
+
+  /** Returns true if field continuationToken is set (has been assigned a value) and false otherwise */
+  public boolean isSetContinuationToken() {
+    return this.continuationToken != null;
+  }
+
+  public void setContinuationTokenIsSet(boolean value) {
+    if (!value) {
+      this.continuationToken = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, @org.apache.thrift.annotation.Nullable java.lang.Object value) {
     switch (field) {
     case PARTITIONS:
@@ -171,6 +207,14 @@ public void setFieldValue(_Fields field, @org.apache.thrift.annotation.Nullable
       }
       break;
 
+    case CONTINUATION_TOKEN:
+      if (value == null) {
+        unsetContinuationToken();
+      } else {
+        setContinuationToken((java.lang.String)value);
+      }
+      break;
+
     }
   }
 
@@ -180,6 +224,9 @@ public java.lang.Object getFieldValue(_Fields field) {
     case PARTITIONS:
       return getPartitions();
 
+    case CONTINUATION_TOKEN:
+      return getContinuationToken();
+
     }
     throw new java.lang.IllegalStateException();
   }
@@ -193,6 +240,8 @@ public boolean isSet(_Fields field) {
     switch (field) {
     case PARTITIONS:
       return isSetPartitions();
+    case CONTINUATION_TOKEN:
+      return isSetContinuationToken();
     }
     throw new java.lang.IllegalStateException();
   }
@@ -219,6 +268,15 @@ public boolean equals(PartitionsResponse that) {
         return false;
     }
 
+    boolean this_present_continuationToken = true && this.isSetContinuationToken();
+    boolean that_present_continuationToken = true && that.isSetContinuationToken();
+    if (this_present_continuationToken || that_present_continuationToken) {
+      if (!(this_present_continuationToken && that_present_continuationToken))
+        return false;
+      if (!this.continuationToken.equals(that.continuationToken))
+        return false;
+    }
+
     return true;
   }
 
@@ -230,6 +288,10 @@ public int hashCode() {
     if (isSetPartitions())
       hashCode = hashCode * 8191 + partitions.hashCode();
 
+    hashCode = hashCode * 8191 + ((isSetContinuationToken()) ? 131071 : 524287);
+    if (isSetContinuationToken())
+      hashCode = hashCode * 8191 + continuationToken.hashCode();
+
     return hashCode;
   }
 
@@ -251,6 +313,16 @@ public int compareTo(PartitionsResponse other) {
         return lastComparison;
       }
     }
+    lastComparison = java.lang.Boolean.compare(isSetContinuationToken(), other.isSetContinuationToken());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetContinuationToken()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.continuationToken, other.continuationToken);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -279,6 +351,16 @@ public java.lang.String toString() {
       sb.append(this.partitions);
     }
     first = false;
+    if (isSetContinuationToken()) {
+      if (!first) sb.append(", ");
+      sb.append("continuationToken:");
+      if (this.continuationToken == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.continuationToken);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -345,6 +427,14 @@ public void read(org.apache.thrift.protocol.TProtocol iprot, PartitionsResponse
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 2: // CONTINUATION_TOKEN
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.continuationToken = iprot.readString();
+              struct.setContinuationTokenIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -370,6 +460,13 @@ public void write(org.apache.thrift.protocol.TProtocol oprot, PartitionsResponse
         }
         oprot.writeFieldEnd();
       }
+      if (struct.continuationToken != null) {
+        if (struct.isSetContinuationToken()) {
+          oprot.writeFieldBegin(CONTINUATION_TOKEN_FIELD_DESC);
+          oprot.writeString(struct.continuationToken);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -394,6 +491,14 @@ public void write(org.apache.thrift.protocol.TProtocol prot, PartitionsResponse
           _iter1320.write(oprot);
         }
       }
+      java.util.BitSet optionals = new java.util.BitSet();
+      if (struct.isSetContinuationToken()) {
+        optionals.set(0);
+      }
+      oprot.writeBitSet(optionals, 1);
+      if (struct.isSetContinuationToken()) {
+        oprot.writeString(struct.continuationToken);
+      }
     }
 
     @Override
@@ -411,6 +516,11 @@ public void read(org.apache.thrift.protocol.TProtocol prot, PartitionsResponse s
         }
       }
       struct.setPartitionsIsSet(true);
+      java.util.BitSet incoming = iprot.readBitSet(1);
+      if (incoming.get(0)) {
+        struct.continuationToken = iprot.readString();
+        struct.setContinuationTokenIsSet(true);
+      }
     }
   }
 
@@ -51,6 +51,11 @@ class PartitionsRequest
             'isRequired' => false,
             'type' => TType::I64,
         ),
+        7 => array(
+            'var' => 'continuationToken',
+            'isRequired' => false,
+            'type' => TType::STRING,
+        ),
     );
 
     /**
@@ -77,6 +82,10 @@ class PartitionsRequest
      * @var int
      */
     public $id = -1;
+    /**
+     * @var string
+     */
+    public $continuationToken = null;
 
     public function __construct($vals = null)
     {
@@ -99,6 +108,9 @@ class PartitionsRequest
             if (isset($vals['id'])) {
                 $this->id = $vals['id'];
             }
+            if (isset($vals['continuationToken'])) {
+                $this->continuationToken = $vals['continuationToken'];
+            }
         }
     }
 
@@ -163,6 +175,13 @@ class PartitionsRequest
                         $xfer += $input->skip($ftype);
                     }
                     break;
+                case 7:
+                    if ($ftype == TType::STRING) {
+                        $xfer += $input->readString($this->continuationToken);
+                    } else {
+                        $xfer += $input->skip($ftype);
+                    }
+                    break;
                 default:
                     $xfer += $input->skip($ftype);
                     break;
@@ -207,6 +226,11 @@ class PartitionsRequest
             $xfer += $output->writeI64($this->id);
             $xfer += $output->writeFieldEnd();
         }
+        if ($this->continuationToken !== null) {
+            $xfer += $output->writeFieldBegin('continuationToken', TType::STRING, 7);
+            $xfer += $output->writeString($this->continuationToken);
+            $xfer += $output->writeFieldEnd();
+        }
         $xfer += $output->writeFieldStop();
         $xfer += $output->writeStructEnd();
         return $xfer;
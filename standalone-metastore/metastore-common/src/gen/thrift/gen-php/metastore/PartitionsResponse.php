@@ -31,12 +31,21 @@ class PartitionsResponse
                 'class' => '\metastore\Partition',
                 ),
         ),
+        2 => array(
+            'var' => 'continuationToken',
+            'isRequired' => false,
+            'type' => TType::STRING,
+        ),
     );
 
     /**
      * @var \metastore\Partition[]
      */
     public $partitions = null;
+    /**
+     * @var string
+     */
+    public $continuationToken = null;
 
     public function __construct($vals = null)
     {
@@ -44,6 +53,9 @@ class PartitionsResponse
             if (isset($vals['partitions'])) {
                 $this->partitions = $vals['partitions'];
             }
+            if (isset($vals['continuationToken'])) {
+                $this->continuationToken = $vals['continuationToken'];
+            }
         }
     }
 
@@ -83,6 +95,13 @@ class PartitionsResponse
                         $xfer += $input->skip($ftype);
                     }
                     break;
+                case 2:
+                    if ($ftype == TType::STRING) {
+                        $xfer += $input->readString($this->continuationToken);
+                    } else {
+                        $xfer += $input->skip($ftype);
+                    }
+                    break;
                 default:
                     $xfer += $input->skip($ftype);
                     break;
@@ -109,6 +128,11 @@ class PartitionsResponse
             $output->writeListEnd();
             $xfer += $output->writeFieldEnd();
         }
+        if ($this->continuationToken !== null) {
+            $xfer += $output->writeFieldBegin('continuationToken', TType::STRING, 2);
+            $xfer += $output->writeString($this->continuationToken);
+            $xfer += $output->writeFieldEnd();
+        }
         $xfer += $output->writeFieldStop();
         $xfer += $output->writeStructEnd();
         return $xfer;
@@ -25546,17 +25546,19 @@ class PartitionsRequest(object):
      - maxParts
      - validWriteIdList
      - id
+     - continuationToken
 
     """
 
 
-    def __init__(self, catName=None, dbName=None, tblName=None, maxParts=-1, validWriteIdList=None, id=-1,):
+    def __init__(self, catName=None, dbName=None, tblName=None, maxParts=-1, validWriteIdList=None, id=-1, continuationToken=None,):
         self.catName = catName
         self.dbName = dbName
         self.tblName = tblName
         self.maxParts = maxParts
         self.validWriteIdList = validWriteIdList
         self.id = id
+        self.continuationToken = continuationToken
 
     def read(self, iprot):
         if iprot._fast_decode is not None and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None:
@@ -25597,6 +25599,11 @@ def read(self, iprot):
                     self.id = iprot.readI64()
                 else:
                     iprot.skip(ftype)
+            elif fid == 7:
+                if ftype == TType.STRING:
+                    self.continuationToken = iprot.readString().decode('utf-8', errors='replace') if sys.version_info[0] == 2 else iprot.readString()
+                else:
+                    iprot.skip(ftype)
             else:
                 iprot.skip(ftype)
             iprot.readFieldEnd()
@@ -25631,6 +25638,10 @@ def write(self, oprot):
             oprot.writeFieldBegin('id', TType.I64, 6)
             oprot.writeI64(self.id)
             oprot.writeFieldEnd()
+        if self.continuationToken is not None:
+            oprot.writeFieldBegin('continuationToken', TType.STRING, 7)
+            oprot.writeString(self.continuationToken.encode('utf-8') if sys.version_info[0] == 2 else self.continuationToken)
+            oprot.writeFieldEnd()
         oprot.writeFieldStop()
         oprot.writeStructEnd()
 
@@ -25657,12 +25668,14 @@ class PartitionsResponse(object):
     """
     Attributes:
      - partitions
+     - continuationToken
 
     """
 
 
-    def __init__(self, partitions=None,):
+    def __init__(self, partitions=None, continuationToken=None,):
         self.partitions = partitions
+        self.continuationToken = continuationToken
 
     def read(self, iprot):
         if iprot._fast_decode is not None and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None:
@@ -25684,6 +25697,11 @@ def read(self, iprot):
                     iprot.readListEnd()
                 else:
                     iprot.skip(ftype)
+            elif fid == 2:
+                if ftype == TType.STRING:
+                    self.continuationToken = iprot.readString().decode('utf-8', errors='replace') if sys.version_info[0] == 2 else iprot.readString()
+                else:
+                    iprot.skip(ftype)
             else:
                 iprot.skip(ftype)
             iprot.readFieldEnd()
@@ -25701,6 +25719,10 @@ def write(self, oprot):
                 iter1162.write(oprot)
             oprot.writeListEnd()
             oprot.writeFieldEnd()
+        if self.continuationToken is not None:
+            oprot.writeFieldBegin('continuationToken', TType.STRING, 2)
+            oprot.writeString(self.continuationToken.encode('utf-8') if sys.version_info[0] == 2 else self.continuationToken)
+            oprot.writeFieldEnd()
         oprot.writeFieldStop()
         oprot.writeStructEnd()
 
@@ -30333,11 +30355,13 @@ def __ne__(self, other):
     (4, TType.I16, 'maxParts', None, -1, ),  # 4
     (5, TType.STRING, 'validWriteIdList', 'UTF8', None, ),  # 5
     (6, TType.I64, 'id', None, -1, ),  # 6
+    (7, TType.STRING, 'continuationToken', 'UTF8', None, ),  # 7
 )
 all_structs.append(PartitionsResponse)
 PartitionsResponse.thrift_spec = (
     None,  # 0
     (1, TType.LIST, 'partitions', (TType.STRUCT, [Partition, None], False), None, ),  # 1
+    (2, TType.STRING, 'continuationToken', 'UTF8', None, ),  # 2
 )
 all_structs.append(GetPartitionNamesPsRequest)
 GetPartitionNamesPsRequest.thrift_spec = (
@@ -7063,6 +7063,7 @@ class PartitionsRequest
   MAXPARTS = 4
   VALIDWRITEIDLIST = 5
   ID = 6
+  CONTINUATIONTOKEN = 7
 
   FIELDS = {
     CATNAME => {:type => ::Thrift::Types::STRING, :name => 'catName', :optional => true},
@@ -7070,7 +7071,8 @@ class PartitionsRequest
     TBLNAME => {:type => ::Thrift::Types::STRING, :name => 'tblName'},
     MAXPARTS => {:type => ::Thrift::Types::I16, :name => 'maxParts', :default => -1, :optional => true},
     VALIDWRITEIDLIST => {:type => ::Thrift::Types::STRING, :name => 'validWriteIdList', :optional => true},
-    ID => {:type => ::Thrift::Types::I64, :name => 'id', :default => -1, :optional => true}
+    ID => {:type => ::Thrift::Types::I64, :name => 'id', :default => -1, :optional => true},
+    CONTINUATIONTOKEN => {:type => ::Thrift::Types::STRING, :name => 'continuationToken', :optional => true}
   }
 
   def struct_fields; FIELDS; end
@@ -7086,9 +7088,11 @@ end
 class PartitionsResponse
   include ::Thrift::Struct, ::Thrift::Struct_Union
   PARTITIONS = 1
+  CONTINUATIONTOKEN = 2
 
   FIELDS = {
-    PARTITIONS => {:type => ::Thrift::Types::LIST, :name => 'partitions', :element => {:type => ::Thrift::Types::STRUCT, :class => ::Partition}}
+    PARTITIONS => {:type => ::Thrift::Types::LIST, :name => 'partitions', :element => {:type => ::Thrift::Types::STRUCT, :class => ::Partition}},
+    CONTINUATIONTOKEN => {:type => ::Thrift::Types::STRING, :name => 'continuationToken', :optional => true}
   }
 
   def struct_fields; FIELDS; end
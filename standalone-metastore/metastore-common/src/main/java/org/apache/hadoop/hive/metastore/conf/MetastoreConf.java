@@ -231,6 +231,9 @@ public String toString() {
       ConfVars.AGGREGATE_STATS_CACHE_MAX_READER_WAIT,
       ConfVars.AGGREGATE_STATS_CACHE_MAX_FULL,
       ConfVars.AGGREGATE_STATS_CACHE_CLEAN_UNTIL,
+      ConfVars.AGGREGATE_STATS_PARTSET_CACHE_ENABLED,
+      ConfVars.AGGREGATE_STATS_PARTSET_CACHE_MAX_MEMORY,
+      ConfVars.AGGREGATE_STATS_PARTSET_CACHE_TTL,
       ConfVars.DISALLOW_INCOMPATIBLE_COL_TYPE_CHANGES,
       ConfVars.FILE_METADATA_THREADS,
       ConfVars.METASTORE_CLIENT_FILTER_ENABLED,
@@ -322,6 +325,19 @@ public enum ConfVars {
     AGGREGATE_STATS_CACHE_TTL("metastore.aggregate.stats.cache.ttl",
         "hive.metastore.aggregate.stats.cache.ttl", 600, TimeUnit.SECONDS,
         "Number of seconds for a cached node to be active in the cache before they become stale."),
+    AGGREGATE_STATS_PARTSET_CACHE_ENABLED("metastore.aggregate.stats.partset.cache.enabled",
+        "hive.metastore.aggregate.stats.partset.cache.enabled", false,
+        "Whether the column stats aggregated over a set of partitions are cached by the exact set of\n" +
+        "partition names. Unlike metastore.aggregate.stats.cache.enabled, a cached aggregate is only\n" +
+        "used for the same partitions, and it is invalidated when the partition column stats of the\n" +
+        "table change. If enabled, it is used instead of the bloom filter based cache."),
+    AGGREGATE_STATS_PARTSET_CACHE_MAX_MEMORY("metastore.aggregate.stats.partset.cache.max.memory",
+        "hive.metastore.aggregate.stats.partset.cache.max.memory", "64Mb", new SizeValidator(),
+        "The maximum estimated memory in bytes used by the partition set aggregate stats cache."),
+    AGGREGATE_STATS_PARTSET_CACHE_TTL("metastore.aggregate.stats.partset.cache.ttl",
+        "hive.metastore.aggregate.stats.partset.cache.ttl", 600, TimeUnit.SECONDS,
+        "Number of seconds an aggregate stays in the partition set aggregate stats cache. This bounds\n" +
+        "the staleness caused by the stats updates made through other metastore instances."),
     ALLOW_TENANT_BASED_STORAGE("metastore.warehouse.tenant.colocation", "hive.metastore.warehouse.tenant.colocation", false,
         "Allows managed and external tables for a tenant to have a common parent directory\n" +
         "For example: /user/warehouse/user1/managed and /user/warehouse/user1/external\n" +
@@ -378,6 +394,11 @@ public enum ConfVars {
         "The maximum memory in bytes that the cached objects can use. "
         + "Memory used is calculated based on estimated size of tables and partitions in the cache. "
         + "Setting it to a negative value disables memory estimation."),
+    CACHED_RAW_STORE_IN_MEMORY_PRUNING("metastore.cached.rawstore.in.memory.pruning",
+        "hive.metastore.cached.rawstore.in.memory.pruning", false,
+        "Whether CachedStore prunes the cached partitions of a table for getPartitionsByExpr by evaluating \n" +
+        "the filter the expression converts to over the partition values, parsed once per table. \n" +
+        "The expressions that cannot be converted are evaluated on every partition name as before."),
     CAPABILITY_CHECK("metastore.client.capability.check",
         "hive.metastore.client.capability.check", true,
         "Whether to check client capabilities for potentially breaking API usage."),
@@ -1281,6 +1302,10 @@ public enum ConfVars {
         "The delegation token service name to match when selecting a token from the current user's tokens."),
     METASTORE_CACHE_CAN_USE_EVENT("metastore.cache.can.use.event", "hive.metastore.cache.can.use.event", false,
             "Can notification events from notification log table be used for updating the metastore cache."),
+    METASTORE_CACHE_EVENT_BATCH_SIZE("metastore.cache.event.batch.size", "hive.metastore.cache.event.batch.size", 1000,
+            "The maximum number of notification events read in one request when the metastore cache is updated\n" +
+            "using events. The events are read in batches until all of them are applied. 0 or less reads them all\n" +
+            "in one request, up to metastore.max.event.response."),
     TRANSACTIONAL_EVENT_LISTENERS("metastore.transactional.event.listeners",
         "hive.metastore.transactional.event.listeners", "",
         "A comma separated list of Java classes that implement the org.apache.riven.MetaStoreEventListener" +
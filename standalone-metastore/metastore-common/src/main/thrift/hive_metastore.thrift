@@ -2097,11 +2097,13 @@ struct PartitionsRequest { // Not using Get prefix as that name is already used
    3: required string tblName,
    4: optional i16 maxParts=-1,
    5: optional string validWriteIdList,
-   6: optional i64 id=-1 // table id
+   6: optional i64 id=-1, // table id
+   7: optional string continuationToken // set to get a page of maxParts partitions; empty for the first page
 }
 
 struct PartitionsResponse { // Not using Get prefix as that name is already used for a different method
-   1: required list<Partition> partitions
+   1: required list<Partition> partitions,
+   2: optional string continuationToken // for the next page of a paged request; empty after the last page
 }
 
 struct GetPartitionNamesPsRequest {
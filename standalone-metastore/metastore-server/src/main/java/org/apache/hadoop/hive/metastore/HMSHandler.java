@@ -5428,6 +5428,9 @@ public List<Partition> get_partitions(final String db_name, final String tbl_nam
   @Override
   public PartitionsResponse get_partitions_req(PartitionsRequest req)
       throws NoSuchObjectException, MetaException, TException {
+    if (req.isSetContinuationToken()) {
+      return getPartitionsPage(req);
+    }
     String dbName = MetaStoreUtils.prependCatalogToDbName(req.getCatName(), req.getDbName(), conf);
     List<Partition> partitions = get_partitions(dbName, req.getTblName(), req.getMaxParts());
     PartitionsResponse res = new PartitionsResponse();
@@ -5435,6 +5438,49 @@ public PartitionsResponse get_partitions_req(PartitionsRequest req)
     return res;
   }
 
+  /**
+   * Returns the page of maxParts partitions that follows the continuation token, along with the
+   * token of the next page. The token is the name of the last partition of the page, so the
+   * pages are read by partition name ranges and the server keeps no state between them.
+   */
+  private PartitionsResponse getPartitionsPage(PartitionsRequest req) throws TException {
+    String catName = req.isSetCatName() ? req.getCatName() : getDefaultCatalog(conf);
+    String dbName = req.getDbName();
+    String tblName = req.getTblName();
+    startTableFunction("get_partitions_req", catName, dbName, tblName);
+    fireReadTablePreEvent(catName, dbName, tblName);
+    PartitionsResponse res = null;
+    Exception ex = null;
+    try {
+      if (req.getMaxParts() <= 0) {
+        throw new MetaException("maxParts must be positive for a paged partition request, got "
+            + req.getMaxParts());
+      }
+      authorizeTableForPartitionMetadata(catName, dbName, tblName);
+
+      String lastPartName = req.getContinuationToken().isEmpty() ? null : req.getContinuationToken();
+      List<Partition> partitions = getMS().getPartitionsPage(catName, dbName, tblName, lastPartName,
+          req.getMaxParts());
+      // An empty token marks the last page. It is taken before the filtering, which may drop the
+      // last partition of the page.
+      String continuationToken = "";
+      if (partitions.size() >= req.getMaxParts()) {
+        Table table = getTable(catName, dbName, tblName);
+        continuationToken = Warehouse.makePartName(table.getPartitionKeys(),
+            partitions.get(partitions.size() - 1).getValues());
+      }
+      res = new PartitionsResponse(FilterUtils.filterPartitionsIfEnabled(isServerFilterEnabled, filterHook,
+          partitions));
+      res.setContinuationToken(continuationToken);
+    } catch (Exception e) {
+      ex = e;
+      throwMetaException(e);
+    } finally {
+      endFunction("get_partitions_req", res != null, ex, tblName);
+    }
+    return res;
+  }
+
   @Override
   @Deprecated
   public List<Partition> get_partitions_with_auth(final String dbName,
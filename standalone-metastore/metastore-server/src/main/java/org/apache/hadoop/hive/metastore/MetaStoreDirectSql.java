@@ -142,6 +142,7 @@ class MetaStoreDirectSql {
   private final boolean isAggregateStatsCacheEnabled;
   private final ImmutableMap<String, String> fieldnameToTableName;
   private AggregateStatsCache aggrStatsCache;
+  private PartitionSetAggrStatsCache partSetAggrStatsCache;
   private DirectSqlUpdateStat updateStat;
 
   /**
@@ -222,6 +223,9 @@ public MetaStoreDirectSql(PersistenceManager pm, Configuration conf, String sche
     if (isAggregateStatsCacheEnabled) {
       aggrStatsCache = AggregateStatsCache.getInstance(conf);
     }
+    if (MetastoreConf.getBoolVar(conf, ConfVars.AGGREGATE_STATS_PARTSET_CACHE_ENABLED)) {
+      partSetAggrStatsCache = PartitionSetAggrStatsCache.getInstance(conf);
+    }
 
     // now use the tableanames to create the mapping
     // note that some of the optional single-valued fields are not present
@@ -831,6 +835,35 @@ public List<Partition> getPartitions(String catName,
       String dbName, String tblName, Integer max) throws MetaException {
     List<Long> partitionIds = getPartitionIdsViaSqlFilter(catName, dbName,
         tblName, null, Collections.<String>emptyList(), Collections.<String>emptyList(), max);
+    return getPartitionsFromPartitionIdsBatched(catName, dbName, tblName, partitionIds);
+  }
+
+  /**
+   * Gets a page of the partitions of a table, ordered by name, by using direct SQL queries.
+   * The page is found with a range condition on the partition name, so the partitions of the
+   * earlier pages are not scanned again.
+   * @param catName Metastore catalog name.
+   * @param dbName Metastore db name.
+   * @param tblName Metastore table name.
+   * @param lastPartName The name of the last partition of the previous page, or null.
+   * @param max The maximum number of partitions to return.
+   * @return List of partitions.
+   */
+  public List<Partition> getPartitionsPage(String catName, String dbName, String tblName,
+      String lastPartName, int max) throws MetaException {
+    String sqlFilter = null;
+    List<String> params = Collections.emptyList();
+    if (lastPartName != null) {
+      sqlFilter = PARTITIONS + ".\"PART_NAME\" > ?";
+      params = Collections.singletonList(lastPartName);
+    }
+    List<Long> partitionIds = getPartitionIdsViaSqlFilter(catName, dbName,
+        tblName, sqlFilter, params, Collections.<String>emptyList(), max);
+    return getPartitionsFromPartitionIdsBatched(catName, dbName, tblName, partitionIds);
+  }
+
+  private List<Partition> getPartitionsFromPartitionIdsBatched(String catName, String dbName,
+      String tblName, List<Long> partitionIds) throws MetaException {
     if (partitionIds.isEmpty()) {
       return Collections.emptyList(); // no partitions, bail early.
     }
@@ -1554,10 +1587,26 @@ public AggrStats aggrColStatsForPartitions(String catName, String dbName, String
       List<String> partNames, List<String> colNames, String engine,
       boolean useDensityFunctionForNDVEstimation, double ndvTuner, boolean enableBitVector)
       throws MetaException {
+    return aggrColStatsForPartitions(catName, dbName, tableName, partNames, colNames, engine, null,
+        useDensityFunctionForNDVEstimation, ndvTuner, enableBitVector);
+  }
+
+  /**
+   * @param partWriteIds the write IDs of the partitions by name, used to identify the version of
+   *          the stats of transactional tables in the cache; null if not known.
+   */
+  public AggrStats aggrColStatsForPartitions(String catName, String dbName, String tableName,
+      List<String> partNames, List<String> colNames, String engine, Map<String, Long> partWriteIds,
+      boolean useDensityFunctionForNDVEstimation, double ndvTuner, boolean enableBitVector)
+      throws MetaException {
     if (colNames.isEmpty() || partNames.isEmpty()) {
       LOG.debug("Columns is empty or partNames is empty : Short-circuiting stats eval");
       return new AggrStats(Collections.<ColumnStatisticsObj>emptyList(), 0); // Nothing to aggregate
     }
+    if (partSetAggrStatsCache != null) {
+      return aggrColStatsUsingPartSetCache(catName, dbName, tableName, partNames, colNames, engine,
+          partWriteIds, useDensityFunctionForNDVEstimation, ndvTuner, enableBitVector);
+    }
     long partsFound = 0;
     List<ColumnStatisticsObj> colStatsList;
     // Try to read from the cache first
@@ -1608,6 +1657,73 @@ public AggrStats aggrColStatsForPartitions(String catName, String dbName, String
     return new AggrStats(colStatsList, partsFound);
   }
 
+  /**
+   * Aggregates the column stats using {@link PartitionSetAggrStatsCache}. The aggregate of a
+   * column only depends on whether all the partitions have stats for all the requested columns,
+   * so a cached aggregate is used when it was computed with the same answer.
+   */
+  private AggrStats aggrColStatsUsingPartSetCache(String catName, String dbName, String tableName,
+      List<String> partNames, List<String> colNames, String engine, Map<String, Long> partWriteIds,
+      boolean useDensityFunctionForNDVEstimation, double ndvTuner, boolean enableBitVector)
+      throws MetaException {
+    // Taken before reading anything, so that the stats changed concurrently are not cached
+    long generation = partSetAggrStatsCache.getGeneration(catName, dbName, tableName);
+    byte[] partsDigest = PartitionSetAggrStatsCache.digest(partNames, partWriteIds);
+    Map<String, PartitionSetAggrStatsCache.AggrColStats> cached = new HashMap<>();
+    boolean areAllCachedPartsFound = true;
+    for (String colName : colNames) {
+      PartitionSetAggrStatsCache.AggrColStats colStats =
+          partSetAggrStatsCache.get(catName, dbName, tableName, engine, colName, partsDigest);
+      if (colStats != null) {
+        cached.put(colName, colStats);
+        areAllCachedPartsFound &= colStats.areAllPartsFound();
+      }
+    }
+    long partsFound;
+    if (cached.size() == colNames.size() && areAllCachedPartsFound) {
+      // Every partition has stats for every column, no need to count them
+      partsFound = partNames.size();
+    } else {
+      partsFound = partsFoundForPartitions(catName, dbName, tableName, partNames, colNames, engine);
+    }
+    boolean areAllPartsFound = (partsFound == partNames.size());
+    List<String> colNamesForDB = new ArrayList<>();
+    for (String colName : colNames) {
+      PartitionSetAggrStatsCache.AggrColStats colStats = cached.get(colName);
+      if (colStats == null || colStats.areAllPartsFound() != areAllPartsFound) {
+        colNamesForDB.add(colName);
+      }
+    }
+    Map<String, List<ColumnStatisticsObj>> colStatsFromDB = new HashMap<>();
+    if (!colNamesForDB.isEmpty()) {
+      List<ColumnStatisticsObj> colStatsList = columnStatisticsObjForPartitions(catName, dbName,
+          tableName, partNames, colNamesForDB, engine, partsFound, useDensityFunctionForNDVEstimation,
+          ndvTuner, enableBitVector);
+      for (ColumnStatisticsObj colStats : colStatsList) {
+        colStatsFromDB.computeIfAbsent(colStats.getColName(), k -> new ArrayList<>()).add(colStats);
+      }
+    }
+    List<ColumnStatisticsObj> colStatsList = new ArrayList<>();
+    for (String colName : colNames) {
+      List<ColumnStatisticsObj> fromDB = colStatsFromDB.get(colName);
+      if (fromDB == null) {
+        if (!colNamesForDB.contains(colName)) {
+          colStatsList.add(cached.get(colName).getColStats());
+        }
+        continue;
+      }
+      // Only the columns aggregated in a single batch are cached
+      if (fromDB.size() == 1) {
+        partSetAggrStatsCache.add(catName, dbName, tableName, engine, colName, partsDigest,
+            fromDB.get(0), areAllPartsFound, generation);
+      }
+      colStatsList.addAll(fromDB);
+    }
+    LOG.debug("partsFound = {}, {} of {} columns read from the partition set cache", partsFound,
+        colNames.size() - colNamesForDB.size(), colNames.size());
+    return new AggrStats(colStatsList, partsFound);
+  }
+
   private BloomFilter createPartsBloomFilter(int maxPartsPerCacheNode, double fpp,
       List<String> partNames) {
     BloomFilter bloomFilter = new BloomFilter(maxPartsPerCacheNode, fpp);
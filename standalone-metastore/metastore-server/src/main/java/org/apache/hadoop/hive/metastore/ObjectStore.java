@@ -320,6 +320,9 @@ private enum TXN_STATUS {
   private Pattern partitionValidationPattern;
   private Counter directSqlErrors;
   private boolean areTxnStatsSupported = false;
+  private PartitionSetAggrStatsCache partSetAggrStatsCache = null;
+  // The tables whose cached aggregate stats are invalidated when the current transaction ends
+  private final Set<TableName> pendingAggrStatsInvalidations = new HashSet<>();
 
   public ObjectStore() {
   }
@@ -340,6 +343,9 @@ public void setConf(Configuration conf) {
     isInitialized = false;
     this.conf = conf;
     this.areTxnStatsSupported = MetastoreConf.getBoolVar(conf, ConfVars.HIVE_TXN_STATS_ENABLED);
+    this.partSetAggrStatsCache =
+        MetastoreConf.getBoolVar(conf, ConfVars.AGGREGATE_STATS_PARTSET_CACHE_ENABLED)
+            ? PartitionSetAggrStatsCache.getInstance(conf) : null;
     configureSSL(conf);
     PersistenceManagerProvider.updatePmfProperties(conf);
 
@@ -600,6 +606,7 @@ public boolean commitTransaction() {
     if ((openTrasactionCalls == 0) && currentTransaction.isActive()) {
       transactionStatus = TXN_STATUS.COMMITED;
       currentTransaction.commit();
+      invalidatePendingAggrStats();
     }
     return true;
   }
@@ -637,9 +644,37 @@ public void rollbackTransaction() {
       // being rolled back they are no longer relevant, and this prevents them
       // from reattaching in future transactions
       pm.evictAll();
+      // Some stats writes, like the batched direct SQL updates, commit on their own
+      invalidatePendingAggrStats();
     }
   }
 
+  /**
+   * Invalidates the cached aggregate stats of a table whose partition column stats change. Within
+   * a transaction, this is done once the transaction ends, so that the stats read by other threads
+   * before the change is committed are not cached as current.
+   */
+  private void invalidateAggrStats(String catName, String dbName, String tblName) {
+    if (partSetAggrStatsCache == null) {
+      return;
+    }
+    if (isActiveTransaction()) {
+      pendingAggrStatsInvalidations.add(new TableName(catName, dbName, tblName));
+    } else {
+      partSetAggrStatsCache.invalidate(catName, dbName, tblName);
+    }
+  }
+
+  private void invalidatePendingAggrStats() {
+    if (partSetAggrStatsCache == null) {
+      return;
+    }
+    for (TableName tableName : pendingAggrStatsInvalidations) {
+      partSetAggrStatsCache.invalidate(tableName.getCat(), tableName.getDb(), tableName.getTable());
+    }
+    pendingAggrStatsInvalidations.clear();
+  }
+
   @Override
   public void createCatalog(Catalog cat) throws MetaException {
     LOG.debug("Creating catalog {}", cat);
@@ -1424,6 +1459,7 @@ public boolean dropTable(String catName, String dbName, String tableName)
       MTable tbl = getMTable(catName, dbName, tableName);
       pm.retrieve(tbl);
       if (tbl != null) {
+        invalidateAggrStats(catName, dbName, tableName);
         materializedView = TableType.MATERIALIZED_VIEW.toString().equals(tbl.getTableType());
         // first remove all the grants
         List<MTablePrivilege> tabGrants = listAllTableGrants(catName, dbName, tableName);
@@ -2964,6 +3000,7 @@ void dropPartitionsInternal(String catName, String dbName, String tblName,
     if (CollectionUtils.isEmpty(partNames)) {
       return;
     }
+    invalidateAggrStats(catName, dbName, tblName);
     new GetListHelper<Void>(catName, dbName, tblName, allowSql, allowJdo) {
       @Override
       protected List<Void> getSqlResult(GetHelper<List<Void>> ctx) throws MetaException {
@@ -3094,6 +3131,26 @@ public List<Partition> getPartitions(String catName, String dbName, String table
     return results;
   }
 
+  @Override
+  public List<Partition> getPartitionsPage(String catName, String dbName, String tableName,
+      String lastPartName, int max) throws MetaException, NoSuchObjectException {
+    List<Partition> results = Collections.emptyList();
+    boolean success = false;
+
+    LOG.debug("Executing getPartitionsPage");
+
+    try {
+      openTransaction();
+      results = getPartitionsPageInternal(catName, dbName, tableName, lastPartName, max, true, true);
+      success = commitTransaction();
+    } finally {
+      if (!success) {
+        rollbackTransaction();
+      }
+    }
+    return results;
+  }
+
   @Override
   public Map<String, String> getPartitionLocations(String catName, String dbName, String tblName,
       String baseLocationToNotShow, int max) {
@@ -3158,6 +3215,25 @@ protected List<Partition> getJdoResult(GetHelper<List<Partition>> ctx) throws Me
     }.run(false);
   }
 
+  protected List<Partition> getPartitionsPageInternal(String catName, String dbName, String tblName,
+      final String lastPartName, final int maxParts, boolean allowSql, boolean allowJdo)
+      throws MetaException, NoSuchObjectException {
+    return new GetListHelper<Partition>(catName, dbName, tblName, allowSql, allowJdo) {
+      @Override
+      protected List<Partition> getSqlResult(GetHelper<List<Partition>> ctx) throws MetaException {
+        return directSql.getPartitionsPage(catName, dbName, tblName, lastPartName, maxParts);
+      }
+      @Override
+      protected List<Partition> getJdoResult(GetHelper<List<Partition>> ctx) throws MetaException {
+        try {
+          return convertToParts(listMPartitions(catName, dbName, tblName, lastPartName, maxParts));
+        } catch (Exception e) {
+          throw new MetaException(e.getMessage() + " " + org.apache.hadoop.hive.metastore.utils.StringUtils.stringifyException(e));
+        }
+      }
+    }.run(false);
+  }
+
   @Override
   public List<Partition> getPartitionsWithAuth(String catName, String dbName, String tblName,
       short max, String userName, List<String> groupNames)
@@ -3797,6 +3873,11 @@ public List<String> listPartitionNamesPs(String catName, String dbName, String t
   }
 
   private List<MPartition> listMPartitions(String catName, String dbName, String tableName, int max) throws Exception {
+    return listMPartitions(catName, dbName, tableName, null, max);
+  }
+
+  private List<MPartition> listMPartitions(String catName, String dbName, String tableName,
+      String lastPartName, int max) throws Exception {
     LOG.debug("Executing listMPartitions");
 
     Preconditions.checkState(this.currentTransaction.isActive());
@@ -3804,14 +3885,23 @@ private List<MPartition> listMPartitions(String catName, String dbName, String t
     dbName = normalizeIdentifier(dbName);
     tableName = normalizeIdentifier(tableName);
 
-    try (Query query = pm.newQuery(MPartition.class,
-        "table.tableName == t1 && table.database.name == t2 && table.database.catalogName == t3")) {
-      query.declareParameters("java.lang.String t1, java.lang.String t2, java.lang.String t3");
+    String filter = "table.tableName == t1 && table.database.name == t2 && table.database.catalogName == t3";
+    if (lastPartName != null) {
+      filter += " && partitionName > t4";
+    }
+    try (Query query = pm.newQuery(MPartition.class, filter)) {
       query.setOrdering("partitionName ascending");
       if (max >= 0) {
         query.setRange(0, max);
       }
-      final List<MPartition> mparts = (List<MPartition>) query.execute(tableName, dbName, catName);
+      final List<MPartition> mparts;
+      if (lastPartName != null) {
+        query.declareParameters("java.lang.String t1, java.lang.String t2, java.lang.String t3, java.lang.String t4");
+        mparts = (List<MPartition>) query.executeWithArray(tableName, dbName, catName, lastPartName);
+      } else {
+        query.declareParameters("java.lang.String t1, java.lang.String t2, java.lang.String t3");
+        mparts = (List<MPartition>) query.execute(tableName, dbName, catName);
+      }
       LOG.debug("Done executing query for listMPartitions");
 
       pm.retrieveAll(mparts);
@@ -4850,6 +4940,11 @@ public Table alterTable(String catName, String dbname, String name, Table newTab
       if (oldt == null) {
         throw new MetaException("table " + dbname + "." + name + " doesn't exist");
       }
+      if (!name.equals(normalizeIdentifier(newt.getTableName()))
+          || !dbname.equals(newt.getDatabase().getName())) {
+        // The partition column stats are moved to the new name
+        invalidateAggrStats(catName, dbname, name);
+      }
 
       // For now only alter name, owner, parameters, cols, bucketcols are allowed
       oldt.setDatabase(newt.getDatabase());
@@ -9356,6 +9451,7 @@ public Map<String, String> updatePartitionColumnStatistics(ColumnStatistics colS
         writeMPartitionColumnStatistics(table, partition, mStatsObj,
             oldStats.get(statsObj.getColName()));
       }
+      invalidateAggrStats(catName, statsDesc.getDbName(), statsDesc.getTableName());
       // TODO: (HIVE-20109) the col stats stats should be in colstats, not in the partition!
       Map<String, String> newParams = new HashMap<>(mPartition.getParameters());
       StatsSetupConst.setColumnStatsState(newParams, colNames);
@@ -9398,8 +9494,12 @@ public Map<String, Map<String, String>> updatePartitionColumnStatisticsInBatch(
                                                       List<TransactionalMetaStoreEventListener> listeners,
                                                       String validWriteIds, long writeId)
           throws NoSuchObjectException, MetaException, InvalidObjectException, InvalidInputException {
-    return directSql.updatePartitionColumnStatisticsBatch(partColStatsMap, tbl,
-            listeners, validWriteIds, writeId);
+    try {
+      return directSql.updatePartitionColumnStatisticsBatch(partColStatsMap, tbl,
+              listeners, validWriteIds, writeId);
+    } finally {
+      invalidateAggrStats(tbl.getCatName(), tbl.getDbName(), tbl.getTableName());
+    }
   }
 
   private List<MTableColumnStatistics> getMTableColumnStatistics(Table table, List<String> colNames, String engine)
@@ -9729,6 +9829,7 @@ public AggrStats get_aggr_stats_for(String catName, String dbName, String tblNam
       String engine, String writeIdList) throws MetaException, NoSuchObjectException {
     // If the current stats in the metastore doesn't comply with
     // the isolation level of the query, return null.
+    Map<String, Long> partWriteIds = null;
     if (writeIdList != null) {
       if (partNames == null || partNames.isEmpty()) {
         return null;
@@ -9749,6 +9850,10 @@ public AggrStats get_aggr_stats_for(String catName, String dbName, String tblNam
 
       // Loop through the given "partNames" list
       // checking isolation-level-compliance of each partition column stats.
+      if (isTxn && partSetAggrStatsCache != null) {
+        // The write IDs of the partitions identify the version of their stats in the cache
+        partWriteIds = new HashMap<>();
+      }
       for (Partition part : parts) {
 
         if (!isCurrentStatsValidForTheQuery(part, part.getWriteId(), writeIdList, false)) {
@@ -9758,15 +9863,26 @@ public AggrStats get_aggr_stats_for(String catName, String dbName, String tblNam
               dbName, tblName, partName);
           return null;
         }
+        if (partWriteIds != null) {
+          partWriteIds.put(Warehouse.makePartName(table.getPartitionKeys(), part.getValues()),
+              part.getWriteId());
+        }
       }
     }
-    return get_aggr_stats_for(catName, dbName, tblName, partNames, colNames, engine);
+    return getAggrStatsForPartitions(catName, dbName, tblName, partNames, colNames, engine,
+        partWriteIds);
   }
 
   @Override
   public AggrStats get_aggr_stats_for(String catName, String dbName, String tblName,
       final List<String> partNames, final List<String> colNames, String engine)
       throws MetaException, NoSuchObjectException {
+    return getAggrStatsForPartitions(catName, dbName, tblName, partNames, colNames, engine, null);
+  }
+
+  private AggrStats getAggrStatsForPartitions(String catName, String dbName, String tblName,
+      final List<String> partNames, final List<String> colNames, String engine,
+      final Map<String, Long> partWriteIds) throws MetaException, NoSuchObjectException {
     final boolean useDensityFunctionForNDVEstimation = MetastoreConf.getBoolVar(getConf(),
         ConfVars.STATS_NDV_DENSITY_FUNCTION);
     final double ndvTuner = MetastoreConf.getDoubleVar(getConf(), ConfVars.STATS_NDV_TUNER);
@@ -9776,7 +9892,8 @@ public AggrStats get_aggr_stats_for(String catName, String dbName, String tblNam
       protected AggrStats getSqlResult(GetHelper<AggrStats> ctx)
           throws MetaException {
         return directSql.aggrColStatsForPartitions(catName, dbName, tblName, partNames,
-            colNames, engine, useDensityFunctionForNDVEstimation, ndvTuner, enableBitVector);
+            colNames, engine, partWriteIds, useDensityFunctionForNDVEstimation, ndvTuner,
+            enableBitVector);
       }
       @Override
       protected AggrStats getJdoResult(GetHelper<AggrStats> ctx)
@@ -9922,6 +10039,7 @@ public void deleteAllPartitionColumnStatistics(TableName tn, String writeIdList)
 
       Long number = query.deletePersistentAll(normalizeIdentifier(dbName), normalizeIdentifier(tableName),
           normalizeIdentifier(catName));
+      invalidateAggrStats(catName, dbName, tableName);
 
       new GetHelper<Integer>(catName, dbName, tableName, true, true) {
         private final SqlFilterForPushdown filter = new SqlFilterForPushdown();
@@ -9995,6 +10113,7 @@ public boolean deletePartitionColumnStatistics(String catName, String dbName, St
         throw new NoSuchObjectException("Partition " + partName
             + " for which stats deletion is requested doesn't exist");
       }
+      invalidateAggrStats(catName, dbName, tableName);
       query = pm.newQuery(MPartitionColumnStatistics.class);
       String filter;
       String parameters;
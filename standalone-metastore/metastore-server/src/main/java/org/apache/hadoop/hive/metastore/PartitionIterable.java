@@ -22,10 +22,14 @@
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.hadoop.hive.metastore.api.MetastoreException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.PartitionsRequest;
+import org.apache.hadoop.hive.metastore.api.PartitionsResponse;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TApplicationException;
 
 
 /**
@@ -38,9 +42,11 @@
  * It is very likely that any calls to PartitionIterable are going to result
  * in a large number of calls, so use sparingly only when the memory cost
  * of fetching all the partitions in one shot is too prohibitive.
- * This is still pretty costly in that it would retain a list of partition
- * names, but that should be far less expensive than the entire partition
- * objects.
+ * The partitions are fetched in pages, each starting after the last partition
+ * of the previous one. With a metastore that does not support paging, the
+ * list of partition names is fetched first and the partitions are then
+ * fetched by name in batches, which is still far less expensive than the
+ * entire partition objects.
  * Note that remove() is an illegal call on this, and will result in an
  * IllegalStateException.
  */
@@ -55,13 +61,13 @@ public Iterator<Partition> iterator() {
 
       private Iterator<String> partitionNamesIter = null;
       private Iterator<Partition> batchIter = null;
+      // null before the first page, empty after the last one
+      private String continuationToken = null;
 
       private void initialize() {
         if (!initialized) {
           if (currType == Type.LIST_PROVIDED) {
             ptnsIterator = ptnsProvided.iterator();
-          } else {
-            partitionNamesIter = partitionNames.iterator();
           }
           initialized = true;
         }
@@ -72,9 +78,12 @@ public boolean hasNext() {
         initialize();
         if (currType == Type.LIST_PROVIDED) {
           return ptnsIterator.hasNext();
-        } else {
-          return ((batchIter != null) && batchIter.hasNext()) || partitionNamesIter.hasNext();
         }
+        // A page may be empty if all its partitions are filtered out.
+        while (((batchIter == null) || !batchIter.hasNext()) && hasMoreBatches()) {
+          getNextBatch();
+        }
+        return (batchIter != null) && batchIter.hasNext();
       }
 
       @Override
@@ -83,15 +92,24 @@ public Partition next() {
         if (currType == Type.LIST_PROVIDED) {
           return ptnsIterator.next();
         }
-
-        if ((batchIter == null) || !batchIter.hasNext()) {
-          getNextBatch();
+        if (!hasNext()) {
+          throw new NoSuchElementException();
         }
-
         return batchIter.next();
       }
 
+      private boolean hasMoreBatches() {
+        if (partitionNamesIter != null) {
+          return partitionNamesIter.hasNext();
+        }
+        return (continuationToken == null) || !continuationToken.isEmpty();
+      }
+
       private void getNextBatch() {
+        if (partitionNamesIter == null) {
+          getNextPage();
+          return;
+        }
         int batch_counter = 0;
         List<String> nameBatch = new ArrayList<String>();
         while (batch_counter < batch_size && partitionNamesIter.hasNext()) {
@@ -106,6 +124,37 @@ private void getNextBatch() {
         }
       }
 
+      private void getNextPage() {
+        PartitionsRequest req = new PartitionsRequest(table.getDbName(), table.getTableName());
+        req.setCatName(table.getCatName());
+        req.setMaxParts((short) Math.min(batch_size, Short.MAX_VALUE));
+        req.setContinuationToken((continuationToken == null) ? "" : continuationToken);
+        try {
+          PartitionsResponse res;
+          try {
+            res = msc.getPartitionsRequest(req);
+          } catch (TApplicationException e) {
+            if (e.getType() != TApplicationException.UNKNOWN_METHOD
+                && e.getType() != TApplicationException.WRONG_METHOD_NAME) {
+              throw e;
+            }
+            // The metastore does not have get_partitions_req at all.
+            res = null;
+          }
+          if (res == null || !res.isSetContinuationToken()) {
+            // The metastore ignored the token and returned the first partitions only.
+            partitionNamesIter = getPartitionNames(msc, table.getCatName(), table.getDbName(),
+                table.getTableName(), (short) -1).iterator();
+            batchIter = null;
+            return;
+          }
+          batchIter = res.getPartitions().iterator();
+          continuationToken = res.getContinuationToken();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+
       @Override
       public void remove() {
         throw new IllegalStateException(
@@ -127,7 +176,6 @@ enum Type {
   // used for LAZY_FETCH_PARTITIONS cases
   private IMetaStoreClient msc = null; // Assumes one instance of this + single-threaded compilation for each query.
   private Table table = null;
-  private List<String> partitionNames = null;
   private int batch_size;
 
   /**
@@ -149,7 +197,6 @@ public PartitionIterable(IMetaStoreClient msc, Table table, int batch_size) thro
     this.msc = msc;
     this.table = table;
     this.batch_size = batch_size;
-    partitionNames = getPartitionNames(msc, table.getCatName(), table.getDbName(), table.getTableName(), (short) -1);
   }
 
   public List<String> getPartitionNames(IMetaStoreClient msc, String catName, String dbName, String tblName, short max)
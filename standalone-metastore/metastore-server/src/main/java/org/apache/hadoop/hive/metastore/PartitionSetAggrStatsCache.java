@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+import org.apache.hadoop.hive.metastore.metrics.Metrics;
+import org.apache.hadoop.hive.metastore.metrics.MetricsConstants;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Caches the column stats aggregated over a set of partitions of a table. Unlike
+ * {@link AggregateStatsCache}, which returns a node aggregated over a similar set of partitions,
+ * an aggregate is only returned for the same partition names (and for transactional tables, the
+ * same partition write IDs) it was computed for, so the result is the same as the one read from
+ * the database.
+ * <p>
+ * The entries are invalidated per table. Each write to the partition column stats of a table
+ * moves the table to a new generation, and the entries added in an older generation are no
+ * longer returned. The readers take the generation before reading the stats from the database,
+ * so an aggregate read before a concurrent write commits is never added in the new generation.
+ * The memory used is bounded by the estimated size of the entries; the entries also expire after
+ * a TTL, to bound the staleness caused by the writes made through other metastore instances.
+ * The generation of a table invalidated more than a TTL ago is dropped, as all the entries added
+ * before the invalidation have expired by then; the table is back at generation 0.
+ */
+public class PartitionSetAggrStatsCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionSetAggrStatsCache.class);
+  /** The estimated size of an entry apart from the serialized column stats. */
+  private static final int ENTRY_OVERHEAD = 256;
+  private static PartitionSetAggrStatsCache self = null;
+
+  private final Cache<Key, AggrColStats> cache;
+  private final long timeToLiveMs;
+  // The current generation of each table invalidated within the TTL; the other tables are at 0
+  private final ConcurrentHashMap<String, TableGeneration> tableGenerations =
+      new ConcurrentHashMap<>();
+  private final AtomicLong lastGeneration = new AtomicLong(0);
+  private final AtomicLong nextPruneTimeMs = new AtomicLong(0);
+  private final AtomicLong cacheHits = new AtomicLong(0);
+  private final AtomicLong cacheMisses = new AtomicLong(0);
+
+  @VisibleForTesting
+  PartitionSetAggrStatsCache(long maxSizeInBytes, long timeToLiveMs) {
+    this.timeToLiveMs = timeToLiveMs;
+    cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .weigher(new Weigher<Key, AggrColStats>() {
+          @Override
+          public int weigh(Key key, AggrColStats value) {
+            return value.size;
+          }
+        })
+        .expireAfterWrite(timeToLiveMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  public static synchronized PartitionSetAggrStatsCache getInstance(Configuration conf) {
+    if (self == null) {
+      long maxSizeInBytes =
+          MetastoreConf.getSizeVar(conf, ConfVars.AGGREGATE_STATS_PARTSET_CACHE_MAX_MEMORY);
+      long timeToLiveMs = MetastoreConf.getTimeVar(conf,
+          ConfVars.AGGREGATE_STATS_PARTSET_CACHE_TTL, TimeUnit.MILLISECONDS);
+      LOG.info("Initializing the partition set aggregate stats cache with max size {} bytes "
+          + "and TTL {} ms", maxSizeInBytes, timeToLiveMs);
+      self = new PartitionSetAggrStatsCache(maxSizeInBytes, timeToLiveMs);
+    }
+    return self;
+  }
+
+  /**
+   * Computes the digest that identifies a set of partitions in the cache.
+   * @param partNames the partition names, in any order.
+   * @param partWriteIds the write IDs of the partitions by name, or null for the tables
+   *          whose stats are not versioned by write IDs.
+   */
+  public static byte[] digest(List<String> partNames, Map<String, Long> partWriteIds) {
+    List<String> sortedNames = new ArrayList<>(partNames);
+    Collections.sort(sortedNames);
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("should not happen", e);
+    }
+    for (String partName : sortedNames) {
+      md.update(partName.getBytes(StandardCharsets.UTF_8));
+      md.update((byte) 0);
+      if (partWriteIds != null) {
+        Long writeId = partWriteIds.get(partName);
+        long value = (writeId == null) ? -1 : writeId;
+        for (int i = 0; i < Long.BYTES; ++i) {
+          md.update((byte) (value >>> (i * 8)));
+        }
+      }
+    }
+    return md.digest();
+  }
+
+  /**
+   * @return the current generation of the table; the readers must take it before reading the
+   *         stats they add to the cache.
+   */
+  public long getGeneration(String catName, String dbName, String tblName) {
+    TableGeneration generation = tableGenerations.get(tableKey(catName, dbName, tblName));
+    return (generation == null) ? 0 : generation.generation;
+  }
+
+  /**
+   * Return the aggregate stats of a column over the partitions of the digest, or null.
+   */
+  public AggrColStats get(String catName, String dbName, String tblName, String engine,
+      String colName, byte[] partsDigest) {
+    Key key = new Key(catName, dbName, tblName, engine, colName, partsDigest);
+    AggrColStats result = cache.getIfPresent(key);
+    if (result != null && result.generation != getGeneration(catName, dbName, tblName)) {
+      cache.invalidate(key);
+      result = null;
+    }
+    if (result == null) {
+      cacheMisses.incrementAndGet();
+      Metrics.getOrCreateCounter(MetricsConstants.AGGR_STATS_PARTSET_CACHE_MISSES).inc();
+    } else {
+      cacheHits.incrementAndGet();
+      Metrics.getOrCreateCounter(MetricsConstants.AGGR_STATS_PARTSET_CACHE_HITS).inc();
+    }
+    return result;
+  }
+
+  /**
+   * Add the aggregate stats of a column over the partitions of the digest.
+   * @param areAllPartsFound whether all the partitions had stats for all the columns the
+   *          aggregate was computed with.
+   * @param generation the generation of the table taken before reading the stats.
+   */
+  public void add(String catName, String dbName, String tblName, String engine, String colName,
+      byte[] partsDigest, ColumnStatisticsObj colStats, boolean areAllPartsFound, long generation) {
+    if (generation != getGeneration(catName, dbName, tblName)) {
+      LOG.debug("Not caching the aggregate stats of {}.{}.{} as they were updated concurrently",
+          dbName, tblName, colName);
+      return;
+    }
+    Key key = new Key(catName, dbName, tblName, engine, colName, partsDigest);
+    // Copy the stats, so that the callers can modify the objects they get or added
+    ColumnStatisticsObj copy = new ColumnStatisticsObj(colStats);
+    cache.put(key, new AggrColStats(copy, areAllPartsFound, generation, estimateSize(copy)));
+  }
+
+  /**
+   * Invalidate the cached aggregates of a table, after its partition column stats changed.
+   */
+  public void invalidate(String catName, String dbName, String tblName) {
+    long now = System.currentTimeMillis();
+    tableGenerations.put(tableKey(catName, dbName, tblName),
+        new TableGeneration(lastGeneration.incrementAndGet(), now));
+    pruneGenerations(now);
+  }
+
+  /**
+   * Drops the generations of the tables invalidated more than a TTL ago, at most once per TTL.
+   */
+  private void pruneGenerations(long now) {
+    long nextPruneTime = nextPruneTimeMs.get();
+    if (now < nextPruneTime || !nextPruneTimeMs.compareAndSet(nextPruneTime, now + timeToLiveMs)) {
+      return;
+    }
+    tableGenerations.values().removeIf(g -> now - g.invalidationTimeMs > timeToLiveMs);
+  }
+
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  @VisibleForTesting
+  int getTableGenerationCount() {
+    return tableGenerations.size();
+  }
+
+  @VisibleForTesting
+  long getCacheSize() {
+    cache.cleanUp();
+    return cache.size();
+  }
+
+  private static String tableKey(String catName, String dbName, String tblName) {
+    return Key.normalize(catName) + "." + Key.normalize(dbName) + "." + Key.normalize(tblName);
+  }
+
+  private static int estimateSize(ColumnStatisticsObj colStats) {
+    try {
+      return ENTRY_OVERHEAD
+          + new TSerializer(new TCompactProtocol.Factory()).serialize(colStats).length;
+    } catch (TException e) {
+      LOG.debug("Unable to estimate the size of the aggregate stats", e);
+      return ENTRY_OVERHEAD;
+    }
+  }
+
+  private static class TableGeneration {
+    private final long generation;
+    private final long invalidationTimeMs;
+
+    TableGeneration(long generation, long invalidationTimeMs) {
+      this.generation = generation;
+      this.invalidationTimeMs = invalidationTimeMs;
+    }
+  }
+
+  static class Key {
+    private final String catName;
+    private final String dbName;
+    private final String tblName;
+    private final String engine;
+    private final String colName;
+    private final byte[] partsDigest;
+
+    Key(String catName, String dbName, String tblName, String engine, String colName,
+        byte[] partsDigest) {
+      this.catName = normalize(catName);
+      this.dbName = normalize(dbName);
+      this.tblName = normalize(tblName);
+      this.engine = engine;
+      this.colName = colName;
+      this.partsDigest = partsDigest;
+    }
+
+    private static String normalize(String name) {
+      return (name == null) ? null : name.toLowerCase();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return Objects.equals(catName, that.catName)
+          && Objects.equals(dbName, that.dbName)
+          && Objects.equals(tblName, that.tblName)
+          && Objects.equals(engine, that.engine)
+          && Objects.equals(colName, that.colName)
+          && Arrays.equals(partsDigest, that.partsDigest);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(catName, dbName, tblName, engine, colName)
+          * 31 + Arrays.hashCode(partsDigest);
+    }
+  }
+
+  public static class AggrColStats {
+    private final ColumnStatisticsObj colStats;
+    private final boolean areAllPartsFound;
+    private final long generation;
+    private final int size;
+
+    AggrColStats(ColumnStatisticsObj colStats, boolean areAllPartsFound, long generation,
+        int size) {
+      this.colStats = colStats;
+      this.areAllPartsFound = areAllPartsFound;
+      this.generation = generation;
+      this.size = size;
+    }
+
+    public ColumnStatisticsObj getColStats() {
+      return new ColumnStatisticsObj(colStats);
+    }
+
+    /**
+     * @return whether all the partitions had stats for all the columns the aggregate was
+     *         computed with; this implies that they all have stats for this column.
+     */
+    public boolean areAllPartsFound() {
+      return areAllPartsFound;
+    }
+  }
+}
@@ -466,6 +466,21 @@ boolean dropPartition(String catName, String dbName, String tableName,
   List<Partition> getPartitions(String catName, String dbName,
       String tableName, int max) throws MetaException, NoSuchObjectException;
 
+  /**
+   * Get a page of the partitions of a table, ordered by partition name.
+   * @param catName catalog name.
+   * @param dbName database name.
+   * @param tableName table name
+   * @param lastPartName name of the last partition of the previous page, or null to get the
+   *                     first page.
+   * @param max maximum number of partitions in the page.
+   * @return list of partitions whose names follow lastPartName
+   * @throws MetaException error access the RDBMS.
+   * @throws NoSuchObjectException no such table exists
+   */
+  List<Partition> getPartitionsPage(String catName, String dbName, String tableName,
+      String lastPartName, int max) throws MetaException, NoSuchObjectException;
+
   /**
    * Get the location for every partition of a given table. If a partition location is a child of
    * baseLocationToNotShow then the partitionName is returned, but the only null location is
@@ -116,9 +116,29 @@ static Table assemble(TableWrapper wrapper, SharedCache sharedCache) {
   }
 
   static Partition assemble(PartitionWrapper wrapper, SharedCache sharedCache) {
+    return assemble(wrapper, wrapper.getSdHash() == null ? null : sharedCache.getSdFromCache(wrapper.getSdHash()));
+  }
+
+  /**
+   * Assembles a partition read without the table lock.
+   * @return the partition, or null if the storage descriptor of the wrapper has been released,
+   *         because a writer has replaced or removed the partition since it was read.
+   */
+  static Partition assembleIfCurrent(PartitionWrapper wrapper, SharedCache sharedCache) {
+    StorageDescriptor sd = null;
+    if (wrapper.getSdHash() != null) {
+      sd = sharedCache.getSdFromCache(wrapper.getSdHash());
+      if (sd == null) {
+        return null;
+      }
+    }
+    return assemble(wrapper, sd);
+  }
+
+  private static Partition assemble(PartitionWrapper wrapper, StorageDescriptor sd) {
     Partition p = wrapper.getPartition().deepCopy();
     if (wrapper.getSdHash() != null) {
-      StorageDescriptor sdCopy = sharedCache.getSdFromCache(wrapper.getSdHash()).deepCopy();
+      StorageDescriptor sdCopy = sd.deepCopy();
       if (sdCopy.getBucketCols() == null) {
         sdCopy.setBucketCols(Collections.emptyList());
       }
@@ -21,6 +21,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -61,6 +62,7 @@
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
 import org.apache.hadoop.hive.metastore.messaging.*;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree;
 import org.apache.hadoop.hive.metastore.partition.spec.PartitionSpecProxy;
 import org.apache.hadoop.hive.metastore.txn.TxnUtils;
 import org.apache.hadoop.hive.metastore.utils.FileUtils;
@@ -140,7 +142,12 @@ void setConfForTestExceptSharedCache(Configuration conf) {
     initBlackListWhiteList(conf);
   }
 
-  private static synchronized void triggerUpdateUsingEvent(RawStore rawStore) {
+  /**
+   * @param recoverEventGaps whether to check for events missing in the notification log, and reload
+   *          the cached objects if there are some. This is only done by the background update thread,
+   *          not on the commits of the clients.
+   */
+  private static synchronized void triggerUpdateUsingEvent(RawStore rawStore, boolean recoverEventGaps) {
     if (!isCachePrewarmed.get()) {
       LOG.error("cache update should be done only after prewarm");
       throw new RuntimeException("cache update should be done only after prewarm");
@@ -148,6 +155,10 @@ private static synchronized void triggerUpdateUsingEvent(RawStore rawStore) {
     long startTime = System.nanoTime();
     long preEventId = lastEventId;
     try {
+      if (recoverEventGaps) {
+        lastEventId = recoverFromMissedNotificationEvents(rawStore, lastEventId);
+        preEventId = lastEventId;
+      }
       lastEventId = updateUsingNotificationEvents(rawStore, lastEventId);
     } catch (Exception e) {
       LOG.error(" cache update failed for start event id " + lastEventId + " with error ", e);
@@ -253,7 +264,64 @@ private static void updateStatsForAlterTable(RawStore rawStore, Table tblBefore,
   @VisibleForTesting public static long updateUsingNotificationEvents(RawStore rawStore, long lastEventId)
       throws Exception {
     LOG.debug("updating cache using notification events starting from event id " + lastEventId);
+    int batchSize = MetastoreConf.getIntVar(rawStore.getConf(), ConfVars.METASTORE_CACHE_EVENT_BATCH_SIZE);
+    while (true) {
+      List<NotificationEvent> eventList = getNextNotificationEvents(rawStore, lastEventId, batchSize);
+      if (eventList.isEmpty()) {
+        LOG.debug("no events to process");
+        return lastEventId;
+      }
+      lastEventId = applyNotificationEvents(rawStore, lastEventId, eventList);
+      if (batchSize <= 0 || eventList.size() < batchSize) {
+        return lastEventId;
+      }
+    }
+  }
+
+  /**
+   * Checks whether some of the events after the given one have been removed from the notification
+   * log before the cache could apply them, e.g. by the event cleaner. The event ids are allocated
+   * consecutively, so the event after the given one is missing then, while some later ones are not.
+   */
+  @VisibleForTesting static boolean hasMissedNotificationEvents(RawStore rawStore, long lastEventId) {
     NotificationEventRequest rqst = new NotificationEventRequest(lastEventId);
+    rqst.setMaxEvents(1);
+    Deadline.startTimer("getNextNotification");
+    NotificationEventResponse resp = rawStore.getNextNotification(rqst);
+    Deadline.stopTimer();
+    if (resp == null || resp.getEvents() == null || resp.getEvents().isEmpty()) {
+      return false;
+    }
+    long nextEventId = resp.getEvents().get(0).getEventId();
+    if (nextEventId > lastEventId + 1) {
+      LOG.warn("Notification events from " + (lastEventId + 1) + " to " + (nextEventId - 1)
+          + " are missing in the notification log; the cache cannot be updated using them.");
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * The changes of the missed events are unknown, so all the cached objects are reloaded, and the
+   * events are applied again from the last one before the reload.
+   * @return the id of the event to apply the following events after.
+   */
+  @VisibleForTesting static long recoverFromMissedNotificationEvents(RawStore rawStore, long lastEventId) {
+    if (!hasMissedNotificationEvents(rawStore, lastEventId)) {
+      return lastEventId;
+    }
+    long reloadEventId = rawStore.getCurrentNotificationEventId().getEventId();
+    LOG.info("Reloading the cached objects, then updating the cache using events from event id " + reloadEventId);
+    CacheUpdateMasterWork.updateCachedObjects(rawStore);
+    return reloadEventId;
+  }
+
+  private static List<NotificationEvent> getNextNotificationEvents(RawStore rawStore, long lastEventId,
+      int maxEvents) {
+    NotificationEventRequest rqst = new NotificationEventRequest(lastEventId);
+    if (maxEvents > 0) {
+      rqst.setMaxEvents(maxEvents);
+    }
 
     //Add the events which are not related to metadata update
     rqst.addToEventTypeSkipList(MessageBuilder.INSERT_EVENT);
@@ -276,11 +344,13 @@ private static void updateStatsForAlterTable(RawStore rawStore, Table tblBefore,
     Deadline.stopTimer();
 
     if (resp == null || resp.getEvents() == null) {
-      LOG.debug("no events to process");
-      return lastEventId;
+      return Collections.emptyList();
     }
+    return resp.getEvents();
+  }
 
-    List<NotificationEvent> eventList = resp.getEvents();
+  private static long applyNotificationEvents(RawStore rawStore, long lastEventId, List<NotificationEvent> eventList)
+      throws Exception {
     LOG.debug("num events to process" + eventList.size());
 
     for (NotificationEvent event : eventList) {
@@ -753,7 +823,7 @@ static class CacheUpdateMasterWork implements Runnable {
       if (!shouldRunPrewarm) {
         if (canUseEvents) {
           try {
-            triggerUpdateUsingEvent(rawStore);
+            triggerUpdateUsingEvent(rawStore, true);
           } catch (Exception e) {
             LOG.error("failed to update cache using events ", e);
           }
@@ -777,6 +847,13 @@ static class CacheUpdateMasterWork implements Runnable {
     }
 
     void update() {
+      updateCachedObjects(rawStore);
+    }
+
+    /**
+     * Reloads all the cached objects from the raw store.
+     */
+    static void updateCachedObjects(RawStore rawStore) {
       Deadline.registerIfNot(1000000);
       LOG.debug("CachedStore: updating cached objects. Shared cache has been update {} times so far.",
           sharedCache.getUpdateCount());
@@ -821,7 +898,7 @@ void update() {
       }
     }
 
-    private void updateDatabases(RawStore rawStore, String catName, List<String> dbNames) {
+    private static void updateDatabases(RawStore rawStore, String catName, List<String> dbNames) {
       LOG.debug("CachedStore: updating cached database objects for catalog: {}", catName);
       boolean success = false;
       // Try MAX_RETRIES times, then move to next method
@@ -843,7 +920,7 @@ private void updateDatabases(RawStore rawStore, String catName, List<String> dbN
       }
     }
 
-    private void updateTables(RawStore rawStore, String catName, String dbName) {
+    private static void updateTables(RawStore rawStore, String catName, String dbName) {
       LOG.debug("CachedStore: updating cached table objects for catalog: {}, database: {}", catName, dbName);
       boolean success = false;
       // Try MAX_RETRIES times, then move to next method
@@ -869,7 +946,7 @@ private void updateTables(RawStore rawStore, String catName, String dbName) {
       }
     }
 
-    private void updateTableColStats(RawStore rawStore, String catName, String dbName, String tblName) {
+    private static void updateTableColStats(RawStore rawStore, String catName, String dbName, String tblName) {
       LOG.debug("CachedStore: updating cached table col stats objects for catalog: {}, database: {}", catName, dbName);
       boolean committed = false;
       rawStore.openTransaction();
@@ -898,7 +975,7 @@ private void updateTableColStats(RawStore rawStore, String catName, String dbNam
       }
     }
 
-    private void updateAllTableConstraints(RawStore rawStore, String catName, String dbName, String tblName) {
+    private static void updateAllTableConstraints(RawStore rawStore, String catName, String dbName, String tblName) {
       catName = StringUtils.normalizeIdentifier(catName);
       dbName = StringUtils.normalizeIdentifier(dbName);
       tblName = StringUtils.normalizeIdentifier(tblName);
@@ -921,7 +998,7 @@ private void updateAllTableConstraints(RawStore rawStore, String catName, String
     }
 
 
-    private void updateTablePartitions(RawStore rawStore, String catName, String dbName, String tblName) {
+    private static void updateTablePartitions(RawStore rawStore, String catName, String dbName, String tblName) {
       LOG.debug("CachedStore: updating cached partition objects for catalog: {}, database: {}, table: {}", catName,
           dbName, tblName);
       try {
@@ -938,7 +1015,7 @@ private void updateTablePartitions(RawStore rawStore, String catName, String dbN
       }
     }
 
-    private void updateTablePartitionColStats(RawStore rawStore, String catName, String dbName, String tblName) {
+    private static void updateTablePartitionColStats(RawStore rawStore, String catName, String dbName, String tblName) {
       LOG.debug("CachedStore: updating cached partition col stats objects for catalog: {}, database: {}, table: {}",
           catName, dbName, tblName);
       boolean committed = false;
@@ -1045,7 +1122,7 @@ private static void updateTableAggregatePartitionColStats(RawStore rawStore, Str
   private void updateCacheUsingEvents() {
     if (canUseEvents) {
       try {
-        triggerUpdateUsingEvent(rawStore);
+        triggerUpdateUsingEvent(rawStore, false);
       } catch (Exception e) {
         //TODO : Not sure how to handle it as the commit is already done in the object store.
         LOG.error("Failed to update cache", e);
@@ -1466,6 +1543,11 @@ public Table getTable(String catName, String dbName, String tblName, String vali
     return parts;
   }
 
+  @Override public List<Partition> getPartitionsPage(String catName, String dbName, String tblName,
+      String lastPartName, int max) throws MetaException, NoSuchObjectException {
+    return rawStore.getPartitionsPage(catName, dbName, tblName, lastPartName, max);
+  }
+
   @Override public Map<String, String> getPartitionLocations(String catName, String dbName, String tblName,
       String baseLocationToNotShow, int max) {
     return rawStore.getPartitionLocations(catName, dbName, tblName, baseLocationToNotShow, max);
@@ -1671,6 +1753,29 @@ private boolean getPartitionNamesPrunedByExprNoTxn(Table table, byte[] expr, Str
     return expressionProxy.filterPartitionsByExpr(table.getPartitionKeys(), expr, defaultPartName, result);
   }
 
+  /**
+   * Prunes the cached partitions with the filter the expression converts to, evaluated over the
+   * partition values in the cache instead of on every partition name.
+   * @return the values of the partitions that pass the filter, or null if the expression cannot
+   *         be evaluated in memory.
+   */
+  private List<List<String>> getPartitionValuesPrunedInMemory(Table table, byte[] expr, String defaultPartName,
+      short maxParts) throws MetaException {
+    if (!MetastoreConf.getBoolVar(getConf(), ConfVars.CACHED_RAW_STORE_IN_MEMORY_PRUNING)) {
+      return null;
+    }
+    if (defaultPartName == null || defaultPartName.isEmpty()) {
+      defaultPartName = MetastoreConf.getVar(getConf(), ConfVars.DEFAULTPARTITIONNAME);
+    }
+    ExpressionTree exprTree = PartFilterExprUtil.makeExpressionTree(expressionProxy, expr, defaultPartName, getConf());
+    if (exprTree == null) {
+      return null;
+    }
+    return sharedCache.listCachedPartitionValuesByFilter(StringUtils.normalizeIdentifier(table.getCatName()),
+        StringUtils.normalizeIdentifier(table.getDbName()), StringUtils.normalizeIdentifier(table.getTableName()),
+        exprTree, defaultPartName, maxParts);
+  }
+
   @Override
   // TODO: implement using SharedCache
   public List<Partition> getPartitionsByFilter(String catName, String dbName, String tblName, String filter,
@@ -1701,12 +1806,25 @@ public List<Partition> getPartitionsByFilter(String catName, String dbName, Stri
       // The table is not yet loaded in cache
       return rawStore.getPartitionsByExpr(catName, dbName, tblName, expr, defaultPartitionName, maxParts, result);
     }
+    List<List<String>> partValsList = getPartitionValuesPrunedInMemory(table, expr, defaultPartitionName, maxParts);
+    if (partValsList != null) {
+      for (List<String> partVals : partValsList) {
+        Partition part = sharedCache.getPartitionFromCache(catName, dbName, tblName, partVals);
+        if (part != null) {
+          part.unsetPrivileges();
+          result.add(part);
+        }
+      }
+      return false;
+    }
     boolean hasUnknownPartitions =
         getPartitionNamesPrunedByExprNoTxn(table, expr, defaultPartitionName, maxParts, partNames, sharedCache);
     for (String partName : partNames) {
       Partition part = sharedCache.getPartitionFromCache(catName, dbName, tblName, partNameToVals(partName));
-      part.unsetPrivileges();
-      result.add(part);
+      if (part != null) {
+        part.unsetPrivileges();
+        result.add(part);
+      }
     }
     return hasUnknownPartitions;
   }
@@ -1731,6 +1849,10 @@ public List<Partition> getPartitionsByFilter(String catName, String dbName, Stri
       // The table is not yet loaded in cache
       return rawStore.getNumPartitionsByExpr(catName, dbName, tblName, expr);
     }
+    List<List<String>> partValsList = getPartitionValuesPrunedInMemory(table, expr, defaultPartName, Short.MAX_VALUE);
+    if (partValsList != null) {
+      return partValsList.size();
+    }
     getPartitionNamesPrunedByExprNoTxn(table, expr, defaultPartName, Short.MAX_VALUE, partNames, sharedCache);
     return partNames.size();
   }
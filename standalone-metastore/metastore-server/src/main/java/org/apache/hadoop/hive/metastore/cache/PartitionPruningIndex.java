@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore.cache;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.hadoop.hive.metastore.ColumnType;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.cache.SharedCache.PartitionWrapper;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree.LeafNode;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree.LogicalOperator;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree.Operator;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree.TreeNode;
+import org.apache.hadoop.hive.metastore.utils.MetaStoreUtils;
+
+/**
+ * The values of the cached partitions of a table, parsed once into a typed column per partition
+ * key, to prune the partitions with a filter expression tree in memory. Each leaf of the filter
+ * is evaluated over a whole column, and the results are combined as bit sets.
+ *
+ * The filter semantics follow the SQL filter pushdown of MetaStoreDirectSql: string keys are
+ * compared as strings, integral and date keys as numbers and dates, and the default partition
+ * never matches a comparison on an integral or date key. The filters the pushdown does not
+ * support are not evaluated here either.
+ */
+final class PartitionPruningIndex {
+  private enum ColumnKind {
+    STRING,
+    INTEGRAL,
+    DATE
+  }
+
+  private static final class Column {
+    private final ColumnKind kind;
+    private final String[] strings;
+    /** The integral values, or the epoch days of the dates. */
+    private final long[] longs;
+    /** The rows whose value does not parse as the column type, e.g. the default partition. */
+    private final BitSet unparsed;
+
+    private Column(ColumnKind kind, int rowCount) {
+      this.kind = kind;
+      this.strings = new String[rowCount];
+      this.longs = (kind == ColumnKind.STRING) ? null : new long[rowCount];
+      this.unparsed = new BitSet(rowCount);
+    }
+  }
+
+  private final long version;
+  private final List<FieldSchema> partitionKeys;
+  private final List<List<String>> partValues;
+  /** The columns of the partition keys; null for the key types that cannot be filtered on. */
+  private final Column[] columns;
+
+  private PartitionPruningIndex(long version, List<FieldSchema> partitionKeys,
+      List<List<String>> partValues, Column[] columns) {
+    this.version = version;
+    this.partitionKeys = partitionKeys;
+    this.partValues = partValues;
+    this.columns = columns;
+  }
+
+  /**
+   * @param version the version of the partitions of the table the index is built from.
+   */
+  static PartitionPruningIndex build(long version, List<FieldSchema> partitionKeys,
+      Collection<PartitionWrapper> wrappers) {
+    List<List<String>> partValues = new ArrayList<>(wrappers.size());
+    for (PartitionWrapper wrapper : wrappers) {
+      partValues.add(wrapper.getPartition().getValues());
+    }
+    int rowCount = partValues.size();
+    Column[] columns = new Column[partitionKeys.size()];
+    for (int colIx = 0; colIx < columns.length; ++colIx) {
+      ColumnKind kind = getColumnKind(partitionKeys.get(colIx).getType());
+      if (kind == null) {
+        continue;
+      }
+      Column column = new Column(kind, rowCount);
+      for (int row = 0; row < rowCount; ++row) {
+        List<String> values = partValues.get(row);
+        String value = (values != null && colIx < values.size()) ? values.get(colIx) : null;
+        column.strings[row] = value;
+        if (kind != ColumnKind.STRING && !parseValue(column, row, value)) {
+          column.unparsed.set(row);
+        }
+      }
+      columns[colIx] = column;
+    }
+    return new PartitionPruningIndex(version, partitionKeys, partValues, columns);
+  }
+
+  private static ColumnKind getColumnKind(String type) {
+    if (type.equals(ColumnType.STRING_TYPE_NAME)) {
+      return ColumnKind.STRING;
+    } else if (type.equals(ColumnType.DATE_TYPE_NAME)) {
+      return ColumnKind.DATE;
+    } else if (ColumnType.IntegralTypes.contains(type)) {
+      return ColumnKind.INTEGRAL;
+    }
+    return null;
+  }
+
+  private static boolean parseValue(Column column, int row, String value) {
+    if (value == null) {
+      return false;
+    }
+    if (column.kind == ColumnKind.INTEGRAL) {
+      try {
+        column.longs[row] = Long.parseLong(value);
+        return true;
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+    Long epochDay = parseDate(value);
+    if (epochDay == null) {
+      return false;
+    }
+    column.longs[row] = epochDay;
+    return true;
+  }
+
+  /**
+   * @return the epoch day of the date, or null if the value is not a date.
+   */
+  private static Long parseDate(String value) {
+    try {
+      return LocalDate.parse(value).toEpochDay();
+    } catch (DateTimeParseException e) {
+      // The partition date format is also used for the filters, and is a bit more lenient.
+    }
+    try {
+      Date date = MetaStoreUtils.PARTITION_DATE_FORMAT.get().parse(value);
+      return LocalDate.parse(MetaStoreUtils.PARTITION_DATE_FORMAT.get().format(date)).toEpochDay();
+    } catch (ParseException | DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  List<FieldSchema> getPartitionKeys() {
+    return partitionKeys;
+  }
+
+  /**
+   * Finds the partitions that pass a filter.
+   * @param max the maximum number of partitions to return, or a negative number for all of them.
+   * @return the values of the partitions, or null if the filter cannot be evaluated in memory.
+   */
+  List<List<String>> prune(ExpressionTree tree, String defaultPartName, int max) {
+    BitSet selected;
+    if (tree.getRoot() == null) {
+      selected = new BitSet(partValues.size());
+      selected.set(0, partValues.size());
+    } else {
+      selected = evaluate(tree.getRoot(), defaultPartName);
+      if (selected == null) {
+        return null;
+      }
+    }
+    int count = (max < 0) ? selected.cardinality() : Math.min(max, selected.cardinality());
+    List<List<String>> result = new ArrayList<>(count);
+    for (int row = selected.nextSetBit(0); row >= 0 && result.size() < count;
+        row = selected.nextSetBit(row + 1)) {
+      result.add(partValues.get(row));
+    }
+    return result;
+  }
+
+  private BitSet evaluate(TreeNode node, String defaultPartName) {
+    if (node instanceof LeafNode) {
+      return evaluateLeaf((LeafNode) node, defaultPartName);
+    }
+    BitSet lhs = evaluate(node.getLhs(), defaultPartName);
+    if (lhs == null) {
+      return null;
+    }
+    BitSet rhs = evaluate(node.getRhs(), defaultPartName);
+    if (rhs == null) {
+      return null;
+    }
+    if (node.getAndOr() == LogicalOperator.AND) {
+      lhs.and(rhs);
+    } else {
+      lhs.or(rhs);
+    }
+    return lhs;
+  }
+
+  private BitSet evaluateLeaf(LeafNode leaf, String defaultPartName) {
+    int colIx = -1;
+    for (int i = 0; i < partitionKeys.size(); ++i) {
+      if (partitionKeys.get(i).getName().equalsIgnoreCase(leaf.keyName)) {
+        colIx = i;
+        break;
+      }
+    }
+    if (colIx < 0 || columns[colIx] == null || leaf.value == null) {
+      return null;
+    }
+    Column column = columns[colIx];
+    Operator operator = leaf.operator;
+    if (leaf.isReverseOrder) {
+      operator = reverse(operator);
+      if (operator == null) {
+        return null;
+      }
+    }
+
+    Object value = leaf.value;
+    if (value instanceof Date) {
+      value = MetaStoreUtils.PARTITION_DATE_FORMAT.get().format((Date) value);
+      if (column.kind != ColumnKind.DATE) {
+        return null;
+      }
+    } else if (value instanceof Long) {
+      if (column.kind != ColumnKind.INTEGRAL) {
+        return null;
+      }
+    } else if (!(value instanceof String)) {
+      return null;
+    }
+
+    boolean isDefaultPartition = defaultPartName.equals(value);
+    if (column.kind == ColumnKind.STRING || isDefaultPartition) {
+      // Like the pushdown, the default partition name is compared with the values as is.
+      return (value instanceof String) ? compareStrings(column, operator, (String) value) : null;
+    }
+    if (operator == Operator.LIKE) {
+      return null;
+    }
+    long literal;
+    if (column.kind == ColumnKind.DATE) {
+      Long epochDay = parseDate(value.toString());
+      if (epochDay == null) {
+        return null;
+      }
+      literal = epochDay;
+    } else if (value instanceof Long) {
+      literal = (Long) value;
+    } else {
+      return null;
+    }
+    // The default partition does not match; other values that do not parse may match in the
+    // database, depending on how it casts them, so the filter is left to it.
+    for (int row = column.unparsed.nextSetBit(0); row >= 0; row = column.unparsed.nextSetBit(row + 1)) {
+      if (!defaultPartName.equals(column.strings[row])) {
+        return null;
+      }
+    }
+    return compareLongs(column, operator, literal);
+  }
+
+  private static Operator reverse(Operator operator) {
+    switch (operator) {
+    case LESSTHAN:
+      return Operator.GREATERTHAN;
+    case LESSTHANOREQUALTO:
+      return Operator.GREATERTHANOREQUALTO;
+    case GREATERTHAN:
+      return Operator.LESSTHAN;
+    case GREATERTHANOREQUALTO:
+      return Operator.LESSTHANOREQUALTO;
+    case LIKE:
+      return null;
+    default:
+      return operator;
+    }
+  }
+
+  private BitSet compareLongs(Column column, Operator operator, long literal) {
+    long[] longs = column.longs;
+    BitSet result = new BitSet(longs.length);
+    for (int row = 0; row < longs.length; ++row) {
+      if (matches(operator, Long.compare(longs[row], literal))) {
+        result.set(row);
+      }
+    }
+    result.andNot(column.unparsed);
+    return result;
+  }
+
+  private BitSet compareStrings(Column column, Operator operator, String literal) {
+    String[] strings = column.strings;
+    BitSet result = new BitSet(strings.length);
+    if (operator == Operator.LIKE) {
+      Pattern pattern = Pattern.compile(likeToRegex(literal), Pattern.DOTALL);
+      for (int row = 0; row < strings.length; ++row) {
+        if (strings[row] != null && pattern.matcher(strings[row]).matches()) {
+          result.set(row);
+        }
+      }
+      return result;
+    }
+    for (int row = 0; row < strings.length; ++row) {
+      if (strings[row] != null && matches(operator, strings[row].compareTo(literal))) {
+        result.set(row);
+      }
+    }
+    return result;
+  }
+
+  private static boolean matches(Operator operator, int cmp) {
+    switch (operator) {
+    case EQUALS:
+      return cmp == 0;
+    case NOTEQUALS:
+    case NOTEQUALS2:
+      return cmp != 0;
+    case LESSTHAN:
+      return cmp < 0;
+    case LESSTHANOREQUALTO:
+      return cmp <= 0;
+    case GREATERTHAN:
+      return cmp > 0;
+    case GREATERTHANOREQUALTO:
+      return cmp >= 0;
+    default:
+      throw new AssertionError("Unexpected operator " + operator);
+    }
+  }
+
+  /**
+   * Converts a SQL LIKE pattern with the backslash escape character to a regular expression.
+   */
+  static String likeToRegex(String likePattern) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < likePattern.length(); ++i) {
+      char c = likePattern.charAt(i);
+      if (c == '\\' && i + 1 < likePattern.length()) {
+        sb.append(Pattern.quote(String.valueOf(likePattern.charAt(++i))));
+      } else if (c == '%') {
+        sb.append(".*");
+      } else if (c == '_') {
+        sb.append('.');
+      } else {
+        sb.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -75,6 +75,7 @@
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.metastore.api.TableMeta;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree;
 import org.apache.hadoop.hive.metastore.txn.TxnUtils;
 import org.apache.hadoop.hive.metastore.utils.MetaStoreServerUtils;
 import org.apache.hadoop.hive.metastore.utils.StringUtils;
@@ -294,7 +295,9 @@ class TableWrapper {
     private Map<String, ColumnStatisticsObj> tableColStatsCache = new ConcurrentHashMap<String, ColumnStatisticsObj>();
     // For caching partition objects
     // Ket is partition values and the value is a wrapper around the partition object
-    private Map<String, PartitionWrapper> partitionCache = new ConcurrentHashMap<String, PartitionWrapper>();
+    // The partitions are read without the table lock; writers replace the wrapper of a partition
+    // in one put, and publish a refreshed map as a whole.
+    private volatile Map<String, PartitionWrapper> partitionCache = new ConcurrentHashMap<String, PartitionWrapper>();
     // For caching column stats for a partitioned table
     // Key is aggregate of partition values, column name and the value is the col stat object
     private Map<String, ColumnStatisticsObj> partitionColStatsCache =
@@ -304,6 +307,10 @@ class TableWrapper {
     // (all partitions and all but default)
     private Map<String, List<ColumnStatisticsObj>> aggrColStatsCache =
         new ConcurrentHashMap<String, List<ColumnStatisticsObj>>();
+    // Incremented after every change of the partition cache
+    private final AtomicLong partitionVersion = new AtomicLong();
+    // The partition values parsed for in-memory pruning; rebuilt on use after the partitions change
+    private volatile PartitionPruningIndex partitionPruningIndex;
 
     private Map<String, SQLPrimaryKey> primaryKeyCache = new ConcurrentHashMap<>();
     private Map<String, SQLForeignKey> foreignKeyCache = new ConcurrentHashMap<>();
@@ -457,8 +464,15 @@ void cachePartition(Partition part, SharedCache sharedCache) {
       try {
         tableLock.writeLock().lock();
         PartitionWrapper wrapper = makePartitionWrapper(part, sharedCache);
-        partitionCache.put(CacheUtils.buildPartitionCacheKey(part.getValues()), wrapper);
+        PartitionWrapper oldWrapper = partitionCache.put(CacheUtils.buildPartitionCacheKey(part.getValues()), wrapper);
         int size = getObjectSize(PartitionWrapper.class, wrapper);
+        if (oldWrapper != null) {
+          size -= getObjectSize(PartitionWrapper.class, oldWrapper);
+          if (oldWrapper.getSdHash() != null) {
+            sharedCache.decrSd(oldWrapper.getSdHash());
+          }
+        }
+        partitionVersion.incrementAndGet();
         updateMemberSize(MemberName.PARTITION_CACHE, size, SizeMode.Delta);
         setMemberCacheUpdated(MemberName.PARTITION_CACHE, true);
 
@@ -485,6 +499,7 @@ boolean cachePartitions(Iterable<Partition> parts, SharedCache sharedCache, bool
             setMemberCacheUpdated(MemberName.PARTITION_CACHE, true);
           }
         }
+        partitionVersion.incrementAndGet();
         updateMemberSize(MemberName.PARTITION_CACHE, size, SizeMode.Delta);
         // Invalidate cached aggregate stats
         if (!aggrColStatsCache.isEmpty()) {
@@ -672,17 +687,9 @@ public List<SQLCheckConstraint> getCheckConstraints() {
     }
 
     public Partition getPartition(List<String> partVals, SharedCache sharedCache) {
-      Partition part = null;
-      try {
-        tableLock.readLock().lock();
-        PartitionWrapper wrapper = partitionCache.get(CacheUtils.buildPartitionCacheKey(partVals));
-        if (wrapper == null) {
-          LOG.debug("Partition: " + partVals + " is not present in the cache.");
-          return null;
-        }
-        part = CacheUtils.assemble(wrapper, sharedCache);
-      } finally {
-        tableLock.readLock().unlock();
+      Partition part = readPartition(CacheUtils.buildPartitionCacheKey(partVals), null, sharedCache);
+      if (part == null) {
+        LOG.debug("Partition: " + partVals + " is not present in the cache.");
       }
       return part;
     }
@@ -690,29 +697,69 @@ public Partition getPartition(List<String> partVals, SharedCache sharedCache) {
     public List<Partition> listPartitions(int max, SharedCache sharedCache) {
       List<Partition> parts = new ArrayList<>();
       int count = 0;
-      try {
-        tableLock.readLock().lock();
-        for (PartitionWrapper wrapper : partitionCache.values()) {
-          if (max == -1 || count < max) {
-            parts.add(CacheUtils.assemble(wrapper, sharedCache));
-            count++;
-          }
+      for (PartitionWrapper wrapper : partitionCache.values()) {
+        if (max != -1 && count >= max) {
+          break;
+        }
+        Partition part = CacheUtils.assembleIfCurrent(wrapper, sharedCache);
+        if (part == null) {
+          part = readPartition(CacheUtils.buildPartitionCacheKey(wrapper.getPartition().getValues()), wrapper,
+              sharedCache);
+        }
+        if (part != null) {
+          parts.add(part);
+          count++;
         }
-      } finally {
-        tableLock.readLock().unlock();
       }
       return parts;
     }
 
     public boolean containsPartition(List<String> partVals) {
-      boolean containsPart = false;
-      try {
-        tableLock.readLock().lock();
-        containsPart = partitionCache.containsKey(CacheUtils.buildPartitionCacheKey(partVals));
-      } finally {
-        tableLock.readLock().unlock();
+      return partitionCache.containsKey(CacheUtils.buildPartitionCacheKey(partVals));
+    }
+
+    /**
+     * Prunes the partitions with a filter in memory, without the table lock. The parsed partition
+     * values are kept until the partitions change. An index built while a writer changes the
+     * partitions has an older version than the one the writer sets after the change, so it is
+     * rebuilt on the next use.
+     * @return the values of the partitions that pass the filter, or null if the filter cannot be
+     *         evaluated in memory.
+     */
+    List<List<String>> prunePartitions(ExpressionTree tree, String defaultPartName, int max) {
+      List<FieldSchema> partitionKeys = getTable().getPartitionKeys();
+      PartitionPruningIndex index = partitionPruningIndex;
+      long version = partitionVersion.get();
+      if (index == null || index.getVersion() != version || !index.getPartitionKeys().equals(partitionKeys)) {
+        index = PartitionPruningIndex.build(version, partitionKeys, partitionCache.values());
+        partitionPruningIndex = index;
+      }
+      return index.prune(tree, defaultPartName, max);
+    }
+
+    /**
+     * Reads a partition without the table lock. A writer may replace or remove the wrapper read
+     * from the map and release its storage descriptor before it is assembled; the read is then
+     * retried on the wrapper that is current in the map.
+     * @param staleWrapper a wrapper already found to be released, or null.
+     * @return the partition, or null if it is not in the cache.
+     */
+    private Partition readPartition(String key, PartitionWrapper staleWrapper, SharedCache sharedCache) {
+      PartitionWrapper wrapper = partitionCache.get(key);
+      while (wrapper != null && wrapper != staleWrapper) {
+        Partition part = CacheUtils.assembleIfCurrent(wrapper, sharedCache);
+        if (part != null) {
+          return part;
+        }
+        staleWrapper = wrapper;
+        wrapper = partitionCache.get(key);
       }
-      return containsPart;
+      // The writers publish a new wrapper before releasing the storage descriptor of the old one,
+      // so this is not expected; it is treated as a cache miss rather than failing the read.
+      if (wrapper != null) {
+        LOG.debug("The storage descriptor of the cached partition {} has been released", key);
+      }
+      return null;
     }
 
     public void removeConstraint(String name) {
@@ -877,6 +924,7 @@ public Partition removePartition(List<String> partVal, SharedCache sharedCache)
         if (wrapper == null) {
           return null;
         }
+        partitionVersion.incrementAndGet();
         setMemberCacheUpdated(MemberName.PARTITION_CACHE, true);
 
         int size = getObjectSize(PartitionWrapper.class, wrapper);
@@ -886,18 +934,7 @@ public Partition removePartition(List<String> partVal, SharedCache sharedCache)
         if (wrapper.getSdHash() != null) {
           sharedCache.decrSd(wrapper.getSdHash());
         }
-        // Remove col stats
-        String partialKey = CacheUtils.buildPartitionCacheKey(partVal);
-        Iterator<Entry<String, ColumnStatisticsObj>> iterator = partitionColStatsCache.entrySet().iterator();
-        while (iterator.hasNext()) {
-          Entry<String, ColumnStatisticsObj> entry = iterator.next();
-          String key = entry.getKey();
-          if (key.toLowerCase().startsWith(partialKey.toLowerCase())) {
-            int statsSize = getObjectSize(ColumnStatisticsObj.class, entry.getValue());
-            updateMemberSize(MemberName.PARTITION_COL_STATS_CACHE, -1 * statsSize, SizeMode.Delta);
-            iterator.remove();
-          }
-        }
+        removePartitionColStats(partVal);
 
         // Invalidate cached aggregate stats
         if (!aggrColStatsCache.isEmpty()) {
@@ -910,6 +947,20 @@ public Partition removePartition(List<String> partVal, SharedCache sharedCache)
       return part;
     }
 
+    private void removePartitionColStats(List<String> partVal) {
+      String partialKey = CacheUtils.buildPartitionCacheKey(partVal);
+      Iterator<Entry<String, ColumnStatisticsObj>> iterator = partitionColStatsCache.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Entry<String, ColumnStatisticsObj> entry = iterator.next();
+        String key = entry.getKey();
+        if (key.toLowerCase().startsWith(partialKey.toLowerCase())) {
+          int statsSize = getObjectSize(ColumnStatisticsObj.class, entry.getValue());
+          updateMemberSize(MemberName.PARTITION_COL_STATS_CACHE, -1 * statsSize, SizeMode.Delta);
+          iterator.remove();
+        }
+      }
+    }
+
     public void removePartitions(List<List<String>> partVals, SharedCache sharedCache) {
       try {
         tableLock.writeLock().lock();
@@ -924,7 +975,16 @@ public void removePartitions(List<List<String>> partVals, SharedCache sharedCach
     public void alterPartition(List<String> partVals, Partition newPart, SharedCache sharedCache) {
       try {
         tableLock.writeLock().lock();
-        removePartition(partVals, sharedCache);
+        String key = CacheUtils.buildPartitionCacheKey(partVals);
+        if (!key.equals(CacheUtils.buildPartitionCacheKey(newPart.getValues()))) {
+          removePartition(partVals, sharedCache);
+          cachePartition(newPart, sharedCache);
+          return;
+        }
+        // Replace the wrapper in one put, so that the lock-free readers never miss the partition.
+        if (partitionCache.containsKey(key)) {
+          removePartitionColStats(partVals);
+        }
         cachePartition(newPart, sharedCache);
       } finally {
         tableLock.writeLock().unlock();
@@ -940,11 +1000,11 @@ public void alterPartitionAndStats(List<String> partVals, SharedCache sharedCach
           LOG.info("Partition " + partVals + " is missing from cache. Cannot update the partition stats in cache.");
           return;
         }
-        Partition newPart = partitionWrapper.getPartition();
+        // The cached partition may be being copied by a reader, so it is not modified in place.
+        Partition newPart = partitionWrapper.getPartition().deepCopy();
         newPart.setParameters(parameters);
         newPart.setWriteId(writeId);
-        removePartition(partVals, sharedCache);
-        cachePartition(newPart, sharedCache);
+        alterPartition(partVals, newPart, sharedCache);
         updatePartitionColStats(partVals, colStatsObjs);
       } finally {
         tableLock.writeLock().unlock();
@@ -965,7 +1025,7 @@ public void alterPartitions(List<List<String>> partValsList, List<Partition> new
     }
 
     public void refreshPartitions(List<Partition> partitions, SharedCache sharedCache) {
-      Map<String, PartitionWrapper> newPartitionCache = new HashMap<String, PartitionWrapper>();
+      Map<String, PartitionWrapper> newPartitionCache = new ConcurrentHashMap<String, PartitionWrapper>();
       try {
         tableLock.writeLock().lock();
         int size = 0;
@@ -973,26 +1033,33 @@ public void refreshPartitions(List<Partition> partitions, SharedCache sharedCach
           if (compareAndSetMemberCacheUpdated(MemberName.PARTITION_CACHE, true, false)) {
             LOG.debug("Skipping partition cache update for table: " + getTable().getTableName()
                 + "; the partition list we have is dirty.");
+            releaseSds(newPartitionCache.values(), sharedCache);
             return;
           }
-          String key = CacheUtils.buildPartitionCacheKey(part.getValues());
-          PartitionWrapper wrapper = partitionCache.get(key);
-          if (wrapper != null) {
-            if (wrapper.getSdHash() != null) {
-              sharedCache.decrSd(wrapper.getSdHash());
-            }
-          }
-          wrapper = makePartitionWrapper(part, sharedCache);
-          newPartitionCache.put(key, wrapper);
+          PartitionWrapper wrapper = makePartitionWrapper(part, sharedCache);
+          newPartitionCache.put(CacheUtils.buildPartitionCacheKey(part.getValues()), wrapper);
           size += getObjectSize(PartitionWrapper.class, wrapper);
         }
+        // The readers don't take the table lock, so the old wrappers release their storage
+        // descriptors only once the new map is published; see readPartition.
+        Map<String, PartitionWrapper> oldPartitionCache = partitionCache;
         partitionCache = newPartitionCache;
+        partitionVersion.incrementAndGet();
+        releaseSds(oldPartitionCache.values(), sharedCache);
         updateMemberSize(MemberName.PARTITION_CACHE, size, SizeMode.Snapshot);
       } finally {
         tableLock.writeLock().unlock();
       }
     }
 
+    private void releaseSds(Iterable<PartitionWrapper> wrappers, SharedCache sharedCache) {
+      for (PartitionWrapper wrapper : wrappers) {
+        if (wrapper.getSdHash() != null) {
+          sharedCache.decrSd(wrapper.getSdHash());
+        }
+      }
+    }
+
     public boolean updateTableColStats(List<ColumnStatisticsObj> colStatsForTable) {
       try {
         tableLock.writeLock().lock();
@@ -2354,6 +2421,27 @@ public List<Partition> listCachedPartitions(String catName, String dbName, Strin
     return parts;
   }
 
+  /**
+   * Prunes the cached partitions of a table with a filter, evaluated over the partition values.
+   * @param max the maximum number of partitions to return, or -1 for all of them.
+   * @return the values of the partitions that pass the filter, or null if the table is not cached
+   *         or the filter cannot be evaluated in memory.
+   */
+  public List<List<String>> listCachedPartitionValuesByFilter(String catName, String dbName, String tblName,
+      ExpressionTree tree, String defaultPartName, int max) {
+    List<List<String>> partVals = null;
+    try {
+      cacheLock.readLock().lock();
+      TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
+      if (tblWrapper != null) {
+        partVals = tblWrapper.prunePartitions(tree, defaultPartName, max);
+      }
+    } finally {
+      cacheLock.readLock().unlock();
+    }
+    return partVals;
+  }
+
   public List<SQLPrimaryKey> listCachedPrimaryKeys(String catName, String dbName, String tblName) {
     List<SQLPrimaryKey> keys = new ArrayList<>();
     try {
@@ -2688,7 +2776,7 @@ public synchronized void decrSd(byte[] sdHash) {
 
   public synchronized StorageDescriptor getSdFromCache(byte[] sdHash) {
     StorageDescriptorWrapper sdWrapper = sdCache.get(new ByteArrayWrapper(sdHash));
-    return sdWrapper.getSd();
+    return sdWrapper == null ? null : sdWrapper.getSd();
   }
 
   @VisibleForTesting
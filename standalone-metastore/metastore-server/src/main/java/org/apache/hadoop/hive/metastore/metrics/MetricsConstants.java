@@ -64,6 +64,9 @@ public class MetricsConstants {
 
   public static final String DIRECTSQL_ERRORS = "directsql_errors";
 
+  public static final String AGGR_STATS_PARTSET_CACHE_HITS = "aggr_stats_partset_cache_hits";
+  public static final String AGGR_STATS_PARTSET_CACHE_MISSES = "aggr_stats_partset_cache_misses";
+
   public static final String JVM_PAUSE_INFO = "jvm.pause.info-threshold";
   public static final String JVM_PAUSE_WARN = "jvm.pause.warn-threshold";
   public static final String JVM_EXTRA_SLEEP = "jvm.pause.extraSleepTime";
@@ -351,6 +351,13 @@ public List<Partition> getPartitions(String catName, String dbName, String table
     return Collections.emptyList();
   }
 
+  @Override
+  public List<Partition> getPartitionsPage(String catName, String dbName, String tableName,
+      String lastPartName, int max) throws MetaException {
+
+    return Collections.emptyList();
+  }
+
   @Override
   public Map<String, String> getPartitionLocations(String catName, String dbName, String tblName,
       String baseLocationToNotShow, int max) {
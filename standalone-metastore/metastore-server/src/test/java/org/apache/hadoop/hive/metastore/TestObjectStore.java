@@ -34,6 +34,7 @@
 import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.AddPackageRequest;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
 import org.apache.hadoop.hive.metastore.api.DropPackageRequest;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Function;
@@ -44,6 +45,7 @@
 import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
 import org.apache.hadoop.hive.metastore.api.ListPackageRequest;
 import org.apache.hadoop.hive.metastore.api.ListStoredProcedureRequest;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NotificationEvent;
@@ -100,6 +102,7 @@
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
@@ -602,6 +605,72 @@ public void testDirectSQLDropParitionsCleanup() throws Exception {
     checkBackendTableSize("SERDES", 1); // Table has a serde
   }
 
+  /**
+   * Checks that the updates of the partition column stats invalidate the aggregates cached by
+   * {@link PartitionSetAggrStatsCache}.
+   */
+  @Test
+  public void testPartitionSetAggrStatsCacheInvalidation() throws Exception {
+    MetastoreConf.setBoolVar(conf, ConfVars.AGGREGATE_STATS_PARTSET_CACHE_ENABLED, true);
+    objectStore = new ObjectStore();
+    objectStore.setConf(conf);
+    createPartitionedTable(false, false);
+    List<String> partNames =
+        Arrays.asList("test_part_col=a0", "test_part_col=a1", "test_part_col=a2");
+    for (String partName : partNames) {
+      try (AutoCloseable c = deadline()) {
+        objectStore.updatePartitionColumnStatistics(createLongColStats(partName, 1),
+            Warehouse.getPartValuesFromPartName(partName), null, -1);
+      }
+    }
+    PartitionSetAggrStatsCache cache = PartitionSetAggrStatsCache.getInstance(conf);
+    Assert.assertEquals(3, getNumNullsAggregate(partNames));
+    long cacheHits = cache.getCacheHits();
+    Assert.assertEquals(3, getNumNullsAggregate(partNames));
+    Assert.assertEquals(cacheHits + 1, cache.getCacheHits());
+
+    // Update the stats of a single partition
+    try (AutoCloseable c = deadline()) {
+      objectStore.updatePartitionColumnStatistics(createLongColStats("test_part_col=a0", 10),
+          Arrays.asList("a0"), null, -1);
+    }
+    Assert.assertEquals(12, getNumNullsAggregate(partNames));
+
+    // Update the stats of the other partitions in a batch, through direct SQL
+    Map<String, ColumnStatistics> partColStatsMap = new HashMap<>();
+    partColStatsMap.put("test_part_col=a1", createLongColStats("test_part_col=a1", 20));
+    partColStatsMap.put("test_part_col=a2", createLongColStats("test_part_col=a2", 20));
+    try (AutoCloseable c = deadline()) {
+      Table table = objectStore.getTable(DEFAULT_CATALOG_NAME, DB1, TABLE1);
+      objectStore.updatePartitionColumnStatisticsInBatch(partColStatsMap, table, null, null, -1);
+    }
+    Assert.assertEquals(50, getNumNullsAggregate(partNames));
+  }
+
+  private ColumnStatistics createLongColStats(String partName, long numNulls) {
+    ColumnStatisticsDesc desc = new ColumnStatisticsDesc(false, DB1, TABLE1);
+    desc.setCatName(DEFAULT_CATALOG_NAME);
+    desc.setPartName(partName);
+    ColumnStatisticsData data = new ColumnStatisticsData();
+    LongColumnStatsData longStats = new LongColumnStatsData(numNulls, 5);
+    longStats.setLowValue(0);
+    longStats.setHighValue(100);
+    data.setLongStats(longStats);
+    ColumnStatistics stats = new ColumnStatistics(desc,
+        Collections.singletonList(new ColumnStatisticsObj("test_col1", "int", data)));
+    stats.setEngine(ENGINE);
+    return stats;
+  }
+
+  private long getNumNullsAggregate(List<String> partNames) throws Exception {
+    try (AutoCloseable c = deadline()) {
+      AggrStats aggrStats = objectStore.get_aggr_stats_for(DEFAULT_CATALOG_NAME, DB1, TABLE1,
+          partNames, Collections.singletonList("test_col1"), ENGINE);
+      Assert.assertEquals(3, aggrStats.getPartsFound());
+      return aggrStats.getColStats().get(0).getStatsData().getLongStats().getNumNulls();
+    }
+  }
+
   /**
    * Creates DB1 database, TABLE1 table with 3 partitions.
    * @param withPrivileges Should we create privileges as well
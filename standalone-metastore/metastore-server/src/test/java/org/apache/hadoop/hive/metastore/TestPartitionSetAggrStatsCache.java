@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.apache.hadoop.hive.metastore.Warehouse.DEFAULT_CATALOG_NAME;
+
+/**
+ * Unit tests for PartitionSetAggrStatsCache.
+ */
+@Category(MetastoreUnitTest.class)
+public class TestPartitionSetAggrStatsCache {
+  private static final String DB_NAME = "db";
+  private static final String TBL_NAME = "tbl";
+  private static final String ENGINE = "hive";
+
+  private PartitionSetAggrStatsCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new PartitionSetAggrStatsCache(1024 * 1024, TimeUnit.MINUTES.toMillis(10));
+  }
+
+  private static ColumnStatisticsObj createColStats(String colName, long numDVs) {
+    LongColumnStatsData longStats = new LongColumnStatsData(0, numDVs);
+    longStats.setLowValue(0);
+    longStats.setHighValue(100);
+    ColumnStatisticsData data = new ColumnStatisticsData();
+    data.setLongStats(longStats);
+    return new ColumnStatisticsObj(colName, "bigint", data);
+  }
+
+  private PartitionSetAggrStatsCache.AggrColStats get(String colName, byte[] digest) {
+    return cache.get(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME, ENGINE, colName, digest);
+  }
+
+  private void add(String colName, byte[] digest, ColumnStatisticsObj colStats, long generation) {
+    cache.add(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME, ENGINE, colName, digest, colStats, true,
+        generation);
+  }
+
+  @Test
+  public void testDigest() {
+    List<String> partNames = Arrays.asList("ds=1", "ds=2", "ds=3");
+    byte[] digest = PartitionSetAggrStatsCache.digest(partNames, null);
+    Assert.assertArrayEquals(digest,
+        PartitionSetAggrStatsCache.digest(Arrays.asList("ds=3", "ds=1", "ds=2"), null));
+    Assert.assertFalse(Arrays.equals(digest,
+        PartitionSetAggrStatsCache.digest(Arrays.asList("ds=1", "ds=2"), null)));
+
+    Map<String, Long> writeIds = new HashMap<>();
+    writeIds.put("ds=1", 5L);
+    byte[] writeIdDigest = PartitionSetAggrStatsCache.digest(partNames, writeIds);
+    Assert.assertFalse(Arrays.equals(digest, writeIdDigest));
+    writeIds.put("ds=1", 6L);
+    Assert.assertFalse(Arrays.equals(writeIdDigest,
+        PartitionSetAggrStatsCache.digest(partNames, writeIds)));
+  }
+
+  @Test
+  public void testAddAndGet() {
+    byte[] digest = PartitionSetAggrStatsCache.digest(Arrays.asList("ds=1", "ds=2"), null);
+    long generation = cache.getGeneration(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME);
+    Assert.assertNull(get("col1", digest));
+    add("col1", digest, createColStats("col1", 10), generation);
+
+    PartitionSetAggrStatsCache.AggrColStats cached = get("col1", digest);
+    Assert.assertNotNull(cached);
+    Assert.assertTrue(cached.areAllPartsFound());
+    Assert.assertEquals(10, cached.getColStats().getStatsData().getLongStats().getNumDVs());
+    // The names are case insensitive, but other partitions or columns do not match
+    Assert.assertNotNull(cache.get(DEFAULT_CATALOG_NAME, "DB", "Tbl", ENGINE, "col1", digest));
+    Assert.assertNull(get("col2", digest));
+    Assert.assertNull(get("col1", PartitionSetAggrStatsCache.digest(Arrays.asList("ds=1"), null)));
+    Assert.assertEquals(2, cache.getCacheHits());
+    Assert.assertEquals(3, cache.getCacheMisses());
+
+    // The callers can not modify the cached stats
+    cached.getColStats().getStatsData().getLongStats().setNumDVs(20);
+    Assert.assertEquals(10, get("col1", digest).getColStats().getStatsData().getLongStats().getNumDVs());
+  }
+
+  @Test
+  public void testInvalidate() {
+    byte[] digest = PartitionSetAggrStatsCache.digest(Arrays.asList("ds=1", "ds=2"), null);
+    long generation = cache.getGeneration(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME);
+    add("col1", digest, createColStats("col1", 10), generation);
+    cache.add(DEFAULT_CATALOG_NAME, DB_NAME, "other", ENGINE, "col1", digest,
+        createColStats("col1", 10), true, 0);
+
+    cache.invalidate(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME.toUpperCase());
+    Assert.assertNull(get("col1", digest));
+    Assert.assertNotNull(cache.get(DEFAULT_CATALOG_NAME, DB_NAME, "other", ENGINE, "col1", digest));
+
+    // The stats read before the invalidation are not added
+    add("col1", digest, createColStats("col1", 10), generation);
+    Assert.assertNull(get("col1", digest));
+    add("col1", digest, createColStats("col1", 10),
+        cache.getGeneration(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME));
+    Assert.assertNotNull(get("col1", digest));
+  }
+
+  @Test
+  public void testPruneGenerations() throws Exception {
+    cache = new PartitionSetAggrStatsCache(1024 * 1024, 100);
+    byte[] digest = PartitionSetAggrStatsCache.digest(Arrays.asList("ds=1", "ds=2"), null);
+    cache.invalidate(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME);
+    long generation = cache.getGeneration(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME);
+    Assert.assertTrue(generation > 0);
+    add("col1", digest, createColStats("col1", 10), generation);
+    Assert.assertEquals(1, cache.getTableGenerationCount());
+
+    Thread.sleep(200);
+    // The next invalidation drops the generation of the table, whose entries have all expired
+    cache.invalidate(DEFAULT_CATALOG_NAME, DB_NAME, "other");
+    Assert.assertEquals(1, cache.getTableGenerationCount());
+    Assert.assertEquals(0, cache.getGeneration(DEFAULT_CATALOG_NAME, DB_NAME, TBL_NAME));
+    Assert.assertNull(get("col1", digest));
+    // The stats read at the dropped generation are not added either
+    add("col1", digest, createColStats("col1", 10), generation);
+    Assert.assertNull(get("col1", digest));
+  }
+
+  @Test
+  public void testMaxMemory() {
+    cache = new PartitionSetAggrStatsCache(4096, TimeUnit.MINUTES.toMillis(10));
+    for (int i = 0; i < 100; ++i) {
+      byte[] digest = PartitionSetAggrStatsCache.digest(Arrays.asList("ds=" + i), null);
+      add("col1", digest, createColStats("col1", i), 0);
+    }
+    Assert.assertTrue(cache.getCacheSize() > 0);
+    Assert.assertTrue(cache.getCacheSize() < 100);
+  }
+}
@@ -101,6 +101,19 @@ public List<Partition> getPartitions(
     return sqlResults;
   }
 
+  @Override
+  public List<Partition> getPartitionsPage(String catName, String dbName, String tableName,
+      String lastPartName, int maxParts) throws MetaException, NoSuchObjectException {
+    openTransaction();
+    List<Partition> sqlResults = getPartitionsPageInternal(catName, dbName, tableName, lastPartName, maxParts,
+        true, false);
+    List<Partition> ormResults = getPartitionsPageInternal(catName, dbName, tableName, lastPartName, maxParts,
+        false, true);
+    verifyLists(sqlResults, ormResults, Partition.class);
+    commitTransaction();
+    return sqlResults;
+  }
+
   @Override
   public ColumnStatistics getTableColumnStatistics(String catName, String dbName,
       String tableName, List<String> colNames, String engine) throws MetaException, NoSuchObjectException {
@@ -26,7 +26,9 @@
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
@@ -1350,6 +1352,131 @@ public Object call() {
     cachedStore.shutdown();
   }
 
+  @Test public void testConcurrentPartitionReadsAndAlters() throws Exception {
+    Configuration conf = MetastoreConf.newMetastoreConf();
+    MetastoreConf.setBoolVar(conf, MetastoreConf.ConfVars.HIVE_IN_TEST, true);
+    MetastoreConf.setVar(conf, MetastoreConf.ConfVars.CACHED_RAW_STORE_MAX_CACHE_MEMORY, "-1Kb");
+    MetaStoreTestUtils.setConfForStandloneMode(conf);
+    CachedStore cachedStore = new CachedStore();
+    CachedStore.clearSharedCache();
+    cachedStore.setConfForTest(conf);
+    SharedCache sharedCache = CachedStore.getSharedCache();
+    String dbName = "db1";
+    String tblName = "tbl1";
+    sharedCache.addDatabaseToCache(createDatabaseObject(dbName, "user1"));
+    List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", "integer column"));
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+        createTable(dbName, tblName, cols, new ArrayList<>()));
+    List<String> partVals = Arrays.asList("201701");
+    sharedCache.addPartitionToCache(DEFAULT_CATALOG_NAME, dbName, tblName, createVersionedPartition(partVals, 0));
+
+    // Every alter changes the storage descriptor, so the one of the old wrapper is released.
+    int alters = 500;
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        readers.add(executor.submit(() -> {
+          while (!done.get()) {
+            Partition p = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName, partVals);
+            Assert.assertNotNull(p);
+            Assert.assertEquals(p.getSd().getLocation(), "loc" + p.getSd().getCols().get(0).getName().substring(3));
+            Assert.assertEquals(1, sharedCache.listCachedPartitions(DEFAULT_CATALOG_NAME, dbName, tblName, -1).size());
+          }
+          return null;
+        }));
+      }
+      for (int i = 1; i <= alters; i++) {
+        sharedCache.alterPartitionInCache(DEFAULT_CATALOG_NAME, dbName, tblName, partVals,
+            createVersionedPartition(partVals, i));
+      }
+      done.set(true);
+      for (Future<?> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      done.set(true);
+      executor.shutdownNow();
+    }
+    Partition p = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName, partVals);
+    Assert.assertEquals(p.getSd().getLocation(), "loc" + alters);
+    // The table and the partition storage descriptors.
+    Assert.assertEquals(2, sharedCache.getSdCache().size());
+    cachedStore.shutdown();
+  }
+
+  @Test public void testConcurrentPartitionReadsAndRefreshes() throws Exception {
+    Configuration conf = MetastoreConf.newMetastoreConf();
+    MetastoreConf.setBoolVar(conf, MetastoreConf.ConfVars.HIVE_IN_TEST, true);
+    MetastoreConf.setVar(conf, MetastoreConf.ConfVars.CACHED_RAW_STORE_MAX_CACHE_MEMORY, "-1Kb");
+    MetaStoreTestUtils.setConfForStandloneMode(conf);
+    CachedStore cachedStore = new CachedStore();
+    CachedStore.clearSharedCache();
+    cachedStore.setConfForTest(conf);
+    SharedCache sharedCache = CachedStore.getSharedCache();
+    String dbName = "db1";
+    String tblName = "tbl1";
+    sharedCache.addDatabaseToCache(createDatabaseObject(dbName, "user1"));
+    List<FieldSchema> cols = Arrays.asList(new FieldSchema("col1", "int", "integer column"));
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+        createTable(dbName, tblName, cols, new ArrayList<>()));
+    List<String> partVals1 = Arrays.asList("201701");
+    List<String> partVals2 = Arrays.asList("201702");
+    sharedCache.refreshPartitionsInCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+        Arrays.asList(createVersionedPartition(partVals1, 0), createVersionedPartition(partVals2, 0)));
+
+    // Every refresh replaces the whole partition map, and changes the storage descriptors.
+    int refreshes = 500;
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        readers.add(executor.submit(() -> {
+          while (!done.get()) {
+            Partition p = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName, partVals1);
+            Assert.assertNotNull(p);
+            Assert.assertEquals(p.getSd().getLocation(), "loc" + p.getSd().getCols().get(0).getName().substring(3));
+            List<Partition> parts = sharedCache.listCachedPartitions(DEFAULT_CATALOG_NAME, dbName, tblName, -1);
+            Assert.assertEquals(2, parts.size());
+            for (Partition part : parts) {
+              Assert.assertNotNull(part.getSd());
+            }
+          }
+          return null;
+        }));
+      }
+      for (int i = 1; i <= refreshes; i++) {
+        sharedCache.refreshPartitionsInCache(DEFAULT_CATALOG_NAME, dbName, tblName,
+            Arrays.asList(createVersionedPartition(partVals1, i), createVersionedPartition(partVals2, i)));
+      }
+      done.set(true);
+      for (Future<?> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      done.set(true);
+      executor.shutdownNow();
+    }
+    Partition p = sharedCache.getPartitionFromCache(DEFAULT_CATALOG_NAME, dbName, tblName, partVals2);
+    Assert.assertEquals(p.getSd().getLocation(), "loc" + refreshes);
+    // The table storage descriptor, and the one shared by the two partitions; the old ones are released.
+    Assert.assertEquals(2, sharedCache.getSdCache().size());
+    cachedStore.shutdown();
+  }
+
+  private Partition createVersionedPartition(List<String> partVals, int version) {
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(Arrays.asList(new FieldSchema("col" + version, "int", "")));
+    sd.setParameters(new HashMap<>());
+    sd.setLocation("loc" + version);
+    Partition part = new Partition();
+    part.setSd(sd);
+    part.setValues(partVals);
+    return part;
+  }
+
   @Test public void testPartitionSize() {
     Configuration conf = MetastoreConf.newMetastoreConf();
     MetastoreConf.setBoolVar(conf, MetastoreConf.ConfVars.HIVE_IN_TEST, true);
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.metastore.PartFilterExprUtil;
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.cache.SharedCache.PartitionWrapper;
+import org.apache.hadoop.hive.metastore.parser.ExpressionTree;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for PartitionPruningIndex.
+ */
+@Category(MetastoreUnitTest.class)
+public class TestPartitionPruningIndex {
+  private static final String DEFAULT_PART_NAME = "__HIVE_DEFAULT_PARTITION__";
+
+  private PartitionPruningIndex index;
+
+  @Before
+  public void setUp() {
+    List<FieldSchema> partitionKeys = Arrays.asList(new FieldSchema("ds", "string", ""),
+        new FieldSchema("hr", "int", ""), new FieldSchema("dt", "date", ""));
+    List<PartitionWrapper> wrappers = new ArrayList<>();
+    wrappers.add(makeWrapper("a", "1", "2020-01-01"));
+    wrappers.add(makeWrapper("b", "2", "2020-01-02"));
+    wrappers.add(makeWrapper("b_c", DEFAULT_PART_NAME, "2020-01-03"));
+    wrappers.add(makeWrapper("c", "10", DEFAULT_PART_NAME));
+    index = PartitionPruningIndex.build(1, partitionKeys, wrappers);
+  }
+
+  private static PartitionWrapper makeWrapper(String... values) {
+    Partition part = new Partition();
+    part.setValues(Arrays.asList(values));
+    return new PartitionWrapper(part, null, null, null);
+  }
+
+  private Set<String> prune(String filter) throws MetaException {
+    ExpressionTree tree = PartFilterExprUtil.getFilterParser(filter).tree;
+    List<List<String>> partVals = index.prune(tree, DEFAULT_PART_NAME, -1);
+    if (partVals == null) {
+      return null;
+    }
+    Set<String> result = new HashSet<>();
+    for (List<String> vals : partVals) {
+      result.add(vals.get(0));
+    }
+    return result;
+  }
+
+  private static Set<String> set(String... values) {
+    return new HashSet<>(Arrays.asList(values));
+  }
+
+  @Test
+  public void testStringKey() throws Exception {
+    Assert.assertEquals(set("b", "b_c"), prune("ds >= \"b\" and ds < \"c\""));
+    Assert.assertEquals(set("a", "c"), prune("ds = \"a\" or \"c\" <= ds"));
+    Assert.assertEquals(set("b_c"), prune("ds like \"b\\_%\""));
+    Assert.assertEquals(set("a", "b", "b_c", "c"), prune("ds like \"%\""));
+  }
+
+  @Test
+  public void testIntegralKey() throws Exception {
+    // The default partition does not match the comparisons on integral keys.
+    Assert.assertEquals(set("b", "c"), prune("hr > 1"));
+    Assert.assertEquals(set("a", "b", "c"), prune("hr <> 5"));
+    Assert.assertEquals(set("b"), prune("5 > hr and ds = \"b\""));
+    Assert.assertEquals(set("b_c"), prune("hr = \"" + DEFAULT_PART_NAME + "\""));
+    // Strings are not compared with integral keys.
+    Assert.assertNull(prune("hr = \"2\""));
+  }
+
+  @Test
+  public void testDateKey() throws Exception {
+    Assert.assertEquals(set("b", "b_c"), prune("dt >= 2020-01-02"));
+    Assert.assertEquals(set("a"), prune("dt < \"2020-01-02\""));
+    Assert.assertNull(prune("dt = 5"));
+  }
+
+  @Test
+  public void testUnsupportedFilters() throws Exception {
+    Assert.assertNull(prune("other = \"a\""));
+    Assert.assertNull(prune("\"a\" like ds"));
+    Assert.assertNull(prune("hr like \"1%\""));
+  }
+
+  @Test
+  public void testMaxParts() throws Exception {
+    Assert.assertEquals(4, index.prune(ExpressionTree.EMPTY_TREE, DEFAULT_PART_NAME, -1).size());
+    Assert.assertEquals(2, index.prune(ExpressionTree.EMPTY_TREE, DEFAULT_PART_NAME, 2).size());
+  }
+}
@@ -310,6 +310,47 @@ public void testGetPartitionsRequest() throws Exception {
     assertTrue(res.getPartitions().isEmpty());
   }
 
+  /**
+   * Testing getPartitionsRequest(PartitionsRequest) ->
+   *         get_partitions_req(PartitionsRequest) with a continuation token.
+   */
+  @Test
+  @ConditionalIgnoreOnSessionHiveMetastoreClient
+  public void testGetPartitionsRequestPaged() throws Exception {
+    List<List<String>> testValues = createTable4PartColsParts(client).testValues;
+    PartitionsRequest req = new PartitionsRequest(DB_NAME, TABLE_NAME);
+    req.setCatName(MetaStoreUtils.getDefaultCatalog(metaStore.getConf()));
+    req.setMaxParts((short)3);
+    req.setContinuationToken("");
+    PartitionsResponse res = client.getPartitionsRequest(req);
+    assertPartitionsHaveCorrectValues(res.getPartitions(), testValues.subList(0, 3));
+    assertEquals("yyyy=2017/mm=10/dd=26", res.getContinuationToken());
+
+    req.setContinuationToken(res.getContinuationToken());
+    res = client.getPartitionsRequest(req);
+    assertPartitionsHaveCorrectValues(res.getPartitions(), testValues.subList(3, 4));
+    assertEquals("", res.getContinuationToken());
+
+    // A full last page is followed by an empty one.
+    req.setMaxParts((short)2);
+    req.setContinuationToken("yyyy=2009/mm=02/dd=10");
+    res = client.getPartitionsRequest(req);
+    assertPartitionsHaveCorrectValues(res.getPartitions(), testValues.subList(2, 4));
+    req.setContinuationToken(res.getContinuationToken());
+    res = client.getPartitionsRequest(req);
+    assertTrue(res.getPartitions().isEmpty());
+    assertEquals("", res.getContinuationToken());
+  }
+
+  @Test(expected = MetaException.class)
+  @ConditionalIgnoreOnSessionHiveMetastoreClient
+  public void testGetPartitionsRequestPagedNoMaxParts() throws Exception {
+    createTable4PartColsParts(client);
+    PartitionsRequest req = new PartitionsRequest(DB_NAME, TABLE_NAME);
+    req.setContinuationToken("");
+    client.getPartitionsRequest(req);
+  }
+
   @Test(expected = MetaException.class)
   @ConditionalIgnoreOnSessionHiveMetastoreClient
   public void testListPartitionsAllHighMaxParts() throws Exception {